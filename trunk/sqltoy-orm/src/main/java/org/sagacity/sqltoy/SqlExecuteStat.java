@@ -8,6 +8,7 @@ import java.time.LocalTime;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -203,6 +204,17 @@ public class SqlExecuteStat {
 						+ (content == null ? "" : ":" + StringUtil.fillArgs(content, args)));
 			}
 		}
+		Map<String, Long> legTimes = sqlTrace.getLegTimes();
+		if (legTimes != null) {
+			StringBuilder legStr = new StringBuilder();
+			for (Map.Entry<String, Long> leg : legTimes.entrySet()) {
+				if (legStr.length() > 0) {
+					legStr.append(",");
+				}
+				legStr.append(leg.getKey()).append("=").append(leg.getValue()).append("ms");
+			}
+			result.append("\n/*|并行耗时: ").append(legStr);
+		}
 		result.append("\n/*|----------------------完成执行报告输出 --------------------------------------------------*/");
 		result.append("\n");
 		if (sqlTrace.isError()) {
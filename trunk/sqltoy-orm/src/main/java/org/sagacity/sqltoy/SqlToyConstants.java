@@ -223,6 +223,71 @@ public class SqlToyConstants {
 		return Integer.parseInt(getKeyValue("sqltoy.translate.cache.expire.seconds", "3600"));
 	}
 
+	/**
+	 * @TODO 缓存翻译数据重新加载期间是否继续使用上一次加载的数据(stale-while-revalidate)
+	 * @return
+	 */
+	public static boolean translateStaleWhileRevalidate() {
+		return Boolean.parseBoolean(getKeyValue("sqltoy.translate.cache.stale.while.revalidate", "false"));
+	}
+
+	/**
+	 * @TODO 等待其他线程加载同一缓存翻译数据的最长时间(秒),超时则自行加载
+	 * @return
+	 */
+	public static int getTranslateLoadWaitSeconds() {
+		return Integer.parseInt(getKeyValue("sqltoy.translate.cache.load.wait.seconds", "30"));
+	}
+
+	/**
+	 * @TODO 缓存更新检测任务的超时时长(秒),超时的检测被终止且不推进检测时间
+	 * @return
+	 */
+	public static int getTranslateCheckerTimeoutSeconds() {
+		return Integer.parseInt(getKeyValue("sqltoy.translate.checker.timeout.seconds", "60"));
+	}
+
+	/**
+	 * @TODO 缓存更新检测的随机错峰时长上限(秒),避免多个检测或集群节点集中在同一时刻执行
+	 * @return
+	 */
+	public static int getTranslateCheckerJitterSeconds() {
+		return Integer.parseInt(getKeyValue("sqltoy.translate.checker.jitter.seconds", "2"));
+	}
+
+	/**
+	 * @TODO 并发执行缓存更新检测的线程数
+	 * @return
+	 */
+	public static int getTranslateCheckerThreads() {
+		return Integer.parseInt(getKeyValue("sqltoy.translate.checker.threads", "4"));
+	}
+
+	/**
+	 * @TODO 缓存翻译快照存放路径(为空表示不启用快照),启用后缓存加载后写入本地快照,应用启动时直接装载快照
+	 * @return
+	 */
+	public static String getTranslateSnapshotPath() {
+		return getKeyValue("sqltoy.translate.cache.snapshot.path", "");
+	}
+
+	/**
+	 * @TODO 缓存反向匹配key(cacheMatchKeys)使用倒排索引的缓存记录数阈值(小于0表示不使用),索引按名称列构建并常驻内存
+	 * @return
+	 */
+	public static int getCacheMatchIndexThreshold() {
+		return Integer.parseInt(getKeyValue("sqltoy.translate.cache.match.index.threshold", "-1"));
+	}
+
+	/**
+	 * @TODO 启动时并行装载缓存翻译快照的线程数
+	 * @return
+	 */
+	public static int getTranslateSnapshotParallelism() {
+		return Integer.parseInt(getKeyValue("sqltoy.translate.cache.snapshot.parallelism",
+				Integer.toString(Runtime.getRuntime().availableProcessors())));
+	}
+
 	/**
 	 * @todo db2 是否为查询语句自动补充with ur进行脏读
 	 * @return
@@ -258,6 +323,22 @@ public class SqlToyConstants {
 		return Long.parseLong(getKeyValue("sqltoy.fetch.result.max.thresholds", "999999999999"));
 	}
 
+	/**
+	 * @TODO 查询结果是否在全部读取后按列批量做缓存翻译(默认逐行读取时翻译)
+	 * @return
+	 */
+	public static boolean isColumnarTranslate() {
+		return Boolean.parseBoolean(getKeyValue("sqltoy.translate.columnar", "false"));
+	}
+
+	/**
+	 * @TODO 按列批量翻译时,结果行数达到此值则并行回填翻译结果(小于等于0表示不并行)
+	 * @return
+	 */
+	public static int getColumnarTranslateParallelThreshold() {
+		return Integer.parseInt(getKeyValue("sqltoy.translate.columnar.parallel.threshold", "50000"));
+	}
+
 	/**
 	 * @todo oracle分页是否忽视排序导致错乱的问题
 	 * @return
@@ -376,6 +457,79 @@ public class SqlToyConstants {
 		return Integer.parseInt(getKeyValue("sqltoy.loadAll.batchsize", "1000"));
 	}
 
+	/**
+	 * @TODO 获取sql编译模板缓存的最大数量(0表示不启用编译模板)
+	 * @return
+	 */
+	public static int getSqlTemplateCacheSize() {
+		return Integer.parseInt(getKeyValue("sqltoy.sql.template.cache.size", "5000"));
+	}
+
+	/**
+	 * @TODO 获取分页优化缓存后台清理过期记录的间隔秒数(小于1表示不做后台清理)
+	 * @return
+	 */
+	public static int getPageOptimizeSweepSeconds() {
+		return Integer.parseInt(getKeyValue("sqltoy.page.optimize.sweep.seconds", "30"));
+	}
+
+	/**
+	 * @TODO 获取单个连接(事务)内PreparedStatement缓存的最大数量(小于1表示不启用)
+	 * @return
+	 */
+	public static int getStatementCacheSize() {
+		return Integer.parseInt(getKeyValue("sqltoy.statement.cache.size", "0"));
+	}
+
+	/**
+	 * @TODO 获取启用PreparedStatement缓存的数据库方言,逗号分隔(为空表示全部)
+	 * @return
+	 */
+	public static String getStatementCacheDialects() {
+		return getKeyValue("sqltoy.statement.cache.dialects", "");
+	}
+
+	/**
+	 * @TODO 获取saveAll启用多行values合并插入的数据库方言,逗号分隔(如:mysql,postgresql,clickhouse),为空表示不启用
+	 * @return
+	 */
+	public static String getMultiValuesInsertDialects() {
+		return getKeyValue("sqltoy.save.multi.values.dialects", "");
+	}
+
+	/**
+	 * @TODO 获取多行values合并插入单条语句的参数数量上限(可按方言单独设置:sqltoy.save.multi.values.max.params.postgresql)
+	 * @param dialect
+	 * @param defaultValue 数据库驱动的绑定参数上限
+	 * @return
+	 */
+	public static int getMultiValuesMaxParams(String dialect, int defaultValue) {
+		String value = getKeyValue("sqltoy.save.multi.values.max.params." + dialect);
+		if (StringUtil.isBlank(value)) {
+			value = getKeyValue("sqltoy.save.multi.values.max.params");
+		}
+		if (StringUtil.isBlank(value)) {
+			return defaultValue;
+		}
+		return Math.min(Integer.parseInt(value.trim()), defaultValue);
+	}
+
+	/**
+	 * @TODO 获取分库分表批量写入时单个子批次的最大记录数,分组记录数超过时拆分成多个子批次执行(小于1表示不拆分)
+	 * @return
+	 */
+	public static int getShardingBatchChunkSize() {
+		return Integer.parseInt(getKeyValue("sqltoy.sharding.batch.chunk.size", "5000"));
+	}
+
+	/**
+	 * @TODO 同一分片拆分出的多个子批次是否并行执行(默认否,同一分片的子批次在同一任务中顺序执行,避免单库被多个连接同时写入)
+	 * @return
+	 */
+	public static boolean isShardingBatchChunkParallel() {
+		return Boolean.parseBoolean(getKeyValue("sqltoy.sharding.batch.chunk.parallel", "false"));
+	}
+
 	/**
 	 * @TODO 是否打开sql签名
 	 * @return
@@ -18,18 +18,27 @@ import org.sagacity.sqltoy.model.QueryExecutor;
 import org.sagacity.sqltoy.plugins.IUnifyFieldsHandler;
 import org.sagacity.sqltoy.plugins.TypeHandler;
 import org.sagacity.sqltoy.plugins.datasource.ConnectionFactory;
+import org.sagacity.sqltoy.plugins.datasource.DataSourceRouter;
 import org.sagacity.sqltoy.plugins.datasource.DataSourceSelector;
+import org.sagacity.sqltoy.plugins.datasource.StatementCache;
 import org.sagacity.sqltoy.plugins.datasource.impl.DefaultConnectionFactory;
 import org.sagacity.sqltoy.plugins.datasource.impl.DefaultDataSourceSelector;
+import org.sagacity.sqltoy.plugins.datasource.impl.ReadWriteDataSourceSelector;
+import org.sagacity.sqltoy.plugins.executor.ExecutorManager;
+import org.sagacity.sqltoy.plugins.http.HttpClientManager;
 import org.sagacity.sqltoy.plugins.function.FunctionUtils;
+import org.sagacity.sqltoy.plugins.page.PageCountCache;
+import org.sagacity.sqltoy.plugins.page.impl.DefaultPageCountCache;
 import org.sagacity.sqltoy.plugins.secure.DesensitizeProvider;
 import org.sagacity.sqltoy.plugins.secure.FieldsSecureProvider;
 import org.sagacity.sqltoy.plugins.secure.impl.DesensitizeDefaultProvider;
 import org.sagacity.sqltoy.plugins.secure.impl.FieldsRSASecureProvider;
 import org.sagacity.sqltoy.plugins.sharding.ShardingStrategy;
+import org.sagacity.sqltoy.translate.CacheChangeSource;
 import org.sagacity.sqltoy.translate.TranslateManager;
 import org.sagacity.sqltoy.translate.cache.TranslateCacheManager;
 import org.sagacity.sqltoy.translate.cache.impl.TranslateCaffeineManager;
+import org.sagacity.sqltoy.translate.cache.impl.TranslateMappedFileManager;
 import org.sagacity.sqltoy.utils.BeanUtil;
 import org.sagacity.sqltoy.utils.DataSourceUtils.Dialect;
 import org.sagacity.sqltoy.utils.ReservedWordsUtil;
@@ -67,6 +76,11 @@ import org.springframework.context.ApplicationContextAware;
  * @modify {Date:2018-1-5,增加对redis缓存翻译的支持}
  * @modify {Date:2019-09-15,将跨数据库函数FunctionConverts统一提取到FunctionUtils中,实现不同数据库函数替换后的语句放入缓存,避免每次执行函数替换}
  * @modify {Date:2020-05-29,调整mongo的注入方式,剔除之前MongoDbFactory模式,直接使用MongoTemplate}
+ * @modify {Date:2026-10-18,cacheType增加mapped(基于内存映射文件的缓存翻译)}
+ * @modify {Date:2026-10-18,增加cacheChangeSources,支持外部主动推送缓存变更事件}
+ * @modify {Date:2026-10-18,增加httpClientManager统一管理http连接池,销毁时关闭elastic restClient}
+ * @modify {Date:2026-10-18,增加dataSourceRouter统计数据源延时和健康状况,用于分库路由}
+ * @modify {Date:2026-10-18,支持ReadWriteDataSourceSelector读写分离的初始化和销毁}
  */
 public class SqlToyContext implements ApplicationContextAware {
 	/**
@@ -109,6 +123,11 @@ public class SqlToyContext implements ApplicationContextAware {
 	 */
 	private IUnifyFieldsHandler unifyFieldsHandler;
 
+	/**
+	 * 主动推送缓存变更的事件来源(如消息队列、本地事件),与定时检测并存
+	 */
+	private List<CacheChangeSource> cacheChangeSources;
+
 	/**
 	 * 具体缓存实现(默认ehcache,可以根据自己喜好来自行扩展实现,sqltoy习惯将有争议的提供默认实现但用户可自行选择)
 	 */
@@ -144,7 +163,7 @@ public class SqlToyContext implements ApplicationContextAware {
 	private String defaultElastic = "default";
 
 	/**
-	 * 缓存类型，默认ehcache(可选:caffeine)
+	 * 缓存类型，默认ehcache(可选:caffeine、mapped(内存映射文件))
 	 */
 	private String cacheType = "ehcache";
 
@@ -227,6 +246,31 @@ public class SqlToyContext implements ApplicationContextAware {
 	 */
 	private ConnectionFactory connectionFactory = new DefaultConnectionFactory();
 
+	/**
+	 * 并行执行(并行分页、并行查询、分库分表并行)共享的线程池管理
+	 */
+	private ExecutorManager executorManager = new ExecutorManager();
+
+	/**
+	 * http请求(缓存翻译、elastic单地址模式)共享的连接池管理
+	 */
+	private HttpClientManager httpClientManager = new HttpClientManager();
+
+	/**
+	 * 数据源运行状况(延时、在途数、熔断)统计及路由选择(在initialize中加载参数后创建)
+	 */
+	private DataSourceRouter dataSourceRouter;
+
+	/**
+	 * 分页优化总记录数缓存(默认无锁实现,可扩展为分布式缓存)
+	 */
+	private PageCountCache pageCountCache;
+
+	/**
+	 * 连接(事务)范围内的PreparedStatement缓存(默认不启用)
+	 */
+	private StatementCache statementCache;
+
 	/**
 	 * spring 上下文容器
 	 */
@@ -282,20 +326,39 @@ public class SqlToyContext implements ApplicationContextAware {
 		// 加载sqltoy的各类参数,如db2是否要增加with
 		// ur等,详见org/sagacity/sqltoy/sqltoy-default.properties
 		SqlToyConstants.loadProperties(dialectConfig);
+		// 数据源路由读取sqltoy.datasource.router.*参数,需在参数加载之后创建
+		if (dataSourceRouter == null) {
+			dataSourceRouter = new DataSourceRouter();
+		}
 		// 初始化默认dataSource
 		initDefaultDataSource();
 		// 设置workerId和dataCenterId,为使用snowflake主键ID产生算法服务
 		SqlToyConstants.setWorkerAndDataCenterId(workerId, dataCenterId, serverId);
 
+		// 初始化分页优化总记录数缓存(sql文件重新加载时需清除对应的缓存,故在脚本加载器之前)
+		if (pageCountCache == null) {
+			pageCountCache = new DefaultPageCountCache();
+		}
+		pageCountCache.initialize(SqlToyConstants.getPageOptimizeSweepSeconds());
+		scriptLoader.setPageCountCache(pageCountCache);
+
 		// 初始化脚本加载器
 		scriptLoader.initialize(this.debug, delayCheckSeconds, scriptCheckIntervalSeconds, breakWhenSqlRepeat);
 
 		// 初始化翻译器,update 2021-1-23 增加caffeine缓存支持
 		if (translateCacheManager == null && "caffeine".equalsIgnoreCase(this.cacheType)) {
 			translateManager.initialize(this, new TranslateCaffeineManager(), delayCheckSeconds);
+		} else if (translateCacheManager == null && "mapped".equalsIgnoreCase(this.cacheType)) {
+			translateManager.initialize(this, new TranslateMappedFileManager(), delayCheckSeconds);
 		} else {
 			translateManager.initialize(this, translateCacheManager, delayCheckSeconds);
 		}
+		// 初始化PreparedStatement缓存
+		if (statementCache == null) {
+			statementCache = new StatementCache(SqlToyConstants.getStatementCacheSize(),
+					SqlToyConstants.getStatementCacheDialects());
+		}
+
 		// 初始化实体对象管理器(此功能已经无实际意义,已经改为即用即加载而非提前加载)
 		entityManager.initialize(this);
 		// 设置保留字
@@ -320,6 +383,10 @@ public class SqlToyContext implements ApplicationContextAware {
 		if (desensitizeProvider == null) {
 			desensitizeProvider = new DesensitizeDefaultProvider();
 		}
+		// 读写分离:解析主从配置,启动从库延迟检测
+		if (dataSourceSelector instanceof ReadWriteDataSourceSelector) {
+			((ReadWriteDataSourceSelector) dataSourceSelector).initialize(this);
+		}
 		logger.debug("sqltoy init complete!");
 	}
 
@@ -790,6 +857,14 @@ public class SqlToyContext implements ApplicationContextAware {
 		this.translateCacheManager = translateCacheManager;
 	}
 
+	public List<CacheChangeSource> getCacheChangeSources() {
+		return cacheChangeSources;
+	}
+
+	public void setCacheChangeSources(List<CacheChangeSource> cacheChangeSources) {
+		this.cacheChangeSources = cacheChangeSources;
+	}
+
 	public String getDefaultElastic() {
 		return defaultElastic;
 	}
@@ -838,6 +913,20 @@ public class SqlToyContext implements ApplicationContextAware {
 		try {
 			scriptLoader.destroy();
 			translateManager.destroy();
+			if (pageCountCache != null) {
+				pageCountCache.destroy();
+			}
+			executorManager.destroy();
+			httpClientManager.destroy();
+			if (dataSourceSelector instanceof ReadWriteDataSourceSelector) {
+				((ReadWriteDataSourceSelector) dataSourceSelector).destroy();
+			}
+			for (ElasticEndpoint elasticEndpoint : elasticEndpoints.values()) {
+				elasticEndpoint.destroy();
+			}
+			if (statementCache != null) {
+				statementCache.destroy();
+			}
 		} catch (Exception e) {
 
 		}
@@ -857,6 +946,64 @@ public class SqlToyContext implements ApplicationContextAware {
 		this.dataSourceSelector = dataSourceSelector;
 	}
 
+	/**
+	 * @return the executorManager
+	 */
+	public ExecutorManager getExecutorManager() {
+		return executorManager;
+	}
+
+	/**
+	 * @param executorManager the executorManager to set
+	 */
+	public void setExecutorManager(ExecutorManager executorManager) {
+		this.executorManager = executorManager;
+	}
+
+	public HttpClientManager getHttpClientManager() {
+		return httpClientManager;
+	}
+
+	public void setHttpClientManager(HttpClientManager httpClientManager) {
+		this.httpClientManager = httpClientManager;
+	}
+
+	public DataSourceRouter getDataSourceRouter() {
+		return dataSourceRouter;
+	}
+
+	public void setDataSourceRouter(DataSourceRouter dataSourceRouter) {
+		this.dataSourceRouter = dataSourceRouter;
+	}
+
+	/**
+	 * @return the pageCountCache
+	 */
+	public PageCountCache getPageCountCache() {
+		return pageCountCache;
+	}
+
+	/**
+	 * @param pageCountCache the pageCountCache to set
+	 */
+	public void setPageCountCache(PageCountCache pageCountCache) {
+		this.pageCountCache = pageCountCache;
+	}
+
+	/**
+	 * @return the statementCache
+	 */
+	public StatementCache getStatementCache() {
+		return statementCache;
+	}
+
+	/**
+	 * @param statementCache the statementCache to set
+	 */
+	public void setStatementCache(StatementCache statementCache) {
+		this.statementCache = statementCache;
+	}
+
 	/**
 	 * @return the fetchSize
 	 */
@@ -888,9 +1035,24 @@ public class SqlToyContext implements ApplicationContextAware {
 	}
 
 	public void releaseConnection(Connection conn, DataSource dataSource) {
+		// 连接上缓存的PreparedStatement:非事务释放前关闭,事务中则在事务结束后关闭
+		final StatementCache cache = statementCache;
+		if (cache != null && cache.hasStatements(conn)) {
+			if (!isTransactional(conn, dataSource)) {
+				cache.close(conn);
+			} else if (cache.markBound(conn)
+					&& !connectionFactory.registerTransactionCallback(conn, dataSource, () -> cache.close(conn))) {
+				// 无法感知事务结束,仅在单次操作内复用
+				cache.close(conn);
+			}
+		}
 		connectionFactory.releaseConnection(conn, dataSource);
 	}
 
+	public boolean isTransactional(Connection conn, DataSource dataSource) {
+		return connectionFactory.isTransactional(conn, dataSource);
+	}
+
 	public void setBreakWhenSqlRepeat(boolean breakWhenSqlRepeat) {
 		this.breakWhenSqlRepeat = breakWhenSqlRepeat;
 	}
@@ -56,6 +56,7 @@ import org.slf4j.LoggerFactory;
  * @modify {Date:2020-04-14 修复三个以上 in(?) 查询，在中间的in 参数值为null时 processIn方法处理错误}
  * @modify {Date:2020-09-23 增加@loop()组织sql功能,完善极端场景下动态组织sql的能力}
  * @modify {Date:2021-04-29 调整@value(?)处理顺序到末尾，规避参数值中存在? }
+ * @modify {Date:2026-10-18 增加sql编译模板,避免每次执行都进行多轮正则解析 }
  */
 @SuppressWarnings({ "rawtypes", "unchecked" })
 public class SqlConfigParseUtils {
@@ -124,6 +125,15 @@ public class SqlConfigParseUtils {
 
 	public final static String DBL_QUESTMARK = "#sqltoy_dblqsmark_placeholder#";
 
+	// sql中原本的?号临时替换符号
+	public final static String QUESTMARK = "#sqltoy_qsmark_placeholder#";
+
+	// 编译后的sql模板(sql语句作为key,按CLOCK算法淘汰),首次使用时按sqltoy.sql.template.cache.size创建
+	private static volatile SqlTemplateCache sqlTemplates;
+
+	// sql编译模板缓存容量(首次使用时读取一次,0表示不启用)
+	private static volatile int sqlTemplateCacheSize = -1;
+
 	// 利用宏模式来完成@loop循环处理
 	private static Map<String, AbstractMacro> macros = new HashMap<String, AbstractMacro>();
 
@@ -203,14 +213,72 @@ public class SqlConfigParseUtils {
 		else if (null == paramsArg || paramsArg.length == 0) {
 			return new SqlToyResult(queryStr, paramsArg);
 		}
+		// update 2026-10-18 优先使用编译模板,一次线性遍历完成sql和参数处理
+		SqlTemplate sqlTemplate = getSqlTemplate(queryStr);
+		if (sqlTemplate != null) {
+			SqlToyResult sqlToyResult = sqlTemplate.process(paramsNamed, paramsValue, dialect);
+			if (sqlToyResult != null) {
+				return sqlToyResult;
+			}
+		}
+		return processSqlByParse(queryStr, paramsNamed, paramsValue, dialect);
+	}
+
+	/**
+	 * @TODO 获取sql对应的编译模板,无法编译或未启用模板时返回null
+	 * @param queryStr
+	 * @return
+	 */
+	private static SqlTemplate getSqlTemplate(String queryStr) {
+		SqlTemplateCache templates = getSqlTemplates();
+		if (templates == null) {
+			return null;
+		}
+		SqlTemplate sqlTemplate = templates.get(queryStr);
+		if (sqlTemplate == null) {
+			// 并发下同一sql可能重复编译,结果一致不影响正确性
+			sqlTemplate = SqlTemplate.compile(queryStr);
+			templates.put(queryStr, sqlTemplate);
+		}
+		return sqlTemplate.isCompiled() ? sqlTemplate : null;
+	}
+
+	/**
+	 * @TODO 获取sql模板缓存,容量为0时返回null表示不启用编译模板
+	 * @return
+	 */
+	private static SqlTemplateCache getSqlTemplates() {
+		if (sqlTemplateCacheSize == -1) {
+			synchronized (SqlConfigParseUtils.class) {
+				if (sqlTemplateCacheSize == -1) {
+					final int cacheSize = Math.max(SqlToyConstants.getSqlTemplateCacheSize(), 0);
+					if (cacheSize > 0) {
+						sqlTemplates = new SqlTemplateCache(cacheSize);
+					}
+					sqlTemplateCacheSize = cacheSize;
+				}
+			}
+		}
+		return sqlTemplates;
+	}
+
+	/**
+	 * @TODO 逐步解析sql和参数(含@loop等无法编译成模板的场景)
+	 * @param queryStr
+	 * @param paramsNamed
+	 * @param paramsValue
+	 * @param dialect
+	 * @return
+	 */
+	static SqlToyResult processSqlByParse(String queryStr, String[] paramsNamed, Object[] paramsValue,
+			String dialect) {
 		SqlToyResult sqlToyResult = new SqlToyResult();
 		// 是否:paramName 形式的参数模式
 		boolean isNamedArgs = StringUtil.matches(queryStr, SqlToyConstants.SQL_NAMED_PATTERN);
 		SqlParamsModel sqlParam;
-		// 将sql中的问号临时先替换成特殊字符
-		String questionMark = "#sqltoy_qsmark_placeholder#";
 		if (isNamedArgs) {
-			String sql = queryStr.replaceAll(ARG_REGEX, questionMark);
+			// 将sql中的问号临时先替换成特殊字符
+			String sql = queryStr.replaceAll(ARG_REGEX, QUESTMARK);
 			// update 2020-09-23 处理sql中的循环(提前处理循环，避免循环中存在其它条件参数)
 			sql = processLoop(sql, paramsNamed, paramsValue);
 			sqlParam = processNamedParamsQuery(sql);
@@ -238,7 +306,7 @@ public class SqlConfigParseUtils {
 		processValue(sqlToyResult, dialect);
 		// 将特殊字符替换回问号
 		if (isNamedArgs) {
-			sqlToyResult.setSql(sqlToyResult.getSql().replaceAll(questionMark, ARG_NAME));
+			sqlToyResult.setSql(sqlToyResult.getSql().replaceAll(QUESTMARK, ARG_NAME));
 		} else {
 			// 将代表json中的?? 符号换回
 			sqlToyResult.setSql(sqlToyResult.getSql().replaceAll(DBL_QUESTMARK, ARG_DBL_NAME));
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.sagacity.sqltoy.config.model.SqlToyConfig;
+import org.sagacity.sqltoy.plugins.page.PageCountCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,9 +47,14 @@ public class SqlFileModifyWatcher extends Thread {
 	 */
 	private int delayCheckSeconds;
 
+	/**
+	 * 分页优化总记录数缓存
+	 */
+	private PageCountCache pageCountCache;
+
 	public SqlFileModifyWatcher(ConcurrentHashMap<String, SqlToyConfig> sqlCache,
 			ConcurrentHashMap<String, Long> filesLastModifyMap, List realSqlList, String dialect, String encoding,
-			int delayCheckSeconds, int sleepSeconds) {
+			int delayCheckSeconds, int sleepSeconds, PageCountCache pageCountCache) {
 		this.sqlCache = sqlCache;
 		this.realSqlList = realSqlList;
 		this.dialect = dialect;
@@ -56,6 +62,7 @@ public class SqlFileModifyWatcher extends Thread {
 		this.filesLastModifyMap = filesLastModifyMap;
 		this.delayCheckSeconds = delayCheckSeconds;
 		this.sleepSeconds = (sleepSeconds >= 1) ? sleepSeconds : 1;
+		this.pageCountCache = pageCountCache;
 	}
 
 	@Override
@@ -70,7 +77,8 @@ public class SqlFileModifyWatcher extends Thread {
 		boolean isRun = true;
 		while (isRun) {
 			try {
-				SqlXMLConfigParse.parseXML(realSqlList, filesLastModifyMap, sqlCache, encoding, dialect);
+				SqlXMLConfigParse.parseXML(realSqlList, filesLastModifyMap, sqlCache, encoding, dialect,
+						pageCountCache);
 			} catch (Exception e) {
 				e.printStackTrace();
 				logger.error("重新解析SQL对应的xml文件错误!{}", e.getMessage(), e);
@@ -10,8 +10,8 @@ import org.sagacity.sqltoy.SqlToyConstants;
 import org.sagacity.sqltoy.config.model.ParamFilterModel;
 import org.sagacity.sqltoy.config.model.SqlToyConfig;
 import org.sagacity.sqltoy.config.model.SqlType;
-import org.sagacity.sqltoy.dialect.utils.PageOptimizeUtils;
 import org.sagacity.sqltoy.exception.DataAccessException;
+import org.sagacity.sqltoy.plugins.page.PageCountCache;
 import org.sagacity.sqltoy.utils.DataSourceUtils.Dialect;
 import org.sagacity.sqltoy.utils.StringUtil;
 import org.slf4j.Logger;
@@ -81,6 +81,11 @@ public class SqlScriptLoader {
 	 */
 	private int maxWait = 3600 * 24;
 
+	/**
+	 * 分页优化总记录数缓存(sql重新加载时清除对应缓存)
+	 */
+	private PageCountCache pageCountCache;
+
 	/**
 	 * 文件最后修改时间
 	 */
@@ -126,7 +131,7 @@ public class SqlScriptLoader {
 				List<String> repeatSql = new ArrayList<String>();
 				for (int i = 0; i < realSqlList.size(); i++) {
 					repeatSql.addAll(SqlXMLConfigParse.parseSingleFile(realSqlList.get(i), filesLastModifyMap, sqlCache,
-							encoding, dialect, false, i));
+							encoding, dialect, false, i, pageCountCache));
 				}
 				int repeatSqlSize = repeatSql.size();
 				if (repeatSqlSize > 0) {
@@ -183,7 +188,7 @@ public class SqlScriptLoader {
 					out.println("已经开启sql文件变更检测，会自动间隔:" + sleepSeconds + "秒检测一次,发生变更会自动重新载入!");
 				}
 				watcher = new SqlFileModifyWatcher(sqlCache, filesLastModifyMap, realSqlList, dialect, encoding,
-						delayCheckSeconds, sleepSeconds);
+						delayCheckSeconds, sleepSeconds, pageCountCache);
 				watcher.start();
 			} else {
 				logger.warn("sql文件更新检测:sleepSeconds={} 小于1秒或大于24小时，表示关闭sql文件变更检测!", sleepSeconds);
@@ -267,7 +272,8 @@ public class SqlScriptLoader {
 	 * @throws Exception
 	 */
 	public void parseSqlFile(Object sqlFile) throws Exception {
-		SqlXMLConfigParse.parseSingleFile(sqlFile, filesLastModifyMap, sqlCache, encoding, dialect, true, -1);
+		SqlXMLConfigParse.parseSingleFile(sqlFile, filesLastModifyMap, sqlCache, encoding, dialect, true, -1,
+				pageCountCache);
 	}
 
 	/**
@@ -284,7 +290,9 @@ public class SqlScriptLoader {
 		if (sqlCache.containsKey(sqlToyConfig.getId())) {
 			logger.warn("发现重复的SQL语句:id={} 将被覆盖!", sqlToyConfig.getId());
 			// 移除分页优化缓存
-			PageOptimizeUtils.remove(sqlToyConfig.getId());
+			if (pageCountCache != null) {
+				pageCountCache.remove(sqlToyConfig.getId());
+			}
 		}
 		sqlCache.put(sqlToyConfig.getId(), sqlToyConfig);
 	}
@@ -296,6 +304,13 @@ public class SqlScriptLoader {
 		this.sqlResourcesDir = sqlResourcesDir;
 	}
 
+	/**
+	 * @param pageCountCache the pageCountCache to set
+	 */
+	public void setPageCountCache(PageCountCache pageCountCache) {
+		this.pageCountCache = pageCountCache;
+	}
+
 	/**
 	 * @param mappingResources the mappingResources to set
 	 */
@@ -0,0 +1,845 @@
+package org.sagacity.sqltoy.config;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.sagacity.sqltoy.SqlToyConstants;
+import org.sagacity.sqltoy.config.model.SqlParamsModel;
+import org.sagacity.sqltoy.config.model.SqlToyResult;
+import org.sagacity.sqltoy.plugins.function.FunctionUtils;
+import org.sagacity.sqltoy.utils.CollectionUtil;
+import org.sagacity.sqltoy.utils.MacroIfLogic;
+import org.sagacity.sqltoy.utils.StringUtil;
+
+/**
+ * @project sagacity-sqltoy
+ * @description sql编译模板:将sql一次性解析成文本、参数、#[]块以及@if/@blank/@value/like/in
+ *              等节点,执行时基于节点做线性遍历即可得到最终sql和参数,避免每次执行都进行多轮正则替换。
+ *              处理规则与SqlConfigParseUtils.processSql 逐步解析的方式保持一致
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class SqlTemplate implements Serializable {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = -2395802637453817294L;
+
+	// 节点类型:文本、参数、#[]块
+	private final static int TEXT = 0;
+	private final static int PARAM = 1;
+	private final static int BLOCK = 2;
+
+	// 参数宏类型
+	private final static int NORMAL = 0;
+	private final static int BLANK_MACRO = 1;
+	private final static int VALUE_MACRO = 2;
+	private final static int LIKE = 3;
+	private final static int IN = 4;
+
+	/**
+	 * 参数在中间结果中的占位标记(最终渲染成?、null、in展开值等)
+	 */
+	private final static char PARAM_MARK = '\uFFFF';
+
+	/**
+	 * #[]拼接判断时截取后续sql头部的长度
+	 */
+	private final static int HEAD_SIZE = 64;
+
+	private final static Pattern LOOP_PATTERN = Pattern.compile("(?i)\\@loop\\s*\\(");
+	private final static Pattern BLANK_PRE_PATTERN = Pattern.compile("(?i)\\@blank\\s*\\(\\s*$");
+	private final static Pattern VALUE_PRE_PATTERN = Pattern.compile("(?i)\\@value\\s*\\(\\s*$");
+	private final static Pattern MACRO_TAIL_PATTERN = Pattern.compile("^\\s*\\)");
+	private final static Pattern IN_PRE_PATTERN = Pattern.compile("(?i)\\s+in\\s*\\(\\s*$");
+	private final static Pattern LIKE_PRE_PATTERN = Pattern.compile("(?i)\\s+like\\s+$");
+	private final static Pattern IS_PRE_PATTERN = Pattern.compile("\\s+is\\s+(not)?\\s+$");
+	private final static Pattern MACRO_LEFT_PATTERN = Pattern.compile("(?i)\\@(blank|value)\\s*\\(");
+
+	/**
+	 * 是否成功编译(存在@loop等依赖参数值组织sql的场景则不编译)
+	 */
+	private boolean compiled = false;
+
+	/**
+	 * 是否:paramName 模式
+	 */
+	private boolean namedArgs;
+
+	/**
+	 * sql中的参数名称(:paramName模式)
+	 */
+	private String[] paramsName;
+
+	/**
+	 * 参数数量
+	 */
+	private int paramCnt;
+
+	/**
+	 * #[]块数量
+	 */
+	private int blockCnt;
+
+	/**
+	 * 模板sql长度,用于预估结果容量
+	 */
+	private int sqlLength;
+
+	private SqlNode[] nodes;
+
+	private SqlTemplate() {
+	}
+
+	/**
+	 * @TODO 编译sql,无法编译时返回compiled=false的模板(调用方走逐步解析模式)
+	 * @param queryStr
+	 * @return
+	 */
+	public static SqlTemplate compile(String queryStr) {
+		SqlTemplate template = new SqlTemplate();
+		if (StringUtil.isBlank(queryStr)) {
+			return template;
+		}
+		template.namedArgs = StringUtil.matches(queryStr, SqlToyConstants.SQL_NAMED_PATTERN);
+		String sql;
+		if (template.namedArgs) {
+			// @loop 依赖参数值动态组织sql,无法预编译
+			if (LOOP_PATTERN.matcher(queryStr).find()) {
+				return template;
+			}
+			SqlParamsModel sqlParam = SqlConfigParseUtils.processNamedParamsQuery(
+					queryStr.replaceAll(SqlConfigParseUtils.ARG_REGEX, SqlConfigParseUtils.QUESTMARK));
+			sql = sqlParam.getSql();
+			template.paramsName = sqlParam.getParamsName();
+		} else {
+			sql = queryStr.replaceAll(SqlConfigParseUtils.ARG_DBL_REGEX, SqlConfigParseUtils.DBL_QUESTMARK);
+		}
+		Compiler compiler = new Compiler(sql, template.namedArgs);
+		List<SqlNode> nodes = new ArrayList<SqlNode>();
+		if (!compiler.parse(0, sql.length(), nodes) || compiler.paramIndex == 0
+				|| !compiler.resolveKeepLength(nodes)) {
+			return template;
+		}
+		compiler.restoreText(nodes);
+		if (template.paramsName != null && template.paramsName.length != compiler.paramIndex) {
+			return template;
+		}
+		template.nodes = nodes.toArray(new SqlNode[nodes.size()]);
+		template.paramCnt = compiler.paramIndex;
+		template.blockCnt = compiler.blockIndex;
+		template.sqlLength = sql.length();
+		template.compiled = true;
+		return template;
+	}
+
+	public boolean isCompiled() {
+		return compiled;
+	}
+
+	/**
+	 * @TODO 基于编译结果处理sql和参数,参数不匹配时返回null(由调用方走逐步解析模式)
+	 * @param paramsNamed
+	 * @param paramsValue
+	 * @param dialect
+	 * @return
+	 */
+	public SqlToyResult process(String[] paramsNamed, Object[] paramsValue, String dialect) {
+		if (!compiled) {
+			return null;
+		}
+		Object[] values = namedArgs ? SqlConfigParseUtils.matchNamedParam(paramsName, paramsNamed, paramsValue)
+				: SqlConfigParseUtils.matchNamedParam(null, paramsNamed, paramsValue);
+		if (values == null || values.length != paramCnt) {
+			return null;
+		}
+		// 1、判定#[]块是否保留,并得到最终有效的参数节点
+		boolean[] blockKept = new boolean[blockCnt];
+		List<SqlNode> liveParams = new ArrayList<SqlNode>(paramCnt);
+		evalNodes(nodes, values, blockKept, liveParams);
+		// 2、从后往前拼接sql(同逐步解析模式从最后一个#[开始处理,保障where/and/or 衔接规则一致)
+		StringBuilder reverseSql = renderNodes(nodes, blockKept, "");
+		// 3、将参数占位标记渲染成最终sql和参数值
+		StringBuilder lastSql = new StringBuilder(reverseSql.length() + 16);
+		List lastParams = new ArrayList(liveParams.size());
+		int paramIndex = 0;
+		char c;
+		for (int i = reverseSql.length() - 1; i >= 0; i--) {
+			c = reverseSql.charAt(i);
+			if (c == PARAM_MARK) {
+				renderParam(lastSql, lastParams, liveParams.get(paramIndex), values, dialect);
+				paramIndex++;
+			} else {
+				lastSql.append(c);
+			}
+		}
+		return new SqlToyResult(lastSql.toString(), lastParams.toArray());
+	}
+
+	/**
+	 * @TODO 判定#[]块是否保留,并收集有效参数节点
+	 * @param nodes
+	 * @param values
+	 * @param blockKept
+	 * @param liveParams
+	 */
+	private void evalNodes(SqlNode[] nodes, Object[] values, boolean[] blockKept, List<SqlNode> liveParams) {
+		for (SqlNode node : nodes) {
+			if (node.type == PARAM) {
+				liveParams.add(node);
+			} else if (node.type == BLOCK) {
+				List<SqlNode> blockParams = new ArrayList<SqlNode>();
+				evalNodes(node.children, values, blockKept, blockParams);
+				if (isBlockKept(node, values, blockParams)) {
+					blockKept[node.blockIndex] = true;
+					liveParams.addAll(blockParams);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @TODO 判断#[]块是否保留:@if()逻辑成立且块内参数都不为null
+	 * @param block
+	 * @param values
+	 * @param blockParams
+	 * @return
+	 */
+	private boolean isBlockKept(SqlNode block, Object[] values, List<SqlNode> blockParams) {
+		int ifParamCnt = (block.ifParamsIndex == null) ? 0 : block.ifParamsIndex.length;
+		// #[]中无参数,剔除
+		if (ifParamCnt + blockParams.size() == 0) {
+			return false;
+		}
+		if (block.ifExpress != null) {
+			List ifValues = new ArrayList(ifParamCnt);
+			for (int index : block.ifParamsIndex) {
+				ifValues.add(values[index]);
+			}
+			if (!MacroIfLogic.evalLogic(block.ifExpress, ifValues, 0, ifParamCnt)) {
+				return false;
+			}
+		}
+		Object paramValue;
+		for (SqlNode param : blockParams) {
+			paramValue = values[param.paramIndex];
+			if ((null == paramValue && !param.isCondition)
+					|| (null != paramValue && paramValue.getClass().isArray()
+							&& CollectionUtil.convertArray(paramValue).length == 0)
+					|| (null != paramValue && (paramValue instanceof Collection)
+							&& ((Collection) paramValue).isEmpty())
+					|| (param.isCondition && null != paramValue && !(paramValue instanceof java.lang.Boolean))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @TODO 从后往前逆序拼接节点,返回逆序的sql
+	 * @param nodes
+	 * @param blockKept
+	 * @param sentinel  节点序列之后紧跟的sql(#[]块内部为"]")
+	 * @return
+	 */
+	private StringBuilder renderNodes(SqlNode[] nodes, boolean[] blockKept, String sentinel) {
+		StringBuilder reverseSql = new StringBuilder(sqlLength + 16);
+		// 前一个文本节点需保留的长度(用于剔除where 或 where 1=1)
+		int keepLength = -1;
+		SqlNode node;
+		String content;
+		for (int i = nodes.length - 1; i >= 0; i--) {
+			node = nodes[i];
+			if (node.type == TEXT) {
+				appendReverse(reverseSql, (keepLength >= 0) ? node.text.substring(0, keepLength) : node.text);
+				keepLength = -1;
+			} else if (node.type == PARAM) {
+				reverseSql.append(PARAM_MARK);
+				keepLength = -1;
+			} else {
+				if (blockKept[node.blockIndex]) {
+					content = SqlConfigParseUtils.BLANK
+							.concat(reverseToString(renderNodes(node.children, blockKept, "]")))
+							.concat(SqlConfigParseUtils.BLANK);
+				} else {
+					content = SqlConfigParseUtils.BLANK;
+				}
+				keepLength = linkBlock(node, content, reverseSql, sentinel);
+			}
+		}
+		return reverseSql;
+	}
+
+	/**
+	 * @TODO 等同于SqlConfigParseUtils.processWhereLinkAnd,处理#[]块跟前后sql的衔接
+	 * @param block
+	 * @param content
+	 * @param reverseSql 已经处理的后续sql(逆序)
+	 * @param sentinel
+	 * @return 前一个文本节点需保留的长度,-1表示不截取
+	 */
+	private int linkBlock(SqlNode block, String content, StringBuilder reverseSql, String sentinel) {
+		String head = getHead(content, reverseSql, sentinel);
+		boolean contentBlank = content.trim().equals("");
+		// 前部分sql以where 结尾
+		if (block.whereKeepLength >= 0) {
+			if (head.equals("")) {
+				reverseSql.append(SqlConfigParseUtils.BLANK);
+				return block.whereKeepLength;
+			}
+			if (StringUtil.matches(head, SqlConfigParseUtils.AND_START_PATTERN)) {
+				appendStrip(reverseSql, content, 3);
+				return -1;
+			}
+			if (StringUtil.matches(head, SqlConfigParseUtils.OR_START_PATTERN)) {
+				appendStrip(reverseSql, content, 2);
+				return -1;
+			}
+			if (contentBlank) {
+				if (head.startsWith(")")
+						|| StringUtil.matches(head.toLowerCase(), SqlConfigParseUtils.WHERE_CLOSE_PATTERN)) {
+					reverseSql.append(SqlConfigParseUtils.BLANK);
+					return block.whereKeepLength;
+				}
+				appendReverse(reverseSql, " 1=1 ");
+				return -1;
+			}
+		}
+		// where 1=1 结尾
+		if (block.whereOneKeepLength >= 0) {
+			if (StringUtil.matches(head, SqlConfigParseUtils.AND_START_PATTERN)) {
+				appendStrip(reverseSql, content, 3);
+				appendReverse(reverseSql, " where ");
+				return block.whereOneKeepLength;
+			}
+			if (StringUtil.matches(head, SqlConfigParseUtils.OR_START_PATTERN)) {
+				appendStrip(reverseSql, content, 2);
+				appendReverse(reverseSql, " where ");
+				return block.whereOneKeepLength;
+			}
+			if (head.startsWith(")")
+					|| StringUtil.matches(head.toLowerCase(), SqlConfigParseUtils.WHERE_CLOSE_PATTERN)) {
+				appendReverse(reverseSql, content);
+				return block.whereOneKeepLength;
+			}
+			if (!contentBlank) {
+				appendReverse(reverseSql, content);
+				appendReverse(reverseSql, " where ");
+				return block.whereOneKeepLength;
+			}
+		}
+		// update 语句 set 后面连接逗号"," 情况下去除逗号
+		if (block.preSetEnd && head.startsWith(",")) {
+			appendStrip(reverseSql, content, 1);
+			return -1;
+		}
+		appendReverse(reverseSql, content);
+		return -1;
+	}
+
+	/**
+	 * @TODO 剔除(块内容+后续sql)去除空白后开头的and、or或逗号
+	 * @param reverseSql
+	 * @param content
+	 * @param stripLength
+	 */
+	private static void appendStrip(StringBuilder reverseSql, String content, int stripLength) {
+		String trimContent = content.trim();
+		if (trimContent.length() >= stripLength) {
+			appendReverse(reverseSql, SqlConfigParseUtils.BLANK.concat(trimContent.substring(stripLength))
+					.concat(SqlConfigParseUtils.BLANK));
+			return;
+		}
+		// 块内容为空白,从后续sql中剔除
+		int length = reverseSql.length();
+		while (length > 0 && reverseSql.charAt(length - 1) <= ' ') {
+			length--;
+		}
+		reverseSql.setLength(length - stripLength);
+		reverseSql.append(SqlConfigParseUtils.BLANK);
+	}
+
+	/**
+	 * @TODO 获取(块内容+后续sql)去除开头空白后的头部
+	 * @param content
+	 * @param reverseSql
+	 * @param sentinel
+	 * @return
+	 */
+	private static String getHead(String content, StringBuilder reverseSql, String sentinel) {
+		StringBuilder head = new StringBuilder(HEAD_SIZE);
+		char c;
+		for (int i = 0; i < content.length() && head.length() < HEAD_SIZE; i++) {
+			c = content.charAt(i);
+			if (head.length() > 0 || c > ' ') {
+				head.append(c);
+			}
+		}
+		for (int i = reverseSql.length() - 1; i >= 0 && head.length() < HEAD_SIZE; i--) {
+			c = reverseSql.charAt(i);
+			if (head.length() > 0 || c > ' ') {
+				head.append(c);
+			}
+		}
+		if (head.length() < HEAD_SIZE) {
+			head.append(sentinel);
+		}
+		return head.toString();
+	}
+
+	/**
+	 * @TODO 渲染参数:处理@blank、@value、like、in 以及null值
+	 * @param lastSql
+	 * @param lastParams
+	 * @param param
+	 * @param values
+	 * @param dialect
+	 */
+	private static void renderParam(StringBuilder lastSql, List lastParams, SqlNode param, Object[] values,
+			String dialect) {
+		Object value = values[param.paramIndex];
+		// @blank(?) 输出空白并剔除参数
+		if (param.macro == BLANK_MACRO) {
+			lastSql.append(SqlConfigParseUtils.BLANK);
+			return;
+		}
+		// @value(?) 直接输出参数值
+		if (param.macro == VALUE_MACRO) {
+			String valueStr = (value == null) ? "null" : value.toString();
+			if (dialect != null && valueStr.contains("(") && valueStr.contains(")")) {
+				valueStr = FunctionUtils.getDialectSql(valueStr, dialect);
+			}
+			lastSql.append(valueStr);
+			return;
+		}
+		// like 参数值不存在%符号时，前后增加%
+		if (param.macro == LIKE && value instanceof String && ((String) value).indexOf("%") == -1) {
+			value = "%".concat((String) value).concat("%");
+		}
+		if (param.macro == IN) {
+			lastSql.append(" in (");
+			renderInParam(lastSql, lastParams, value);
+			lastSql.append(") ");
+			return;
+		}
+		appendParam(lastSql, lastParams, value);
+	}
+
+	/**
+	 * @TODO 处理in (?) 参数:数组或集合扩展成in (?,?,?),逗号分隔或'xxx'形式的字符串直接替换
+	 * @param lastSql
+	 * @param lastParams
+	 * @param value
+	 */
+	private static void renderInParam(StringBuilder lastSql, List lastParams, Object value) {
+		if (value != null) {
+			if (value.getClass().isArray() || value instanceof Collection) {
+				Object[] inParamArray = (value instanceof Collection) ? ((Collection) value).toArray()
+						: CollectionUtil.convertArray(value);
+				for (int i = 0; i < inParamArray.length; i++) {
+					if (i > 0) {
+						lastSql.append(",");
+					}
+					appendParam(lastSql, lastParams, inParamArray[i]);
+				}
+				return;
+			}
+			if (value instanceof String) {
+				String argValue = (String) value;
+				if (argValue.indexOf(",") != -1 || (argValue.startsWith("'") && argValue.endsWith("'"))) {
+					lastSql.append(argValue);
+					return;
+				}
+			}
+		}
+		appendParam(lastSql, lastParams, value);
+	}
+
+	/**
+	 * @TODO 参数为null时直接用null替换?,其余输出?
+	 * @param lastSql
+	 * @param lastParams
+	 * @param value
+	 */
+	private static void appendParam(StringBuilder lastSql, List lastParams, Object value) {
+		if (value == null) {
+			lastSql.append(" null ");
+		} else {
+			lastSql.append(SqlConfigParseUtils.ARG_NAME);
+			lastParams.add(value);
+		}
+	}
+
+	private static void appendReverse(StringBuilder reverseSql, String str) {
+		for (int i = str.length() - 1; i >= 0; i--) {
+			reverseSql.append(str.charAt(i));
+		}
+	}
+
+	private static String reverseToString(StringBuilder reverseSql) {
+		int length = reverseSql.length();
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = reverseSql.charAt(length - 1 - i);
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * sql节点
+	 */
+	private static class SqlNode implements Serializable {
+		private static final long serialVersionUID = 4622915064357123497L;
+
+		private int type;
+
+		/**
+		 * 文本内容
+		 */
+		private String text;
+
+		/**
+		 * 文本在编译sql中的开始位置
+		 */
+		private int start;
+
+		/**
+		 * 参数在sql参数数组中的位置
+		 */
+		private int paramIndex;
+
+		/**
+		 * 参数宏类型
+		 */
+		private int macro = NORMAL;
+
+		/**
+		 * 是否是is (not) ? 条件
+		 */
+		private boolean isCondition = false;
+
+		/**
+		 * #[]块内部节点
+		 */
+		private SqlNode[] children;
+
+		private int blockIndex;
+
+		/**
+		 * @if()中的表达式以及对应的参数位置
+		 */
+		private String ifExpress;
+
+		private int[] ifParamsIndex;
+
+		/**
+		 * #[前sql以where、where 1=1 结尾时前一个文本节点需保留的长度
+		 */
+		private int whereKeepLength = -1;
+
+		private int whereOneKeepLength = -1;
+
+		/**
+		 * #[前sql以set 结尾
+		 */
+		private boolean preSetEnd = false;
+
+		/**
+		 * #[前一个文本节点(仅编译时使用)
+		 */
+		private transient SqlNode preText;
+
+		private SqlNode(int type) {
+			this.type = type;
+		}
+	}
+
+	/**
+	 * 编译器,将sql解析成节点
+	 */
+	private static class Compiler {
+		private String sql;
+
+		private boolean namedArgs;
+
+		private int paramIndex = 0;
+
+		private int blockIndex = 0;
+
+		private Compiler(String sql, boolean namedArgs) {
+			this.sql = sql;
+			this.namedArgs = namedArgs;
+		}
+
+		/**
+		 * @TODO 解析[start,end)区间的sql
+		 * @param start
+		 * @param end
+		 * @param nodes
+		 * @return false 表示无法编译
+		 */
+		private boolean parse(int start, int end, List<SqlNode> nodes) {
+			int pos = start;
+			int textStart = start;
+			char c;
+			while (pos < end) {
+				c = sql.charAt(pos);
+				if (c == '#' && sql.startsWith(SqlConfigParseUtils.SQL_PSEUDO_START_MARK, pos)) {
+					addText(nodes, textStart, pos);
+					int endMarkIndex = StringUtil.getSymMarkIndex(SqlConfigParseUtils.SQL_PSEUDO_SYM_START_MARK,
+							SqlConfigParseUtils.SQL_PSEUDO_END_MARK, sql, pos);
+					if (endMarkIndex <= pos || endMarkIndex >= end) {
+						return false;
+					}
+					if (!parseBlock(pos, endMarkIndex, nodes)) {
+						return false;
+					}
+					pos = endMarkIndex + SqlConfigParseUtils.SQL_PSEUDO_END_MARK_LENGTH;
+					textStart = pos;
+				} else if (c == '?') {
+					addText(nodes, textStart, pos);
+					SqlNode param = new SqlNode(PARAM);
+					param.paramIndex = paramIndex++;
+					nodes.add(param);
+					pos++;
+					textStart = pos;
+				} else {
+					pos++;
+				}
+			}
+			addText(nodes, textStart, end);
+			return processMacros(nodes);
+		}
+
+		/**
+		 * @TODO 解析#[]块
+		 * @param beginMarkIndex
+		 * @param endMarkIndex
+		 * @param nodes
+		 * @return
+		 */
+		private boolean parseBlock(int beginMarkIndex, int endMarkIndex, List<SqlNode> nodes) {
+			SqlNode block = new SqlNode(BLOCK);
+			block.blockIndex = blockIndex++;
+			// #[ 前面sql的衔接规则(前部sql保持原样,故可以提前判断)
+			String preSql = sql.substring(0, beginMarkIndex).concat(SqlConfigParseUtils.BLANK);
+			SqlNode preText = nodes.isEmpty() ? null : nodes.get(nodes.size() - 1);
+			if (preText != null && preText.type != TEXT) {
+				preText = null;
+			}
+			// 截取位置在宏处理完成后再换算成前一个文本节点的保留长度
+			int index = StringUtil.matchIndex(preSql, SqlConfigParseUtils.WHERE_END_PATTERN);
+			if (index >= 0) {
+				if (preText == null) {
+					return false;
+				}
+				block.whereKeepLength = index + 1;
+			}
+			index = StringUtil.matchIndex(preSql, SqlConfigParseUtils.WHERE_ONE_EQUAL_PATTERN);
+			if (index >= 0) {
+				if (preText == null) {
+					return false;
+				}
+				block.whereOneKeepLength = index + 1;
+			}
+			block.preText = preText;
+			block.preSetEnd = StringUtil.matches(preSql, SqlConfigParseUtils.UPDATE_SET_PATTERN);
+			int contentStart = beginMarkIndex + SqlConfigParseUtils.SQL_PSEUDO_START_MARK_LENGTH;
+			String content = sql.substring(contentStart, endMarkIndex);
+			List<SqlNode> children = new ArrayList<SqlNode>();
+			// @if(logic) 逻辑判断
+			int ifStart = StringUtil.matchIndex(content, SqlConfigParseUtils.IF_PATTERN);
+			if (ifStart >= 0) {
+				int ifEnd = StringUtil.getSymMarkIndex("(", ")", content, ifStart);
+				if (ifEnd <= ifStart) {
+					return false;
+				}
+				String preIfSql = content.substring(0, ifStart);
+				String ifSql = content.substring(ifStart, ifEnd);
+				// @if 需位于#[]中参数和内部#[]之前
+				if (preIfSql.contains(SqlConfigParseUtils.ARG_NAME)
+						|| preIfSql.contains(SqlConfigParseUtils.SQL_PSEUDO_START_MARK)
+						|| ifSql.contains(SqlConfigParseUtils.SQL_PSEUDO_START_MARK)) {
+					return false;
+				}
+				block.ifExpress = content.substring(content.indexOf("(", ifStart) + 1, ifEnd);
+				int ifParamCnt = StringUtil.matchCnt(block.ifExpress, SqlConfigParseUtils.ARG_NAME_PATTERN);
+				block.ifParamsIndex = new int[ifParamCnt];
+				for (int i = 0; i < ifParamCnt; i++) {
+					block.ifParamsIndex[i] = paramIndex++;
+				}
+				if (!parse(contentStart, contentStart + ifStart, children)
+						|| !parse(contentStart + ifEnd + 1, endMarkIndex, children)) {
+					return false;
+				}
+			} else if (!parse(contentStart, endMarkIndex, children)) {
+				return false;
+			}
+			block.children = children.toArray(new SqlNode[children.size()]);
+			// #[]中is (not) ? 条件之后还有参数时,逐步解析模式对后续参数的is判断范围会包含前面的is条件,保持一致走逐步解析
+			if (hasParamAfterIs(block.children, new boolean[1])) {
+				return false;
+			}
+			nodes.add(block);
+			return true;
+		}
+
+		/**
+		 * @TODO 判断块内(含内部#[])是否存在is (not) ? 条件后面还有参数的情况
+		 * @param nodes
+		 * @param isFound
+		 * @return
+		 */
+		private boolean hasParamAfterIs(SqlNode[] nodes, boolean[] isFound) {
+			for (SqlNode node : nodes) {
+				if (node.type == PARAM) {
+					if (isFound[0]) {
+						return true;
+					}
+					isFound[0] = node.isCondition;
+				} else if (node.type == BLOCK && hasParamAfterIs(node.children, isFound)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @TODO 将#[前where截取位置换算成前一个文本节点的保留长度
+		 * @param nodes
+		 * @return
+		 */
+		private boolean resolveKeepLength(List<SqlNode> nodes) {
+			for (SqlNode node : nodes) {
+				if (node.type != BLOCK) {
+					continue;
+				}
+				if (node.whereKeepLength >= 0) {
+					node.whereKeepLength = keepLength(node.preText, node.whereKeepLength);
+					if (node.whereKeepLength < 0) {
+						return false;
+					}
+				}
+				if (node.whereOneKeepLength >= 0) {
+					node.whereOneKeepLength = keepLength(node.preText, node.whereOneKeepLength);
+					if (node.whereOneKeepLength < 0) {
+						return false;
+					}
+				}
+				node.preText = null;
+				if (!resolveKeepLength(Arrays.asList(node.children))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * @TODO 计算截取位置在前一个文本节点中的保留长度
+		 * @param preText
+		 * @param cutIndex
+		 * @return
+		 */
+		private int keepLength(SqlNode preText, int cutIndex) {
+			int keep = cutIndex - preText.start;
+			if (keep < 0 || keep > preText.text.length()) {
+				return -1;
+			}
+			return restore(preText.text.substring(0, keep)).length();
+		}
+
+		/**
+		 * @TODO 还原文本节点中原本的?号或??符号
+		 * @param nodes
+		 */
+		private void restoreText(List<SqlNode> nodes) {
+			for (SqlNode node : nodes) {
+				if (node.type == TEXT) {
+					node.text = restore(node.text);
+				} else if (node.type == BLOCK) {
+					restoreText(Arrays.asList(node.children));
+				}
+			}
+		}
+
+		private void addText(List<SqlNode> nodes, int start, int end) {
+			if (end <= start) {
+				return;
+			}
+			SqlNode text = new SqlNode(TEXT);
+			text.text = sql.substring(start, end);
+			text.start = start;
+			nodes.add(text);
+		}
+
+		/**
+		 * @TODO 识别参数前后的@blank、@value、like、in、is 宏
+		 * @param nodes
+		 * @return
+		 */
+		private boolean processMacros(List<SqlNode> nodes) {
+			SqlNode node, preText, nextText;
+			for (int i = 0; i < nodes.size(); i++) {
+				node = nodes.get(i);
+				if (node.type != PARAM) {
+					continue;
+				}
+				preText = (i > 0 && nodes.get(i - 1).type == TEXT) ? nodes.get(i - 1) : null;
+				nextText = (i < nodes.size() - 1 && nodes.get(i + 1).type == TEXT) ? nodes.get(i + 1) : null;
+				if (preText == null) {
+					continue;
+				}
+				boolean hasTail = nextText != null && StringUtil.matches(nextText.text, MACRO_TAIL_PATTERN);
+				if (hasTail && StringUtil.matches(preText.text, BLANK_PRE_PATTERN)) {
+					node.macro = BLANK_MACRO;
+				} else if (hasTail && StringUtil.matches(preText.text, VALUE_PRE_PATTERN)) {
+					node.macro = VALUE_MACRO;
+				} else if (hasTail && StringUtil.matches(preText.text, IN_PRE_PATTERN)) {
+					node.macro = IN;
+				} else if (StringUtil.matches(preText.text, LIKE_PRE_PATTERN)) {
+					node.macro = LIKE;
+				}
+				node.isCondition = StringUtil.matches(preText.text.toLowerCase(), IS_PRE_PATTERN);
+				// 剔除@blank(、@value(、in ( 以及结尾的")",渲染时再输出
+				if (node.macro == BLANK_MACRO || node.macro == VALUE_MACRO || node.macro == IN) {
+					if (node.macro == IN) {
+						preText.text = preText.text.substring(0, StringUtil.matchIndex(preText.text, IN_PRE_PATTERN));
+					} else {
+						preText.text = preText.text.substring(0, preText.text.lastIndexOf("@"));
+					}
+					int tailEnd = nextText.text.indexOf(")") + 1;
+					nextText.text = nextText.text.substring(tailEnd);
+					nextText.start = nextText.start + tailEnd;
+				}
+			}
+			for (SqlNode textNode : nodes) {
+				if (textNode.type != TEXT) {
+					continue;
+				}
+				// 未能识别的@blank(、@value(交由逐步解析模式处理
+				if (StringUtil.matches(textNode.text, MACRO_LEFT_PATTERN)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * @TODO 还原sql中原本的?号或??符号
+		 * @param text
+		 * @return
+		 */
+		private String restore(String text) {
+			if (namedArgs) {
+				return text.replace(SqlConfigParseUtils.QUESTMARK, SqlConfigParseUtils.ARG_NAME);
+			}
+			return text.replace(SqlConfigParseUtils.DBL_QUESTMARK, SqlConfigParseUtils.ARG_DBL_NAME);
+		}
+	}
+}
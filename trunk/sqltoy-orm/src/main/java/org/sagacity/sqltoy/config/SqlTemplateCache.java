@@ -0,0 +1,111 @@
+package org.sagacity.sqltoy.config;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @project sagacity-sqltoy
+ * @description sql编译模板缓存:基于ConcurrentHashMap,按CLOCK(二次机会)算法淘汰,读取无锁,仅在新增超出容量时加锁淘汰
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+public class SqlTemplateCache {
+	/**
+	 * 最大缓存数量
+	 */
+	private final int maxSize;
+
+	private final ConcurrentHashMap<String, Entry> templates;
+
+	/**
+	 * 时钟环(按进入顺序排列的key,淘汰时从头部取出,近期被访问过的清除标记后放回尾部)
+	 */
+	private final Queue<String> clock = new ConcurrentLinkedQueue<String>();
+
+	private final AtomicInteger size = new AtomicInteger(0);
+
+	private final Object evictLock = new Object();
+
+	public SqlTemplateCache(int maxSize) {
+		this.maxSize = maxSize;
+		this.templates = new ConcurrentHashMap<String, Entry>(Math.min(maxSize, 1024));
+	}
+
+	/**
+	 * @TODO 获取模板,命中时标记为近期访问
+	 * @param sql
+	 * @return
+	 */
+	public SqlTemplate get(String sql) {
+		Entry entry = templates.get(sql);
+		if (entry == null) {
+			return null;
+		}
+		// 已标记则不再写入,避免热点sql的缓存行争用
+		if (!entry.referenced) {
+			entry.referenced = true;
+		}
+		return entry.template;
+	}
+
+	/**
+	 * @TODO 放入模板,超出容量时淘汰近期未被访问的模板
+	 * @param sql
+	 * @param template
+	 */
+	public void put(String sql, SqlTemplate template) {
+		if (templates.putIfAbsent(sql, new Entry(template)) != null) {
+			return;
+		}
+		clock.offer(sql);
+		if (size.incrementAndGet() > maxSize) {
+			evict(sql);
+		}
+	}
+
+	public int size() {
+		return size.get();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @TODO 淘汰近期未被访问的模板
+	 * @param newSql 本次新增的sql,不参与本轮淘汰
+	 */
+	private void evict(String newSql) {
+		synchronized (evictLock) {
+			String sql;
+			Entry entry;
+			while (size.get() > maxSize && (sql = clock.poll()) != null) {
+				entry = templates.get(sql);
+				if (entry == null) {
+					continue;
+				}
+				if (sql.equals(newSql)) {
+					clock.offer(sql);
+				} // 二次机会:近期访问过的清除标记后放回
+				else if (entry.referenced) {
+					entry.referenced = false;
+					clock.offer(sql);
+				} else if (templates.remove(sql, entry)) {
+					size.decrementAndGet();
+				}
+			}
+		}
+	}
+
+	private static class Entry {
+		private final SqlTemplate template;
+
+		private volatile boolean referenced = false;
+
+		Entry(SqlTemplate template) {
+			this.template = template;
+		}
+	}
+}
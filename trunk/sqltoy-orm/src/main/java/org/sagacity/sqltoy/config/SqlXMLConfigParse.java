@@ -36,9 +36,9 @@ import org.sagacity.sqltoy.config.model.SqlType;
 import org.sagacity.sqltoy.config.model.SummaryModel;
 import org.sagacity.sqltoy.config.model.Translate;
 import org.sagacity.sqltoy.config.model.UnpivotModel;
-import org.sagacity.sqltoy.dialect.utils.PageOptimizeUtils;
 import org.sagacity.sqltoy.model.IgnoreCaseSet;
 import org.sagacity.sqltoy.plugins.function.FunctionUtils;
+import org.sagacity.sqltoy.plugins.page.PageCountCache;
 import org.sagacity.sqltoy.utils.BeanUtil;
 import org.sagacity.sqltoy.utils.DataSourceUtils;
 import org.sagacity.sqltoy.utils.ReservedWordsUtil;
@@ -63,6 +63,7 @@ import org.w3c.dom.NodeList;
  * @modify Date:2020-3-27 {增加rows-chain-relative 和 cols-chain-relative
  *         环比计算功能,并优化unpivot解析改用XMLUtil类}
  * @modify Date:2020-7-2 {支持外部集成命名空间前缀适配解析,如报表集成定义了前缀s:filters等}
+ * @modify Date:2026-10-18 {parseXML和parseSingleFile增加PageCountCache参数,原方法保留为@Deprecated}
  */
 @SuppressWarnings({ "rawtypes", "unchecked" })
 public class SqlXMLConfigParse {
@@ -102,9 +103,27 @@ public class SqlXMLConfigParse {
 	 * @param encoding
 	 * @param dialect
 	 * @throws Exception
+	 * @deprecated 分页优化缓存已由SqlToyContext持有,此方法不清除分页优化缓存,请使用带PageCountCache参数的方法
 	 */
+	@Deprecated
 	public static void parseXML(List xmlFiles, ConcurrentHashMap<String, Long> filesLastModifyMap,
 			ConcurrentHashMap<String, SqlToyConfig> cache, String encoding, String dialect) throws Exception {
+		parseXML(xmlFiles, filesLastModifyMap, cache, encoding, dialect, null);
+	}
+
+	/**
+	 * @todo 判断文件 是否被修改，修改了则重新解析文件重置缓存
+	 * @param xmlFiles
+	 * @param filesLastModifyMap
+	 * @param cache
+	 * @param encoding
+	 * @param dialect
+	 * @param pageCountCache 分页优化总记录数缓存(重新加载时清除被覆盖sql的缓存)
+	 * @throws Exception
+	 */
+	public static void parseXML(List xmlFiles, ConcurrentHashMap<String, Long> filesLastModifyMap,
+			ConcurrentHashMap<String, SqlToyConfig> cache, String encoding, String dialect,
+			PageCountCache pageCountCache) throws Exception {
 		if (xmlFiles == null || xmlFiles.isEmpty()) {
 			return;
 		}
@@ -131,7 +150,7 @@ public class SqlXMLConfigParse {
 						} else {
 							out.println("sql文件:" + fileName + " 已经被修改,进行重新解析!");
 						}
-						parseSingleFile(sqlFile, filesLastModifyMap, cache, encoding, dialect, true, -1);
+						parseSingleFile(sqlFile, filesLastModifyMap, cache, encoding, dialect, true, -1, pageCountCache);
 					}
 				}
 			}
@@ -149,10 +168,31 @@ public class SqlXMLConfigParse {
 	 * @param index
 	 * @return
 	 * @throws Exception
+	 * @deprecated 分页优化缓存已由SqlToyContext持有,此方法不清除分页优化缓存,请使用带PageCountCache参数的方法
 	 */
+	@Deprecated
 	public static List<String> parseSingleFile(Object xmlFile, ConcurrentHashMap<String, Long> filesLastModifyMap,
 			ConcurrentHashMap<String, SqlToyConfig> cache, String encoding, String dialect, boolean isReload, int index)
 			throws Exception {
+		return parseSingleFile(xmlFile, filesLastModifyMap, cache, encoding, dialect, isReload, index, null);
+	}
+
+	/**
+	 * @todo <b>解析单个sql对应的xml文件</b>
+	 * @param xmlFile
+	 * @param filesLastModifyMap
+	 * @param cache
+	 * @param encoding
+	 * @param dialect
+	 * @param isReload
+	 * @param index
+	 * @param pageCountCache
+	 * @return
+	 * @throws Exception
+	 */
+	public static List<String> parseSingleFile(Object xmlFile, ConcurrentHashMap<String, Long> filesLastModifyMap,
+			ConcurrentHashMap<String, SqlToyConfig> cache, String encoding, String dialect, boolean isReload, int index,
+			PageCountCache pageCountCache) throws Exception {
 		InputStream fileIS = null;
 		List<String> repeatSql = new ArrayList<String>();
 		try {
@@ -196,8 +236,8 @@ public class SqlXMLConfigParse {
 								repeatSql.add(StringUtil.fillArgs("sql文件:{} 中发现重复的SQL语句id={} 已经被覆盖!", sqlFile,
 										sqlToyConfig.getId()));
 								// 移除分页优化缓存
-								if (isReload) {
-									PageOptimizeUtils.remove(sqlToyConfig.getId());
+								if (isReload && pageCountCache != null) {
+									pageCountCache.remove(sqlToyConfig.getId());
 								}
 							}
 							cache.put(sqlToyConfig.getId(), sqlToyConfig);
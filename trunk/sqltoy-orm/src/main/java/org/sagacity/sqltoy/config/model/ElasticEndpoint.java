@@ -26,6 +26,7 @@ import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.http.ssl.SSLContexts;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
+import org.sagacity.sqltoy.SqlToyConstants;
 import org.sagacity.sqltoy.utils.FileUtil;
 import org.sagacity.sqltoy.utils.StringUtil;
 
@@ -34,6 +35,7 @@ import org.sagacity.sqltoy.utils.StringUtil;
  * @description es配置
  * @author zhongxuchen
  * @version v1.0,Date:2018年2月5日
+ * @modify {Date:2026-10-18,restClient设置连接池大小和长连接保持时长,随SqlToyContext销毁时关闭}
  */
 public class ElasticEndpoint implements Serializable {
 
@@ -416,11 +418,17 @@ public class ElasticEndpoint implements Serializable {
 					}
 					final SSLContext sslContext = (sslBuilder == null) ? null : sslBuilder.build();
 					final boolean disableAuthCaching = !authCaching;
+					// 连接池参数与HttpClientManager一致
+					final int maxConnTotal = getIntValue("sqltoy.http.pool.max.total", 200);
+					final int maxConnPerRoute = getIntValue("sqltoy.http.pool.max.per.route", 50);
+					final long keepAliveMillis = getIntValue("sqltoy.http.keepalive.seconds", 60) * 1000L;
 					builder.setHttpClientConfigCallback(new RestClientBuilder.HttpClientConfigCallback() {
 						@Override
 						public HttpAsyncClientBuilder customizeHttpClient(HttpAsyncClientBuilder httpClientBuilder) {
 							httpClientBuilder.setDefaultConnectionConfig(connectionConfig)
-									.setDefaultRequestConfig(requestConfig);
+									.setDefaultRequestConfig(requestConfig).setMaxConnTotal(maxConnTotal)
+									.setMaxConnPerRoute(maxConnPerRoute)
+									.setKeepAliveStrategy((response, context) -> keepAliveMillis);
 							// 禁用抢占式身份验证
 							if (disableAuthCaching) {
 								httpClientBuilder.disableAuthCaching();
@@ -444,4 +452,26 @@ public class ElasticEndpoint implements Serializable {
 		}
 	}
 
+	/**
+	 * @TODO 关闭restClient(由SqlToyContext销毁时调用)
+	 */
+	public void destroy() {
+		if (restClient != null) {
+			try {
+				restClient.close();
+			} catch (Exception e) {
+				// 忽略关闭异常
+			}
+			restClient = null;
+		}
+	}
+
+	private static int getIntValue(String key, int defaultValue) {
+		String value = SqlToyConstants.getKeyValue(key);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		return Math.max(Integer.parseInt(value.trim()), 1);
+	}
+
 }
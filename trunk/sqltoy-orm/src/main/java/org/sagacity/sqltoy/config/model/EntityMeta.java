@@ -8,10 +8,13 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import org.sagacity.sqltoy.model.IgnoreCaseSet;
 import org.sagacity.sqltoy.model.SecureType;
 import org.sagacity.sqltoy.plugins.id.IdGenerator;
+import org.sagacity.sqltoy.utils.BeanPropsReader;
 import org.sagacity.sqltoy.utils.ReservedWordsUtil;
 import org.sagacity.sqltoy.utils.StringUtil;
 
@@ -20,6 +23,8 @@ import org.sagacity.sqltoy.utils.StringUtil;
  * @description sqltoy entity实体对象信息
  * @author zhongxuchen
  * @version v1.0,Date:2012-6-1
+ * @modify 2026-10-18 增加对象属性读取计划缓存,批量保存修改时不再逐次匹配get方法
+ * @modify 2026-10-18 增加insert/update/saveOrUpdate等DML语句缓存
  */
 @SuppressWarnings({ "rawtypes" })
 public class EntityMeta implements Serializable {
@@ -28,6 +33,11 @@ public class EntityMeta implements Serializable {
 	 */
 	private static final long serialVersionUID = -1723897636996281118L;
 
+	/**
+	 * 单个实体缓存的DML语句数量上限(分表场景下表名不同会形成不同的语句)
+	 */
+	private static final int MAX_DML_SQLS = 256;
+
 	private Class entityClass;
 
 	/**
@@ -202,6 +212,16 @@ public class EntityMeta implements Serializable {
 	 */
 	private IgnoreCaseSet secureColumns;
 
+	/**
+	 * 预编译的属性读取计划(key:属性集合)
+	 */
+	private transient volatile ConcurrentHashMap<String, BeanPropsReader> propsReaders;
+
+	/**
+	 * 缓存的DML语句(key:操作类型、数据库类型、表名、强制修改字段等)
+	 */
+	private transient volatile ConcurrentHashMap<String, String> dmlSqls;
+
 	/**
 	 * @return the loadAllSql
 	 */
@@ -228,6 +248,7 @@ public class EntityMeta implements Serializable {
 	 */
 	public void setTableName(String tableName) {
 		this.tableName = tableName;
+		clearDmlSqls();
 	}
 
 	/**
@@ -768,6 +789,7 @@ public class EntityMeta implements Serializable {
 	 */
 	public void setSchema(String schema) {
 		this.schema = schema;
+		clearDmlSqls();
 	}
 
 	public List<FieldSecureConfig> getSecureFields() {
@@ -790,4 +812,63 @@ public class EntityMeta implements Serializable {
 	public void setSecureColumns(IgnoreCaseSet secureColumns) {
 		this.secureColumns = secureColumns;
 	}
+
+	/**
+	 * @TODO 获取实体属性集合对应的预编译读取计划(get方法只解析一次)
+	 * @param properties 如fieldsArray、rejectIdFieldArray、idArray
+	 * @return
+	 */
+	public BeanPropsReader getPropsReader(String[] properties) {
+		ConcurrentHashMap<String, BeanPropsReader> readers = propsReaders;
+		if (readers == null) {
+			synchronized (this) {
+				if (propsReaders == null) {
+					propsReaders = new ConcurrentHashMap<String, BeanPropsReader>();
+				}
+				readers = propsReaders;
+			}
+		}
+		return readers.computeIfAbsent(String.join(",", properties),
+				(key) -> new BeanPropsReader(entityClass, properties));
+	}
+
+	/**
+	 * @TODO 获取缓存的DML语句,不存在则通过generator产生并缓存(generator返回null不缓存)
+	 * @param key       由操作类型、数据库类型、实际表名、强制修改字段等组成
+	 * @param generator
+	 * @return
+	 */
+	public String getDmlSql(String key, Function<String, String> generator) {
+		ConcurrentHashMap<String, String> sqls = dmlSqls;
+		if (sqls == null) {
+			synchronized (this) {
+				if (dmlSqls == null) {
+					dmlSqls = new ConcurrentHashMap<String, String>();
+				}
+				sqls = dmlSqls;
+			}
+		}
+		String sql = sqls.get(key);
+		if (sql == null) {
+			sql = generator.apply(key);
+			if (sql != null) {
+				// 分表数量过多时整体清空,防止无限增长
+				if (sqls.size() >= MAX_DML_SQLS) {
+					sqls.clear();
+				}
+				sqls.put(key, sql);
+			}
+		}
+		return sql;
+	}
+
+	/**
+	 * @TODO 清除缓存的DML语句(表名、schema变化时)
+	 */
+	public void clearDmlSqls() {
+		ConcurrentHashMap<String, String> sqls = dmlSqls;
+		if (sqls != null) {
+			sqls.clear();
+		}
+	}
 }
@@ -4,6 +4,7 @@
 package org.sagacity.sqltoy.config.model;
 
 import java.io.Serializable;
+import java.util.HashMap;
 
 import javax.sql.DataSource;
 
@@ -12,6 +13,7 @@ import javax.sql.DataSource;
  * @description 单一分库分表模型
  * @author zhongxuchen
  * @version v1.0,Date:2017年11月6日
+ * @modify {Date:2026-10-18,增加sql中表名对应的分表,用于跨分片查询}
  */
 public class ShardingModel implements Serializable {
 	/**
@@ -34,6 +36,11 @@ public class ShardingModel implements Serializable {
 	 */
 	private String tableName;
 
+	/**
+	 * sql中表名对应的实际分表(跨分片查询时使用)
+	 */
+	private HashMap<String, String> shardingTables;
+
 	/**
 	 * @return the dataSourceName
 	 */
@@ -76,4 +83,18 @@ public class ShardingModel implements Serializable {
 		this.tableName = tableName;
 	}
 
+	/**
+	 * @return the shardingTables
+	 */
+	public HashMap<String, String> getShardingTables() {
+		return shardingTables;
+	}
+
+	/**
+	 * @param shardingTables the shardingTables to set
+	 */
+	public void setShardingTables(HashMap<String, String> shardingTables) {
+		this.shardingTables = shardingTables;
+	}
+
 }
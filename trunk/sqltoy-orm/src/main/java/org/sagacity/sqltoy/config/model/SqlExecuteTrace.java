@@ -5,7 +5,9 @@ package org.sagacity.sqltoy.config.model;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.sagacity.sqltoy.utils.IdUtil;
 
@@ -77,6 +79,11 @@ public class SqlExecuteTrace implements Serializable {
 	 */
 	private List<SqlExecuteLog> executeLogs = new ArrayList<SqlExecuteLog>();
 
+	/**
+	 * 并行执行各分支的耗时(毫秒),如并行分页的count和rows
+	 */
+	private Map<String, Long> legTimes;
+
 	/**
 	 * @return the start
 	 */
@@ -176,9 +183,32 @@ public class SqlExecuteTrace implements Serializable {
 		this.overTime = overTime;
 	}
 
-	public void addLogs(List<SqlExecuteLog> sqlExecuteLogs) {
+	// 并行分支线程会同时合并日志
+	public synchronized void addLogs(List<SqlExecuteLog> sqlExecuteLogs) {
 		if (sqlExecuteLogs != null && !sqlExecuteLogs.isEmpty()) {
 			executeLogs.addAll(sqlExecuteLogs);
 		}
 	}
+
+	/**
+	 * @TODO 登记并行分支的耗时
+	 * @param leg    分支名称
+	 * @param millis 耗时(毫秒)
+	 */
+	public synchronized void addLegTime(String leg, long millis) {
+		if (legTimes == null) {
+			legTimes = new LinkedHashMap<String, Long>();
+		}
+		legTimes.put(leg, millis);
+	}
+
+	/**
+	 * @return the legTimes
+	 */
+	public synchronized Map<String, Long> getLegTimes() {
+		if (legTimes == null) {
+			return null;
+		}
+		return new LinkedHashMap<String, Long>(legTimes);
+	}
 }
@@ -6,6 +6,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.sql.DataSource;
 
@@ -467,6 +468,14 @@ public interface SqlToyLazyDao {
 	 */
 	public QueryResult findByQuery(final QueryExecutor query);
 
+	/**
+	 * @TODO 流式查询,ResultSet打开期间逐条将结果(已完成缓存翻译、脱敏、格式化)推送给consumer,不在内存中保留全部结果
+	 * @param query    范例:new QueryExecutor(sql).names(xxx).values(xxx).resultType(xxx).fetchSize(xxx)
+	 * @param consumer
+	 * @return 处理的记录数
+	 */
+	public <T> long forEach(final QueryExecutor query, final Consumer<T> consumer);
+
 	/**
 	 * @todo 通过对象传参数,简化paramName[],paramValue[] 模式传参
 	 * @param <T>
@@ -6,6 +6,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.sql.DataSource;
 
@@ -571,6 +572,11 @@ public class SqlToyLazyDaoImpl extends SqlToyDaoSupport implements SqlToyLazyDao
 		return super.findByQuery(queryExecutor);
 	}
 
+	@Override
+	public <T> long forEach(QueryExecutor queryExecutor, Consumer<T> consumer) {
+		return super.forEach(queryExecutor, consumer);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -7,9 +7,13 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 import javax.sql.DataSource;
@@ -26,6 +30,7 @@ import org.sagacity.sqltoy.config.SqlConfigParseUtils;
 import org.sagacity.sqltoy.config.model.EntityMeta;
 import org.sagacity.sqltoy.config.model.FieldMeta;
 import org.sagacity.sqltoy.config.model.PageOptimize;
+import org.sagacity.sqltoy.config.model.PivotModel;
 import org.sagacity.sqltoy.config.model.ShardingModel;
 import org.sagacity.sqltoy.config.model.SqlExecuteTrace;
 import org.sagacity.sqltoy.config.model.SqlParamsModel;
@@ -59,7 +64,11 @@ import org.sagacity.sqltoy.model.TableMeta;
 import org.sagacity.sqltoy.model.TreeTableModel;
 import org.sagacity.sqltoy.model.UniqueExecutor;
 import org.sagacity.sqltoy.model.inner.QueryExecutorExtend;
+import org.sagacity.sqltoy.plugins.executor.ExecutorManager;
+import org.sagacity.sqltoy.plugins.page.PageCountKey;
 import org.sagacity.sqltoy.plugins.secure.FieldsSecureProvider;
+import org.sagacity.sqltoy.plugins.sharding.ShardingResultMerger;
+import org.sagacity.sqltoy.plugins.sharding.ShardingResultMerger.MergeOrder;
 import org.sagacity.sqltoy.plugins.sharding.ShardingUtils;
 import org.sagacity.sqltoy.utils.BeanUtil;
 import org.sagacity.sqltoy.utils.CollectionUtil;
@@ -70,6 +79,7 @@ import org.sagacity.sqltoy.utils.QueryExecutorBuilder;
 import org.sagacity.sqltoy.utils.ResultUtils;
 import org.sagacity.sqltoy.utils.SqlUtil;
 import org.sagacity.sqltoy.utils.SqlUtilsExt;
+import org.sagacity.sqltoy.utils.StreamResultHandler;
 import org.sagacity.sqltoy.utils.StringUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -82,6 +92,7 @@ import org.slf4j.LoggerFactory;
  * @update data:2020-06-05 增加dm(达梦)数据库支持
  * @update data:2020-06-10 增加tidb、guassdb、oceanbase支持,规整sqlserver的版本(默认仅支持2012+)
  * @update data:2021-01-25 分页支持并行查询
+ * @update data:2026-10-18 findByQuery、findPage、getCountBySql支持跨分片并行查询(shardingScatter)
  */
 @SuppressWarnings({ "rawtypes", "unchecked" })
 public class DialectFactory {
@@ -667,8 +678,16 @@ public class DialectFactory {
 			// 规整查询参数名称和参数名称对应的值
 			QueryExecutorBuilder.initQueryExecutor(sqlToyContext, extend, sqlToyConfig, true);
 			SqlExecuteStat.start(sqlToyConfig.getId(), "findPage", sqlToyConfig.isShowSql());
-			QueryResult result = (QueryResult) DataSourceUtils.processDataSource(sqlToyContext,
-					ShardingUtils.getShardingDataSource(sqlToyContext, sqlToyConfig, queryExecutor, dataSource),
+			// 跨分片查询
+			if (extend.shardingScatter) {
+				QueryResult result = scatterPage(sqlToyContext, queryExecutor, sqlToyConfig, pageNo, pageSize,
+						dataSource);
+				result.setExecuteTime(System.currentTimeMillis() - startTime);
+				return result;
+			}
+			final DataSource realDataSource = ShardingUtils.getShardingDataSource(sqlToyContext, sqlToyConfig,
+					queryExecutor, dataSource);
+			QueryResult result = (QueryResult) DataSourceUtils.processDataSource(sqlToyContext, realDataSource,
 					new DataSourceCallbackHandler() {
 						@Override
 						public void doConnection(Connection conn, Integer dbType, String dialect) throws Exception {
@@ -682,13 +701,13 @@ public class DialectFactory {
 							}
 							Long recordCnt = null;
 							// 通过查询条件构造唯一的key
-							String pageQueryKey = PageOptimizeUtils.generateOptimizeKey(sqlToyContext, sqlToyConfig,
+							PageCountKey pageQueryKey = PageOptimizeUtils.generateOptimizeKey(sqlToyContext, sqlToyConfig,
 									queryExecutor, pageOptimize);
 							// 需要进行分页查询优化
 							if (null != pageQueryKey) {
 								// 从缓存中提取总记录数
-								recordCnt = PageOptimizeUtils.getPageTotalCount(realSqlToyConfig, pageOptimize,
-										pageQueryKey);
+								recordCnt = PageOptimizeUtils.getPageTotalCount(sqlToyContext, realSqlToyConfig,
+										pageOptimize, pageQueryKey);
 								if (recordCnt != null) {
 									SqlExecuteStat.debug("过程提示", "分页优化条件命中,从缓存中获得总记录数:{}!!", recordCnt);
 								}
@@ -697,12 +716,12 @@ public class DialectFactory {
 							if (pageOptimize != null && pageOptimize.isParallel() && pageNo != -1
 									&& recordCnt == null) {
 								queryResult = parallelPage(sqlToyContext, queryExecutor, realSqlToyConfig, extend,
-										pageNo, pageSize, pageOptimize, conn, dbType, dialect);
+										pageNo, pageSize, pageOptimize, conn, realDataSource, dbType, dialect);
 								recordCnt = queryResult.getRecordCount();
 								// 将并行后得到的总记录数登记到缓存
 								if (null != pageQueryKey) {
-									PageOptimizeUtils.registPageTotalCount(realSqlToyConfig, pageOptimize, pageQueryKey,
-											recordCnt);
+									PageOptimizeUtils.registPageTotalCount(sqlToyContext, realSqlToyConfig, pageOptimize,
+											pageQueryKey, recordCnt);
 								}
 							} else {
 								// 非并行且分页缓存未命中，执行count查询
@@ -712,8 +731,8 @@ public class DialectFactory {
 								}
 								// 将总记录数登记到缓存
 								if (null != pageQueryKey) {
-									PageOptimizeUtils.registPageTotalCount(realSqlToyConfig, pageOptimize, pageQueryKey,
-											recordCnt);
+									PageOptimizeUtils.registPageTotalCount(sqlToyContext, realSqlToyConfig, pageOptimize,
+											pageQueryKey, recordCnt);
 								}
 								// pageNo=-1时的提取数据量限制
 								int limitSize = sqlToyContext.getPageFetchSizeLimit();
@@ -807,6 +826,7 @@ public class DialectFactory {
 
 	/**
 	 * @update data:2021-01-25 分页支持并行查询
+	 * @update data:2026-10-18 非事务时count借用独立连接执行,实现真正并行,并记录各分支耗时
 	 * @TODO 并行分页查询，同时执行count和rows记录查询
 	 * @param sqlToyContext
 	 * @param queryExecutor
@@ -816,6 +836,7 @@ public class DialectFactory {
 	 * @param pageSize
 	 * @param pageOptimize
 	 * @param conn
+	 * @param dataSource
 	 * @param dbType
 	 * @param dialect
 	 * @return
@@ -823,55 +844,78 @@ public class DialectFactory {
 	 */
 	private QueryResult parallelPage(final SqlToyContext sqlToyContext, final QueryExecutor queryExecutor,
 			final SqlToyConfig sqlToyConfig, final QueryExecutorExtend extend, final long pageNo,
-			final Integer pageSize, PageOptimize pageOptimize, Connection conn, Integer dbType, String dialect)
-			throws Exception {
+			final Integer pageSize, PageOptimize pageOptimize, Connection conn, DataSource dataSource,
+			Integer dbType, String dialect) throws Exception {
 		final QueryResult queryResult = new QueryResult();
 		queryResult.setPageNo(pageNo);
 		queryResult.setPageSize(pageSize);
-		ExecutorService pool = null;
 		try {
 			SqlExecuteStat.debug("过程提示", "分页查询开始并行查询count总记录数和单页记录数据!");
 			final SqlExecuteTrace sqlTrace = SqlExecuteStat.get();
-			pool = Executors.newFixedThreadPool(2);
+			// 事务中count和rows必须在同一连接(同一事务)上执行,只能顺序执行
+			final boolean transactional = sqlToyContext.isTransactional(conn, dataSource);
+			if (transactional) {
+				SqlExecuteStat.debug("过程提示", "当前处于事务中,count和rows在同一连接上顺序执行!");
+			}
+			List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(2);
 			// 查询总记录数量
-			pool.submit(new Runnable() {
+			tasks.add(Executors.callable(new Runnable() {
 				@Override
 				public void run() {
+					Connection countConn = null;
 					try {
 						// 规避新的线程日志无法采集
 						SqlExecuteStat.mergeTrace(sqlTrace);
-						Long startTime = System.currentTimeMillis();
-						queryResult.setRecordCount(
-								getCountBySql(sqlToyContext, sqlToyConfig, queryExecutor, conn, dbType, dialect));
-						SqlExecuteStat.debug("查询count执行耗时", (System.currentTimeMillis() - startTime) + "毫秒!");
-						if (sqlTrace != null && SqlExecuteStat.get() != null) {
-							sqlTrace.addLogs(SqlExecuteStat.get().getExecuteLogs());
+						long startTime = System.currentTimeMillis();
+						// 非事务借用独立连接,避免跟rows查询在同一连接上被驱动串行化
+						countConn = transactional ? conn : sqlToyContext.getConnection(dataSource);
+						long connTime = System.currentTimeMillis();
+						queryResult.setRecordCount(getCountBySql(sqlToyContext, sqlToyConfig, queryExecutor, countConn,
+								dbType, dialect));
+						long endTime = System.currentTimeMillis();
+						SqlExecuteStat.debug("查询count执行耗时", (endTime - startTime) + "毫秒!");
+						if (sqlTrace != null) {
+							if (countConn != conn) {
+								sqlTrace.addLegTime("countConnection", connTime - startTime);
+							}
+							sqlTrace.addLegTime("count", endTime - connTime);
+							if (SqlExecuteStat.get() != null) {
+								sqlTrace.addLogs(SqlExecuteStat.get().getExecuteLogs());
+							}
 						}
 					} catch (Exception e) {
 						e.printStackTrace();
 						queryResult.setSuccess(false);
 						queryResult.setMessage("查询总记录数异常:" + e.getMessage());
 					} finally {
+						// 归还借用的连接
+						if (countConn != null && countConn != conn) {
+							sqlToyContext.releaseConnection(countConn, dataSource);
+						}
 						SqlExecuteStat.destroyNotLog();
 					}
 				}
-			});
+			}));
 			// 获取记录
-			pool.submit(new Runnable() {
+			tasks.add(Executors.callable(new Runnable() {
 				@Override
 				public void run() {
 					try {
 						SqlExecuteStat.mergeTrace(sqlTrace);
-						Long startTime = System.currentTimeMillis();
+						long startTime = System.currentTimeMillis();
 						QueryResult result = getDialectSqlWrapper(dbType).findPageBySql(sqlToyContext, sqlToyConfig,
 								queryExecutor, wrapDecryptHandler(sqlToyContext, extend.resultType), pageNo, pageSize,
 								conn, dbType, dialect, getFetchSize(extend.fetchSize), extend.maxRows);
 						queryResult.setRows(result.getRows());
 						queryResult.setLabelNames(result.getLabelNames());
 						queryResult.setLabelTypes(result.getLabelTypes());
-						SqlExecuteStat.debug("查询分页记录耗时", (System.currentTimeMillis() - startTime) + "毫秒!");
-						if (sqlTrace != null && SqlExecuteStat.get() != null) {
-							sqlTrace.addLogs(SqlExecuteStat.get().getExecuteLogs());
+						long endTime = System.currentTimeMillis();
+						SqlExecuteStat.debug("查询分页记录耗时", (endTime - startTime) + "毫秒!");
+						if (sqlTrace != null) {
+							sqlTrace.addLegTime("rows", endTime - startTime);
+							if (SqlExecuteStat.get() != null) {
+								sqlTrace.addLogs(SqlExecuteStat.get().getExecuteLogs());
+							}
 						}
 					} catch (Exception e) {
 						e.printStackTrace();
@@ -881,13 +925,16 @@ public class DialectFactory {
 						SqlExecuteStat.destroyNotLog();
 					}
 				}
-			});
-			pool.shutdown();
-			// 设置最大等待时长(秒)
-			if (pageOptimize.getParallelMaxWaitSeconds() > 0) {
-				pool.awaitTermination(pageOptimize.getParallelMaxWaitSeconds(), TimeUnit.SECONDS);
-			} else {
-				pool.awaitTermination(SqlToyConstants.PARALLEL_MAXWAIT_SECONDS, TimeUnit.SECONDS);
+			}));
+			// 提交共享线程池执行,并设置最大等待时长(秒)
+			List<Future<Object>> futures = sqlToyContext.getExecutorManager().invokeAll(ExecutorManager.PAGE, tasks,
+					transactional ? 1 : 2, pageOptimize.getParallelMaxWaitSeconds());
+			// 超时未完成的任务已被取消
+			for (Future<Object> future : futures) {
+				if (future.isCancelled()) {
+					throw new DataAccessException("并行分页查询超过最大等待时长:{}秒!",
+							pageOptimize.getParallelMaxWaitSeconds());
+				}
 			}
 			// 发生异常
 			if (!queryResult.isSuccess()) {
@@ -910,14 +957,257 @@ public class DialectFactory {
 		} catch (Exception e) {
 			e.printStackTrace();
 			throw new DataAccessException("并行查询执行错误:" + e.getMessage(), e);
-		} finally {
-			if (pool != null) {
-				pool.shutdownNow();
+		}
+		return queryResult;
+	}
+
+	/**
+	 * @todo 跨分片查询:并行查询全部分片,按order by归并结果(maxRows下推到每个分片)
+	 * @param sqlToyContext
+	 * @param queryExecutor
+	 * @param sqlToyConfig
+	 * @param lockMode
+	 * @param dataSource
+	 * @return
+	 * @throws Exception
+	 */
+	private QueryResult scatterQuery(final SqlToyContext sqlToyContext, final QueryExecutor queryExecutor,
+			final SqlToyConfig sqlToyConfig, final LockMode lockMode, final DataSource dataSource) throws Exception {
+		final QueryExecutorExtend extend = queryExecutor.getInnerModel();
+		validateScatterRowHandler(extend);
+		final AtomicInteger shardDbType = new AtomicInteger(DBType.UNDEFINE);
+		List<QueryResult> shardResults = scatterExecute(sqlToyContext, queryExecutor, sqlToyConfig, dataSource, false,
+				(realSqlToyConfig, conn, dbType, dialect) -> {
+					shardDbType.set(dbType);
+					SqlToyResult queryParam = SqlConfigParseUtils.processSql(realSqlToyConfig.getSql(dialect),
+							extend.getParamsName(realSqlToyConfig),
+							extend.getParamsValue(sqlToyContext, realSqlToyConfig), dialect);
+					// 已校验不存在rowCallbackHandler
+					return getDialectSqlWrapper(dbType).findBySql(sqlToyContext, realSqlToyConfig, queryParam.getSql(),
+							queryParam.getParamsValue(), null, wrapDecryptHandler(sqlToyContext, extend.resultType),
+							conn, lockMode, dbType, dialect, getFetchSize(extend.fetchSize), extend.maxRows);
+				});
+		QueryResult queryResult = mergeScatterResult(sqlToyContext, queryExecutor, sqlToyConfig, shardResults,
+				shardDbType.get(), 0, (extend.maxRows > 0) ? extend.maxRows : -1);
+		SqlExecuteStat.debug("查询结果", "跨{}个分片共查询出记录数={}条!", shardResults.size(), queryResult.getRecordCount());
+		return queryResult;
+	}
+
+	/**
+	 * @todo 跨分片分页:count为各分片之和,每个分片只取前pageNo*pageSize条记录,归并后截取当前页
+	 * @param sqlToyContext
+	 * @param queryExecutor
+	 * @param sqlToyConfig
+	 * @param pageNo
+	 * @param pageSize
+	 * @param dataSource
+	 * @return
+	 * @throws Exception
+	 */
+	private QueryResult scatterPage(final SqlToyContext sqlToyContext, final QueryExecutor queryExecutor,
+			final SqlToyConfig sqlToyConfig, final long pageNo, final Integer pageSize, final DataSource dataSource)
+			throws Exception {
+		final QueryExecutorExtend extend = queryExecutor.getInnerModel();
+		validateScatterRowHandler(extend);
+		final AtomicInteger shardDbType = new AtomicInteger(DBType.UNDEFINE);
+		long recordCnt = 0;
+		for (Long count : scatterExecute(sqlToyContext, queryExecutor, sqlToyConfig, dataSource, false,
+				(realSqlToyConfig, conn, dbType, dialect) -> getCountBySql(sqlToyContext, realSqlToyConfig,
+						queryExecutor, conn, dbType, dialect))) {
+			recordCnt += (count == null) ? 0 : count;
+		}
+		int limitSize = sqlToyContext.getPageFetchSizeLimit();
+		boolean illegal = (pageNo == -1 && (limitSize != -1 && recordCnt > limitSize));
+		QueryResult queryResult;
+		if (recordCnt == 0 || illegal) {
+			queryResult = new QueryResult();
+			queryResult.setPageNo((recordCnt == 0 && sqlToyContext.isPageOverToFirst()) ? 1L : pageNo);
+			queryResult.setPageSize(pageSize);
+			queryResult.setRecordCount(0L);
+			if (illegal) {
+				logger.warn("非法分页查询,提取记录总数为:{}>{}上限(可设置sqlToyContext中的pageFetchSizeLimit进行调整),sql={}",
+						recordCnt, limitSize, sqlToyConfig.getIdOrSql());
+			}
+			return queryResult;
+		}
+		// 提取全部记录
+		if (pageNo == -1) {
+			List<QueryResult> shardResults = scatterExecute(sqlToyContext, queryExecutor, sqlToyConfig, dataSource,
+					false, (realSqlToyConfig, conn, dbType, dialect) -> {
+						shardDbType.set(dbType);
+						SqlToyResult queryParam = SqlConfigParseUtils.processSql(realSqlToyConfig.getSql(dialect),
+								extend.getParamsName(realSqlToyConfig),
+								extend.getParamsValue(sqlToyContext, realSqlToyConfig), dialect);
+						// 已校验不存在rowCallbackHandler
+						return getDialectSqlWrapper(dbType).findBySql(sqlToyContext, realSqlToyConfig,
+								queryParam.getSql(), queryParam.getParamsValue(), null,
+								wrapDecryptHandler(sqlToyContext, extend.resultType), conn, null, dbType, dialect,
+								getFetchSize(extend.fetchSize), extend.maxRows);
+					});
+			queryResult = mergeScatterResult(sqlToyContext, queryExecutor, sqlToyConfig, shardResults,
+					shardDbType.get(), 0, -1);
+			long totalRecord = (queryResult.getRows() == null) ? 0 : queryResult.getRows().size();
+			queryResult.setPageNo(1L);
+			queryResult.setPageSize(Long.valueOf(totalRecord).intValue());
+			queryResult.setRecordCount(totalRecord);
+			return queryResult;
+		}
+		boolean isOverPage = (pageNo * pageSize >= (recordCnt + pageSize));
+		if (isOverPage && !sqlToyContext.isPageOverToFirst()) {
+			queryResult = new QueryResult();
+			queryResult.setPageNo(pageNo);
+		} else {
+			long realStartPage = isOverPage ? 1 : pageNo;
+			// limit下推:每个分片最多只需要取到当前页的最后一条
+			final int topSize = (int) Math.min(realStartPage * pageSize, Integer.MAX_VALUE);
+			List<QueryResult> shardResults = scatterExecute(sqlToyContext, queryExecutor, sqlToyConfig, dataSource,
+					false,
+					(realSqlToyConfig, conn, dbType, dialect) -> {
+						shardDbType.set(dbType);
+						return getDialectSqlWrapper(dbType).findTopBySql(sqlToyContext, realSqlToyConfig,
+								queryExecutor, wrapDecryptHandler(sqlToyContext, extend.resultType), topSize, conn,
+								dbType, dialect, getFetchSize(extend.fetchSize), extend.maxRows);
+					});
+			queryResult = mergeScatterResult(sqlToyContext, queryExecutor, sqlToyConfig, shardResults,
+					shardDbType.get(), (realStartPage - 1) * pageSize, pageSize);
+			queryResult.setPageNo(realStartPage);
+		}
+		queryResult.setPageSize(pageSize);
+		queryResult.setRecordCount(recordCnt);
+		return queryResult;
+	}
+
+	/**
+	 * @todo 归并各分片结果,再统一做计算(脱敏、格式化、汇总等)和结果类型映射
+	 * @param sqlToyContext
+	 * @param queryExecutor
+	 * @param sqlToyConfig
+	 * @param shardResults
+	 * @param dbType        分片数据库类型,决定未指定nulls first/last时null的排序
+	 * @param offset
+	 * @param limit         小于0表示不限制
+	 * @return
+	 * @throws Exception
+	 */
+	private QueryResult mergeScatterResult(final SqlToyContext sqlToyContext, final QueryExecutor queryExecutor,
+			final SqlToyConfig sqlToyConfig, List<QueryResult> shardResults, Integer dbType, long offset, long limit)
+			throws Exception {
+		final QueryExecutorExtend extend = queryExecutor.getInnerModel();
+		QueryResult queryResult = new QueryResult();
+		List<List<List>> shardRows = new ArrayList<List<List>>(shardResults.size());
+		for (QueryResult shardResult : shardResults) {
+			if (shardResult == null) {
+				continue;
+			}
+			if (queryResult.getLabelNames() == null && shardResult.getLabelNames() != null) {
+				queryResult.setLabelNames(shardResult.getLabelNames());
+				queryResult.setLabelTypes(shardResult.getLabelTypes());
+			}
+			shardRows.add(shardResult.getRows());
+		}
+		MergeOrder mergeOrder = ShardingResultMerger.parseOrder(sqlToyConfig.getSql(null),
+				queryResult.getLabelNames(), dbType);
+		queryResult.setRows(ShardingResultMerger.merge(shardRows, mergeOrder, offset, limit));
+		if (!queryResult.getRows().isEmpty()) {
+			// 数据旋转的分类由结果自身提取(不支持category-sql)
+			boolean changedCols = ResultUtils.calculate(sqlToyContext.getDesensitizeProvider(), sqlToyConfig,
+					queryResult, null, extend);
+			if (extend.resultType != null) {
+				queryResult.setRows(ResultUtils.wrapQueryResult(sqlToyContext, queryResult.getRows(),
+						queryResult.getLabelNames(), (Class) extend.resultType, changedCols, extend.humpMapLabel));
 			}
 		}
 		return queryResult;
 	}
 
+	/**
+	 * @todo 跨分片查询需归并全部分片结果后再统一处理,各分片逐行回调的rowCallbackHandler无法保证顺序和分页
+	 * @param extend
+	 */
+	@SuppressWarnings("deprecation")
+	private void validateScatterRowHandler(QueryExecutorExtend extend) {
+		if (extend.rowCallbackHandler != null) {
+			throw new IllegalArgumentException("跨分片查询不支持rowCallbackHandler!");
+		}
+	}
+
+	/**
+	 * @todo 在全部分片(库 × 表)上并行执行,按分片顺序返回各分片结果
+	 * @param sqlToyContext
+	 * @param queryExecutor
+	 * @param sqlToyConfig
+	 * @param dataSource
+	 * @param wrapNamed
+	 * @param handler
+	 * @return
+	 * @throws Exception
+	 */
+	private <T> List<T> scatterExecute(final SqlToyContext sqlToyContext, final QueryExecutor queryExecutor,
+			final SqlToyConfig sqlToyConfig, final DataSource dataSource, final boolean wrapNamed,
+			final ScatterHandler<T> handler) throws Exception {
+		List resultProcessors = new ArrayList(sqlToyConfig.getResultProcessor());
+		resultProcessors.addAll(queryExecutor.getInnerModel().calculators);
+		for (Object processor : resultProcessors) {
+			if (processor instanceof PivotModel && ((PivotModel) processor).getCategorySql() != null) {
+				throw new IllegalArgumentException("跨分片查询不支持通过category-sql获取分类的数据旋转!");
+			}
+		}
+		List<ShardingModel> shards = ShardingUtils.getScatterShards(sqlToyContext, sqlToyConfig, queryExecutor,
+				dataSource);
+		SqlExecuteStat.debug("过程提示", "跨分片并行查询,分片数量:{}!", shards.size());
+		final SqlExecuteTrace sqlTrace = SqlExecuteStat.get();
+		List<Callable<T>> tasks = new ArrayList<Callable<T>>(shards.size());
+		for (final ShardingModel shard : shards) {
+			tasks.add(() -> {
+				try {
+					SqlExecuteStat.mergeTrace(sqlTrace);
+					return (T) DataSourceUtils.processDataSource(sqlToyContext, shard.getDataSource(),
+							new DataSourceCallbackHandler() {
+								@Override
+								public void doConnection(Connection conn, Integer dbType, String dialect)
+										throws Exception {
+									SqlToyConfig realSqlToyConfig = DialectUtils.getUnifyParamsNamedConfig(
+											sqlToyContext, sqlToyConfig, queryExecutor, dialect, wrapNamed,
+											shard.getShardingTables());
+									this.setResult(handler.execute(realSqlToyConfig, conn, dbType, dialect));
+								}
+							});
+				} finally {
+					if (sqlTrace != null && SqlExecuteStat.get() != null && SqlExecuteStat.get() != sqlTrace) {
+						sqlTrace.addLogs(SqlExecuteStat.get().getExecuteLogs());
+					}
+					SqlExecuteStat.destroyNotLog();
+				}
+			});
+		}
+		List<Future<T>> futures = sqlToyContext.getExecutorManager().invokeAll(ExecutorManager.SHARDING, tasks, -1,
+				SqlToyConstants.PARALLEL_MAXWAIT_SECONDS);
+		List<T> result = new ArrayList<T>(futures.size());
+		for (int i = 0; i < futures.size(); i++) {
+			try {
+				result.add(futures.get(i).get());
+			} catch (ExecutionException e) {
+				ShardingModel shard = shards.get(i);
+				throw new DataAccessException("跨分片查询在分片[dataSource:" + shard.getDataSourceName() + ",tables:"
+						+ shard.getShardingTables() + "]执行失败:" + e.getCause().getMessage(), e.getCause());
+			} catch (CancellationException e) {
+				ShardingModel shard = shards.get(i);
+				throw new DataAccessException("跨分片查询在分片[dataSource:" + shard.getDataSourceName() + ",tables:"
+						+ shard.getShardingTables() + "]超过最大等待时长:" + SqlToyConstants.PARALLEL_MAXWAIT_SECONDS
+						+ "秒,已取消!");
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 单个分片上的执行逻辑
+	 */
+	@FunctionalInterface
+	private interface ScatterHandler<T> {
+		T execute(SqlToyConfig realSqlToyConfig, Connection conn, Integer dbType, String dialect) throws Exception;
+	}
+
 	/**
 	 * @todo 取符合条件的前多少条记录
 	 * @param sqlToyContext
@@ -1018,6 +1308,12 @@ public class DialectFactory {
 			// 规整查询参数名称和参数名称对应的值
 			QueryExecutorBuilder.initQueryExecutor(sqlToyContext, extend, sqlToyConfig, false);
 			SqlExecuteStat.start(sqlToyConfig.getId(), "findByQuery", sqlToyConfig.isShowSql());
+			// 跨分片查询
+			if (extend.shardingScatter) {
+				QueryResult result = scatterQuery(sqlToyContext, queryExecutor, sqlToyConfig, lockMode, dataSource);
+				result.setExecuteTime(System.currentTimeMillis() - startTime);
+				return result;
+			}
 			QueryResult result = (QueryResult) DataSourceUtils.processDataSource(sqlToyContext,
 					ShardingUtils.getShardingDataSource(sqlToyContext, sqlToyConfig, queryExecutor, dataSource),
 					new DataSourceCallbackHandler() {
@@ -1063,6 +1359,71 @@ public class DialectFactory {
 		}
 	}
 
+	/**
+	 * @TODO 流式查询:在ResultSet打开期间逐行处理(解密、缓存翻译、脱敏、格式化、映射结果类型)并推送给消费者,不在内存中保留全部结果,
+	 *       适用于大批量数据导出(mysql需设置fetchSize为Integer.MIN_VALUE或开启useCursorFetch,postgresql需在事务中才会按fetchSize分批提取)
+	 *       mysql流式读取期间同一连接不能执行其他sql,因此不默认开启,需通过queryExecutor.fetchSize(Integer.MIN_VALUE)显式指定
+	 * @param sqlToyContext
+	 * @param queryExecutor
+	 * @param sqlToyConfig
+	 * @param dataSource
+	 * @param consumer
+	 * @return 推送给消费者的记录数
+	 */
+	public long forEach(final SqlToyContext sqlToyContext, final QueryExecutor queryExecutor,
+			final SqlToyConfig sqlToyConfig, final DataSource dataSource, final Consumer consumer) {
+		final QueryExecutorExtend extend = queryExecutor.getInnerModel();
+		// 合法校验
+		if (StringUtil.isBlank(extend.sql)) {
+			throw new IllegalArgumentException("forEach operate sql is null!");
+		}
+		if (consumer == null) {
+			throw new IllegalArgumentException("forEach 流式查询的consumer不能为null!");
+		}
+		@SuppressWarnings("deprecation")
+		boolean hasRowHandler = extend.rowCallbackHandler != null;
+		// link、旋转、汇总、环比等需要全量数据才能计算
+		if (sqlToyConfig.getLinkModel() != null || !sqlToyConfig.getResultProcessor().isEmpty()
+				|| !extend.calculators.isEmpty() || hasRowHandler) {
+			throw new IllegalArgumentException("forEach 流式查询不支持link、旋转、汇总、环比等需全量结果的计算以及rowCallbackHandler!");
+		}
+		try {
+			// 规整查询参数名称和参数名称对应的值
+			QueryExecutorBuilder.initQueryExecutor(sqlToyContext, extend, sqlToyConfig, false);
+			SqlExecuteStat.start(sqlToyConfig.getId(), "forEach", sqlToyConfig.isShowSql());
+			Long result = (Long) DataSourceUtils.processDataSource(sqlToyContext,
+					ShardingUtils.getShardingDataSource(sqlToyContext, sqlToyConfig, queryExecutor, dataSource),
+					new DataSourceCallbackHandler() {
+						@Override
+						public void doConnection(Connection conn, Integer dbType, String dialect) throws Exception {
+							// 处理sql中的?为统一的:named形式，并进行sharding table替换
+							SqlToyConfig realSqlToyConfig = DialectUtils.getUnifyParamsNamedConfig(sqlToyContext,
+									sqlToyConfig, queryExecutor, dialect, false);
+							// 通过参数处理最终的sql和参数值
+							SqlToyResult queryParam = SqlConfigParseUtils.processSql(realSqlToyConfig.getSql(dialect),
+									extend.getParamsName(realSqlToyConfig),
+									extend.getParamsValue(sqlToyContext, realSqlToyConfig), dialect);
+							int fetchSize = getStreamFetchSize(extend.fetchSize, dbType);
+							StreamResultHandler handler = new StreamResultHandler(sqlToyContext, realSqlToyConfig,
+									extend, wrapDecryptHandler(sqlToyContext, extend.resultType), fetchSize, consumer);
+							// 借助各方言统一的rowCallbackHandler机制逐行处理
+							getDialectSqlWrapper(dbType).findBySql(sqlToyContext, realSqlToyConfig, queryParam.getSql(),
+									queryParam.getParamsValue(), handler, null, conn, extend.lockMode, dbType, dialect,
+									fetchSize, extend.maxRows);
+							handler.flush();
+							SqlExecuteStat.debug("查询结果", "共流式处理记录数={}条!", handler.getCount());
+							this.setResult(handler.getCount());
+						}
+					});
+			return (result == null) ? 0L : result;
+		} catch (Exception e) {
+			SqlExecuteStat.error(e);
+			throw new DataAccessException(e);
+		} finally {
+			SqlExecuteStat.destroy();
+		}
+	}
+
 	/**
 	 * @todo 查询符合条件的记录数量
 	 * @param sqlToyContext
@@ -1081,6 +1442,17 @@ public class DialectFactory {
 			// 规整查询参数名称和参数名称对应的值
 			QueryExecutorBuilder.initQueryExecutor(sqlToyContext, extend, sqlToyConfig, false);
 			SqlExecuteStat.start(sqlToyConfig.getId(), "getCountBySql", sqlToyConfig.isShowSql());
+			// 跨分片查询,汇总各分片的记录数
+			if (extend.shardingScatter) {
+				long total = 0;
+				for (Long count : scatterExecute(sqlToyContext, queryExecutor, sqlToyConfig, dataSource, false,
+						(realSqlToyConfig, conn, dbType, dialect) -> getCountBySql(sqlToyContext, realSqlToyConfig,
+								queryExecutor, conn, dbType, dialect))) {
+					total += (count == null) ? 0 : count;
+				}
+				SqlExecuteStat.debug("查询结果", "跨分片count查询结果={}!", total);
+				return total;
+			}
 			Long count = (Long) DataSourceUtils.processDataSource(sqlToyContext,
 					ShardingUtils.getShardingDataSource(sqlToyContext, sqlToyConfig, queryExecutor, dataSource),
 					new DataSourceCallbackHandler() {
@@ -1900,6 +2272,20 @@ public class DialectFactory {
 		return SqlToyConstants.FETCH_SIZE;
 	}
 
+	/**
+	 * @TODO 流式查询的fetchSize:mysql(含tidb)驱动仅在fetchSize=Integer.MIN_VALUE时逐行流式读取,其他数据库忽略该值取默认
+	 * @param fetchSize
+	 * @param dbType
+	 * @return
+	 */
+	private int getStreamFetchSize(int fetchSize, Integer dbType) {
+		if (fetchSize == Integer.MIN_VALUE && (dbType == DBType.MYSQL || dbType == DBType.MYSQL57
+				|| dbType == DBType.TIDB)) {
+			return fetchSize;
+		}
+		return getFetchSize(fetchSize);
+	}
+
 	/**
 	 * @TODO 构造加解密处理器
 	 * @param sqlToyContext
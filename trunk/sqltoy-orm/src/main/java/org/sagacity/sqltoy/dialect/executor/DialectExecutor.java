@@ -18,6 +18,7 @@ import org.slf4j.LoggerFactory;
  * @description 数据库方言并行执行器
  * @author zhongxuchen
  * @version v1.0,Date:2017年11月3日
+ * @modify {Date:2026-10-18,结果中记录分片对应的库表和记录数}
  */
 public class DialectExecutor implements Callable<ShardingResult> {
 	/**
@@ -55,6 +56,8 @@ public class DialectExecutor implements Callable<ShardingResult> {
 		String dataSourceName = shardingGroupModel.getShardingModel().getDataSourceName();
 		String tableName = shardingGroupModel.getShardingModel().getTableName();
 		ShardingResult result = new ShardingResult();
+		result.setShardingModel(shardingGroupModel.getShardingModel());
+		result.setEntitySize(shardingGroupModel.getEntities().size());
 		// 异常捕获掉,确保其他线程可以正常执行
 		try {
 			logger.debug("执行分库分表,DataSource节点:{},table={}", dataSourceName, tableName);
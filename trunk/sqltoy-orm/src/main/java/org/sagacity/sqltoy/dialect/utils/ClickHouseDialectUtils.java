@@ -204,7 +204,8 @@ public class ClickHouseDialectUtils {
 				sqlToyContext.getUnifyFieldsHandler());
 		handler = DialectUtils.getSecureReflectHandler(handler, sqlToyContext.getFieldsSecureProvider(),
 				sqlToyContext.getDesensitizeProvider(), entityMeta.getSecureFields());
-		List paramValues = BeanUtil.reflectBeansToInnerAry(entities, reflectColumns, null, handler);
+		List<Object[]> paramValues = BeanUtil.reflectBeansToInnerAry(entities,
+				entityMeta.getPropsReader(reflectColumns), null, handler);
 		int pkIndex = entityMeta.getIdIndex();
 		// 是否存在业务ID
 		boolean hasBizId = (entityMeta.getBusinessIdGenerator() == null) ? false : true;
@@ -225,7 +226,7 @@ public class ClickHouseDialectUtils {
 			String businessIdType = hasBizId ? entityMeta.getColumnJavaType(entityMeta.getBusinessIdField()) : "";
 			List<Object[]> idSet = new ArrayList<Object[]>();
 			for (int i = 0, s = paramValues.size(); i < s; i++) {
-				rowData = (Object[]) paramValues.get(i);
+				rowData = paramValues.get(i);
 				// 判断主键策略关联的字段是否有值,合法性验证
 				if (relatedColumn != null) {
 					relatedColValue = new Object[relatedColumnSize];
@@ -259,6 +260,11 @@ public class ClickHouseDialectUtils {
 			}
 		}
 		SqlExecuteStat.showSql("批量保存[" + paramValues.size() + "]条记录", insertSql, null);
+		if (SqlUtilsExt.isMultiValuesInsert(dbType)) {
+			return SqlUtilsExt.batchInsertByMultiValues(sqlToyContext.getTypeHandler(), insertSql, paramValues,
+					entityMeta.getFieldsTypeArray(), entityMeta.getFieldsDefaultValue(), entityMeta.getFieldsNullable(),
+					batchSize, autoCommit, conn, dbType);
+		}
 		return SqlUtilsExt.batchUpdateByJdbc(sqlToyContext.getTypeHandler(), insertSql, paramValues,
 				entityMeta.getFieldsTypeArray(), entityMeta.getFieldsDefaultValue(), entityMeta.getFieldsNullable(),
 				batchSize, autoCommit, conn, dbType);
@@ -347,6 +353,13 @@ public class ClickHouseDialectUtils {
 
 	private static String generateUpdateSql(Integer dbType, EntityMeta entityMeta, String nullFunction,
 			String[] forceUpdateFields, String tableName) {
+		return entityMeta.getDmlSql(
+				DialectExtUtils.getDmlSqlKey("alterUpdate", dbType, tableName, forceUpdateFields, nullFunction),
+				(key) -> buildUpdateSql(dbType, entityMeta, nullFunction, forceUpdateFields, tableName));
+	}
+
+	private static String buildUpdateSql(Integer dbType, EntityMeta entityMeta, String nullFunction,
+			String[] forceUpdateFields, String tableName) {
 		if (entityMeta.getIdArray() == null) {
 			return null;
 		}
@@ -2,6 +2,7 @@ package org.sagacity.sqltoy.dialect.utils;
 
 import java.sql.Connection;
 import java.util.HashSet;
+import java.util.Map;
 
 import org.sagacity.sqltoy.SqlToyContext;
 import org.sagacity.sqltoy.callback.DecryptHandler;
@@ -97,6 +98,23 @@ public class DB2DialectUtils {
 	public static String getSaveOrUpdateSql(IUnifyFieldsHandler unifyFieldsHandler, Integer dbType,
 			EntityMeta entityMeta, PKStrategy pkStrategy, String[] forceUpdateFields, String fromTable,
 			String isNullFunction, String sequence, boolean isAssignPK, String tableName) {
+		// 存在创建人、创建时间等统一赋值字段时,其值作为默认值写入语句,不做缓存
+		Map<String, Object> createUnifyFields = (unifyFieldsHandler == null) ? null
+				: unifyFieldsHandler.createUnifyFields();
+		if (createUnifyFields != null && !createUnifyFields.isEmpty()) {
+			return generateSaveOrUpdateSql(unifyFieldsHandler, dbType, entityMeta, pkStrategy, forceUpdateFields,
+					fromTable, isNullFunction, sequence, isAssignPK, tableName);
+		}
+		return entityMeta.getDmlSql(
+				DialectExtUtils.getDmlSqlKey("merge", dbType, tableName, forceUpdateFields, pkStrategy, fromTable,
+						isNullFunction, sequence, isAssignPK),
+				(key) -> generateSaveOrUpdateSql(null, dbType, entityMeta, pkStrategy, forceUpdateFields, fromTable,
+						isNullFunction, sequence, isAssignPK, tableName));
+	}
+
+	private static String generateSaveOrUpdateSql(IUnifyFieldsHandler unifyFieldsHandler, Integer dbType,
+			EntityMeta entityMeta, PKStrategy pkStrategy, String[] forceUpdateFields, String fromTable,
+			String isNullFunction, String sequence, boolean isAssignPK, String tableName) {
 		String realTable = entityMeta.getSchemaTable(tableName, dbType);
 		// 在无主键的情况下产生insert sql语句
 		if (entityMeta.getIdArray() == null) {
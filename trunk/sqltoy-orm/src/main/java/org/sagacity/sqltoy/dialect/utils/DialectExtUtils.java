@@ -45,6 +45,38 @@ public class DialectExtUtils {
 	 */
 	public static String generateInsertSql(Integer dbType, EntityMeta entityMeta, PKStrategy pkStrategy,
 			String isNullFunction, String sequence, boolean isAssignPK, String tableName) {
+		return entityMeta.getDmlSql(
+				getDmlSqlKey("insert", dbType, tableName, null, pkStrategy, isNullFunction, sequence, isAssignPK),
+				(key) -> buildInsertSql(dbType, entityMeta, pkStrategy, isNullFunction, sequence, isAssignPK,
+						tableName));
+	}
+
+	/**
+	 * @todo 组织实体DML语句缓存的key
+	 * @param operation         操作类型:insert、update、merge等
+	 * @param dbType
+	 * @param tableName         实际表名(分表时不同)
+	 * @param forceUpdateFields
+	 * @param others            其他影响语句的参数(主键策略、isnull函数、sequence等)
+	 * @return
+	 */
+	public static String getDmlSqlKey(String operation, Integer dbType, String tableName,
+			String[] forceUpdateFields, Object... others) {
+		StringBuilder key = new StringBuilder(64);
+		key.append(operation).append("|").append(dbType).append("|").append(tableName).append("|");
+		if (forceUpdateFields != null) {
+			key.append(String.join(",", forceUpdateFields));
+		}
+		if (others != null) {
+			for (Object other : others) {
+				key.append("|").append(other);
+			}
+		}
+		return key.toString();
+	}
+
+	private static String buildInsertSql(Integer dbType, EntityMeta entityMeta, PKStrategy pkStrategy,
+			String isNullFunction, String sequence, boolean isAssignPK, String tableName) {
 		int columnSize = entityMeta.getFieldsArray().length;
 		StringBuilder sql = new StringBuilder(columnSize * 20 + 30);
 		StringBuilder values = new StringBuilder(columnSize * 2 - 1);
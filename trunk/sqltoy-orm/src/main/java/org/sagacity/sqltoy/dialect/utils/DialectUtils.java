@@ -80,6 +80,7 @@ import org.slf4j.LoggerFactory;
  * @modify {Date:2018-5-3,修复getCountBySql关于剔除order by部分的逻辑错误}
  * @modify {Date:2018-9-25,修复select和from对称判断问题,影响分页查询时剔除from之前语句构建select
  *         count(1) from错误}
+ * @modify {Date:2026-10-18,getUnifyParamsNamedConfig支持直接指定分表(跨分片查询)}
  */
 @SuppressWarnings({ "rawtypes", "unchecked" })
 public class DialectUtils {
@@ -242,7 +243,8 @@ public class DialectUtils {
 		// 打印sql
 		SqlExecuteStat.showSql("执行查询", lastSql, paramsValue);
 		PreparedStatement pst = conn.prepareStatement(lastSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
-		if (fetchSize > 0) {
+		// Integer.MIN_VALUE为mysql驱动的流式读取标志(由forEach按数据库类型传入)
+		if (fetchSize > 0 || fetchSize == Integer.MIN_VALUE) {
 			pst.setFetchSize(fetchSize);
 		}
 		if (maxRows > 0) {
@@ -449,6 +451,23 @@ public class DialectUtils {
 	 */
 	public static SqlToyConfig getUnifyParamsNamedConfig(SqlToyContext sqlToyContext, SqlToyConfig sqlToyConfig,
 			QueryExecutor queryExecutor, String dialect, boolean wrapNamed) throws Exception {
+		return getUnifyParamsNamedConfig(sqlToyContext, sqlToyConfig, queryExecutor, dialect, wrapNamed, null);
+	}
+
+	/**
+	 * @todo 统一将查询的sql参数由?形式变成:named形式,并按指定的分表替换表名(跨分片查询时每个分片的表已经确定)
+	 * @param sqlToyContext
+	 * @param sqlToyConfig
+	 * @param queryExecutor
+	 * @param dialect
+	 * @param wrapNamed
+	 * @param shardingTables sql中表名对应的实际表名,为null时按分表策略决定
+	 * @return
+	 * @throws Exception
+	 */
+	public static SqlToyConfig getUnifyParamsNamedConfig(SqlToyContext sqlToyContext, SqlToyConfig sqlToyConfig,
+			QueryExecutor queryExecutor, String dialect, boolean wrapNamed, Map<String, String> shardingTables)
+			throws Exception {
 		QueryExecutorExtend extend = queryExecutor.getInnerModel();
 		// 本身就是:named参数形式或sql中没有任何参数
 		boolean isNamed = false;
@@ -463,8 +482,10 @@ public class DialectUtils {
 		if (!extend.tableShardings.isEmpty()) {
 			tableShardings = extend.tableShardings;
 		}
+		boolean hasShardingTables = (shardingTables != null && !shardingTables.isEmpty());
 		// sql条件以:named形式、无分表、无扩展缓存翻译则不存在对SqlToyConfig 内容的修改，直接返回
-		if ((isNamed || !wrapNamed) && tableShardings.isEmpty() && extend.translates.isEmpty()) {
+		if ((isNamed || !wrapNamed) && (tableShardings.isEmpty() || shardingTables != null) && !hasShardingTables
+				&& extend.translates.isEmpty()) {
 			return sqlToyConfig;
 		}
 		// clone sqltoyConfig避免直接修改原始的sql配置对后续执行产生影响
@@ -521,8 +542,12 @@ public class DialectUtils {
 		}
 
 		// sharding table 替换sql中的表名称
-		ShardingUtils.replaceShardingSqlToyConfig(sqlToyContext, result, tableShardings, dialect,
-				extend.getTableShardingParamsName(sqlToyConfig), extend.getTableShardingParamsValue(sqlToyConfig));
+		if (shardingTables != null) {
+			ShardingUtils.replaceShardingSqlToyConfig(result, shardingTables, dialect);
+		} else {
+			ShardingUtils.replaceShardingSqlToyConfig(sqlToyContext, result, tableShardings, dialect,
+					extend.getTableShardingParamsName(sqlToyConfig), extend.getTableShardingParamsValue(sqlToyConfig));
+		}
 		return result;
 	}
 
@@ -586,8 +611,8 @@ public class DialectUtils {
 				forceUpdateFields, sqlToyContext.getUnifyFieldsHandler());
 		handler = getSecureReflectHandler(handler, sqlToyContext.getFieldsSecureProvider(),
 				sqlToyContext.getDesensitizeProvider(), entityMeta.getSecureFields());
-		List<Object[]> paramValues = BeanUtil.reflectBeansToInnerAry(entities, entityMeta.getFieldsArray(), null,
-				handler);
+		List<Object[]> paramValues = BeanUtil.reflectBeansToInnerAry(entities,
+				entityMeta.getPropsReader(entityMeta.getFieldsArray()), null, handler);
 		int pkIndex = entityMeta.getIdIndex();
 		// 是否存在业务ID
 		boolean hasBizId = (entityMeta.getBusinessIdGenerator() == null) ? false : true;
@@ -657,8 +682,8 @@ public class DialectUtils {
 		ReflectPropsHandler handler = getAddReflectHandler(reflectPropsHandler, sqlToyContext.getUnifyFieldsHandler());
 		handler = getSecureReflectHandler(handler, sqlToyContext.getFieldsSecureProvider(),
 				sqlToyContext.getDesensitizeProvider(), entityMeta.getSecureFields());
-		List<Object[]> paramValues = BeanUtil.reflectBeansToInnerAry(entities, entityMeta.getFieldsArray(), null,
-				handler);
+		List<Object[]> paramValues = BeanUtil.reflectBeansToInnerAry(entities,
+				entityMeta.getPropsReader(entityMeta.getFieldsArray()), null, handler);
 		int pkIndex = entityMeta.getIdIndex();
 		// 是否存在业务ID
 		boolean hasBizId = (entityMeta.getBusinessIdGenerator() == null) ? false : true;
@@ -729,6 +754,23 @@ public class DialectUtils {
 	public static String getSaveOrUpdateSql(IUnifyFieldsHandler unifyFieldsHandler, Integer dbType,
 			EntityMeta entityMeta, PKStrategy pkStrategy, String[] forceUpdateFields, String fromTable,
 			String isNullFunction, String sequence, boolean isAssignPK, String tableName) {
+		// 存在创建人、创建时间等统一赋值字段时,其值作为默认值写入语句,不做缓存
+		Map<String, Object> createUnifyFields = (unifyFieldsHandler == null) ? null
+				: unifyFieldsHandler.createUnifyFields();
+		if (createUnifyFields != null && !createUnifyFields.isEmpty()) {
+			return generateSaveOrUpdateSql(unifyFieldsHandler, dbType, entityMeta, pkStrategy, forceUpdateFields,
+					fromTable, isNullFunction, sequence, isAssignPK, tableName);
+		}
+		return entityMeta.getDmlSql(
+				DialectExtUtils.getDmlSqlKey("merge", dbType, tableName, forceUpdateFields, pkStrategy, fromTable,
+						isNullFunction, sequence, isAssignPK),
+				(key) -> generateSaveOrUpdateSql(null, dbType, entityMeta, pkStrategy, forceUpdateFields, fromTable,
+						isNullFunction, sequence, isAssignPK, tableName));
+	}
+
+	private static String generateSaveOrUpdateSql(IUnifyFieldsHandler unifyFieldsHandler, Integer dbType,
+			EntityMeta entityMeta, PKStrategy pkStrategy, String[] forceUpdateFields, String fromTable,
+			String isNullFunction, String sequence, boolean isAssignPK, String tableName) {
 		String realTable = entityMeta.getSchemaTable(tableName, dbType);
 		// 在无主键的情况下产生insert sql语句
 		if (entityMeta.getIdArray() == null) {
@@ -889,6 +931,13 @@ public class DialectUtils {
 	 */
 	private static String generateUpdateSql(Integer dbType, EntityMeta entityMeta, String nullFunction,
 			String[] forceUpdateFields, String tableName) {
+		return entityMeta.getDmlSql(
+				DialectExtUtils.getDmlSqlKey("update", dbType, tableName, forceUpdateFields, nullFunction),
+				(key) -> buildUpdateSql(dbType, entityMeta, nullFunction, forceUpdateFields, tableName));
+	}
+
+	private static String buildUpdateSql(Integer dbType, EntityMeta entityMeta, String nullFunction,
+			String[] forceUpdateFields, String tableName) {
 		if (entityMeta.getIdArray() == null) {
 			return null;
 		}
@@ -1499,7 +1548,8 @@ public class DialectUtils {
 		ReflectPropsHandler handler = getAddReflectHandler(reflectPropsHandler, sqlToyContext.getUnifyFieldsHandler());
 		handler = getSecureReflectHandler(handler, sqlToyContext.getFieldsSecureProvider(),
 				sqlToyContext.getDesensitizeProvider(), entityMeta.getSecureFields());
-		List paramValues = BeanUtil.reflectBeansToInnerAry(entities, reflectColumns, null, handler);
+		List paramValues = BeanUtil.reflectBeansToInnerAry(entities, entityMeta.getPropsReader(reflectColumns), null,
+				handler);
 		int pkIndex = entityMeta.getIdIndex();
 		// 是否存在业务ID
 		boolean hasBizId = (entityMeta.getBusinessIdGenerator() == null) ? false : true;
@@ -1561,6 +1611,12 @@ public class DialectUtils {
 					entityMeta.getFieldsTypeArray(), entityMeta.getFieldsDefaultValue(), entityMeta.getFieldsNullable(),
 					batchSize, autoCommit, conn, dbType);
 		}
+		// 启用多行values合并插入(mysql、postgresql等)
+		if (SqlUtilsExt.isMultiValuesInsert(dbType)) {
+			return SqlUtilsExt.batchInsertByMultiValues(sqlToyContext.getTypeHandler(), insertSql, paramValues,
+					entityMeta.getFieldsTypeArray(), entityMeta.getFieldsDefaultValue(), entityMeta.getFieldsNullable(),
+					batchSize, autoCommit, conn, dbType);
+		}
 		return SqlUtilsExt.batchUpdateByJdbc(sqlToyContext.getTypeHandler(), insertSql, paramValues,
 				entityMeta.getFieldsTypeArray(), entityMeta.getFieldsDefaultValue(), entityMeta.getFieldsNullable(),
 				batchSize, autoCommit, conn, dbType);
@@ -1936,8 +1992,8 @@ public class DialectUtils {
 				sqlToyContext.getUnifyFieldsHandler());
 		handler = getSecureReflectHandler(handler, sqlToyContext.getFieldsSecureProvider(),
 				sqlToyContext.getDesensitizeProvider(), entityMeta.getSecureFields());
-		List<Object[]> paramsValues = BeanUtil.reflectBeansToInnerAry(entities, entityMeta.getFieldsArray(), null,
-				handler);
+		List<Object[]> paramsValues = BeanUtil.reflectBeansToInnerAry(entities,
+				entityMeta.getPropsReader(entityMeta.getFieldsArray()), null, handler);
 		// 判断主键是否为空
 		int pkIndex = entityMeta.getIdIndex();
 		int end = pkIndex + entityMeta.getIdArray().length;
@@ -28,6 +28,12 @@ public class MySqlDialectUtils {
 	 */
 	public static String getSaveOrUpdateSql(Integer dbType, EntityMeta entityMeta, String[] forceUpdateFields,
 			String tableName) {
+		return entityMeta.getDmlSql(DialectExtUtils.getDmlSqlKey("mysqlMerge", dbType, tableName, forceUpdateFields),
+				(key) -> generateSaveOrUpdateSql(dbType, entityMeta, forceUpdateFields, tableName));
+	}
+
+	private static String generateSaveOrUpdateSql(Integer dbType, EntityMeta entityMeta, String[] forceUpdateFields,
+			String tableName) {
 		String realTable = entityMeta.getSchemaTable(tableName, dbType);
 		if (entityMeta.getIdArray() == null) {
 			return DialectExtUtils.generateInsertSql(dbType, entityMeta, entityMeta.getIdStrategy(), "ifnull", null,
@@ -3,15 +3,17 @@
  */
 package org.sagacity.sqltoy.dialect.utils;
 
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 
+import org.sagacity.sqltoy.SqlToyConstants;
 import org.sagacity.sqltoy.SqlToyContext;
 import org.sagacity.sqltoy.config.model.PageOptimize;
 import org.sagacity.sqltoy.config.model.SqlToyConfig;
 import org.sagacity.sqltoy.model.QueryExecutor;
 import org.sagacity.sqltoy.model.inner.QueryExecutorExtend;
+import org.sagacity.sqltoy.plugins.page.PageCountCache;
+import org.sagacity.sqltoy.plugins.page.PageCountKey;
+import org.sagacity.sqltoy.plugins.page.impl.DefaultPageCountCache;
 import org.sagacity.sqltoy.utils.CollectionUtil;
 
 /**
@@ -21,18 +23,26 @@ import org.sagacity.sqltoy.utils.CollectionUtil;
  * @version v1.0,Date:2016年11月24日
  * @modify 2020-8-4 修改原本只支持xml中必须有id的sql才能缓存的策略,便于今后直接从代码中实现分页优化功能
  * @modify 2020-8-13 修改失效策略，在登记时只控制aliveMax，在获取时判定aliveSeconds清除过期的
+ * @modify 2026-10-18 缓存改为可扩展的PageCountCache(默认无锁实现+后台清理过期),查询条件key改为64位hash值
+ * @modify 2026-10-18 缓存由SqlToyContext持有,查询条件key改为128位摘要加条件长度
+ * @modify 2026-10-18 保留原基于字符串key的方法(@Deprecated),使用独立的默认缓存
  */
 public class PageOptimizeUtils {
-	private static final int INITIAL_CAPACITY = 128;
-	private static final float LOAD_FACTOR = 0.75f;
+	// FNV-1a 64位hash参数
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
 
-	// 定义sql对应的分页查询请求(不同查询条件构成的key)对应的总记录数Object[] as
-	// {expireTime(失效时间),recordCount(分页查询总记录数)}
-	private static ConcurrentHashMap<String, LinkedHashMap<String, Object[]>> pageOptimizeCache = new ConcurrentHashMap<String, LinkedHashMap<String, Object[]>>(
-			INITIAL_CAPACITY, LOAD_FACTOR);
+	// 第二个独立hash(多项式)的初始值和乘数
+	private static final long POLY_SEED = 0x9e3779b97f4a7c15L;
+	private static final long POLY_MULTIPLIER = 0x5bd1e995L;
 
 	/**
-	 * @todo 根据查询条件组成key
+	 * 兼容原基于字符串key的静态方法(@Deprecated)使用的缓存,首次调用时创建
+	 */
+	private static volatile PageCountCache legacyPageCountCache;
+
+	/**
+	 * @todo 根据查询条件组成key(对参数名称和值计算128位摘要和长度)
 	 * @param sqlToyContext
 	 * @param sqlToyConfig
 	 * @param queryExecutor
@@ -40,20 +50,31 @@ public class PageOptimizeUtils {
 	 * @return
 	 * @throws Exception
 	 */
-	public static String generateOptimizeKey(final SqlToyContext sqlToyContext, final SqlToyConfig sqlToyConfig,
+	public static PageCountKey generateOptimizeKey(final SqlToyContext sqlToyContext, final SqlToyConfig sqlToyConfig,
 			final QueryExecutor queryExecutor, PageOptimize pageOptimize) throws Exception {
 		// 没有开放分页优化或sql id为null都不执行优化操作
-		if (pageOptimize == null || pageOptimize.getAliveMax() <= 1 || pageOptimize.getAliveSeconds() < 1) {
+		if (pageOptimize == null || pageOptimize.getAliveMax() <= 1 || pageOptimize.getAliveSeconds() < 1
+				|| sqlToyContext.getPageCountCache() == null) {
 			return null;
 		}
 		QueryExecutorExtend extend = queryExecutor.getInnerModel();
 		String[] paramNames = extend.getParamsName(sqlToyConfig);
 		Object[] paramValues = extend.getParamsValue(sqlToyContext, sqlToyConfig);
-		// sql中所有参数都为null,返回sqlId作为key
+		return generateOptimizeKey(paramNames, paramValues);
+	}
+
+	/**
+	 * @TODO 对查询条件名称和值计算摘要,等价于对"name=value,..."字符串计算,不保留条件字符串
+	 * @param paramNames
+	 * @param paramValues
+	 * @return
+	 */
+	public static PageCountKey generateOptimizeKey(String[] paramNames, Object[] paramValues) {
+		KeyDigest digest = new KeyDigest();
+		// sql中所有参数都为null
 		if (paramValues == null || paramValues.length == 0) {
-			return sqlToyConfig.getIdOrSql();
+			return digest.toKey();
 		}
-		StringBuilder cacheKey = new StringBuilder();
 		boolean isParamsNamed = true;
 		if (null == paramNames || paramNames.length == 0) {
 			isParamsNamed = false;
@@ -62,64 +83,90 @@ public class PageOptimizeUtils {
 		// 循环查询条件的值构造key
 		for (Object value : paramValues) {
 			if (i > 0) {
-				cacheKey.append(",");
+				digest.append(',');
 			}
 			if (isParamsNamed) {
-				cacheKey.append(paramNames[i]).append("=");
+				digest.append(paramNames[i]);
 			} else {
-				cacheKey.append("p_").append(i).append("=");
+				digest.append("p_").append(Integer.toString(i));
 			}
+			digest.append('=');
 			if (value == null) {
-				cacheKey.append("null");
+				digest.append("null");
 			} else if ((value instanceof Object[]) || value.getClass().isArray() || (value instanceof List)) {
 				Object[] arrayValue = (value instanceof List) ? ((List) value).toArray()
 						: CollectionUtil.convertArray(value);
-				cacheKey.append("[");
+				digest.append('[');
 				for (Object obj : arrayValue) {
-					cacheKey.append((obj == null) ? "null" : obj.toString()).append(",");
+					digest.append((obj == null) ? "null" : obj.toString()).append(',');
 				}
-				cacheKey.append("]");
+				digest.append(']');
 			} else {
-				cacheKey.append(value.toString());
+				digest.append(value.toString());
 			}
 			i++;
 		}
-		return cacheKey.toString();
+		return digest.toKey();
+	}
+
+	/**
+	 * @TODO 将"name=value,..."形式的查询条件字符串转换为摘要key
+	 * @param conditionsKey
+	 * @return
+	 */
+	public static PageCountKey toPageCountKey(String conditionsKey) {
+		KeyDigest digest = new KeyDigest();
+		if (conditionsKey != null) {
+			digest.append(conditionsKey);
+		}
+		return digest.toKey();
 	}
 
 	/**
 	 * @TODO 从缓存中获取具体sql相应条件的查询总记录数值
+	 * @param sqlToyContext
 	 * @param sqlToyConfig
 	 * @param pageOptimize
 	 * @param conditionsKey
 	 * @return
 	 */
-	public static Long getPageTotalCount(final SqlToyConfig sqlToyConfig, PageOptimize pageOptimize,
-			String conditionsKey) {
-		// sql初次执行查询
-		if (!pageOptimizeCache.containsKey(sqlToyConfig.getIdOrSql())) {
+	public static Long getPageTotalCount(final SqlToyContext sqlToyContext, final SqlToyConfig sqlToyConfig,
+			PageOptimize pageOptimize, PageCountKey conditionsKey) {
+		PageCountCache pageCountCache = sqlToyContext.getPageCountCache();
+		if (pageCountCache == null) {
 			return null;
 		}
-		LinkedHashMap<String, Object[]> map = pageOptimizeCache.get(sqlToyConfig.getIdOrSql());
-		synchronized (map) {
-			// 为null表示条件初次查询或已经全部过期移除
-			if (!map.containsKey(conditionsKey)) {
-				return null;
-			}
-			Object[] values = map.get(conditionsKey);
-			// 失效时间
-			long expireTime = (Long) values[0];
-			// 总记录数
-			Long totalCount = (Long) values[1];
-			long nowTime = System.currentTimeMillis();
-			// 已经失效
-			if (nowTime >= expireTime) {
-				// 剔除超时的记录
-				map.remove(conditionsKey);
-				return null;
-			}
-			// 没有过期则返回对应的总记录数值
-			return totalCount;
+		return pageCountCache.get(sqlToyConfig.getIdOrSql(), conditionsKey, pageOptimize);
+	}
+
+	/**
+	 * @TODO 从缓存中获取具体sql相应条件的查询总记录数值
+	 * @param sqlToyConfig
+	 * @param pageOptimize
+	 * @param conditionsKey
+	 * @return
+	 * @deprecated 缓存已由SqlToyContext持有,请使用getPageTotalCount(sqlToyContext, sqlToyConfig,
+	 *             pageOptimize, PageCountKey)
+	 */
+	@Deprecated
+	public static Long getPageTotalCount(final SqlToyConfig sqlToyConfig, PageOptimize pageOptimize,
+			String conditionsKey) {
+		return getLegacyPageCountCache().get(sqlToyConfig.getIdOrSql(), toPageCountKey(conditionsKey), pageOptimize);
+	}
+
+	/**
+	 * @TODO 将具体条件查询的记录数按照sql id放入缓存
+	 * @param sqlToyContext
+	 * @param sqlToyConfig
+	 * @param pageOptimize
+	 * @param conditionsKey
+	 * @param totalCount
+	 */
+	public static void registPageTotalCount(final SqlToyContext sqlToyContext, final SqlToyConfig sqlToyConfig,
+			PageOptimize pageOptimize, PageCountKey conditionsKey, Long totalCount) {
+		PageCountCache pageCountCache = sqlToyContext.getPageCountCache();
+		if (pageCountCache != null) {
+			pageCountCache.put(sqlToyConfig.getIdOrSql(), conditionsKey, pageOptimize, totalCount);
 		}
 	}
 
@@ -129,43 +176,79 @@ public class PageOptimizeUtils {
 	 * @param pageOptimize
 	 * @param conditionsKey
 	 * @param totalCount
+	 * @deprecated 缓存已由SqlToyContext持有,请使用registPageTotalCount(sqlToyContext,
+	 *             sqlToyConfig, pageOptimize, PageCountKey, totalCount)
 	 */
+	@Deprecated
 	public static void registPageTotalCount(final SqlToyConfig sqlToyConfig, PageOptimize pageOptimize,
 			String conditionsKey, Long totalCount) {
-		long nowTime = System.currentTimeMillis();
-		// 当前时间
-		long expireTime = nowTime + pageOptimize.getAliveSeconds() * 1000;
-		// 同一个分页查询sql保留的不同查询条件记录数量
-		int aliveMax = pageOptimize.getAliveMax();
-		// sql id
-		String id = sqlToyConfig.getIdOrSql();
-		LinkedHashMap<String, Object[]> map = null;
-		if (!pageOptimizeCache.containsKey(id)) {
-			map = new LinkedHashMap<String, Object[]>(aliveMax);
-			map.put(conditionsKey, new Object[] { expireTime, totalCount });
-			pageOptimizeCache.put(id, map);
-		} else {
-			map = pageOptimizeCache.get(id);
-			synchronized (map) {
-				// 已经存在,先移除队列靠前的旧值
-				if (map.containsKey(conditionsKey)) {
-					map.remove(conditionsKey);
-				}
-				// 在最后位置放入最新的记录
-				map.put(conditionsKey, new Object[] { expireTime, totalCount });
-				// 长度超阀值,移除最早进入的
-				while (map.size() > aliveMax) {
-					map.remove(map.keySet().iterator().next());
-				}
-			}
-		}
+		getLegacyPageCountCache().put(sqlToyConfig.getIdOrSql(), toPageCountKey(conditionsKey), pageOptimize,
+				totalCount);
 	}
 
 	/**
 	 * @todo 清除掉sql对应的分页count缓存
 	 * @param sqlId
+	 * @deprecated 缓存已由SqlToyContext持有,请使用sqlToyContext.getPageCountCache().remove(sqlId)
 	 */
+	@Deprecated
 	public static void remove(String sqlId) {
-		pageOptimizeCache.remove(sqlId);
+		PageCountCache pageCountCache = legacyPageCountCache;
+		if (pageCountCache != null) {
+			pageCountCache.remove(sqlId);
+		}
+	}
+
+	private static PageCountCache getLegacyPageCountCache() {
+		if (legacyPageCountCache == null) {
+			synchronized (PageOptimizeUtils.class) {
+				if (legacyPageCountCache == null) {
+					PageCountCache pageCountCache = new DefaultPageCountCache();
+					pageCountCache.initialize(SqlToyConstants.getPageOptimizeSweepSeconds());
+					legacyPageCountCache = pageCountCache;
+				}
+			}
+		}
+		return legacyPageCountCache;
+	}
+
+	// murmur3 fmix64,让hash值各位分布更均匀
+	private static long mix(long hash) {
+		long result = hash;
+		result ^= result >>> 33;
+		result *= 0xff51afd7ed558ccdL;
+		result ^= result >>> 33;
+		result *= 0xc4ceb9fe1a85ec53L;
+		result ^= result >>> 33;
+		return result;
+	}
+
+	/**
+	 * 逐字符同时计算两个独立的64位hash和长度
+	 */
+	private static class KeyDigest {
+		private long hash = FNV_OFFSET;
+
+		private long hash2 = POLY_SEED;
+
+		private int length = 0;
+
+		private KeyDigest append(char ch) {
+			hash = (hash ^ ch) * FNV_PRIME;
+			hash2 = hash2 * POLY_MULTIPLIER + ch;
+			length++;
+			return this;
+		}
+
+		private KeyDigest append(String str) {
+			for (int i = 0, n = str.length(); i < n; i++) {
+				append(str.charAt(i));
+			}
+			return this;
+		}
+
+		private PageCountKey toKey() {
+			return new PageCountKey(mix(hash), mix(hash2 ^ length), length);
+		}
 	}
 }
@@ -209,6 +209,15 @@ public class PostgreSqlDialectUtils {
 	@Deprecated
 	public static String getSaveOrUpdateSql(Integer dbType, EntityMeta entityMeta, PKStrategy pkStrategy,
 			boolean isAssignPK, String sequence, String[] forceUpdateFields, String tableName) {
+		return entityMeta.getDmlSql(
+				DialectExtUtils.getDmlSqlKey("pgMerge", dbType, tableName, forceUpdateFields, pkStrategy, isAssignPK,
+						sequence),
+				(key) -> generateSaveOrUpdateSql(dbType, entityMeta, pkStrategy, isAssignPK, sequence,
+						forceUpdateFields, tableName));
+	}
+
+	private static String generateSaveOrUpdateSql(Integer dbType, EntityMeta entityMeta, PKStrategy pkStrategy,
+			boolean isAssignPK, String sequence, String[] forceUpdateFields, String tableName) {
 		String realTable = entityMeta.getSchemaTable(tableName, dbType);
 		if (entityMeta.getIdArray() == null) {
 			return DialectExtUtils.generateInsertSql(dbType, entityMeta, entityMeta.getIdStrategy(), NVL_FUNCTION, null,
@@ -41,6 +41,12 @@ public class SqliteDialectUtils {
 	 */
 	public static String getSaveOrUpdateSql(Integer dbType, EntityMeta entityMeta, String[] forceUpdateFields,
 			String tableName) {
+		return entityMeta.getDmlSql(DialectExtUtils.getDmlSqlKey("sqliteMerge", dbType, tableName, forceUpdateFields),
+				(key) -> generateSaveOrUpdateSql(dbType, entityMeta, forceUpdateFields, tableName));
+	}
+
+	private static String generateSaveOrUpdateSql(Integer dbType, EntityMeta entityMeta, String[] forceUpdateFields,
+			String tableName) {
 		String realTable = entityMeta.getSchemaTable(tableName, dbType);
 		// 无主键表全部采用insert机制
 		if (entityMeta.getIdArray() == null) {
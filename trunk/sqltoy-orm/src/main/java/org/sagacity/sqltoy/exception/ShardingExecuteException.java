@@ -0,0 +1,50 @@
+package org.sagacity.sqltoy.exception;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sagacity.sqltoy.model.ShardingResult;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 分库分表并行批量操作部分分片失败的异常,携带每个分片的执行结果,调用方可只对失败的分片(getFailedEntities)重试
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+public class ShardingExecuteException extends DataAccessException {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = -3265874195128806437L;
+
+	/**
+	 * 各分片的执行结果
+	 */
+	private final List<ShardingResult> results;
+
+	public ShardingExecuteException(String message, List<ShardingResult> results) {
+		super(message);
+		this.results = results;
+	}
+
+	/**
+	 * @return 各分片的执行结果
+	 */
+	public List<ShardingResult> getResults() {
+		return results;
+	}
+
+	/**
+	 * @return 执行失败的分片
+	 */
+	public List<ShardingResult> getFailedResults() {
+		List<ShardingResult> failedResults = new ArrayList<ShardingResult>();
+		for (ShardingResult result : results) {
+			if (!result.isSuccess()) {
+				failedResults.add(result);
+			}
+		}
+		return failedResults;
+	}
+}
@@ -9,6 +9,7 @@ import javax.sql.DataSource;
 
 import org.sagacity.sqltoy.SqlToyContext;
 import org.sagacity.sqltoy.config.model.SqlToyConfig;
+import org.sagacity.sqltoy.config.model.SqlType;
 import org.sagacity.sqltoy.dialect.DialectFactory;
 import org.sagacity.sqltoy.plugins.datasource.DataSourceSelector;
 import org.sagacity.sqltoy.utils.DataSourceUtils;
@@ -52,13 +53,23 @@ public abstract class BaseLink implements Serializable {
 	}
 
 	public DataSource getDataSource(SqlToyConfig sqltoyConfig) {
+		return getDataSource(sqltoyConfig, (null == sqltoyConfig) ? null : sqltoyConfig.getSqlType());
+	}
+
+	/**
+	 * @TODO 获取dataSource,并明确告知数据源选择器操作类型(如读写分离时写操作需走主库)
+	 * @param sqltoyConfig
+	 * @param sqlType      为null表示不参与读写路由
+	 * @return
+	 */
+	public DataSource getDataSource(SqlToyConfig sqltoyConfig, SqlType sqlType) {
 		// xml中定义的sql配置了datasource
 		String sqlDataSource = (null == sqltoyConfig) ? null : sqltoyConfig.getDataSource();
 		// 数据源选择扩展
 		DataSourceSelector dataSourceSelector = sqlToyContext.getDataSourceSelector();
 		return dataSourceSelector.getDataSource(sqlToyContext.getApplicationContext(),
 				defaultDataSource ? null : dataSource, sqlDataSource, (defaultDataSource == false) ? null : dataSource,
-				sqlToyContext.getDefaultDataSource());
+				sqlToyContext.getDefaultDataSource(), sqlType);
 	}
 
 	/**
@@ -9,6 +9,7 @@ import java.util.List;
 import javax.sql.DataSource;
 
 import org.sagacity.sqltoy.SqlToyContext;
+import org.sagacity.sqltoy.config.model.SqlType;
 
 /**
  * @project sagacity-sqltoy
@@ -70,7 +71,7 @@ public class Delete extends BaseLink {
 		if (entity == null) {
 			throw new IllegalArgumentException("delete entity is null!");
 		}
-		return dialectFactory.delete(sqlToyContext, entity, getDataSource(null));
+		return dialectFactory.delete(sqlToyContext, entity, getDataSource(null, SqlType.delete));
 	}
 
 	/**
@@ -82,7 +83,7 @@ public class Delete extends BaseLink {
 			throw new IllegalArgumentException("deleteAll entities is null or empty!");
 		}
 		int realBatchSize = (batchSize > 0) ? batchSize : sqlToyContext.getBatchSize();
-		return dialectFactory.deleteAll(sqlToyContext, entities, realBatchSize, getDataSource(null), autoCommit);
+		return dialectFactory.deleteAll(sqlToyContext, entities, realBatchSize, getDataSource(null, SqlType.delete), autoCommit);
 	}
 
 }
@@ -5,6 +5,7 @@ package org.sagacity.sqltoy.link;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.sql.DataSource;
 
@@ -221,6 +222,19 @@ public class Query extends BaseLink {
 		return result.getRows();
 	}
 
+	/**
+	 * @TODO 流式查询,逐条将结果推送给consumer,不在内存中保留全部结果
+	 * @param consumer
+	 * @return 处理的记录数
+	 */
+	public <T> long forEach(Consumer<T> consumer) {
+		QueryExecutor queryExecute = build();
+		queryExecute.lock(lockMode);
+		SqlToyConfig sqlToyConfig = sqlToyContext.getSqlToyConfig(queryExecute, SqlType.search, getDialect());
+		return dialectFactory.forEach(sqlToyContext, queryExecute, sqlToyConfig, getDataSource(sqlToyConfig),
+				consumer);
+	}
+
 	/**
 	 * @todo 取前多少条记录
 	 * @param topSize
@@ -9,6 +9,7 @@ import java.util.List;
 import javax.sql.DataSource;
 
 import org.sagacity.sqltoy.SqlToyContext;
+import org.sagacity.sqltoy.config.model.SqlType;
 import org.sagacity.sqltoy.model.SaveMode;
 
 /**
@@ -108,10 +109,10 @@ public class Save extends BaseLink {
 			throw new IllegalArgumentException("save entity is null!");
 		}
 		if (saveMode == SaveMode.APPEND) {
-			return dialectFactory.save(sqlToyContext, entity, getDataSource(null));
+			return dialectFactory.save(sqlToyContext, entity, getDataSource(null, SqlType.insert));
 		}
 		if (saveMode == SaveMode.UPDATE) {
-			return dialectFactory.saveOrUpdate(sqlToyContext, entity, forceUpdateProps, getDataSource(null));
+			return dialectFactory.saveOrUpdate(sqlToyContext, entity, forceUpdateProps, getDataSource(null, SqlType.insert));
 		}
 		if (saveMode == SaveMode.IGNORE) {
 			throw new IllegalArgumentException("单条对象记录保存不支持IGNORE 模式,请通过自身逻辑判断SaveMode是append(insert) 还是 update!");
@@ -129,13 +130,13 @@ public class Save extends BaseLink {
 		}
 		int realBatchSize = (batchSize > 0) ? batchSize : sqlToyContext.getBatchSize();
 		if (saveMode == SaveMode.IGNORE) {
-			return dialectFactory.saveAllIgnoreExist(sqlToyContext, entities, realBatchSize, null, getDataSource(null),
+			return dialectFactory.saveAllIgnoreExist(sqlToyContext, entities, realBatchSize, null, getDataSource(null, SqlType.insert),
 					autoCommit);
 		}
 		if (saveMode == SaveMode.UPDATE) {
 			return dialectFactory.saveOrUpdateAll(sqlToyContext, entities, realBatchSize, forceUpdateProps, null,
-					getDataSource(null), autoCommit);
+					getDataSource(null, SqlType.insert), autoCommit);
 		}
-		return dialectFactory.saveAll(sqlToyContext, entities, realBatchSize, null, getDataSource(null), autoCommit);
+		return dialectFactory.saveAll(sqlToyContext, entities, realBatchSize, null, getDataSource(null, SqlType.insert), autoCommit);
 	}
 }
@@ -91,6 +91,6 @@ public class Store extends BaseLink {
 		}
 		SqlToyConfig sqlToyConfig = sqlToyContext.getSqlToyConfig(sql, SqlType.search, "");
 		return dialectFactory.executeStore(sqlToyContext, sqlToyConfig, inParamsValue, outParamsType, resultType,
-				getDataSource(sqlToyConfig));
+				getDataSource(sqlToyConfig, SqlType.update));
 	}
 }
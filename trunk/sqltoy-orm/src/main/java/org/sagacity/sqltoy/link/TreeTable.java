@@ -6,6 +6,7 @@ package org.sagacity.sqltoy.link;
 import javax.sql.DataSource;
 
 import org.sagacity.sqltoy.SqlToyContext;
+import org.sagacity.sqltoy.config.model.SqlType;
 import org.sagacity.sqltoy.model.TreeTableModel;
 
 /**
@@ -51,6 +52,6 @@ public class TreeTable extends BaseLink {
 		if (treeModel == null) {
 			throw new IllegalArgumentException("treeTable wrap:treeModel is null!");
 		}
-		return dialectFactory.wrapTreeTableRoute(sqlToyContext, treeModel, getDataSource(null));
+		return dialectFactory.wrapTreeTableRoute(sqlToyContext, treeModel, getDataSource(null, SqlType.update));
 	}
 }
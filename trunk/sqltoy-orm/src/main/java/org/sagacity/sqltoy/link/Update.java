@@ -10,6 +10,7 @@ import java.util.List;
 import javax.sql.DataSource;
 
 import org.sagacity.sqltoy.SqlToyContext;
+import org.sagacity.sqltoy.config.model.SqlType;
 
 /**
  * @project sagacity-sqltoy
@@ -141,7 +142,7 @@ public class Update extends BaseLink {
 			forceUpdate = sqlToyContext.getEntityMeta(entity.getClass()).getRejectIdFieldArray();
 		}
 		return dialectFactory.update(sqlToyContext, entity, forceUpdate, cascade, forceCascadeClasses,
-				subTableForceUpdateProps, getDataSource(null));
+				subTableForceUpdateProps, getDataSource(null, SqlType.update));
 	}
 
 	/**
@@ -165,7 +166,7 @@ public class Update extends BaseLink {
 			forceUpdate = sqlToyContext.getEntityMeta(entity.getClass()).getRejectIdFieldArray();
 		}
 		int realBatchSize = (batchSize > 0) ? batchSize : sqlToyContext.getBatchSize();
-		return dialectFactory.updateAll(sqlToyContext, entities, realBatchSize, forceUpdate, null, getDataSource(null),
+		return dialectFactory.updateAll(sqlToyContext, entities, realBatchSize, forceUpdate, null, getDataSource(null, SqlType.update),
 				autoCommit);
 	}
 }
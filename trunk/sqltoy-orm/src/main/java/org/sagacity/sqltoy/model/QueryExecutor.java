@@ -194,7 +194,18 @@ public class QueryExecutor implements Serializable {
 	}
 
 	/**
-	 * @TODO 设置jdbc参数，一般无需设置
+	 * @TODO 跨分片查询(如后台检索、报表等没有分片条件的查询):并行查询分库分表策略对应的全部分片,
+	 *       按sql最外层order by归并结果,count汇总,分页时每个分片只取到当前页为止的记录
+	 * @param shardingScatter
+	 * @return
+	 */
+	public QueryExecutor shardingScatter(boolean shardingScatter) {
+		innerModel.shardingScatter = shardingScatter;
+		return this;
+	}
+
+	/**
+	 * @TODO 设置jdbc参数，一般无需设置(mysql下forEach流式查询可设置为Integer.MIN_VALUE开启驱动的逐行流式读取)
 	 * @param fetchSize
 	 * @return
 	 */
@@ -5,11 +5,14 @@ package org.sagacity.sqltoy.model;
 
 import java.util.List;
 
+import org.sagacity.sqltoy.config.model.ShardingModel;
+
 /**
  * @project sagacity-sqltoy
  * @description 分库分表批量对象操作的结果,为今后错误策略提供基础(如:单个节点错误判作整体错误)
  * @author zhongxuchen
  * @version v1.0,Date:2017年12月14日
+ * @modify {Date:2026-10-18,增加分片对应的库表和执行失败的记录,便于只重试失败的分片}
  */
 public class ShardingResult implements java.io.Serializable {
 
@@ -33,6 +36,21 @@ public class ShardingResult implements java.io.Serializable {
 	 */
 	private String message;
 
+	/**
+	 * 分片对应的数据库和表
+	 */
+	private ShardingModel shardingModel;
+
+	/**
+	 * 分片的记录数量
+	 */
+	private int entitySize;
+
+	/**
+	 * 执行失败的记录(分片拆分成多个子批次时,只包含失败子批次的记录)
+	 */
+	private List<?> failedEntities;
+
 	/**
 	 * @return the rows
 	 */
@@ -75,4 +93,28 @@ public class ShardingResult implements java.io.Serializable {
 		this.message = message;
 	}
 
+	public ShardingModel getShardingModel() {
+		return shardingModel;
+	}
+
+	public void setShardingModel(ShardingModel shardingModel) {
+		this.shardingModel = shardingModel;
+	}
+
+	public int getEntitySize() {
+		return entitySize;
+	}
+
+	public void setEntitySize(int entitySize) {
+		this.entitySize = entitySize;
+	}
+
+	public List<?> getFailedEntities() {
+		return failedEntities;
+	}
+
+	public void setFailedEntities(List<?> failedEntities) {
+		this.failedEntities = failedEntities;
+	}
+
 }
@@ -156,6 +156,11 @@ public class QueryExecutorExtend implements Serializable {
 	// 分表策略配置
 	public List<ShardingStrategyConfig> tableShardings = new ArrayList<ShardingStrategyConfig>();
 
+	/**
+	 * 跨分片查询:不按分片条件路由,并行查询全部分库分表后归并结果
+	 */
+	public boolean shardingScatter = false;
+
 	/**
 	 * @param sqlToyConfig
 	 * @return
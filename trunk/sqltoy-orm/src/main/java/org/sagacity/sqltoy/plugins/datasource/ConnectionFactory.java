@@ -1,6 +1,7 @@
 package org.sagacity.sqltoy.plugins.datasource;
 
 import java.sql.Connection;
+import java.sql.SQLException;
 
 import javax.sql.DataSource;
 
@@ -23,4 +24,29 @@ public interface ConnectionFactory {
 	 * @param datasource
 	 */
 	public void releaseConnection(Connection conn, DataSource datasource);
+
+	/**
+	 * @TODO 判断连接是否处于事务中(事务中的操作不能借用新连接并行执行)
+	 * @param conn
+	 * @param dataSource
+	 * @return
+	 */
+	public default boolean isTransactional(Connection conn, DataSource dataSource) {
+		try {
+			return !conn.getAutoCommit();
+		} catch (SQLException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * @TODO 注册事务结束(提交或回滚)后的回调,用于释放绑定在事务连接上的资源(如缓存的PreparedStatement)
+	 * @param conn
+	 * @param dataSource
+	 * @param callback
+	 * @return 不支持事务回调时返回false
+	 */
+	public default boolean registerTransactionCallback(Connection conn, DataSource dataSource, Runnable callback) {
+		return false;
+	}
 }
@@ -0,0 +1,411 @@
+package org.sagacity.sqltoy.plugins.datasource;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.sagacity.sqltoy.SqlToyConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 按数据源实际执行情况(DataSourceUtils.processDataSource)统计的延时(EWMA)和在途请求数,
+ *              多个候选数据源时按权重随机取两个,选择(延时 × (在途数+1))较小者(power of two choices);
+ *              连续连接类失败达到阈值后熔断,熔断期满后放行一个探测请求(半开),成功则恢复,失败则继续熔断;
+ *              参数:sqltoy.datasource.router.ewma.alpha(默认0.2)、sqltoy.datasource.router.failure.threshold(默认5)、
+ *              sqltoy.datasource.router.open.seconds(默认30)、sqltoy.datasource.router.decay.seconds(默认10)
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ * @modify 2026-10-18 延时改为peak-EWMA:高于当前值的延时立即生效,并随距上次统计的时间指数衰减,
+ *         长时间未被选中的数据源代价逐步降低后重新获得请求,避免一次慢请求导致永久落选
+ */
+public class DataSourceRouter {
+	/**
+	 * 定义日志
+	 */
+	private final Logger logger = LoggerFactory.getLogger(DataSourceRouter.class);
+
+	/**
+	 * 熔断状态
+	 */
+	public final static int CLOSED = 0;
+
+	public final static int OPEN = 1;
+
+	public final static int HALF_OPEN = 2;
+
+	/**
+	 * 以数据源实例为key(数据源动态销毁时需调用remove移除)
+	 */
+	private final ConcurrentHashMap<DataSource, DataSourceHealth> healths = new ConcurrentHashMap<DataSource, DataSourceHealth>();
+
+	/**
+	 * EWMA平滑系数,越大越侧重最近的延时
+	 */
+	private final double alpha;
+
+	/**
+	 * 连续连接类异常达到此数量则熔断
+	 */
+	private final int failureThreshold;
+
+	/**
+	 * 熔断时长(毫秒)
+	 */
+	private final long openMillis;
+
+	/**
+	 * 延时统计的衰减时间常数(纳秒),距上次统计经过该时长后延时衰减为原来的1/e
+	 */
+	private final double decayNanos;
+
+	public DataSourceRouter() {
+		this(getDoubleValue("ewma.alpha", 0.2), (int) getDoubleValue("failure.threshold", 5),
+				(long) (getDoubleValue("open.seconds", 30) * 1000), (long) (getDoubleValue("decay.seconds", 10) * 1000));
+	}
+
+	public DataSourceRouter(double alpha, int failureThreshold, long openMillis) {
+		this(alpha, failureThreshold, openMillis, 10000);
+	}
+
+	public DataSourceRouter(double alpha, int failureThreshold, long openMillis, long decayMillis) {
+		this.alpha = alpha;
+		this.failureThreshold = Math.max(failureThreshold, 1);
+		this.openMillis = openMillis;
+		this.decayNanos = Math.max(decayMillis, 1) * 1000000.0;
+	}
+
+	/**
+	 * @TODO 从候选数据源中选择:过滤熔断的数据源,再按power of two choices选择负载较低的
+	 * @param dataSources 候选数据源
+	 * @param weights     候选数据源的权重(为null则等权重,权重为0不参与选择)
+	 * @return 选中的数据源下标,全部熔断时返回代价最低的数据源
+	 */
+	public int select(DataSource[] dataSources, int[] weights) {
+		if (dataSources.length == 1) {
+			return 0;
+		}
+		long now = System.currentTimeMillis();
+		int[] available = new int[dataSources.length];
+		int size = 0;
+		int totalWeight = 0;
+		for (int i = 0; i < dataSources.length; i++) {
+			if ((weights == null || weights[i] > 0) && getHealth(dataSources[i]).isAvailable(now)) {
+				available[size++] = i;
+				totalWeight += (weights == null) ? 1 : weights[i];
+			}
+		}
+		if (size == 0) {
+			int index = 0;
+			for (int i = 1; i < dataSources.length; i++) {
+				if (getHealth(dataSources[i]).cost() < getHealth(dataSources[index]).cost()) {
+					index = i;
+				}
+			}
+			logger.warn("候选数据源全部处于熔断状态,选择代价最低的第:{}个数据源!", index);
+			return index;
+		}
+		if (size == 1) {
+			getHealth(dataSources[available[0]]).tryAcquire(now);
+			return available[0];
+		}
+		int first = randomIndex(available, size, weights, totalWeight, -1);
+		int second = randomIndex(available, size, weights, totalWeight, first);
+		DataSourceHealth firstHealth = getHealth(dataSources[first]);
+		DataSourceHealth secondHealth = getHealth(dataSources[second]);
+		// 熔断期满的数据源优先放行探测请求,避免长期无法恢复
+		if (secondHealth.state != CLOSED
+				|| (firstHealth.state == CLOSED && secondHealth.cost() < firstHealth.cost())) {
+			int tmp = first;
+			first = second;
+			second = tmp;
+			firstHealth = secondHealth;
+		}
+		// 半开状态只放行一个探测请求,并发获取不到时选另一个
+		if (firstHealth.tryAcquire(now)) {
+			return first;
+		}
+		return second;
+	}
+
+	/**
+	 * @TODO 数据源是否可用(未熔断或熔断期满可探测)
+	 * @param dataSource
+	 * @return
+	 */
+	public boolean isAvailable(DataSource dataSource) {
+		return getHealth(dataSource).isAvailable(System.currentTimeMillis());
+	}
+
+	/**
+	 * 按权重随机选取一个下标(exclude除外)
+	 */
+	private static int randomIndex(int[] available, int size, int[] weights, int totalWeight, int exclude) {
+		int excludeWeight = 0;
+		if (exclude != -1) {
+			excludeWeight = (weights == null) ? 1 : weights[exclude];
+		}
+		int random = ThreadLocalRandom.current().nextInt(totalWeight - excludeWeight);
+		int index;
+		for (int i = 0; i < size; i++) {
+			index = available[i];
+			if (index == exclude) {
+				continue;
+			}
+			random -= (weights == null) ? 1 : weights[index];
+			if (random < 0) {
+				return index;
+			}
+		}
+		return available[size - 1] == exclude ? available[size - 2] : available[size - 1];
+	}
+
+	/**
+	 * @TODO 开始执行,在途请求数加1
+	 * @param dataSource
+	 * @return 开始时间
+	 */
+	public long begin(DataSource dataSource) {
+		getHealth(dataSource).inFlight.incrementAndGet();
+		return System.nanoTime();
+	}
+
+	/**
+	 * @TODO 执行结束,记录延时和执行结果
+	 * @param dataSource
+	 * @param startNanos begin返回的开始时间
+	 * @param error      执行异常,为null表示成功;只有连接类异常计为数据源故障
+	 */
+	public void end(DataSource dataSource, long startNanos, Throwable error) {
+		end(dataSource, startNanos, error != null && isConnectionFailure(error));
+	}
+
+	/**
+	 * @TODO 执行结束,记录延时和执行结果
+	 * @param dataSource
+	 * @param startNanos begin返回的开始时间
+	 * @param failure    是否为数据源故障(如获取连接失败)
+	 */
+	public void end(DataSource dataSource, long startNanos, boolean failure) {
+		DataSourceHealth health = getHealth(dataSource);
+		health.inFlight.decrementAndGet();
+		double millis = (System.nanoTime() - startNanos) / 1000000.0;
+		if (failure) {
+			health.onFailure(millis);
+		} else {
+			health.onSuccess(millis);
+		}
+	}
+
+	/**
+	 * @TODO 获取数据源的运行状况(延时、在途数、熔断状态)
+	 * @param dataSource
+	 * @return
+	 */
+	public DataSourceHealth getHealth(DataSource dataSource) {
+		DataSourceHealth health = healths.get(dataSource);
+		if (health == null) {
+			health = healths.computeIfAbsent(dataSource, (key) -> new DataSourceHealth());
+		}
+		return health;
+	}
+
+	/**
+	 * @TODO 移除数据源的运行状况(数据源动态销毁时调用)
+	 * @param dataSource
+	 */
+	public void remove(DataSource dataSource) {
+		healths.remove(dataSource);
+	}
+
+	/**
+	 * @TODO 判断是否为连接类异常(连接获取失败、连接中断、超时),sql语法等业务异常不影响数据源健康状态
+	 * @param error
+	 * @return
+	 */
+	public static boolean isConnectionFailure(Throwable error) {
+		Throwable cause = error;
+		String sqlState;
+		List<Throwable> visited = new ArrayList<Throwable>();
+		while (cause != null && !visited.contains(cause)) {
+			if (cause instanceof SQLTransientConnectionException || cause instanceof SQLNonTransientConnectionException
+					|| cause instanceof SQLTimeoutException) {
+				return true;
+			}
+			if (cause instanceof SQLException) {
+				sqlState = ((SQLException) cause).getSQLState();
+				// 08xxx:连接异常
+				if (sqlState != null && sqlState.startsWith("08")) {
+					return true;
+				}
+			}
+			visited.add(cause);
+			cause = cause.getCause();
+		}
+		return false;
+	}
+
+	private static double getDoubleValue(String key, double defaultValue) {
+		String value = SqlToyConstants.getKeyValue("sqltoy.datasource.router." + key);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		return Double.parseDouble(value.trim());
+	}
+
+	/**
+	 * 单个数据源的运行状况
+	 */
+	public class DataSourceHealth {
+		private final AtomicInteger inFlight = new AtomicInteger(0);
+
+		/**
+		 * 延时EWMA(毫秒)及其统计时间,null表示无统计数据
+		 */
+		private final AtomicReference<Ewma> ewma = new AtomicReference<Ewma>();
+
+		private final AtomicInteger failures = new AtomicInteger(0);
+
+		private final AtomicBoolean probing = new AtomicBoolean(false);
+
+		private volatile int state = CLOSED;
+
+		private volatile long openTime;
+
+		private volatile long probeTime;
+
+		private boolean isAvailable(long now) {
+			if (state == CLOSED) {
+				return true;
+			}
+			if (state == OPEN) {
+				return now - openTime >= openMillis;
+			}
+			// 半开:没有探测请求,或探测请求超时未返回
+			return !probing.get() || now - probeTime >= openMillis;
+		}
+
+		private boolean tryAcquire(long now) {
+			if (state == CLOSED) {
+				return true;
+			}
+			if (!isAvailable(now)) {
+				return false;
+			}
+			synchronized (this) {
+				if (state == CLOSED) {
+					return true;
+				}
+				if (probing.get() && now - probeTime < openMillis) {
+					return false;
+				}
+				state = HALF_OPEN;
+				probing.set(true);
+				probeTime = now;
+			}
+			logger.info("数据源熔断期满,放行探测请求!");
+			return true;
+		}
+
+		private void onSuccess(double millis) {
+			updateEwma(millis);
+			failures.set(0);
+			if (state != CLOSED) {
+				synchronized (this) {
+					state = CLOSED;
+					probing.set(false);
+				}
+				logger.info("数据源探测请求成功,解除熔断!");
+			}
+		}
+
+		private void onFailure(double millis) {
+			updateEwma(millis);
+			int failureCount = failures.incrementAndGet();
+			if (state == HALF_OPEN || (state == CLOSED && failureCount >= failureThreshold)) {
+				synchronized (this) {
+					state = OPEN;
+					openTime = System.currentTimeMillis();
+					probing.set(false);
+				}
+				logger.warn("数据源连续发生{}次连接类异常,熔断{}毫秒!", failureCount, openMillis);
+			}
+		}
+
+		private void updateEwma(double millis) {
+			Ewma prev;
+			double prevValue;
+			double next;
+			long now;
+			do {
+				prev = ewma.get();
+				now = System.nanoTime();
+				prevValue = decay(prev, now);
+				// peak:高于当前值立即生效,低于则平滑下降
+				next = (prev == null || millis > prevValue) ? millis : prevValue + alpha * (millis - prevValue);
+			} while (!ewma.compareAndSet(prev, new Ewma(next, now)));
+		}
+
+		/**
+		 * 按距上次统计的时长指数衰减
+		 */
+		private double decay(Ewma value, long now) {
+			if (value == null) {
+				return 0;
+			}
+			long elapsed = now - value.nanos;
+			return (elapsed <= 0) ? value.millis : value.millis * Math.exp(-elapsed / decayNanos);
+		}
+
+		/**
+		 * 选择代价:延时 × (在途数+1),无统计数据时延时按0处理(优先分配请求以获得统计)
+		 */
+		private double cost() {
+			return Math.max(getEwmaMillis(), 0.001) * (inFlight.get() + 1);
+		}
+
+		/**
+		 * @return 延时的指数加权平均(毫秒,已按时间衰减),无统计数据返回0
+		 */
+		public double getEwmaMillis() {
+			return decay(ewma.get(), System.nanoTime());
+		}
+
+		public int getInFlight() {
+			return inFlight.get();
+		}
+
+		/**
+		 * @return 熔断状态:CLOSED、OPEN、HALF_OPEN
+		 */
+		public int getState() {
+			return state;
+		}
+
+		public int getFailures() {
+			return failures.get();
+		}
+	}
+
+	private static class Ewma {
+		private final double millis;
+
+		private final long nanos;
+
+		private Ewma(double millis, long nanos) {
+			this.millis = millis;
+			this.nanos = nanos;
+		}
+	}
+}
@@ -2,6 +2,7 @@ package org.sagacity.sqltoy.plugins.datasource;
 
 import javax.sql.DataSource;
 
+import org.sagacity.sqltoy.config.model.SqlType;
 import org.sagacity.sqltoy.utils.StringUtil;
 import org.springframework.context.ApplicationContext;
 
@@ -10,6 +11,7 @@ import org.springframework.context.ApplicationContext;
  * @description 提供给开发者扩展获得数据源的方法
  * @author zhongxuchen
  * @version v1.0,Date:2021年4月13日
+ * @modify {Date:2026-10-18,增加按sql类型选择数据源的扩展,支持读写分离}
  */
 public interface DataSourceSelector {
 	/**
@@ -24,6 +26,22 @@ public interface DataSourceSelector {
 	public DataSource getDataSource(ApplicationContext applicationContext, DataSource pointDataSouce,
 			String sqlDataSourceName, DataSource injectDataSource, DataSource defaultDataSource);
 
+	/**
+	 * @TODO 按sql类型选择dataSource(如读写分离时查询走从库),默认不区分sql类型
+	 * @param applicationContext spring上下文
+	 * @param pointDataSouce     方法调用时直接传递的数据源
+	 * @param sqlDataSourceName  sql中指定的数据源名称
+	 * @param injectDataSource   dao中自动注入的数据源
+	 * @param defaultDataSource  sqltoy 默认的数据源
+	 * @param sqlType            sql类型,为null表示不参与读写路由(如对象加载、获取元数据等)
+	 * @return
+	 */
+	public default DataSource getDataSource(ApplicationContext applicationContext, DataSource pointDataSouce,
+			String sqlDataSourceName, DataSource injectDataSource, DataSource defaultDataSource, SqlType sqlType) {
+		return getDataSource(applicationContext, pointDataSouce, sqlDataSourceName, injectDataSource,
+				defaultDataSource);
+	}
+
 	/**
 	 * @TODO 提供通过名称获得数据库实例的扩展，便于一些dataSource插件特殊的封装方式无法用spring的getBean直接获得
 	 * @param applicationContext
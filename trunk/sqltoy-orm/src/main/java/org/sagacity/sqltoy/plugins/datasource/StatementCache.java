@@ -0,0 +1,443 @@
+package org.sagacity.sqltoy.plugins.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.sagacity.sqltoy.utils.DataSourceUtils;
+import org.sagacity.sqltoy.utils.StringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 绑定在连接(事务)范围内的PreparedStatement缓存,同一事务中循环执行相同sql时复用已经编译的语句,
+ *              每个连接按LRU限制缓存数量,连接释放(非事务)或事务结束时关闭全部缓存的语句并移除该连接的缓存;
+ *              缓存归属SqlToyContext,仅在DataSourceUtils.processDataSource通过bind绑定到当前线程的连接(即由SqlToyContext获取并释放的连接)上生效,
+ *              调用方自行管理的连接不做缓存
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ * @modify 2026-10-18 由全局静态缓存改为按调用链绑定连接,避免多个SqlToyContext相互覆盖以及外部连接上的语句无法释放
+ */
+public class StatementCache {
+	/**
+	 * 定义日志
+	 */
+	protected final static Logger logger = LoggerFactory.getLogger(StatementCache.class);
+
+	/**
+	 * 单个连接缓存的语句数量上限(小于1表示不启用)
+	 */
+	private final int maxSize;
+
+	/**
+	 * 启用的数据库方言(为空表示全部)
+	 */
+	private final Set<String> dialects;
+
+	/**
+	 * 连接对应的语句缓存:缓存的语句强引用其连接,不能依赖弱引用回收,必须在连接释放(非事务)或事务结束时通过close(conn)移除;
+	 * 按对象标识区分连接(连接池代理可能重写equals/hashCode)
+	 */
+	private final Map<Connection, ConnectionStatements> connStatements = Collections
+			.synchronizedMap(new IdentityHashMap<Connection, ConnectionStatements>());
+
+	/**
+	 * 正在使用中的缓存语句(按对象标识)
+	 */
+	private final Map<PreparedStatement, CachedStatement> borrowed = Collections
+			.synchronizedMap(new IdentityHashMap<PreparedStatement, CachedStatement>());
+
+	/**
+	 * 当前线程正在使用的连接及其语句缓存(嵌套调用时形成链)
+	 */
+	private final static ThreadLocal<Binding> binding = new ThreadLocal<Binding>();
+
+	private final AtomicLong hitCount = new AtomicLong(0);
+
+	private final AtomicLong missCount = new AtomicLong(0);
+
+	private final AtomicLong evictionCount = new AtomicLong(0);
+
+	/**
+	 * @param maxSize  单个连接缓存的语句数量上限
+	 * @param dialects 启用的数据库方言,逗号分隔(如:mysql,oracle),为空表示全部
+	 */
+	public StatementCache(int maxSize, String dialects) {
+		this.maxSize = maxSize;
+		this.dialects = new HashSet<String>();
+		if (StringUtil.isNotBlank(dialects)) {
+			for (String dialect : dialects.split("\\,")) {
+				if (StringUtil.isNotBlank(dialect)) {
+					this.dialects.add(dialect.trim().toLowerCase());
+				}
+			}
+		}
+	}
+
+	/**
+	 * @TODO 将由SqlToyContext获取的连接及其语句缓存绑定到当前线程,必须在finally中调用unbind解除
+	 * @param conn
+	 * @param cache 为null或未启用表示不缓存
+	 */
+	public static void bind(Connection conn, StatementCache cache) {
+		binding.set(new Binding(conn, (cache == null || !cache.isEnabled()) ? null : cache, binding.get()));
+	}
+
+	/**
+	 * @TODO 解除最近一次bind的绑定
+	 */
+	public static void unbind() {
+		Binding current = binding.get();
+		if (current == null) {
+			return;
+		}
+		if (current.previous == null) {
+			binding.remove();
+		} else {
+			binding.set(current.previous);
+		}
+	}
+
+	/**
+	 * @TODO 获取当前线程上连接绑定的语句缓存,未绑定的连接(调用方自行管理)返回null
+	 * @param conn
+	 * @return
+	 */
+	public static StatementCache current(Connection conn) {
+		for (Binding item = binding.get(); item != null; item = item.previous) {
+			if (item.conn == conn) {
+				return item.cache;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @TODO 归还语句到当前线程绑定的缓存,返回false表示非缓存语句需由调用方关闭
+	 * @param pst
+	 * @return
+	 */
+	public static boolean recycleCurrent(PreparedStatement pst) {
+		for (Binding item = binding.get(); item != null; item = item.previous) {
+			if (item.cache != null && item.cache.recycle(pst)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @TODO 是否启用
+	 * @return
+	 */
+	public boolean isEnabled() {
+		return maxSize > 0;
+	}
+
+	/**
+	 * @TODO 判断数据库类型是否启用缓存
+	 * @param dbType
+	 * @return
+	 */
+	public boolean isEnabled(Integer dbType) {
+		if (maxSize < 1) {
+			return false;
+		}
+		if (dialects.isEmpty()) {
+			return true;
+		}
+		return dbType != null && dialects.contains(DataSourceUtils.getDialect(dbType));
+	}
+
+	/**
+	 * @TODO 获取PreparedStatement,命中缓存则直接复用,使用完需调用recycle归还
+	 * @param conn
+	 * @param dbType
+	 * @param sql
+	 * @param resultSetType        小于0表示使用默认
+	 * @param resultSetConcurrency
+	 * @return
+	 * @throws SQLException
+	 */
+	public PreparedStatement prepareStatement(Connection conn, Integer dbType, String sql, int resultSetType,
+			int resultSetConcurrency) throws SQLException {
+		if (!isEnabled(dbType)) {
+			return createStatement(conn, sql, resultSetType, resultSetConcurrency);
+		}
+		String key = (resultSetType < 0) ? sql : resultSetType + ":" + resultSetConcurrency + ":" + sql;
+		ConnectionStatements statements;
+		synchronized (connStatements) {
+			statements = connStatements.get(conn);
+			if (statements == null) {
+				statements = new ConnectionStatements();
+				connStatements.put(conn, statements);
+			}
+		}
+		CachedStatement cached;
+		synchronized (statements) {
+			cached = statements.get(key);
+			// 被驱动或连接池关闭的语句直接剔除
+			if (cached != null && cached.pst.isClosed()) {
+				statements.remove(key);
+				cached = null;
+			}
+			if (cached != null && !cached.inUse) {
+				cached.inUse = true;
+				hitCount.incrementAndGet();
+				borrowed.put(cached.pst, cached);
+				return cached.pst;
+			}
+			missCount.incrementAndGet();
+			// 同一sql正在使用中(如嵌套执行),不做缓存
+			if (cached != null) {
+				return createStatement(conn, sql, resultSetType, resultSetConcurrency);
+			}
+			PreparedStatement pst = createStatement(conn, sql, resultSetType, resultSetConcurrency);
+			cached = new CachedStatement(pst);
+			cached.inUse = true;
+			statements.put(key, cached);
+		}
+		borrowed.put(cached.pst, cached);
+		return cached.pst;
+	}
+
+	/**
+	 * @TODO 归还语句,缓存的语句清空参数后保留,返回false表示非缓存语句需由调用方关闭
+	 * @param pst
+	 * @return
+	 */
+	public boolean recycle(PreparedStatement pst) {
+		if (pst == null) {
+			return false;
+		}
+		CachedStatement cached = borrowed.remove(pst);
+		if (cached == null) {
+			return false;
+		}
+		synchronized (cached) {
+			try {
+				// 已经被LRU淘汰或连接已释放
+				if (cached.evicted) {
+					closeQuietly(pst);
+					return true;
+				}
+				pst.clearParameters();
+				pst.clearBatch();
+				if (pst.getMaxRows() != cached.maxRows) {
+					pst.setMaxRows(cached.maxRows);
+				}
+				if (pst.getFetchSize() != cached.fetchSize) {
+					pst.setFetchSize(cached.fetchSize);
+				}
+				cached.inUse = false;
+			} catch (SQLException e) {
+				cached.evicted = true;
+				closeQuietly(pst);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @TODO 连接是否存在缓存的语句
+	 * @param conn
+	 * @return
+	 */
+	public boolean hasStatements(Connection conn) {
+		if (conn == null || maxSize < 1) {
+			return false;
+		}
+		ConnectionStatements statements = connStatements.get(conn);
+		return statements != null && !statements.isEmpty();
+	}
+
+	/**
+	 * @TODO 标记连接已经注册了事务结束回调(只注册一次)
+	 * @param conn
+	 * @return 首次标记返回true
+	 */
+	public boolean markBound(Connection conn) {
+		ConnectionStatements statements = connStatements.get(conn);
+		if (statements == null) {
+			return false;
+		}
+		synchronized (statements) {
+			if (statements.bound) {
+				return false;
+			}
+			statements.bound = true;
+			return true;
+		}
+	}
+
+	/**
+	 * @TODO 关闭连接下缓存的全部语句(连接释放或事务结束时调用)
+	 * @param conn
+	 */
+	public void close(Connection conn) {
+		if (conn == null) {
+			return;
+		}
+		ConnectionStatements statements = connStatements.remove(conn);
+		if (statements == null) {
+			return;
+		}
+		List<CachedStatement> closeList;
+		synchronized (statements) {
+			closeList = new ArrayList<CachedStatement>(statements.values());
+			statements.clear();
+		}
+		for (CachedStatement cached : closeList) {
+			evict(cached);
+		}
+	}
+
+	/**
+	 * @TODO 关闭全部缓存
+	 */
+	public void destroy() {
+		List<Connection> conns;
+		synchronized (connStatements) {
+			conns = new ArrayList<Connection>(connStatements.keySet());
+		}
+		for (Connection conn : conns) {
+			close(conn);
+		}
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * @TODO 当前缓存的语句总数
+	 * @return
+	 */
+	public int getSize() {
+		int size = 0;
+		synchronized (connStatements) {
+			for (Iterator<ConnectionStatements> iter = connStatements.values().iterator(); iter.hasNext();) {
+				size += iter.next().size();
+			}
+		}
+		return size;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	@Override
+	public String toString() {
+		return "StatementCache[maxSize=" + maxSize + ",size=" + getSize() + ",hit=" + hitCount.get() + ",miss="
+				+ missCount.get() + ",eviction=" + evictionCount.get() + "]";
+	}
+
+	private PreparedStatement createStatement(Connection conn, String sql, int resultSetType,
+			int resultSetConcurrency) throws SQLException {
+		if (resultSetType < 0) {
+			return conn.prepareStatement(sql);
+		}
+		return conn.prepareStatement(sql, resultSetType, resultSetConcurrency);
+	}
+
+	/**
+	 * @TODO 淘汰语句,使用中的语句在归还时关闭
+	 * @param cached
+	 */
+	private static void evict(CachedStatement cached) {
+		synchronized (cached) {
+			cached.evicted = true;
+			if (!cached.inUse) {
+				closeQuietly(cached.pst);
+			}
+		}
+	}
+
+	private static void closeQuietly(PreparedStatement pst) {
+		try {
+			pst.close();
+		} catch (SQLException e) {
+			logger.warn("关闭缓存的PreparedStatement异常:{}", e.getMessage());
+		}
+	}
+
+	/**
+	 * 单个连接下按LRU淘汰的语句缓存
+	 */
+	@SuppressWarnings("serial")
+	private class ConnectionStatements extends LinkedHashMap<String, CachedStatement> {
+		/**
+		 * 是否已经注册事务结束回调
+		 */
+		private boolean bound = false;
+
+		ConnectionStatements() {
+			super(16, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+			if (size() > maxSize) {
+				evictionCount.incrementAndGet();
+				evict(eldest.getValue());
+				return true;
+			}
+			return false;
+		}
+	}
+
+	private static class Binding {
+		private final Connection conn;
+
+		private final StatementCache cache;
+
+		private final Binding previous;
+
+		Binding(Connection conn, StatementCache cache, Binding previous) {
+			this.conn = conn;
+			this.cache = cache;
+			this.previous = previous;
+		}
+	}
+
+	private static class CachedStatement {
+		private final PreparedStatement pst;
+
+		/**
+		 * 创建时的默认值,归还时恢复
+		 */
+		private final int maxRows;
+
+		private final int fetchSize;
+
+		private volatile boolean inUse = false;
+
+		private volatile boolean evicted = false;
+
+		CachedStatement(PreparedStatement pst) throws SQLException {
+			this.pst = pst;
+			this.maxRows = pst.getMaxRows();
+			this.fetchSize = pst.getFetchSize();
+		}
+	}
+}
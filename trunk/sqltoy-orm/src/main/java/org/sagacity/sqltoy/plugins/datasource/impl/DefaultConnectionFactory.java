@@ -6,6 +6,8 @@ import javax.sql.DataSource;
 
 import org.sagacity.sqltoy.plugins.datasource.ConnectionFactory;
 import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * @project sagacity-sqltoy
@@ -29,4 +31,29 @@ public class DefaultConnectionFactory implements ConnectionFactory {
 		DataSourceUtils.releaseConnection(conn, dataSource);
 	}
 
+	/**
+	 * 连接由spring事务管理(绑定在当前线程)即视为事务中
+	 */
+	@Override
+	public boolean isTransactional(Connection conn, DataSource dataSource) {
+		return DataSourceUtils.isConnectionTransactional(conn, dataSource);
+	}
+
+	/**
+	 * 通过spring事务同步在事务完成后回调
+	 */
+	@Override
+	public boolean registerTransactionCallback(Connection conn, DataSource dataSource, Runnable callback) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return false;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				callback.run();
+			}
+		});
+		return true;
+	}
+
 }
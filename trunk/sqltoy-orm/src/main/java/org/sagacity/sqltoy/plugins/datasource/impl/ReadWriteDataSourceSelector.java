@@ -0,0 +1,356 @@
+package org.sagacity.sqltoy.plugins.datasource.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.sagacity.sqltoy.SqlToyContext;
+import org.sagacity.sqltoy.config.model.SqlType;
+import org.sagacity.sqltoy.plugins.datasource.DataSourceRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 读写分离的数据源选择:主库配置了从库时,非写事务中的查询(SqlType.search)分配到从库,
+ *              其余操作以及写操作后stickySeconds秒内(同一线程)的查询仍走主库,保证读到自己的写入;
+ *              可为从库配置延迟检测sql(返回延迟秒数),延迟超过maxLagSeconds或检测失败的从库暂停分配,
+ *              从库之间按DataSourceRouter的延时、在途数和熔断状态选择
+ *              <p>
+ *              配置:replicas={主库名称:从库名称1,从库名称2},lagProbeSqls={从库名称:sql}
+ *              </p>
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+public class ReadWriteDataSourceSelector extends DefaultDataSourceSelector {
+	/**
+	 * 定义日志
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(ReadWriteDataSourceSelector.class);
+
+	/**
+	 * 当前线程最后一次写操作的时间
+	 */
+	private final static ThreadLocal<Long> lastWriteTime = new ThreadLocal<Long>();
+
+	/**
+	 * 主库名称对应的从库名称(逗号分隔)
+	 */
+	private Map<String, String> replicas = new HashMap<String, String>();
+
+	/**
+	 * 从库名称对应的延迟检测sql
+	 */
+	private Map<String, String> lagProbeSqls = new HashMap<String, String>();
+
+	/**
+	 * 写操作后继续使用主库的时长(秒),小于等于0表示不保持
+	 */
+	private int stickySeconds = 5;
+
+	/**
+	 * 允许的最大从库延迟(秒)
+	 */
+	private int maxLagSeconds = 10;
+
+	/**
+	 * 从库延迟检测间隔(秒)
+	 */
+	private int lagCheckSeconds = 5;
+
+	/**
+	 * 主库实例对应的从库
+	 */
+	private volatile Map<DataSource, ReplicaGroup> groups;
+
+	private SqlToyContext sqlToyContext;
+
+	private ScheduledExecutorService lagProber;
+
+	/**
+	 * @TODO 解析主从配置并启动从库延迟检测(由SqlToyContext初始化时调用)
+	 * @param sqlToyContext
+	 */
+	public synchronized void initialize(SqlToyContext sqlToyContext) {
+		this.sqlToyContext = sqlToyContext;
+		ApplicationContext applicationContext = sqlToyContext.getApplicationContext();
+		Map<DataSource, ReplicaGroup> result = new IdentityHashMap<DataSource, ReplicaGroup>();
+		boolean hasProbe = false;
+		DataSource primary;
+		List<String> names;
+		String name;
+		for (Map.Entry<String, String> entry : replicas.entrySet()) {
+			primary = getDataSourceBean(applicationContext, entry.getKey());
+			if (primary == null) {
+				logger.warn("读写分离配置的主库:{} 不存在!", entry.getKey());
+				continue;
+			}
+			names = new ArrayList<String>();
+			for (String replica : entry.getValue().split("\\,")) {
+				name = replica.trim();
+				if (name.isEmpty()) {
+					continue;
+				}
+				if (getDataSourceBean(applicationContext, name) == null) {
+					logger.warn("读写分离配置的从库:{} 不存在!", name);
+					continue;
+				}
+				names.add(name);
+			}
+			if (!names.isEmpty()) {
+				ReplicaGroup group = new ReplicaGroup(names.size());
+				for (int i = 0; i < names.size(); i++) {
+					group.names[i] = names.get(i);
+					group.dataSources[i] = getDataSourceBean(applicationContext, names.get(i));
+					group.probeSqls[i] = lagProbeSqls.get(names.get(i));
+					hasProbe = hasProbe || group.probeSqls[i] != null;
+				}
+				result.put(primary, group);
+			}
+		}
+		groups = result;
+		if (hasProbe && lagProber == null) {
+			lagProber = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+				Thread thread = new Thread(runnable, "sqltoy-replica-lag-probe");
+				thread.setDaemon(true);
+				return thread;
+			});
+			lagProber.scheduleWithFixedDelay(this::probeLags, 0, Math.max(lagCheckSeconds, 1), TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * @TODO 停止从库延迟检测
+	 */
+	public synchronized void destroy() {
+		if (lagProber != null) {
+			lagProber.shutdownNow();
+			lagProber = null;
+		}
+	}
+
+	@Override
+	public DataSource getDataSource(ApplicationContext applicationContext, DataSource pointDataSouce,
+			String sqlDataSourceName, DataSource injectDataSource, DataSource defaultDataSource, SqlType sqlType) {
+		DataSource result = getDataSource(applicationContext, pointDataSouce, sqlDataSourceName, injectDataSource,
+				defaultDataSource);
+		Map<DataSource, ReplicaGroup> replicaGroups = groups;
+		ReplicaGroup group = (result == null || replicaGroups == null) ? null : replicaGroups.get(result);
+		if (group == null) {
+			return result;
+		}
+		// 未指明操作类型(如对象加载、获取元数据)不参与读写路由:走主库且不记录写入
+		if (sqlType == null) {
+			return result;
+		}
+		// 写操作走主库,并记录写入时间
+		if (sqlType != SqlType.search) {
+			if (stickySeconds > 0) {
+				lastWriteTime.set(System.currentTimeMillis());
+			}
+			return result;
+		}
+		// 直接指定了数据源、在写事务中、刚发生过写操作
+		if (pointDataSouce != null || isWriteTransaction() || isSticky()) {
+			return result;
+		}
+		DataSource replica = group.select((sqlToyContext == null) ? null : sqlToyContext.getDataSourceRouter());
+		return (replica == null) ? result : replica;
+	}
+
+	/**
+	 * @TODO 声明当前线程后续的查询(stickySeconds内)走主库,如通过其他途径写入数据后
+	 */
+	public static void markWrite() {
+		lastWriteTime.set(System.currentTimeMillis());
+	}
+
+	/**
+	 * @TODO 清除当前线程的写入标记(如线程池复用线程时)
+	 */
+	public static void clearWriteMark() {
+		lastWriteTime.remove();
+	}
+
+	private boolean isSticky() {
+		Long writeTime = lastWriteTime.get();
+		if (writeTime == null) {
+			return false;
+		}
+		if (System.currentTimeMillis() - writeTime < stickySeconds * 1000L) {
+			return true;
+		}
+		lastWriteTime.remove();
+		return false;
+	}
+
+	private static boolean isWriteTransaction() {
+		return TransactionSynchronizationManager.isActualTransactionActive()
+				&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+	/**
+	 * @TODO 检测从库延迟,延迟超限或检测失败的从库暂停分配
+	 */
+	private void probeLags() {
+		Map<DataSource, ReplicaGroup> replicaGroups = groups;
+		if (replicaGroups == null) {
+			return;
+		}
+		double[] lags;
+		boolean[] laggings;
+		for (ReplicaGroup group : replicaGroups.values()) {
+			lags = group.lags.clone();
+			laggings = group.lagging.clone();
+			for (int i = 0; i < group.dataSources.length; i++) {
+				if (group.probeSqls[i] == null) {
+					continue;
+				}
+				lags[i] = probeLag(group.dataSources[i], group.probeSqls[i]);
+				laggings[i] = lags[i] < 0 || lags[i] > maxLagSeconds;
+				if (laggings[i] != group.lagging[i]) {
+					logger.warn("从库:{} 延迟:{}秒,{}!", group.names[i], (lags[i] < 0) ? "检测失败" : lags[i],
+							laggings[i] ? "暂停分配查询" : "恢复分配查询");
+				}
+			}
+			// 整体替换,保证查询线程可见
+			group.lags = lags;
+			group.lagging = laggings;
+		}
+	}
+
+	/**
+	 * 返回延迟秒数,检测失败返回-1
+	 */
+	private double probeLag(DataSource dataSource, String probeSql) {
+		Connection conn = null;
+		try {
+			conn = sqlToyContext.getConnection(dataSource);
+			try (PreparedStatement pst = conn.prepareStatement(probeSql); ResultSet rs = pst.executeQuery()) {
+				Object value = rs.next() ? rs.getObject(1) : null;
+				// 无延迟数据(如复制中断)视为不可用
+				return (value == null) ? -1 : Double.parseDouble(value.toString());
+			}
+		} catch (Exception e) {
+			logger.warn("从库延迟检测sql:{} 执行失败:{}", probeSql, e.getMessage());
+			return -1;
+		} finally {
+			if (conn != null) {
+				sqlToyContext.releaseConnection(conn, dataSource);
+			}
+		}
+	}
+
+	/**
+	 * @TODO 获取从库最近一次检测的延迟秒数(-1表示检测失败,未配置检测为0)
+	 * @return
+	 */
+	public Map<String, Double> getReplicaLags() {
+		Map<String, Double> result = new HashMap<String, Double>();
+		Map<DataSource, ReplicaGroup> replicaGroups = groups;
+		if (replicaGroups != null) {
+			for (ReplicaGroup group : replicaGroups.values()) {
+				for (int i = 0; i < group.names.length; i++) {
+					result.put(group.names[i], group.lags[i]);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param replicas the replicas to set
+	 */
+	public void setReplicas(Map<String, String> replicas) {
+		this.replicas = replicas;
+	}
+
+	/**
+	 * @param lagProbeSqls the lagProbeSqls to set
+	 */
+	public void setLagProbeSqls(Map<String, String> lagProbeSqls) {
+		this.lagProbeSqls = lagProbeSqls;
+	}
+
+	/**
+	 * @param stickySeconds the stickySeconds to set
+	 */
+	public void setStickySeconds(int stickySeconds) {
+		this.stickySeconds = stickySeconds;
+	}
+
+	/**
+	 * @param maxLagSeconds the maxLagSeconds to set
+	 */
+	public void setMaxLagSeconds(int maxLagSeconds) {
+		this.maxLagSeconds = maxLagSeconds;
+	}
+
+	/**
+	 * @param lagCheckSeconds the lagCheckSeconds to set
+	 */
+	public void setLagCheckSeconds(int lagCheckSeconds) {
+		this.lagCheckSeconds = lagCheckSeconds;
+	}
+
+	/**
+	 * 一个主库对应的从库
+	 */
+	private static class ReplicaGroup {
+		private final String[] names;
+
+		private final DataSource[] dataSources;
+
+		private final String[] probeSqls;
+
+		private volatile double[] lags;
+
+		private volatile boolean[] lagging;
+
+		private ReplicaGroup(int size) {
+			names = new String[size];
+			dataSources = new DataSource[size];
+			probeSqls = new String[size];
+			lags = new double[size];
+			lagging = new boolean[size];
+		}
+
+		/**
+		 * 选择未延迟且未熔断的从库,均不可用时返回null(走主库)
+		 */
+		private DataSource select(DataSourceRouter router) {
+			DataSource[] candidates = new DataSource[dataSources.length];
+			int size = 0;
+			for (int i = 0; i < dataSources.length; i++) {
+				if (!lagging[i] && (router == null || router.isAvailable(dataSources[i]))) {
+					candidates[size++] = dataSources[i];
+				}
+			}
+			if (size == 0) {
+				return null;
+			}
+			if (size == 1) {
+				return candidates[0];
+			}
+			if (router == null) {
+				return candidates[ThreadLocalRandom.current().nextInt(size)];
+			}
+			DataSource[] available = new DataSource[size];
+			System.arraycopy(candidates, 0, available, 0, size);
+			return available[router.select(available, null)];
+		}
+	}
+}
@@ -0,0 +1,398 @@
+package org.sagacity.sqltoy.plugins.executor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.sagacity.sqltoy.SqlExecuteStat;
+import org.sagacity.sqltoy.SqlToyConstants;
+import org.sagacity.sqltoy.config.model.SqlExecuteTrace;
+import org.sagacity.sqltoy.exception.DataAccessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 统一管理sqltoy并行执行(并行分页、并行查询、分库分表并行写)的线程池,避免每次调用都创建新线程池;
+ *              按名称区分线程池,队列有界,饱和时按拒绝策略处理(callerRuns:调用线程直接执行;abort:抛出异常),
+ *              jdk21+可通过sqltoy.executor.virtual.threads=true 改用虚拟线程(每任务一个虚拟线程,信号量限制并发)
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+public class ExecutorManager {
+	/**
+	 * 定义日志
+	 */
+	private final Logger logger = LoggerFactory.getLogger(ExecutorManager.class);
+
+	/**
+	 * 并行分页(count和rows并行)
+	 */
+	public final static String PAGE = "page";
+
+	/**
+	 * 并行查询
+	 */
+	public final static String PARALLEL_QUERY = "parallelQuery";
+
+	/**
+	 * 分库分表并行执行
+	 */
+	public final static String SHARDING = "sharding";
+
+	private final static String CALLER_RUNS = "callerRuns";
+
+	private final ConcurrentHashMap<String, ManagedPool> pools = new ConcurrentHashMap<String, ManagedPool>();
+
+	private volatile boolean destroyed = false;
+
+	/**
+	 * @TODO 提交任务到指定名称的线程池
+	 * @param poolName
+	 * @param task
+	 * @return
+	 */
+	public <T> Future<T> submit(String poolName, Callable<T> task) {
+		ManagedPool pool = getPool(poolName);
+		FutureTask<T> futureTask = new FutureTask<T>(task);
+		pool.submitted.incrementAndGet();
+		try {
+			pool.execute(futureTask);
+		} catch (RejectedExecutionException e) {
+			pool.rejected.incrementAndGet();
+			if (!pool.callerRuns || destroyed) {
+				throw new DataAccessException("线程池:{} 已饱和(活跃线程:{},排队:{}),拒绝执行!", poolName,
+						pool.getActiveCount(), pool.getQueueSize());
+			}
+			pool.callerRunsCount.incrementAndGet();
+			// 由调用线程直接执行,任务内部会重置SqlExecuteStat,需保留调用线程的执行跟踪
+			SqlExecuteTrace sqlTrace = SqlExecuteStat.get();
+			try {
+				futureTask.run();
+			} finally {
+				SqlExecuteStat.set(sqlTrace);
+			}
+		}
+		return futureTask;
+	}
+
+	/**
+	 * @TODO 提交任务到指定名称的线程池
+	 * @param poolName
+	 * @param task
+	 * @return
+	 */
+	public Future<?> submit(String poolName, Runnable task) {
+		return submit(poolName, Executors.callable(task));
+	}
+
+	/**
+	 * @TODO 将一组任务提交到指定线程池并等待全部完成(同ExecutorService.invokeAll(tasks,timeout)约定):
+	 *       超时不抛出异常,未完成(含因超时尚未提交)的任务被取消,由调用方通过Future.isCancelled()或
+	 *       Future.get()抛出的CancellationException自行处理
+	 * @param poolName
+	 * @param tasks
+	 * @param maxConcurrents 单次调用最大并行数(小于1表示不限制,由线程池统一控制)
+	 * @param maxWaitSeconds 最大等待时长(小于1取默认值)
+	 * @return 与tasks一一对应的Future(任务异常在Future.get()时抛出)
+	 * @throws Exception
+	 */
+	public <T> List<Future<T>> invokeAll(String poolName, List<? extends Callable<T>> tasks, int maxConcurrents,
+			long maxWaitSeconds) throws Exception {
+		long waitSeconds = (maxWaitSeconds > 0) ? maxWaitSeconds : SqlToyConstants.PARALLEL_MAXWAIT_SECONDS;
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(waitSeconds);
+		int concurrents = (maxConcurrents < 1 || maxConcurrents > tasks.size()) ? tasks.size() : maxConcurrents;
+		final Semaphore permits = new Semaphore(Math.max(concurrents, 1));
+		List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+		boolean done = false;
+		try {
+			for (final Callable<T> task : tasks) {
+				if (!permits.tryAcquire(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS)) {
+					throw new TimeoutException();
+				}
+				try {
+					futures.add(submit(poolName, () -> {
+						try {
+							return task.call();
+						} finally {
+							permits.release();
+						}
+					}));
+				} catch (RuntimeException e) {
+					permits.release();
+					throw e;
+				}
+			}
+			for (Future<T> future : futures) {
+				try {
+					future.get(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+				} catch (ExecutionException | CancellationException e) {
+					// 任务异常由调用方通过Future.get()获取处理
+				}
+			}
+			done = true;
+		} catch (TimeoutException e) {
+			logger.warn("线程池:{} 并行执行超过最大等待时长:{}秒,取消未完成的任务!", poolName, waitSeconds);
+			// 超时尚未提交的任务以已取消的Future占位,保持与tasks一一对应
+			for (int i = futures.size(); i < tasks.size(); i++) {
+				FutureTask<T> cancelled = new FutureTask<T>(tasks.get(i));
+				cancelled.cancel(false);
+				futures.add(cancelled);
+			}
+		} finally {
+			// 超时或异常,取消尚未完成的任务
+			if (!done) {
+				for (Future<T> future : futures) {
+					future.cancel(true);
+				}
+			}
+		}
+		return futures;
+	}
+
+	/**
+	 * @TODO 获取线程池运行指标
+	 * @param poolName
+	 * @return
+	 */
+	public ExecutorMetrics getMetrics(String poolName) {
+		ManagedPool pool = pools.get(poolName);
+		if (pool == null) {
+			return null;
+		}
+		ExecutorMetrics metrics = new ExecutorMetrics();
+		metrics.setPoolName(poolName);
+		metrics.setVirtual(pool.virtual);
+		metrics.setMaxThreads(pool.threads);
+		metrics.setPoolSize(pool.getPoolSize());
+		metrics.setActiveCount(pool.getActiveCount());
+		metrics.setLargestPoolSize(pool.getLargestPoolSize());
+		metrics.setQueueSize(pool.getQueueSize());
+		metrics.setQueueCapacity(pool.queueCapacity);
+		metrics.setSubmittedCount(pool.submitted.get());
+		metrics.setCompletedCount(pool.getCompletedCount());
+		metrics.setRejectedCount(pool.rejected.get());
+		metrics.setCallerRunsCount(pool.callerRunsCount.get());
+		return metrics;
+	}
+
+	/**
+	 * @TODO 获取全部线程池运行指标
+	 * @return
+	 */
+	public Map<String, ExecutorMetrics> getMetrics() {
+		Map<String, ExecutorMetrics> result = new LinkedHashMap<String, ExecutorMetrics>();
+		for (String poolName : pools.keySet()) {
+			result.put(poolName, getMetrics(poolName));
+		}
+		return result;
+	}
+
+	/**
+	 * @TODO 关闭全部线程池
+	 */
+	public void destroy() {
+		destroyed = true;
+		for (ManagedPool pool : pools.values()) {
+			pool.executor.shutdownNow();
+		}
+		pools.clear();
+	}
+
+	private ManagedPool getPool(String poolName) {
+		if (destroyed) {
+			throw new DataAccessException("sqltoy线程池已经关闭,无法执行并行任务!");
+		}
+		return pools.computeIfAbsent(poolName, (name) -> createPool(name));
+	}
+
+	/**
+	 * @TODO 按配置创建线程池:sqltoy.executor.{poolName}.threads/queue.size 优先,其次取sqltoy.executor.threads/queue.size
+	 *       虚拟线程模式下每个任务一个虚拟线程(Executors.newVirtualThreadPerTaskExecutor),threads作为并发许可数
+	 * @param poolName
+	 * @return
+	 */
+	private ManagedPool createPool(String poolName) {
+		boolean virtual = Boolean.parseBoolean(SqlToyConstants.getKeyValue("sqltoy.executor.virtual.threads", "false"));
+		ExecutorService virtualExecutor = null;
+		if (virtual) {
+			virtualExecutor = newVirtualThreadPerTaskExecutor();
+			if (virtualExecutor == null) {
+				virtual = false;
+				logger.warn("当前jdk版本不支持虚拟线程,线程池:{} 改用平台线程!", poolName);
+			}
+		}
+		// 虚拟线程无需限制太小的并发(实际并发受数据库连接池约束)
+		int threads = getIntValue(poolName, "threads", virtual ? 256 : 20);
+		int queueSize = getIntValue(poolName, "queue.size", 1000);
+		int keepAliveSeconds = getIntValue(poolName, "keepalive.seconds", 60);
+		String policy = SqlToyConstants.getKeyValue("sqltoy.executor." + poolName + ".reject.policy",
+				SqlToyConstants.getKeyValue("sqltoy.executor.reject.policy", CALLER_RUNS));
+		logger.debug("创建sqltoy线程池:{},threads={},queueSize={},virtual={},rejectPolicy={}", poolName, threads,
+				queueSize, virtual, policy);
+		if (virtual) {
+			return new ManagedPool(virtualExecutor, true, threads, queueSize, CALLER_RUNS.equalsIgnoreCase(policy));
+		}
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, keepAliveSeconds, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(queueSize), new NamedThreadFactory("sqltoy-" + poolName + "-"),
+				new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return new ManagedPool(executor, false, threads, queueSize, CALLER_RUNS.equalsIgnoreCase(policy));
+	}
+
+	private int getIntValue(String poolName, String key, int defaultValue) {
+		String value = SqlToyConstants.getKeyValue("sqltoy.executor." + poolName + "." + key);
+		if (value == null || value.trim().isEmpty()) {
+			value = SqlToyConstants.getKeyValue("sqltoy.executor." + key);
+		}
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		return Math.max(Integer.parseInt(value.trim()), 1);
+	}
+
+	/**
+	 * @TODO 通过反射调用jdk21+ 的Executors.newVirtualThreadPerTaskExecutor()(源码需兼容jdk8)
+	 * @return 不支持时返回null
+	 */
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 平台线程:有界ThreadPoolExecutor;虚拟线程:每任务一个虚拟线程,通过Semaphore限制并发,
+	 * 等待许可的任务数视为排队数并受queueCapacity约束
+	 */
+	private static class ManagedPool {
+		private final ExecutorService executor;
+
+		private final boolean virtual;
+
+		private final int threads;
+
+		private final int queueCapacity;
+
+		private final boolean callerRuns;
+
+		private final Semaphore permits;
+
+		private final AtomicInteger pending = new AtomicInteger(0);
+
+		private final AtomicInteger active = new AtomicInteger(0);
+
+		private final AtomicInteger largest = new AtomicInteger(0);
+
+		private final AtomicLong completed = new AtomicLong(0);
+
+		private final AtomicLong submitted = new AtomicLong(0);
+
+		private final AtomicLong rejected = new AtomicLong(0);
+
+		private final AtomicLong callerRunsCount = new AtomicLong(0);
+
+		private ManagedPool(ExecutorService executor, boolean virtual, int threads, int queueCapacity,
+				boolean callerRuns) {
+			this.executor = executor;
+			this.virtual = virtual;
+			this.threads = threads;
+			this.queueCapacity = queueCapacity;
+			this.callerRuns = callerRuns;
+			this.permits = virtual ? new Semaphore(threads) : null;
+		}
+
+		private void execute(final Runnable task) {
+			if (!virtual) {
+				executor.execute(task);
+				return;
+			}
+			// 超出并发许可+排队容量则拒绝,交由拒绝策略处理
+			if (pending.incrementAndGet() > threads + queueCapacity) {
+				pending.decrementAndGet();
+				throw new RejectedExecutionException();
+			}
+			try {
+				executor.execute(() -> {
+					try {
+						permits.acquire();
+					} catch (InterruptedException e) {
+						pending.decrementAndGet();
+						Thread.currentThread().interrupt();
+						return;
+					}
+					largest.accumulateAndGet(active.incrementAndGet(), Math::max);
+					try {
+						task.run();
+					} finally {
+						active.decrementAndGet();
+						pending.decrementAndGet();
+						completed.incrementAndGet();
+						permits.release();
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				pending.decrementAndGet();
+				throw e;
+			}
+		}
+
+		private int getActiveCount() {
+			return virtual ? active.get() : ((ThreadPoolExecutor) executor).getActiveCount();
+		}
+
+		private int getQueueSize() {
+			return virtual ? Math.max(pending.get() - active.get(), 0)
+					: ((ThreadPoolExecutor) executor).getQueue().size();
+		}
+
+		private int getPoolSize() {
+			return virtual ? active.get() : ((ThreadPoolExecutor) executor).getPoolSize();
+		}
+
+		private int getLargestPoolSize() {
+			return virtual ? largest.get() : ((ThreadPoolExecutor) executor).getLargestPoolSize();
+		}
+
+		private long getCompletedCount() {
+			return virtual ? completed.get() : ((ThreadPoolExecutor) executor).getCompletedTaskCount();
+		}
+	}
+
+	private static class NamedThreadFactory implements ThreadFactory {
+		private final String prefix;
+
+		private final AtomicInteger index = new AtomicInteger(1);
+
+		private NamedThreadFactory(String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, prefix + index.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package org.sagacity.sqltoy.plugins.executor;
+
+import java.io.Serializable;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 线程池运行指标
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+public class ExecutorMetrics implements Serializable {
+	private static final long serialVersionUID = -3186735309512477351L;
+
+	/**
+	 * 线程池名称
+	 */
+	private String poolName;
+
+	/**
+	 * 是否使用虚拟线程
+	 */
+	private boolean virtual;
+
+	/**
+	 * 最大线程数
+	 */
+	private int maxThreads;
+
+	/**
+	 * 当前线程数
+	 */
+	private int poolSize;
+
+	/**
+	 * 正在执行的任务数
+	 */
+	private int activeCount;
+
+	/**
+	 * 历史最大线程数
+	 */
+	private int largestPoolSize;
+
+	/**
+	 * 排队中的任务数
+	 */
+	private int queueSize;
+
+	/**
+	 * 队列容量
+	 */
+	private int queueCapacity;
+
+	/**
+	 * 提交的任务总数
+	 */
+	private long submittedCount;
+
+	/**
+	 * 已完成任务数
+	 */
+	private long completedCount;
+
+	/**
+	 * 线程池饱和被拒绝的次数
+	 */
+	private long rejectedCount;
+
+	/**
+	 * 被拒绝后由调用线程直接执行的次数
+	 */
+	private long callerRunsCount;
+
+	public String getPoolName() {
+		return poolName;
+	}
+
+	public void setPoolName(String poolName) {
+		this.poolName = poolName;
+	}
+
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+	public void setVirtual(boolean virtual) {
+		this.virtual = virtual;
+	}
+
+	public int getMaxThreads() {
+		return maxThreads;
+	}
+
+	public void setMaxThreads(int maxThreads) {
+		this.maxThreads = maxThreads;
+	}
+
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	public void setPoolSize(int poolSize) {
+		this.poolSize = poolSize;
+	}
+
+	public int getActiveCount() {
+		return activeCount;
+	}
+
+	public void setActiveCount(int activeCount) {
+		this.activeCount = activeCount;
+	}
+
+	public int getLargestPoolSize() {
+		return largestPoolSize;
+	}
+
+	public void setLargestPoolSize(int largestPoolSize) {
+		this.largestPoolSize = largestPoolSize;
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	public void setQueueSize(int queueSize) {
+		this.queueSize = queueSize;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public long getSubmittedCount() {
+		return submittedCount;
+	}
+
+	public void setSubmittedCount(long submittedCount) {
+		this.submittedCount = submittedCount;
+	}
+
+	public long getCompletedCount() {
+		return completedCount;
+	}
+
+	public void setCompletedCount(long completedCount) {
+		this.completedCount = completedCount;
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount;
+	}
+
+	public void setRejectedCount(long rejectedCount) {
+		this.rejectedCount = rejectedCount;
+	}
+
+	public long getCallerRunsCount() {
+		return callerRunsCount;
+	}
+
+	public void setCallerRunsCount(long callerRunsCount) {
+		this.callerRunsCount = callerRunsCount;
+	}
+
+	@Override
+	public String toString() {
+		return "poolName=" + poolName + ",virtual=" + virtual + ",maxThreads=" + maxThreads + ",poolSize=" + poolSize
+				+ ",activeCount=" + activeCount + ",largestPoolSize=" + largestPoolSize + ",queueSize=" + queueSize
+				+ "/" + queueCapacity + ",submitted=" + submittedCount + ",completed=" + completedCount
+				+ ",rejected=" + rejectedCount + ",callerRuns=" + callerRunsCount;
+	}
+}
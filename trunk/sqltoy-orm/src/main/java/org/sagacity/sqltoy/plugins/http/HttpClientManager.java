@@ -0,0 +1,177 @@
+package org.sagacity.sqltoy.plugins.http;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HTTP;
+import org.sagacity.sqltoy.SqlToyConstants;
+import org.sagacity.sqltoy.exception.DataAccessException;
+import org.sagacity.sqltoy.utils.StringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 统一管理http请求(缓存翻译、缓存更新检测、elastic单地址模式)使用的连接池:按服务地址(协议+主机+端口)和用户名
+ *              各保留一个长连接复用的httpClient,生命周期与SqlToyContext一致,避免每次请求新建连接和TLS握手;
+ *              参数:sqltoy.http.pool.max.total、sqltoy.http.pool.max.per.route、sqltoy.http.keepalive.seconds、
+ *              sqltoy.http.idle.evict.seconds
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+public class HttpClientManager {
+	/**
+	 * 定义日志
+	 */
+	private final Logger logger = LoggerFactory.getLogger(HttpClientManager.class);
+
+	private final ConcurrentHashMap<String, PooledClient> clients = new ConcurrentHashMap<String, PooledClient>();
+
+	private volatile boolean destroyed = false;
+
+	/**
+	 * @TODO 获取对应服务地址和用户的连接池httpClient(不要关闭,由destroy统一关闭)
+	 * @param url
+	 * @param username
+	 * @param password
+	 * @return
+	 */
+	public CloseableHttpClient getClient(String url, String username, String password) {
+		if (destroyed) {
+			throw new DataAccessException("sqltoy http连接池已经关闭,无法执行请求!");
+		}
+		boolean hasCrede = StringUtil.isNotBlank(username) && StringUtil.isNotBlank(password);
+		String key = getOrigin(url) + (hasCrede ? "|" + username + "|" + password.hashCode() : "");
+		return clients.computeIfAbsent(key,
+				(origin) -> createClient(origin, hasCrede ? username : null, hasCrede ? password : null)).client;
+	}
+
+	/**
+	 * @TODO 获取各连接池的连接状态(租用、空闲、等待数量),key为服务地址(用户名)
+	 * @return
+	 */
+	public Map<String, PoolStats> getPoolStats() {
+		Map<String, PoolStats> result = new LinkedHashMap<String, PoolStats>();
+		for (PooledClient pooledClient : clients.values()) {
+			result.put(pooledClient.name, pooledClient.connectionManager.getTotalStats());
+		}
+		return result;
+	}
+
+	/**
+	 * @TODO 关闭全部连接池
+	 */
+	public void destroy() {
+		destroyed = true;
+		for (PooledClient pooledClient : clients.values()) {
+			try {
+				pooledClient.client.close();
+			} catch (Exception e) {
+				logger.warn("关闭http连接池:{} 发生异常:{}", pooledClient.name, e.getMessage());
+			}
+		}
+		clients.clear();
+	}
+
+	private PooledClient createClient(String key, String username, String password) {
+		int maxTotal = getIntValue("pool.max.total", 200);
+		int maxPerRoute = getIntValue("pool.max.per.route", 50);
+		final long keepAliveMillis = getIntValue("keepalive.seconds", 60) * 1000L;
+		int idleEvictSeconds = getIntValue("idle.evict.seconds", 30);
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(maxTotal);
+		connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+		// 空闲超过2秒的连接在复用前校验,避免使用服务端已关闭的连接
+		connectionManager.setValidateAfterInactivity(2000);
+		// 服务端返回Keep-Alive超时则取较小值,否则使用配置的保持时长
+		ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+			HeaderElementIterator iter = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+			HeaderElement element;
+			while (iter.hasNext()) {
+				element = iter.nextElement();
+				if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+					try {
+						return Math.min(Long.parseLong(element.getValue()) * 1000L, keepAliveMillis);
+					} catch (NumberFormatException e) {
+						break;
+					}
+				}
+			}
+			return keepAliveMillis;
+		};
+		HttpClientBuilder builder = HttpClients.custom().setConnectionManager(connectionManager)
+				.setKeepAliveStrategy(keepAliveStrategy).evictExpiredConnections()
+				.evictIdleConnections(idleEvictSeconds, TimeUnit.SECONDS);
+		if (username != null) {
+			// 凭据提供器
+			CredentialsProvider credsProvider = new BasicCredentialsProvider();
+			credsProvider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(username, password));
+			builder.setDefaultCredentialsProvider(credsProvider);
+		}
+		// 连接池名称:服务地址(用户名)
+		String name = key.contains("|") ? key.substring(0, key.indexOf("|")) : key;
+		if (username != null) {
+			name = name + "(" + username + ")";
+		}
+		logger.debug("创建http连接池:{},maxTotal={},maxPerRoute={},keepAlive={}秒", name, maxTotal, maxPerRoute,
+				keepAliveMillis / 1000);
+		return new PooledClient(name, builder.build(), connectionManager);
+	}
+
+	/**
+	 * @TODO 提取url中的协议、主机和端口
+	 * @param url
+	 * @return
+	 */
+	private static String getOrigin(String url) {
+		try {
+			URI uri = URI.create(url.trim());
+			if (uri.getScheme() != null && uri.getHost() != null) {
+				return uri.getScheme().toLowerCase() + "://" + uri.getHost().toLowerCase()
+						+ ((uri.getPort() == -1) ? "" : ":" + uri.getPort());
+			}
+		} catch (IllegalArgumentException e) {
+			// 非标准url,按原值区分
+		}
+		return url;
+	}
+
+	private static int getIntValue(String key, int defaultValue) {
+		String value = SqlToyConstants.getKeyValue("sqltoy.http." + key);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		return Math.max(Integer.parseInt(value.trim()), 1);
+	}
+
+	private static class PooledClient {
+		private final String name;
+
+		private final CloseableHttpClient client;
+
+		private final PoolingHttpClientConnectionManager connectionManager;
+
+		private PooledClient(String name, CloseableHttpClient client,
+				PoolingHttpClientConnectionManager connectionManager) {
+			this.name = name;
+			this.client = client;
+			this.connectionManager = connectionManager;
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package org.sagacity.sqltoy.plugins.page;
+
+import org.sagacity.sqltoy.config.model.PageOptimize;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 分页优化总记录数缓存,提供给开发者扩展(如改用分布式缓存),由SqlToyContext持有
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+public interface PageCountCache {
+	/**
+	 * @TODO 初始化(如启动过期记录的后台清理)
+	 * @param sweepIntervalSeconds 后台清理过期记录的间隔秒数(小于1表示不做后台清理)
+	 */
+	public void initialize(int sweepIntervalSeconds);
+
+	/**
+	 * @TODO 获取sql对应查询条件的总记录数,过期或不存在返回null
+	 * @param sqlId         sql id(或sql语句)
+	 * @param conditionsKey 查询条件key(128位摘要+条件长度)
+	 * @param pageOptimize
+	 * @return
+	 */
+	public Long get(String sqlId, PageCountKey conditionsKey, PageOptimize pageOptimize);
+
+	/**
+	 * @TODO 登记sql对应查询条件的总记录数
+	 * @param sqlId
+	 * @param conditionsKey
+	 * @param pageOptimize
+	 * @param totalCount
+	 */
+	public void put(String sqlId, PageCountKey conditionsKey, PageOptimize pageOptimize, Long totalCount);
+
+	/**
+	 * @TODO 清除sql对应的全部总记录数缓存(sql文件变更重新加载时)
+	 * @param sqlId
+	 */
+	public void remove(String sqlId);
+
+	/**
+	 * @TODO 销毁(停止后台清理)
+	 */
+	public void destroy();
+}
@@ -0,0 +1,74 @@
+package org.sagacity.sqltoy.plugins.page;
+
+import java.io.Serializable;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 分页优化查询条件key:对"name=value,..."形式的查询条件计算两个相互独立的64位hash(共128位摘要)并记录条件长度,
+ *              不保留完整条件,内存占用固定;摘要和长度同时相同的不同条件在实际中可忽略
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ * @modify 2026-10-18 由64位hash加完整条件改为128位摘要加长度,避免缓存长条件(如大in参数)占用内存
+ */
+public final class PageCountKey implements Serializable {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = 6243157940216632850L;
+
+	/**
+	 * 查询条件的64位hash值(FNV-1a)
+	 */
+	private final long hash;
+
+	/**
+	 * 查询条件的另一个独立64位hash值(多项式hash)
+	 */
+	private final long hash2;
+
+	/**
+	 * 查询条件的字符长度
+	 */
+	private final int length;
+
+	public PageCountKey(long hash, long hash2, int length) {
+		this.hash = hash;
+		this.hash2 = hash2;
+		this.length = length;
+	}
+
+	public long getHash() {
+		return hash;
+	}
+
+	public long getHash2() {
+		return hash2;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PageCountKey)) {
+			return false;
+		}
+		PageCountKey other = (PageCountKey) obj;
+		return hash == other.hash && hash2 == other.hash2 && length == other.length;
+	}
+
+	@Override
+	public String toString() {
+		return Long.toHexString(hash) + Long.toHexString(hash2) + ":" + length;
+	}
+}
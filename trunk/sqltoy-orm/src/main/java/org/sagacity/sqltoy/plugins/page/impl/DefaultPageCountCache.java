@@ -0,0 +1,199 @@
+package org.sagacity.sqltoy.plugins.page.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.sagacity.sqltoy.config.model.PageOptimize;
+import org.sagacity.sqltoy.plugins.page.PageCountCache;
+import org.sagacity.sqltoy.plugins.page.PageCountKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 分页优化总记录数缓存的默认实现:每个sql一个ConcurrentHashMap(读写无全局锁),
+ *              超出aliveMax时由单个线程按登记顺序淘汰最早的记录,过期记录由后台线程定时清理
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+public class DefaultPageCountCache implements PageCountCache {
+	/**
+	 * 定义日志
+	 */
+	private final Logger logger = LoggerFactory.getLogger(DefaultPageCountCache.class);
+
+	private final static int INITIAL_CAPACITY = 128;
+
+	/**
+	 * sql对应的不同查询条件总记录数
+	 */
+	private final ConcurrentHashMap<String, SqlCountCache> pageCountCache = new ConcurrentHashMap<String, SqlCountCache>(
+			INITIAL_CAPACITY);
+
+	/**
+	 * 过期记录后台清理
+	 */
+	private ScheduledExecutorService sweeper;
+
+	@Override
+	public synchronized void initialize(int sweepIntervalSeconds) {
+		if (sweeper != null || sweepIntervalSeconds < 1) {
+			return;
+		}
+		sweeper = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+			Thread thread = new Thread(runnable, "sqltoy-page-count-sweeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		sweeper.scheduleWithFixedDelay(() -> {
+			try {
+				sweep();
+			} catch (Exception e) {
+				logger.warn("清理分页优化过期记录异常:{}", e.getMessage());
+			}
+		}, sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+	}
+
+	@Override
+	public Long get(String sqlId, PageCountKey conditionsKey, PageOptimize pageOptimize) {
+		SqlCountCache sqlCache = pageCountCache.get(sqlId);
+		// sql初次执行查询
+		if (sqlCache == null) {
+			return null;
+		}
+		// PageCountKey 的equals比对128位摘要和条件长度,单个hash冲突时不会取到其它条件的总记录数
+		CountEntry entry = sqlCache.entries.get(conditionsKey);
+		// 条件初次查询或已经过期移除
+		if (entry == null) {
+			return null;
+		}
+		// 已经失效,剔除(只剔除当前值,避免误删并发登记的新值)
+		if (System.currentTimeMillis() >= entry.expireTime) {
+			sqlCache.entries.remove(conditionsKey, entry);
+			return null;
+		}
+		return entry.totalCount;
+	}
+
+	@Override
+	public void put(String sqlId, PageCountKey conditionsKey, PageOptimize pageOptimize, Long totalCount) {
+		if (totalCount == null) {
+			return;
+		}
+		long nowTime = System.currentTimeMillis();
+		int aliveMax = pageOptimize.getAliveMax();
+		SqlCountCache sqlCache = pageCountCache.computeIfAbsent(sqlId, (key) -> new SqlCountCache(aliveMax));
+		sqlCache.entries.put(conditionsKey, new CountEntry(nowTime + pageOptimize.getAliveSeconds() * 1000L,
+				totalCount, sqlCache.sequence.incrementAndGet()));
+		// 长度超阀值,淘汰最早登记的
+		if (sqlCache.entries.size() > aliveMax) {
+			evict(sqlCache, aliveMax, nowTime);
+		}
+	}
+
+	@Override
+	public void remove(String sqlId) {
+		pageCountCache.remove(sqlId);
+	}
+
+	@Override
+	public synchronized void destroy() {
+		if (sweeper != null) {
+			sweeper.shutdownNow();
+			sweeper = null;
+		}
+		pageCountCache.clear();
+	}
+
+	/**
+	 * @TODO 清理全部过期的记录
+	 */
+	public void sweep() {
+		long nowTime = System.currentTimeMillis();
+		for (SqlCountCache sqlCache : pageCountCache.values()) {
+			removeExpired(sqlCache, nowTime);
+		}
+	}
+
+	/**
+	 * @TODO 淘汰超量的记录:先剔除过期的,仍超量则按登记顺序淘汰最早的,一次淘汰到aliveMax的90%,避免每次登记都做淘汰
+	 * @param sqlCache
+	 * @param aliveMax
+	 * @param nowTime
+	 */
+	private void evict(SqlCountCache sqlCache, int aliveMax, long nowTime) {
+		// 同一时间只需一个线程做淘汰,其它线程直接返回(aliveMax为近似上限)
+		if (!sqlCache.evicting.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			removeExpired(sqlCache, nowTime);
+			int size = sqlCache.entries.size();
+			if (size <= aliveMax) {
+				return;
+			}
+			int retain = Math.max(aliveMax - aliveMax / 10, 1);
+			long[] sequences = new long[size];
+			int index = 0;
+			for (CountEntry entry : sqlCache.entries.values()) {
+				if (index == size) {
+					break;
+				}
+				sequences[index++] = entry.sequence;
+			}
+			int removeCount = index - retain;
+			if (removeCount <= 0) {
+				return;
+			}
+			Arrays.sort(sequences, 0, index);
+			long threshold = sequences[removeCount - 1];
+			sqlCache.entries.values().removeIf((entry) -> entry.sequence <= threshold);
+		} finally {
+			sqlCache.evicting.set(false);
+		}
+	}
+
+	private void removeExpired(SqlCountCache sqlCache, long nowTime) {
+		// ConcurrentHashMap的values().removeIf 只在值未被并发替换时才移除
+		sqlCache.entries.values().removeIf((entry) -> nowTime >= entry.expireTime);
+	}
+
+	/**
+	 * 单个sql的总记录数缓存
+	 */
+	private static class SqlCountCache {
+		private final ConcurrentHashMap<PageCountKey, CountEntry> entries;
+
+		// 是否正在淘汰超量记录
+		private final AtomicBoolean evicting = new AtomicBoolean(false);
+
+		// 登记顺序号,用于FIFO淘汰
+		private final AtomicLong sequence = new AtomicLong(0);
+
+		private SqlCountCache(int aliveMax) {
+			entries = new ConcurrentHashMap<PageCountKey, CountEntry>(Math.min(Math.max(aliveMax, 16), 1024));
+		}
+	}
+
+	/**
+	 * {expireTime(失效时间),totalCount(分页查询总记录数),sequence(登记顺序)}
+	 */
+	private static class CountEntry {
+		private final long expireTime;
+
+		private final Long totalCount;
+
+		private final long sequence;
+
+		private CountEntry(long expireTime, Long totalCount, long sequence) {
+			this.expireTime = expireTime;
+			this.totalCount = totalCount;
+			this.sequence = sequence;
+		}
+	}
+}
@@ -0,0 +1,270 @@
+package org.sagacity.sqltoy.plugins.sharding;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 一致性hash环:每个节点按权重映射为多个虚拟节点,key经稳定的64位hash(FNV-1a + 位混淆)后顺时针取第一个虚拟节点;
+ *              新增或移除节点时只有相邻区间的数据需要迁移,planMoves可列出新旧拓扑之间需要迁移的hash区间
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+public class ConsistentHashRing {
+	private final static long FNV_OFFSET = 0xcbf29ce484222325L;
+
+	private final static long FNV_PRIME = 0x100000001b3L;
+
+	/**
+	 * 环上的虚拟节点位置(升序)
+	 */
+	private final long[] points;
+
+	/**
+	 * 虚拟节点对应的实际节点
+	 */
+	private final String[] owners;
+
+	private final List<String> nodes;
+
+	/**
+	 * @param nodes        节点及权重(权重小于1按1处理)
+	 * @param virtualNodes 每个权重单位对应的虚拟节点数量
+	 */
+	public ConsistentHashRing(Map<String, Integer> nodes, int virtualNodes) {
+		if (nodes == null || nodes.isEmpty()) {
+			throw new IllegalArgumentException("一致性hash环的节点不能为空!");
+		}
+		if (virtualNodes < 1) {
+			throw new IllegalArgumentException("一致性hash环的虚拟节点数量必须大于0!");
+		}
+		TreeMap<Long, String> ring = new TreeMap<Long, String>();
+		String owner;
+		long point;
+		int weight;
+		for (Map.Entry<String, Integer> node : nodes.entrySet()) {
+			weight = (node.getValue() == null || node.getValue() < 1) ? 1 : node.getValue();
+			for (int i = 0; i < virtualNodes * weight; i++) {
+				point = hash(node.getKey() + "#" + i);
+				owner = ring.get(point);
+				// hash冲突时取名称较小的节点,保证与节点的配置顺序无关
+				if (owner == null || node.getKey().compareTo(owner) < 0) {
+					ring.put(point, node.getKey());
+				}
+			}
+		}
+		this.points = new long[ring.size()];
+		this.owners = new String[ring.size()];
+		int index = 0;
+		for (Map.Entry<Long, String> entry : ring.entrySet()) {
+			points[index] = entry.getKey();
+			owners[index] = entry.getValue();
+			index++;
+		}
+		this.nodes = Collections.unmodifiableList(new ArrayList<String>(new TreeSet<String>(nodes.keySet())));
+	}
+
+	/**
+	 * @TODO 取key所在的节点
+	 * @param key
+	 * @return
+	 */
+	public String getNode(Object key) {
+		return getNodeByHash(hash(key));
+	}
+
+	/**
+	 * @TODO 取hash值所在的节点(顺时针第一个虚拟节点,超过最大位置则回到环首)
+	 * @param hash
+	 * @return
+	 */
+	public String getNodeByHash(long hash) {
+		int index = Arrays.binarySearch(points, hash);
+		if (index < 0) {
+			index = -index - 1;
+			if (index == points.length) {
+				index = 0;
+			}
+		}
+		return owners[index];
+	}
+
+	/**
+	 * @return 全部节点(按名称排序)
+	 */
+	public List<String> getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @TODO 计算从当前拓扑变为新拓扑需要迁移的hash区间,相邻且迁移方向相同的区间合并
+	 * @param newRing
+	 * @return
+	 */
+	public List<HashRange> planMoves(ConsistentHashRing newRing) {
+		// 新旧环的全部虚拟节点位置将环切分成若干区间,同一区间内的key在新旧环上各自归属同一节点
+		long[] bounds = mergePoints(points, newRing.points);
+		List<HashRange> result = new ArrayList<HashRange>();
+		long start;
+		long end;
+		String from;
+		String to;
+		HashRange last;
+		for (int i = 0; i < bounds.length; i++) {
+			start = bounds[(i == 0) ? bounds.length - 1 : i - 1];
+			end = bounds[i];
+			from = getNodeByHash(end);
+			to = newRing.getNodeByHash(end);
+			if (from.equals(to)) {
+				continue;
+			}
+			last = result.isEmpty() ? null : result.get(result.size() - 1);
+			if (last != null && last.end == start && last.from.equals(from) && last.to.equals(to)) {
+				result.set(result.size() - 1, new HashRange(last.start, end, from, to));
+			} else {
+				result.add(new HashRange(start, end, from, to));
+			}
+		}
+		// 首尾区间在环上相连
+		if (result.size() > 1) {
+			HashRange first = result.get(0);
+			last = result.get(result.size() - 1);
+			if (last.end == first.start && last.from.equals(first.from) && last.to.equals(first.to)) {
+				result.set(0, new HashRange(last.start, first.end, first.from, first.to));
+				result.remove(result.size() - 1);
+			}
+		}
+		return result;
+	}
+
+	private static long[] mergePoints(long[] points, long[] newPoints) {
+		long[] result = new long[points.length + newPoints.length];
+		int i = 0, j = 0, size = 0;
+		long value;
+		while (i < points.length || j < newPoints.length) {
+			if (j == newPoints.length || (i < points.length && points[i] <= newPoints[j])) {
+				value = points[i++];
+			} else {
+				value = newPoints[j++];
+			}
+			if (size == 0 || result[size - 1] != value) {
+				result[size++] = value;
+			}
+		}
+		return Arrays.copyOf(result, size);
+	}
+
+	/**
+	 * @TODO 稳定的64位hash:与jvm、进程无关;整数类型按数值、BigDecimal按去除尾部0的数值、日期按毫秒数统一成字符串
+	 * @param key
+	 * @return
+	 */
+	public static long hash(Object key) {
+		long hash = FNV_OFFSET;
+		for (byte b : hashKey(key).getBytes(StandardCharsets.UTF_8)) {
+			hash ^= (b & 0xff);
+			hash *= FNV_PRIME;
+		}
+		// murmur3 fmix64,提升相近字符串(如虚拟节点名称)的离散度
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb3f95b9fe53bL;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/**
+	 * @TODO 计算多个值组合的hash
+	 * @param keys
+	 * @return
+	 */
+	public static long hash(Collection<?> keys) {
+		if (keys.size() == 1) {
+			return hash(keys.iterator().next());
+		}
+		StringBuilder value = new StringBuilder();
+		int index = 0;
+		for (Object key : keys) {
+			if (index++ > 0) {
+				value.append('|');
+			}
+			value.append(hashKey(key));
+		}
+		return hash(value.toString());
+	}
+
+	private static String hashKey(Object key) {
+		if (key == null) {
+			return "";
+		}
+		if (key instanceof BigDecimal) {
+			return ((BigDecimal) key).stripTrailingZeros().toPlainString();
+		}
+		if (key instanceof java.util.Date) {
+			return Long.toString(((java.util.Date) key).getTime());
+		}
+		return key.toString();
+	}
+
+	/**
+	 * 需要迁移的hash区间:(start,end],start大于等于end时表示跨过环首尾
+	 */
+	public static class HashRange {
+		private final long start;
+
+		private final long end;
+
+		private final String from;
+
+		private final String to;
+
+		public HashRange(long start, long end, String from, String to) {
+			this.start = start;
+			this.end = end;
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * @TODO 判断hash值是否在区间内(迁移时对源节点数据逐条计算hash判断)
+		 * @param hash
+		 * @return
+		 */
+		public boolean contains(long hash) {
+			if (start < end) {
+				return hash > start && hash <= end;
+			}
+			return hash > start || hash <= end;
+		}
+
+		public long getStart() {
+			return start;
+		}
+
+		public long getEnd() {
+			return end;
+		}
+
+		public String getFrom() {
+			return from;
+		}
+
+		public String getTo() {
+			return to;
+		}
+
+		@Override
+		public String toString() {
+			return "(" + start + "," + end + "]:" + from + "->" + to;
+		}
+	}
+}
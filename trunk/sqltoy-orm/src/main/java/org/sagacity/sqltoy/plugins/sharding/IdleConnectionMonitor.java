@@ -20,7 +20,9 @@ import org.springframework.context.ApplicationContext;
  * @description 检测sharding涉及到的数据库连接状况,动态调整权重
  * @author zhongxuchen
  * @version v1.0, Date:2019年9月10日
+ * @modify {Date:2026-10-18,DefaultShardingStrategy改用DataSourceRouter按实际执行情况熔断,不再使用此定时检测}
  */
+@Deprecated
 public class IdleConnectionMonitor extends Thread {
 	/**
 	 * 定义日志
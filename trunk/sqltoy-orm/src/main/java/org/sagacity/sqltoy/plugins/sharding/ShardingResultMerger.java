@@ -0,0 +1,386 @@
+package org.sagacity.sqltoy.plugins.sharding;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.sagacity.sqltoy.utils.DataSourceUtils.DBType;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 跨分片查询结果归并:各分片结果已按sql的order by排序,通过k路归并(优先队列)按序逐条取出,
+ *              分页时只取到所需的最后一条即停止,无需对全部分片结果整体排序;无order by时按分片顺序拼接
+ *              注意:字符串按java的compareTo(unicode码点)比较,数据库使用大小写不敏感或特定语言的排序规则(collation,如mysql默认的*_ci)
+ *              对字符串排序时归并结果可能与单库不一致,归并过程中发现分片内顺序与比较规则冲突时拒绝归并
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ * @modify 2026-10-18 支持nulls first/last及各数据库默认的null排序,检测排序规则(collation)冲突
+ * @modify 2026-10-18 排序字段不在查询结果列中时抛出异常,不再按分片顺序拼接返回错误的排序和分页结果
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class ShardingResultMerger {
+	/**
+	 * order by 之后的语句结束关键词
+	 */
+	private final static String[] ORDER_END_WORDS = { "limit", "offset", "fetch", "for" };
+
+	private final static Pattern NULLS_PATTERN = Pattern.compile("(?i)\\s+nulls\\s+(first|last)$");
+
+	private ShardingResultMerger() {
+	}
+
+	/**
+	 * @TODO 解析sql最外层的order by,并对应到查询结果列
+	 * @param sql
+	 * @param labelNames 查询结果列名
+	 * @return 无order by返回null(按分片顺序拼接)
+	 */
+	public static MergeOrder parseOrder(String sql, String[] labelNames) {
+		return parseOrder(sql, labelNames, null);
+	}
+
+	/**
+	 * @TODO 解析sql最外层的order by,并对应到查询结果列,未指定nulls first/last时按数据库默认的null排序
+	 * @param sql
+	 * @param labelNames 查询结果列名
+	 * @param dbType     数据库类型(DBType),为null按null最小处理
+	 * @return 无order by返回null(按分片顺序拼接)
+	 * @throws IllegalArgumentException 排序字段不在查询结果列中,无法按序归并
+	 */
+	public static MergeOrder parseOrder(String sql, String[] labelNames, Integer dbType) {
+		if (sql == null || labelNames == null) {
+			return null;
+		}
+		String orderSql = getOuterOrderBy(sql);
+		if (orderSql == null) {
+			return null;
+		}
+		List<String> items = splitTopLevel(orderSql);
+		int[] columns = new int[items.size()];
+		boolean[] descs = new boolean[items.size()];
+		boolean[] nullsFirsts = new boolean[items.size()];
+		String item;
+		String lowItem;
+		Matcher matcher;
+		for (int i = 0; i < items.size(); i++) {
+			item = items.get(i).trim();
+			matcher = NULLS_PATTERN.matcher(item);
+			Boolean nullsFirst = null;
+			if (matcher.find()) {
+				nullsFirst = matcher.group(1).equalsIgnoreCase("first");
+				item = item.substring(0, matcher.start()).trim();
+			}
+			lowItem = item.toLowerCase();
+			if (lowItem.endsWith(" desc")) {
+				descs[i] = true;
+				item = item.substring(0, item.length() - 5).trim();
+			} else if (lowItem.endsWith(" asc")) {
+				item = item.substring(0, item.length() - 4).trim();
+			}
+			nullsFirsts[i] = (nullsFirst != null) ? nullsFirst : isDefaultNullsFirst(dbType, descs[i]);
+			columns[i] = indexOfLabel(item, labelNames);
+			if (columns[i] == -1) {
+				throw new IllegalArgumentException("跨分片查询排序字段:" + item
+						+ " 不在查询结果列中,无法对各分片结果按序归并,请在select中包含该排序字段!");
+			}
+		}
+		return new MergeOrder(columns, descs, nullsFirsts);
+	}
+
+	/**
+	 * @TODO 数据库默认的null排序:oracle、postgresql等视null为最大值(升序在后),clickhouse始终在后,mysql、sqlserver等视null为最小值
+	 * @param dbType
+	 * @param desc
+	 * @return
+	 */
+	private static boolean isDefaultNullsFirst(Integer dbType, boolean desc) {
+		if (dbType != null) {
+			switch (dbType) {
+			case DBType.ORACLE:
+			case DBType.ORACLE11:
+			case DBType.POSTGRESQL:
+			case DBType.GAUSSDB:
+			case DBType.KINGBASE:
+			case DBType.DB2:
+				return desc;
+			case DBType.CLICKHOUSE:
+				return false;
+			default:
+				break;
+			}
+		}
+		return !desc;
+	}
+
+	/**
+	 * @TODO k路归并各分片结果
+	 * @param shardRows 各分片的结果(已按排序规则有序)
+	 * @param order     排序规则,为null则按分片顺序拼接
+	 * @param offset    跳过的记录数
+	 * @param limit     最多返回的记录数,小于0表示不限制
+	 * @return
+	 */
+	public static List<List> merge(List<List<List>> shardRows, MergeOrder order, long offset, long limit) {
+		long total = 0;
+		for (List<List> rows : shardRows) {
+			total += (rows == null) ? 0 : rows.size();
+		}
+		long end = (limit < 0) ? total : Math.min(total, offset + limit);
+		List<List> result = new ArrayList<List>((int) Math.max(end - offset, 0));
+		if (offset >= end) {
+			return result;
+		}
+		long index = 0;
+		if (order == null) {
+			for (List<List> rows : shardRows) {
+				if (rows == null) {
+					continue;
+				}
+				for (List row : rows) {
+					if (index >= offset) {
+						result.add(row);
+					}
+					if (++index == end) {
+						return result;
+					}
+				}
+			}
+			return result;
+		}
+		// 游标:{分片下标,行下标}
+		final Comparator<List> rowComparator = order.comparator();
+		PriorityQueue<int[]> cursors = new PriorityQueue<int[]>(Math.max(shardRows.size(), 1),
+				(a, b) -> {
+					int compare = rowComparator.compare(shardRows.get(a[0]).get(a[1]), shardRows.get(b[0]).get(b[1]));
+					// 相等时保持分片顺序,结果稳定
+					return (compare != 0) ? compare : Integer.compare(a[0], b[0]);
+				});
+		for (int i = 0; i < shardRows.size(); i++) {
+			if (shardRows.get(i) != null && !shardRows.get(i).isEmpty()) {
+				cursors.add(new int[] { i, 0 });
+			}
+		}
+		int[] cursor;
+		List<List> rows;
+		while (index < end && !cursors.isEmpty()) {
+			cursor = cursors.poll();
+			rows = shardRows.get(cursor[0]);
+			if (index >= offset) {
+				result.add(rows.get(cursor[1]));
+			}
+			index++;
+			if (cursor[1] + 1 < rows.size()) {
+				// 分片内已按数据库排序,与归并比较规则不一致说明数据库按特定collation排序(如大小写不敏感),无法正确归并
+				if (rowComparator.compare(rows.get(cursor[1]), rows.get(cursor[1] + 1)) > 0) {
+					throw new IllegalArgumentException("跨分片查询归并时发现分片内结果顺序与归并比较规则不一致(数据库对排序字段使用了"
+							+ "大小写不敏感等特定collation),请改用数值、日期或二进制collation的字段排序!");
+				}
+				cursor[1]++;
+				cursors.add(cursor);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @TODO 比较两个值(null最小,数字按数值比较,字符串按unicode码点比较)
+	 * @param value
+	 * @param compareValue
+	 * @return
+	 */
+	public static int compareValue(Object value, Object compareValue) {
+		if (value == compareValue) {
+			return 0;
+		}
+		if (value == null) {
+			return -1;
+		}
+		if (compareValue == null) {
+			return 1;
+		}
+		if (value instanceof Number && compareValue instanceof Number && value.getClass() != compareValue.getClass()) {
+			return new BigDecimal(value.toString()).compareTo(new BigDecimal(compareValue.toString()));
+		}
+		if (value instanceof java.util.Date && compareValue instanceof java.util.Date) {
+			return Long.compare(((java.util.Date) value).getTime(), ((java.util.Date) compareValue).getTime());
+		}
+		if (value instanceof Comparable && value.getClass() == compareValue.getClass()) {
+			return ((Comparable) value).compareTo(compareValue);
+		}
+		return value.toString().compareTo(compareValue.toString());
+	}
+
+	/**
+	 * @TODO 提取最外层(不在括号和字符串内)最后一个order by 的排序内容
+	 * @param sql
+	 * @return
+	 */
+	private static String getOuterOrderBy(String sql) {
+		String lowSql = sql.toLowerCase();
+		int depth = 0;
+		boolean inQuote = false;
+		int orderIndex = -1;
+		char c;
+		for (int i = 0; i < lowSql.length(); i++) {
+			c = lowSql.charAt(i);
+			if (c == '\'') {
+				inQuote = !inQuote;
+			} else if (!inQuote) {
+				if (c == '(') {
+					depth++;
+				} else if (c == ')') {
+					depth--;
+				} else if (depth == 0 && c == 'o' && lowSql.startsWith("order", i) && isWordStart(lowSql, i)
+						&& lowSql.substring(i + 5).matches("(?s)^\\s+by\\s.*")) {
+					orderIndex = i;
+				}
+			}
+		}
+		if (orderIndex == -1) {
+			return null;
+		}
+		String orderSql = sql.substring(orderIndex + 5).trim().substring(2).trim();
+		// 去除limit等尾部语句
+		String lowOrder = orderSql.toLowerCase();
+		int endIndex = orderSql.length();
+		int wordIndex;
+		for (String word : ORDER_END_WORDS) {
+			wordIndex = indexOfWord(lowOrder, word);
+			if (wordIndex != -1 && wordIndex < endIndex) {
+				endIndex = wordIndex;
+			}
+		}
+		return orderSql.substring(0, endIndex).trim();
+	}
+
+	private static boolean isWordStart(String sql, int index) {
+		return index == 0 || !Character.isLetterOrDigit(sql.charAt(index - 1)) && sql.charAt(index - 1) != '_';
+	}
+
+	private static int indexOfWord(String sql, String word) {
+		int index = sql.indexOf(word);
+		int end;
+		while (index != -1) {
+			end = index + word.length();
+			if (isWordStart(sql, index) && (end == sql.length() || Character.isWhitespace(sql.charAt(end)))) {
+				return index;
+			}
+			index = sql.indexOf(word, index + 1);
+		}
+		return -1;
+	}
+
+	/**
+	 * @TODO 按最外层逗号切分
+	 */
+	private static List<String> splitTopLevel(String sql) {
+		List<String> result = new ArrayList<String>();
+		int depth = 0;
+		int start = 0;
+		char c;
+		for (int i = 0; i < sql.length(); i++) {
+			c = sql.charAt(i);
+			if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+			} else if (c == ',' && depth == 0) {
+				result.add(sql.substring(start, i));
+				start = i + 1;
+			}
+		}
+		result.add(sql.substring(start));
+		return result;
+	}
+
+	/**
+	 * @TODO 排序字段对应的结果列:支持列序号、列名、别名.列名
+	 */
+	private static int indexOfLabel(String column, String[] labelNames) {
+		if (column.matches("\\d+")) {
+			int index = Integer.parseInt(column) - 1;
+			return (index >= 0 && index < labelNames.length) ? index : -1;
+		}
+		String name = column.replaceAll("[`\"\\[\\]]", "");
+		if (name.contains(".")) {
+			name = name.substring(name.lastIndexOf(".") + 1);
+		}
+		for (int i = 0; i < labelNames.length; i++) {
+			if (labelNames[i].equalsIgnoreCase(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 归并排序规则
+	 */
+	public static class MergeOrder {
+		/**
+		 * 排序列在结果中的下标
+		 */
+		private final int[] columns;
+
+		private final boolean[] descs;
+
+		/**
+		 * null是否排在最前(与升降序无关)
+		 */
+		private final boolean[] nullsFirsts;
+
+		public MergeOrder(int[] columns, boolean[] descs) {
+			this.columns = columns;
+			this.descs = descs;
+			this.nullsFirsts = new boolean[descs.length];
+			for (int i = 0; i < descs.length; i++) {
+				nullsFirsts[i] = !descs[i];
+			}
+		}
+
+		public MergeOrder(int[] columns, boolean[] descs, boolean[] nullsFirsts) {
+			this.columns = columns;
+			this.descs = descs;
+			this.nullsFirsts = nullsFirsts;
+		}
+
+		public int[] getColumns() {
+			return columns;
+		}
+
+		public boolean[] getDescs() {
+			return descs;
+		}
+
+		public boolean[] getNullsFirsts() {
+			return nullsFirsts;
+		}
+
+		private Comparator<List> comparator() {
+			return (row, compareRow) -> {
+				int compare;
+				Object value;
+				Object compareValue;
+				for (int i = 0; i < columns.length; i++) {
+					value = row.get(columns[i]);
+					compareValue = compareRow.get(columns[i]);
+					if (value == null || compareValue == null) {
+						if (value != compareValue) {
+							return ((value == null) == nullsFirsts[i]) ? -1 : 1;
+						}
+						continue;
+					}
+					compare = compareValue(value, compareValue);
+					if (compare != 0) {
+						return descs[i] ? -compare : compare;
+					}
+				}
+				return 0;
+			};
+		}
+	}
+}
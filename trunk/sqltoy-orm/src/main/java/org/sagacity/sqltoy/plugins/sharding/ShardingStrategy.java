@@ -3,6 +3,8 @@
  */
 package org.sagacity.sqltoy.plugins.sharding;
 
+import java.util.List;
+
 import org.sagacity.sqltoy.SqlToyContext;
 import org.sagacity.sqltoy.config.model.ShardingDBModel;
 import org.sagacity.sqltoy.model.IgnoreCaseLinkedMap;
@@ -12,6 +14,7 @@ import org.sagacity.sqltoy.model.IgnoreCaseLinkedMap;
  * @description sharding 策略接口
  * @author zhongxuchen
  * @version v1.0,Date:2015年3月17日
+ * @modify {Date:2026-10-18,增加获取全部分库、分表的方法,用于不带分片条件的跨分片并行查询}
  */
 public interface ShardingStrategy {
 	/**
@@ -38,6 +41,32 @@ public interface ShardingStrategy {
 	public ShardingDBModel getShardingDB(SqlToyContext sqlToyContext, Class entityClass, String tableOrSql,
 			String decisionType, IgnoreCaseLinkedMap<String, Object> paramsMap);
 
+	/**
+	 * @TODO 获取策略涉及的全部分库(跨分片查询时并行查询每个库)
+	 * @param sqlToyContext
+	 * @param entityClass
+	 * @param tableOrSql
+	 * @param decisionType
+	 * @return 返回null表示不支持跨分片查询
+	 */
+	public default List<ShardingDBModel> getShardingDBs(SqlToyContext sqlToyContext, Class entityClass,
+			String tableOrSql, String decisionType) {
+		return null;
+	}
+
+	/**
+	 * @TODO 获取表对应的全部分表(跨分片查询时并行查询每张表)
+	 * @param sqlToyContext
+	 * @param entityClass
+	 * @param baseTableName
+	 * @param decisionType
+	 * @return 返回null表示不支持跨分片查询
+	 */
+	public default List<String> getShardingTables(SqlToyContext sqlToyContext, Class entityClass,
+			String baseTableName, String decisionType) {
+		return null;
+	}
+
 	/**
 	 * @TODO 初始化
 	 */
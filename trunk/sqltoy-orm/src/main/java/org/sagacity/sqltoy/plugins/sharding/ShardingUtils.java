@@ -38,6 +38,8 @@ import org.slf4j.LoggerFactory;
  * @author zhongxuchen
  * @version v1.0,Date:2014年12月7日
  * @modify Date:2016-9-7 {修复matchReplace方法,解决因表名大小写未匹配无法替换表名错误}
+ * @modify Date:2026-10-18 {增加getScatterShards,按分库分表策略展开全部分片,用于跨分片并行查询}
+ * @modify Date:2026-10-18 {groupShardings预先计算每条记录的分组下标,复用策略参数map,分组保持首次出现的顺序}
  */
 @SuppressWarnings("rawtypes")
 public class ShardingUtils {
@@ -167,47 +169,51 @@ public class ShardingUtils {
 			shardingTableValues = BeanUtil.reflectBeansToInnerAry(entities, tableConfig.getFields(), null, null);
 		}
 
-		Map<String, ShardingGroupModel> shardingGroupMaps = new HashMap<String, ShardingGroupModel>();
-		IgnoreCaseLinkedMap<String, Object> valueMap;
+		// 先计算每条记录所属的分组下标(分库名称+表名称),再按各分组数量一次性分配集合
+		int size = entities.size();
+		int[] groupIndexes = new int[size];
+		List<ShardingModel> shardingModels = new ArrayList<ShardingModel>();
+		List<String> groupKeys = new ArrayList<String>();
+		// dataSourceName -> tableName -> 分组下标
+		HashMap<String, HashMap<String, Integer>> routeIndexes = new HashMap<String, HashMap<String, Integer>>();
+		HashMap<String, Integer> tableIndexes;
+		// 策略参数map各记录复用
+		IgnoreCaseLinkedMap<String, Object> dbValueMap = new IgnoreCaseLinkedMap<String, Object>();
+		IgnoreCaseLinkedMap<String, Object> tableValueMap = new IgnoreCaseLinkedMap<String, Object>();
 		ShardingDBModel shardingDBModel = null;
-		// 数据分组key(dataSourceName+tableName)
-		String dataGroupKey;
+		Integer groupIndex;
 		String tableName = null;
 		String dataSourceName = null;
-		for (int i = 0; i < entities.size(); i++) {
+		for (int i = 0; i < size; i++) {
 			// 分库
 			if (hasDB) {
-				valueMap = hashParams(dbConfig.getAliasNames(), shardingDBValues.get(i));
+				fillParams(dbValueMap, dbConfig.getAliasNames(), shardingDBValues.get(i));
 				shardingDBModel = dbStrategy.getShardingDB(sqlToyContext, entityClass, entityTable,
-						dbConfig.getDecisionType(), valueMap);
+						dbConfig.getDecisionType(), dbValueMap);
 				dataSourceName = shardingDBModel.getDataSourceName();
 			}
 			// 分表
 			if (hasTable) {
-				valueMap = hashParams(tableConfig.getAliasNames(), shardingTableValues.get(i));
+				fillParams(tableValueMap, tableConfig.getAliasNames(), shardingTableValues.get(i));
 				tableName = tableStrategy.getShardingTable(sqlToyContext, entityClass, entityTable,
-						tableConfig.getDecisionType(), valueMap);
+						tableConfig.getDecisionType(), tableValueMap);
 			}
-			// 分组key
-			dataGroupKey = dataSourceName + tableName;
-			// 归并到相同分组
-			if (shardingGroupMaps.containsKey(dataGroupKey)) {
-				shardingGroupMaps.get(dataGroupKey).getEntities().add(entities.get(i));
-			} else {
-				// 不同分组
-				ShardingGroupModel groupModel = new ShardingGroupModel();
-				groupModel.setKey(dataGroupKey);
-				// 创建数据分组集合
-				List items = new ArrayList();
-				items.add(entities.get(i));
-				groupModel.setEntities(items);
+			tableIndexes = routeIndexes.get(dataSourceName);
+			if (tableIndexes == null) {
+				tableIndexes = new HashMap<String, Integer>();
+				routeIndexes.put(dataSourceName, tableIndexes);
+			}
+			groupIndex = tableIndexes.get(tableName);
+			// 新的分组
+			if (groupIndex == null) {
+				groupIndex = shardingModels.size();
+				tableIndexes.put(tableName, groupIndex);
 				shardingModel = new ShardingModel();
 				// 分库,设置分组对应的数据库
 				if (hasDB) {
 					shardingModel.setDataSourceName(dataSourceName);
 					if (shardingDBModel.getDataSource() == null) {
-						shardingModel
-								.setDataSource(sqlToyContext.getDataSourceBean(shardingDBModel.getDataSourceName()));
+						shardingModel.setDataSource(sqlToyContext.getDataSourceBean(dataSourceName));
 					} else {
 						shardingModel.setDataSource(shardingDBModel.getDataSource());
 					}
@@ -218,11 +224,28 @@ public class ShardingUtils {
 				if (hasTable && StringUtil.isNotBlank(tableName)) {
 					shardingModel.setTableName(tableName);
 				}
-				groupModel.setShardingModel(shardingModel);
-				shardingGroupMaps.put(dataGroupKey, groupModel);
+				shardingModels.add(shardingModel);
+				// 分组key(dataSourceName+tableName)
+				groupKeys.add(dataSourceName + tableName);
 			}
+			groupIndexes[i] = groupIndex;
+		}
+		int[] groupSizes = new int[shardingModels.size()];
+		for (int index : groupIndexes) {
+			groupSizes[index]++;
 		}
-		return shardingGroupMaps.values();
+		List<ShardingGroupModel> result = new ArrayList<ShardingGroupModel>(shardingModels.size());
+		for (int i = 0; i < shardingModels.size(); i++) {
+			ShardingGroupModel groupModel = new ShardingGroupModel();
+			groupModel.setKey(groupKeys.get(i));
+			groupModel.setShardingModel(shardingModels.get(i));
+			groupModel.setEntities(new ArrayList(groupSizes[i]));
+			result.add(groupModel);
+		}
+		for (int i = 0; i < size; i++) {
+			result.get(groupIndexes[i]).getEntities().add(entities.get(i));
+		}
+		return result;
 	}
 
 	/**
@@ -312,6 +335,17 @@ public class ShardingUtils {
 		}
 		HashMap<String, String> shardingTableMap = getShardingTables(sqlToyContext, tableShardings, paramNames,
 				paramValues);
+		replaceShardingSqlToyConfig(sqlToyConfig, shardingTableMap, dialect);
+	}
+
+	/**
+	 * @todo 按已经确定的分表替换sql中的表名(clone后的对象)
+	 * @param sqlToyConfig
+	 * @param shardingTableMap sql中表名对应的实际表名
+	 * @param dialect
+	 */
+	public static void replaceShardingSqlToyConfig(SqlToyConfig sqlToyConfig, Map<String, String> shardingTableMap,
+			String dialect) {
 		if (shardingTableMap == null || shardingTableMap.isEmpty()) {
 			return;
 		}
@@ -342,6 +376,89 @@ public class ShardingUtils {
 		}
 	}
 
+	/**
+	 * @todo 跨分片查询:按分库策略的全部数据库和分表策略的全部分表展开成分片集合(库 × 表)
+	 * @param sqlToyContext
+	 * @param sqlToyConfig
+	 * @param queryExecutor
+	 * @param dataSource    无分库策略时使用的数据源
+	 * @return
+	 */
+	public static List<ShardingModel> getScatterShards(SqlToyContext sqlToyContext, SqlToyConfig sqlToyConfig,
+			QueryExecutor queryExecutor, DataSource dataSource) {
+		QueryExecutorExtend extend = queryExecutor.getInnerModel();
+		// 分库
+		List<ShardingModel> dbShards = new ArrayList<ShardingModel>();
+		ShardingStrategyConfig dbConfig = (extend.dbSharding != null) ? extend.dbSharding
+				: sqlToyConfig.getDataSourceSharding();
+		if (dbConfig == null) {
+			ShardingModel shardingModel = new ShardingModel();
+			shardingModel.setDataSource(dataSource);
+			dbShards.add(shardingModel);
+		} else {
+			ShardingStrategy dbStrategy = sqlToyContext.getShardingStrategy(dbConfig.getStrategy());
+			List<ShardingDBModel> dbModels = (dbStrategy == null) ? null
+					: dbStrategy.getShardingDBs(sqlToyContext, null, sqlToyConfig.getId(), dbConfig.getDecisionType());
+			if (dbModels == null || dbModels.isEmpty()) {
+				throw new IllegalArgumentException(
+						"分库策略:" + dbConfig.getStrategy() + " 不存在或未提供全部分库(getShardingDBs),无法进行跨分片查询!");
+			}
+			ShardingModel shardingModel;
+			for (ShardingDBModel dbModel : dbModels) {
+				shardingModel = new ShardingModel();
+				shardingModel.setDataSourceName(dbModel.getDataSourceName());
+				shardingModel.setDataSource((dbModel.getDataSource() == null)
+						? sqlToyContext.getDataSourceBean(dbModel.getDataSourceName())
+						: dbModel.getDataSource());
+				dbShards.add(shardingModel);
+			}
+		}
+		// 分表:每张表展开成全部分表,多张表之间做组合
+		List<HashMap<String, String>> tableCombines = new ArrayList<HashMap<String, String>>();
+		tableCombines.add(new HashMap<String, String>());
+		List<ShardingStrategyConfig> tableShardings = extend.tableShardings.isEmpty()
+				? sqlToyConfig.getTableShardings()
+				: extend.tableShardings;
+		ShardingStrategy tableStrategy;
+		List<String> shardingTables;
+		List<HashMap<String, String>> nextCombines;
+		HashMap<String, String> combine;
+		for (ShardingStrategyConfig tableConfig : tableShardings) {
+			tableStrategy = sqlToyContext.getShardingStrategy(tableConfig.getStrategy());
+			for (String table : tableConfig.getTables()) {
+				shardingTables = (tableStrategy == null) ? null
+						: tableStrategy.getShardingTables(sqlToyContext, null, table, tableConfig.getDecisionType());
+				if (shardingTables == null || shardingTables.isEmpty()) {
+					throw new IllegalArgumentException("分表策略:" + tableConfig.getStrategy() + " 不存在或未提供表:" + table
+							+ " 的全部分表(getShardingTables),无法进行跨分片查询!");
+				}
+				nextCombines = new ArrayList<HashMap<String, String>>();
+				for (HashMap<String, String> preCombine : tableCombines) {
+					for (String shardingTable : shardingTables) {
+						combine = new HashMap<String, String>(preCombine);
+						if (!shardingTable.equalsIgnoreCase(table)) {
+							combine.put(table, shardingTable);
+						}
+						nextCombines.add(combine);
+					}
+				}
+				tableCombines = nextCombines;
+			}
+		}
+		List<ShardingModel> result = new ArrayList<ShardingModel>(dbShards.size() * tableCombines.size());
+		ShardingModel shardingModel;
+		for (ShardingModel dbShard : dbShards) {
+			for (HashMap<String, String> tableCombine : tableCombines) {
+				shardingModel = new ShardingModel();
+				shardingModel.setDataSourceName(dbShard.getDataSourceName());
+				shardingModel.setDataSource(dbShard.getDataSource());
+				shardingModel.setShardingTables(tableCombine);
+				result.add(shardingModel);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * @todo 替换实际sql中需要查询的表名称(for executeSql方法使用,见DialectFactory.executeSql)
 	 * @param sqlToyContext
@@ -467,8 +584,21 @@ public class ShardingUtils {
 	 */
 	private static IgnoreCaseLinkedMap<String, Object> hashParams(String[] paramNames, Object[] paramValues) {
 		IgnoreCaseLinkedMap<String, Object> valuesMap = new IgnoreCaseLinkedMap<String, Object>();
+		fillParams(valuesMap, paramNames, paramValues);
+		return valuesMap;
+	}
+
+	/**
+	 * @TODO 清空并重新填充策略参数(批量记录复用同一个map)
+	 * @param valuesMap
+	 * @param paramNames
+	 * @param paramValues
+	 */
+	private static void fillParams(IgnoreCaseLinkedMap<String, Object> valuesMap, String[] paramNames,
+			Object[] paramValues) {
+		valuesMap.clear();
 		if (paramValues == null || paramValues.length == 0) {
-			return valuesMap;
+			return;
 		}
 		if (paramNames == null || paramNames.length == 0) {
 			for (int i = 0; i < paramValues.length; i++) {
@@ -479,7 +609,6 @@ public class ShardingUtils {
 				valuesMap.put(paramNames[i], paramValues[i]);
 			}
 		}
-		return valuesMap;
 	}
 
 	/**
@@ -0,0 +1,156 @@
+package org.sagacity.sqltoy.plugins.sharding.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sagacity.sqltoy.SqlToyContext;
+import org.sagacity.sqltoy.config.model.ShardingDBModel;
+import org.sagacity.sqltoy.model.IgnoreCaseLinkedMap;
+import org.sagacity.sqltoy.plugins.sharding.ConsistentHashRing;
+import org.sagacity.sqltoy.plugins.sharding.ConsistentHashRing.HashRange;
+import org.sagacity.sqltoy.plugins.sharding.ShardingStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 一致性hash分库分表策略:替代hashCode取模,取值经稳定的64位hash后在虚拟节点环上定位,
+ *              扩容(如8库到12库)时只有约新增比例的数据需要迁移,迁移区间通过planDataSourceMoves/planTableMoves获取
+ *              <p>
+ *              配置:dataSources、tables为节点名称及权重(如{ds1:1,ds2:2}),virtualNodes为每个权重单位的虚拟节点数(默认160)
+ *              </p>
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+public class ConsistentHashShardingStrategy implements ShardingStrategy {
+	private final static Logger logger = LoggerFactory.getLogger(ConsistentHashShardingStrategy.class);
+
+	/**
+	 * 数据源名称及权重
+	 */
+	private LinkedHashMap<String, Integer> dataSources = new LinkedHashMap<String, Integer>();
+
+	/**
+	 * 分表名称及权重
+	 */
+	private LinkedHashMap<String, Integer> tables = new LinkedHashMap<String, Integer>();
+
+	/**
+	 * 每个权重单位对应的虚拟节点数量
+	 */
+	private int virtualNodes = 160;
+
+	private ConsistentHashRing dataSourceRing;
+
+	private ConsistentHashRing tableRing;
+
+	@Override
+	public String getShardingTable(SqlToyContext sqlToyContext, Class entityClass, String baseTableName,
+			String decisionType, IgnoreCaseLinkedMap<String, Object> paramsMap) {
+		if (tableRing == null || paramsMap == null || paramsMap.isEmpty()) {
+			return null;
+		}
+		String tableName = tableRing.getNodeByHash(ConsistentHashRing.hash(paramsMap.values()));
+		logger.debug("一致性hash分表取得tableName:{}", tableName);
+		return tableName;
+	}
+
+	@Override
+	public ShardingDBModel getShardingDB(SqlToyContext sqlToyContext, Class entityClass, String tableOrSql,
+			String strategyVar, IgnoreCaseLinkedMap<String, Object> paramsMap) {
+		ShardingDBModel shardingModel = new ShardingDBModel();
+		if (dataSourceRing == null || paramsMap == null || paramsMap.isEmpty()) {
+			return shardingModel;
+		}
+		shardingModel.setDataSourceName(dataSourceRing.getNodeByHash(ConsistentHashRing.hash(paramsMap.values())));
+		logger.debug("一致性hash分库取得dataSourceName:{}", shardingModel.getDataSourceName());
+		return shardingModel;
+	}
+
+	@Override
+	public List<ShardingDBModel> getShardingDBs(SqlToyContext sqlToyContext, Class entityClass, String tableOrSql,
+			String decisionType) {
+		if (dataSourceRing == null) {
+			return null;
+		}
+		List<ShardingDBModel> result = new ArrayList<ShardingDBModel>();
+		ShardingDBModel shardingModel;
+		for (String dataSourceName : dataSourceRing.getNodes()) {
+			shardingModel = new ShardingDBModel();
+			shardingModel.setDataSourceName(dataSourceName);
+			result.add(shardingModel);
+		}
+		return result;
+	}
+
+	@Override
+	public List<String> getShardingTables(SqlToyContext sqlToyContext, Class entityClass, String baseTableName,
+			String decisionType) {
+		return (tableRing == null) ? null : tableRing.getNodes();
+	}
+
+	/**
+	 * @TODO 计算分库拓扑调整(如8库扩容到12库)需要迁移的hash区间,迁移时对源库数据按分库字段计算ConsistentHashRing.hash判断是否在区间内
+	 * @param newDataSources 新的数据源名称及权重
+	 * @return
+	 */
+	public List<HashRange> planDataSourceMoves(Map<String, Integer> newDataSources) {
+		if (dataSourceRing == null) {
+			throw new IllegalStateException("一致性hash分库策略未配置dataSources!");
+		}
+		return dataSourceRing.planMoves(new ConsistentHashRing(newDataSources, virtualNodes));
+	}
+
+	/**
+	 * @TODO 计算分表拓扑调整需要迁移的hash区间
+	 * @param newTables 新的分表名称及权重
+	 * @return
+	 */
+	public List<HashRange> planTableMoves(Map<String, Integer> newTables) {
+		if (tableRing == null) {
+			throw new IllegalStateException("一致性hash分表策略未配置tables!");
+		}
+		return tableRing.planMoves(new ConsistentHashRing(newTables, virtualNodes));
+	}
+
+	@Override
+	public void initialize() {
+		if (dataSources != null && !dataSources.isEmpty()) {
+			dataSourceRing = new ConsistentHashRing(dataSources, virtualNodes);
+		}
+		if (tables != null && !tables.isEmpty()) {
+			tableRing = new ConsistentHashRing(tables, virtualNodes);
+		}
+	}
+
+	/**
+	 * @param dataSources the dataSources to set
+	 */
+	public void setDataSources(LinkedHashMap<String, Integer> dataSources) {
+		this.dataSources = dataSources;
+	}
+
+	/**
+	 * @param tables the tables to set
+	 */
+	public void setTables(LinkedHashMap<String, Integer> tables) {
+		this.tables = tables;
+	}
+
+	/**
+	 * @param virtualNodes the virtualNodes to set
+	 */
+	public void setVirtualNodes(int virtualNodes) {
+		this.virtualNodes = virtualNodes;
+	}
+
+	public ConsistentHashRing getDataSourceRing() {
+		return dataSourceRing;
+	}
+
+	public ConsistentHashRing getTableRing() {
+		return tableRing;
+	}
+}
@@ -3,8 +3,10 @@
  */
 package org.sagacity.sqltoy.plugins.sharding.impl;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -13,7 +15,6 @@ import javax.sql.DataSource;
 import org.sagacity.sqltoy.SqlToyContext;
 import org.sagacity.sqltoy.config.model.ShardingDBModel;
 import org.sagacity.sqltoy.model.IgnoreCaseLinkedMap;
-import org.sagacity.sqltoy.plugins.sharding.IdleConnectionMonitor;
 import org.sagacity.sqltoy.plugins.sharding.ShardingStrategy;
 import org.sagacity.sqltoy.utils.DateUtil;
 import org.sagacity.sqltoy.utils.NumberUtil;
@@ -28,6 +29,8 @@ import org.springframework.context.ApplicationContextAware;
  * @description 提供默认的数据库sharding策略
  * @author zhongxuchen
  * @version v1.0,Date: 2017年1月3日
+ * @modify {Date:2026-10-18,实现获取全部分库和分表,支持跨分片查询}
+ * @modify {Date:2026-10-18,分库由权重随机改为按实际延时、在途数选择(power of two choices)并熔断异常数据源,替代IdleConnectionMonitor}
  */
 public class DefaultShardingStrategy implements ShardingStrategy, ApplicationContextAware {
 	private final static Logger logger = LoggerFactory.getLogger(DefaultShardingStrategy.class);
@@ -42,11 +45,6 @@ public class DefaultShardingStrategy implements ShardingStrategy, ApplicationCon
 	// 需要检查的日期条件参数名称
 	private String[] dateParams = { "begindate", "begintime", "bizdate", "biztime", "businessdate", "businesstime" };
 
-	/**
-	 * 自动检测时间(默认3分钟)
-	 */
-	private int checkSeconds = 180;
-
 	/**
 	 * 不同dataSource对应的使用权重
 	 */
@@ -57,6 +55,11 @@ public class DefaultShardingStrategy implements ShardingStrategy, ApplicationCon
 
 	private int[] weights;
 
+	/**
+	 * 与dataSourceWeightConfig对应的数据源实例
+	 */
+	private volatile DataSource[] dataSources;
+
 	/**
 	 * spring 上下文容器
 	 */
@@ -88,17 +91,6 @@ public class DefaultShardingStrategy implements ShardingStrategy, ApplicationCon
 			weights[i] = entry.getValue();
 			i++;
 		}
-		// 检测时间小于等于零,则表示不做自动检测
-		if (checkSeconds <= 0) {
-			return;
-		}
-		if (checkSeconds < 60) {
-			checkSeconds = 60;
-		}
-
-		IdleConnectionMonitor monitor = new IdleConnectionMonitor(applicationContext, dataSourceWeightConfig, weights,
-				60, checkSeconds);
-		monitor.start();
 	}
 
 	/*
@@ -174,28 +166,81 @@ public class DefaultShardingStrategy implements ShardingStrategy, ApplicationCon
 		if (dataSourceWeight == null || dataSourceWeight.isEmpty()) {
 			return null;
 		}
-		return getDataSource();
+		return getDataSource(sqlToyContext);
+	}
+
+	@Override
+	public List<ShardingDBModel> getShardingDBs(SqlToyContext sqlToyContext, Class entityClass, String tableOrSql,
+			String decisionType) {
+		if (dataSourceWeight == null || dataSourceWeight.isEmpty()) {
+			return null;
+		}
+		List<ShardingDBModel> result = new ArrayList<ShardingDBModel>();
+		ShardingDBModel shardingModel;
+		for (String dataSourceName : dataSourceWeight.keySet()) {
+			shardingModel = new ShardingDBModel();
+			shardingModel.setDataSourceName(dataSourceName);
+			shardingModel.setDataSource((DataSource) applicationContext.getBean(dataSourceName));
+			result.add(shardingModel);
+		}
+		return result;
+	}
+
+	/**
+	 * @TODO 当前表加上全部历史表
+	 */
+	@Override
+	public List<String> getShardingTables(SqlToyContext sqlToyContext, Class entityClass, String baseTableName,
+			String decisionType) {
+		if (baseTableName == null || tableNamesMap == null || tableNamesMap.get(baseTableName.toUpperCase()) == null) {
+			return null;
+		}
+		List<String> result = new ArrayList<String>();
+		result.add(baseTableName);
+		String tableName;
+		for (String shardingTable : tableNamesMap.get(baseTableName.toUpperCase()).split("\\,")) {
+			tableName = shardingTable.trim();
+			if (!tableName.isEmpty() && !result.contains(tableName)) {
+				result.add(tableName);
+			}
+		}
+		return result;
 	}
 
 	/**
-	 * @TODO 根据权重配置分配数据库
+	 * @TODO 根据权重以及数据源实际的延时、在途请求数和熔断状态分配数据库
+	 * @param sqlToyContext
 	 * @return
 	 */
-	private ShardingDBModel getDataSource() {
+	private ShardingDBModel getDataSource(SqlToyContext sqlToyContext) {
 		int index = 0;
-		String chooseDataSource = null;
-		// 根据权重进行随机取具体哪个dataSource
-		if (dataSourceWeightConfig.length > 1) {
-			index = NumberUtil.getProbabilityIndex(weights);
+		DataSource[] candidates = getDataSources();
+		if (candidates.length > 1) {
+			if (sqlToyContext == null || sqlToyContext.getDataSourceRouter() == null) {
+				index = NumberUtil.getProbabilityIndex(weights);
+			} else {
+				index = sqlToyContext.getDataSourceRouter().select(candidates, weights);
+			}
 		}
-		chooseDataSource = dataSourceWeightConfig[index][0].toString();
+		String chooseDataSource = dataSourceWeightConfig[index][0].toString();
 		logger.debug("分库取得的数据库为:{},index={}", chooseDataSource, index);
 		ShardingDBModel shardingModel = new ShardingDBModel();
 		shardingModel.setDataSourceName(chooseDataSource);
-		shardingModel.setDataSource((DataSource) applicationContext.getBean(chooseDataSource));
+		shardingModel.setDataSource(candidates[index]);
 		return shardingModel;
 	}
 
+	private DataSource[] getDataSources() {
+		if (dataSources == null) {
+			DataSource[] result = new DataSource[dataSourceWeightConfig.length];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = (DataSource) applicationContext.getBean(dataSourceWeightConfig[i][0].toString());
+			}
+			dataSources = result;
+		}
+		return dataSources;
+	}
+
 	/**
 	 * @param dataSourceWeight the dataSourceWeight to set
 	 */
@@ -204,10 +249,11 @@ public class DefaultShardingStrategy implements ShardingStrategy, ApplicationCon
 	}
 
 	/**
+	 * 数据源可用性改为按实际执行情况熔断,不再定时检测,保留配置兼容
 	 * @param checkSeconds the checkSeconds to set
 	 */
+	@Deprecated
 	public void setCheckSeconds(int checkSeconds) {
-		this.checkSeconds = checkSeconds;
 	}
 
 	/**
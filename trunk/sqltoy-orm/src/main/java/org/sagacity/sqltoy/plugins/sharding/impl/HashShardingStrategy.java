@@ -3,7 +3,10 @@
  */
 package org.sagacity.sqltoy.plugins.sharding.impl;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.TreeMap;
 
 import org.sagacity.sqltoy.SqlToyContext;
 import org.sagacity.sqltoy.config.model.ShardingDBModel;
@@ -17,6 +20,7 @@ import org.slf4j.LoggerFactory;
  * @description hash取模形式的分库策略
  * @author zhongxuchen
  * @version v1.0,Date:2017年11月1日
+ * @modify {Date:2026-10-18,实现获取全部分库和分表,支持跨分片查询}
  */
 public class HashShardingStrategy implements ShardingStrategy {
 	private final static Logger logger = LoggerFactory.getLogger(HashShardingStrategy.class);
@@ -80,6 +84,44 @@ public class HashShardingStrategy implements ShardingStrategy {
 		return shardingModel;
 	}
 
+	@Override
+	public List<ShardingDBModel> getShardingDBs(SqlToyContext sqlToyContext, Class entityClass, String tableOrSql,
+			String decisionType) {
+		if (dataSourceMap == null || dataSourceMap.isEmpty()) {
+			return null;
+		}
+		List<ShardingDBModel> result = new ArrayList<ShardingDBModel>();
+		ShardingDBModel shardingModel;
+		for (String dataSourceName : distinctValues(dataSourceMap)) {
+			shardingModel = new ShardingDBModel();
+			shardingModel.setDataSourceName(dataSourceName);
+			result.add(shardingModel);
+		}
+		return result;
+	}
+
+	@Override
+	public List<String> getShardingTables(SqlToyContext sqlToyContext, Class entityClass, String baseTableName,
+			String decisionType) {
+		if (tableMap == null || tableMap.isEmpty()) {
+			return null;
+		}
+		return distinctValues(tableMap);
+	}
+
+	/**
+	 * @TODO 按取模值顺序返回不重复的映射值
+	 */
+	private static List<String> distinctValues(HashMap<String, String> modeMap) {
+		List<String> result = new ArrayList<String>();
+		for (String value : new TreeMap<String, String>(modeMap).values()) {
+			if (value != null && !result.contains(value)) {
+				result.add(value);
+			}
+		}
+		return result;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -12,10 +12,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import javax.sql.DataSource;
 
@@ -69,10 +67,13 @@ import org.sagacity.sqltoy.model.inner.EntityUpdateExtend;
 import org.sagacity.sqltoy.model.inner.QueryExecutorExtend;
 import org.sagacity.sqltoy.model.inner.TranslateExtend;
 import org.sagacity.sqltoy.plugins.IUnifyFieldsHandler;
+import org.sagacity.sqltoy.plugins.executor.ExecutorManager;
 import org.sagacity.sqltoy.plugins.datasource.DataSourceSelector;
 import org.sagacity.sqltoy.plugins.id.IdGenerator;
 import org.sagacity.sqltoy.plugins.id.impl.RedisIdGenerator;
 import org.sagacity.sqltoy.translate.TranslateHandler;
+import org.sagacity.sqltoy.translate.cache.TranslateDictionary;
+import org.sagacity.sqltoy.translate.cache.TranslateMatchIndex;
 import org.sagacity.sqltoy.utils.BeanUtil;
 import org.sagacity.sqltoy.utils.BeanWrapper;
 import org.sagacity.sqltoy.utils.DataSourceUtils;
@@ -106,6 +107,9 @@ import org.springframework.beans.factory.annotation.Qualifier;
  * @modify Date:2020-10-20 {findByQuery 增加lockMode,便于查询并锁定记录}
  * @modify Date:2021-06-25
  *         {剔除linkDaoSupport、BaseDaoSupport,将link功能放入SqlToyDaoSupport}
+ * @modify Date:2026-10-18 {cacheMatchKeys对大缓存可基于倒排索引只校验候选行,避免每次全量扫描}
+ * @modify Date:2026-10-18 {获取数据源时传递sql类型,支持读写分离}
+ * @modify Date:2026-10-18 {cacheMatchKeys和translate基于缓存查找字典,内存映射文件等非堆内缓存不再整体转换为HashMap}
  */
 @SuppressWarnings("rawtypes")
 public class SqlToyDaoSupport {
@@ -155,12 +159,23 @@ public class SqlToyDaoSupport {
 	 * @return
 	 */
 	private DataSource getDataSource(DataSource pointDataSource, SqlToyConfig sqltoyConfig) {
+		return getDataSource(pointDataSource, sqltoyConfig, (null == sqltoyConfig) ? null : sqltoyConfig.getSqlType());
+	}
+
+	/**
+	 * @TODO 获取dataSource,并明确告知数据源选择器操作类型(如读写分离时写操作需走主库)
+	 * @param pointDataSource
+	 * @param sqltoyConfig
+	 * @param sqlType         为null表示不参与读写路由
+	 * @return
+	 */
+	private DataSource getDataSource(DataSource pointDataSource, SqlToyConfig sqltoyConfig, SqlType sqlType) {
 		// xml中定义的sql配置了datasource
 		String sqlDataSource = (null == sqltoyConfig) ? null : sqltoyConfig.getDataSource();
 		// 提供一个扩展，让开发者在特殊场景下可以自行定义dataSourceSelector实现数据源的选择和获取
 		DataSourceSelector dataSourceSelector = sqlToyContext.getDataSourceSelector();
 		return dataSourceSelector.getDataSource(sqlToyContext.getApplicationContext(), pointDataSource, sqlDataSource,
-				this.dataSource, sqlToyContext.getDefaultDataSource());
+				this.dataSource, sqlToyContext.getDefaultDataSource(), sqlType);
 	}
 
 	/**
@@ -372,7 +387,7 @@ public class SqlToyDaoSupport {
 			final Integer[] outParamsType, final Class resultType, final DataSource dataSource) {
 		SqlToyConfig sqlToyConfig = getSqlToyConfig(storeSqlOrKey, SqlType.search);
 		return dialectFactory.executeStore(sqlToyContext, sqlToyConfig, inParamsValue, outParamsType, resultType,
-				this.getDataSource(dataSource, sqlToyConfig));
+				this.getDataSource(dataSource, sqlToyConfig, SqlType.update));
 	}
 
 	protected Object getSingleValue(final String sqlOrNamedSql, final Map<String, Object> paramsMap) {
@@ -691,7 +706,8 @@ public class SqlToyDaoSupport {
 	 * @return
 	 */
 	protected boolean wrapTreeTableRoute(final TreeTableModel treeModel, final DataSource dataSource) {
-		return dialectFactory.wrapTreeTableRoute(sqlToyContext, treeModel, this.getDataSource(dataSource));
+		return dialectFactory.wrapTreeTableRoute(sqlToyContext, treeModel,
+				this.getDataSource(dataSource, null, SqlType.update));
 	}
 
 	/**
@@ -741,6 +757,19 @@ public class SqlToyDaoSupport {
 				this.getDataSource(queryExecutor.getInnerModel().dataSource, sqlToyConfig));
 	}
 
+	/**
+	 * @TODO 流式查询,逐条将结果推送给consumer,不在内存中保留全部结果(适用于大批量数据导出)
+	 * @param queryExecutor (可动态设置数据源、fetchSize)
+	 * @param consumer
+	 * @return 处理的记录数
+	 */
+	protected <T> long forEach(final QueryExecutor queryExecutor, final Consumer<T> consumer) {
+		SqlToyConfig sqlToyConfig = sqlToyContext.getSqlToyConfig(queryExecutor, SqlType.search,
+				getDialect(queryExecutor.getInnerModel().dataSource));
+		return dialectFactory.forEach(sqlToyContext, queryExecutor, sqlToyConfig,
+				this.getDataSource(queryExecutor.getInnerModel().dataSource, sqlToyConfig), consumer);
+	}
+
 	/**
 	 * @todo 以QueryExecutor 封装sql、参数等条件，实现分页查询
 	 * @param page
@@ -890,7 +919,7 @@ public class SqlToyDaoSupport {
 	 * @return
 	 */
 	protected Object save(final Serializable entity, final DataSource dataSource) {
-		return dialectFactory.save(sqlToyContext, entity, this.getDataSource(dataSource));
+		return dialectFactory.save(sqlToyContext, entity, this.getDataSource(dataSource, null, SqlType.insert));
 	}
 
 	/**
@@ -912,7 +941,7 @@ public class SqlToyDaoSupport {
 	 */
 	protected <T extends Serializable> Long saveAll(final List<T> entities, final DataSource dataSource) {
 		return dialectFactory.saveAll(sqlToyContext, entities, sqlToyContext.getBatchSize(), null,
-				this.getDataSource(dataSource), null);
+				this.getDataSource(dataSource, null, SqlType.insert), null);
 	}
 
 	/**
@@ -932,7 +961,7 @@ public class SqlToyDaoSupport {
 	 */
 	protected <T extends Serializable> Long saveAllIgnoreExist(final List<T> entities, final DataSource dataSource) {
 		return dialectFactory.saveAllIgnoreExist(sqlToyContext, entities, sqlToyContext.getBatchSize(), null,
-				this.getDataSource(dataSource), null);
+				this.getDataSource(dataSource, null, SqlType.insert), null);
 	}
 
 	/**
@@ -954,7 +983,7 @@ public class SqlToyDaoSupport {
 	 */
 	protected Long update(final Serializable entity, final String[] forceUpdateProps, final DataSource dataSource) {
 		return dialectFactory.update(sqlToyContext, entity, forceUpdateProps, false, null, null,
-				this.getDataSource(dataSource));
+				this.getDataSource(dataSource, null, SqlType.update));
 	}
 
 	/**
@@ -968,7 +997,7 @@ public class SqlToyDaoSupport {
 	protected Long updateCascade(final Serializable entity, final String[] forceUpdateProps,
 			final Class[] forceCascadeClasses, final HashMap<Class, String[]> subTableForceUpdateProps) {
 		return dialectFactory.update(sqlToyContext, entity, forceUpdateProps, true, forceCascadeClasses,
-				subTableForceUpdateProps, this.getDataSource(null));
+				subTableForceUpdateProps, this.getDataSource(null, null, SqlType.update));
 	}
 
 	/**
@@ -983,7 +1012,7 @@ public class SqlToyDaoSupport {
 	public <T extends Serializable> T updateSaveFetch(final T entity, final UpdateRowHandler updateRowHandler,
 			final String[] uniqueProps, final DataSource dataSource) {
 		return (T) dialectFactory.updateSaveFetch(sqlToyContext, entity, updateRowHandler, uniqueProps,
-				getDataSource(dataSource));
+				getDataSource(dataSource, null, SqlType.update));
 	}
 
 	/**
@@ -1003,7 +1032,7 @@ public class SqlToyDaoSupport {
 	 */
 	protected Long updateDeeply(final Serializable entity, final DataSource dataSource) {
 		return this.update(entity, sqlToyContext.getEntityMeta(entity.getClass()).getRejectIdFieldArray(),
-				this.getDataSource(dataSource));
+				this.getDataSource(dataSource, null, SqlType.update));
 	}
 
 	/**
@@ -1028,7 +1057,7 @@ public class SqlToyDaoSupport {
 	protected <T extends Serializable> Long updateAll(final List<T> entities, final String[] forceUpdateProps,
 			final DataSource dataSource) {
 		return dialectFactory.updateAll(sqlToyContext, entities, sqlToyContext.getBatchSize(), forceUpdateProps, null,
-				this.getDataSource(dataSource), null);
+				this.getDataSource(dataSource, null, SqlType.update), null);
 	}
 
 	/**
@@ -1068,7 +1097,8 @@ public class SqlToyDaoSupport {
 	 */
 	protected Long saveOrUpdate(final Serializable entity, final String[] forceUpdateProps,
 			final DataSource dataSource) {
-		return dialectFactory.saveOrUpdate(sqlToyContext, entity, forceUpdateProps, this.getDataSource(dataSource));
+		return dialectFactory.saveOrUpdate(sqlToyContext, entity, forceUpdateProps,
+				this.getDataSource(dataSource, null, SqlType.update));
 	}
 
 	/**
@@ -1093,7 +1123,7 @@ public class SqlToyDaoSupport {
 	protected <T extends Serializable> Long saveOrUpdateAll(final List<T> entities, final String[] forceUpdateProps,
 			final DataSource dataSource) {
 		return dialectFactory.saveOrUpdateAll(sqlToyContext, entities, sqlToyContext.getBatchSize(), forceUpdateProps,
-				null, this.getDataSource(dataSource), null);
+				null, this.getDataSource(dataSource, null, SqlType.update), null);
 	}
 
 	/**
@@ -1102,11 +1132,11 @@ public class SqlToyDaoSupport {
 	 * @return
 	 */
 	protected Long delete(final Serializable entity) {
-		return dialectFactory.delete(sqlToyContext, entity, this.getDataSource(null));
+		return dialectFactory.delete(sqlToyContext, entity, this.getDataSource(null, null, SqlType.delete));
 	}
 
 	protected Long delete(final Serializable entity, final DataSource dataSource) {
-		return dialectFactory.delete(sqlToyContext, entity, this.getDataSource(dataSource));
+		return dialectFactory.delete(sqlToyContext, entity, this.getDataSource(dataSource, null, SqlType.delete));
 	}
 
 	/**
@@ -1139,7 +1169,7 @@ public class SqlToyDaoSupport {
 		// 分库分表策略
 		setEntitySharding(queryExecutor, entityMeta);
 		return dialectFactory.executeSql(sqlToyContext, sqlToyConfig, queryExecutor, null, null,
-				getDataSource(innerModel.dataSource));
+				getDataSource(innerModel.dataSource, null, SqlType.delete));
 	}
 
 	protected <T extends Serializable> Long deleteAll(final List<T> entities) {
@@ -1155,7 +1185,7 @@ public class SqlToyDaoSupport {
 	 */
 	protected <T extends Serializable> Long deleteAll(final List<T> entities, final DataSource dataSource) {
 		return dialectFactory.deleteAll(sqlToyContext, entities, sqlToyContext.getBatchSize(),
-				this.getDataSource(dataSource), null);
+				this.getDataSource(dataSource, null, SqlType.delete), null);
 	}
 
 	/**
@@ -1168,7 +1198,8 @@ public class SqlToyDaoSupport {
 		SqlToyConfig sqlToyConfig = sqlToyContext.getSqlToyConfig(queryExecutor.getInnerModel().sql, SqlType.search,
 				getDialect(queryExecutor.getInnerModel().dataSource));
 		return dialectFactory.updateFetch(sqlToyContext, queryExecutor, sqlToyConfig, updateRowHandler,
-				this.getDataSource(queryExecutor.getInnerModel().dataSource, sqlToyConfig)).getRows();
+				this.getDataSource(queryExecutor.getInnerModel().dataSource, sqlToyConfig, SqlType.update))
+				.getRows();
 	}
 
 	/**
@@ -1284,7 +1315,7 @@ public class SqlToyDaoSupport {
 	}
 
 	/**
-	 * @todo 获取缓存数据
+	 * @todo 获取缓存数据(非堆内存储如内存映射文件每次调用都会生成完整的HashMap副本)
 	 * @param cacheName
 	 * @param cacheType
 	 * @return
@@ -1307,20 +1338,34 @@ public class SqlToyDaoSupport {
 		}
 		CacheMatchExtend extendArgs = cacheMatchFilter.getCacheFilterArgs();
 		int[] nameIndexes = extendArgs.matchIndexs;
-		HashMap<String, Object[]> cacheDatas = this.sqlToyContext.getTranslateManager()
-				.getCacheData(extendArgs.cacheName, extendArgs.cacheType);
-		Collection<Object[]> values = cacheDatas.values();
+		TranslateDictionary dictionary = this.sqlToyContext.getTranslateManager().getDictionary(extendArgs.cacheName,
+				extendArgs.cacheType);
+		if (dictionary == null || dictionary.isEmpty()) {
+			return new String[0];
+		}
 		String matchLowStr = matchRegex.toLowerCase().trim();
+		// 大缓存基于倒排索引匹配
+		int indexThreshold = SqlToyConstants.getCacheMatchIndexThreshold();
+		if (indexThreshold >= 0 && dictionary.size() >= indexThreshold) {
+			TranslateMatchIndex matchIndex = this.sqlToyContext.getTranslateManager()
+					.getMatchIndex(extendArgs.cacheName, extendArgs.cacheType, dictionary, nameIndexes);
+			if (matchIndex != null) {
+				return cacheMatchKeys(matchIndex, matchLowStr, extendArgs);
+			}
+		}
+		int size = dictionary.size();
 		int cacheKeyIndex = extendArgs.cacheKeyIndex;
 		List<String> keySet = new ArrayList<String>();
+		Object name;
 		int rowIndex = 0;
 		// 优先匹配相等的
 		if (extendArgs.priorMatchEqual) {
 			boolean hasEqual = false;
-			for (Object[] row : values) {
+			for (; rowIndex < size; rowIndex++) {
 				for (int index : nameIndexes) {
-					if (row[index] != null && row[index].toString().toLowerCase().equals(matchLowStr)) {
-						keySet.add(row[cacheKeyIndex].toString());
+					name = dictionary.getValue(rowIndex, index);
+					if (name != null && name.toString().toLowerCase().equals(matchLowStr)) {
+						keySet.add(dictionary.getValue(rowIndex, cacheKeyIndex).toString());
 						hasEqual = true;
 						break;
 					}
@@ -1328,7 +1373,6 @@ public class SqlToyDaoSupport {
 				if (hasEqual) {
 					break;
 				}
-				rowIndex++;
 			}
 			// 不存在相等设置rowIndex为-1,表示后续所有记录参与like检索匹配
 			if (!hasEqual) {
@@ -1338,15 +1382,15 @@ public class SqlToyDaoSupport {
 		// 开始like 分词模式的匹配
 		String[] lowName = matchLowStr.split("\\s+");
 		int meter = keySet.size();
-		int i = 0;
-		for (Object[] row : values) {
+		for (int i = 0; i < size; i++) {
 			// 相等的行排除,避免重复
 			if (i != rowIndex) {
 				for (int index : nameIndexes) {
-					if (row[index] != null && StringUtil.like(row[index].toString().toLowerCase(), lowName)) {
+					name = dictionary.getValue(i, index);
+					if (name != null && StringUtil.like(name.toString().toLowerCase(), lowName)) {
 						// 避免priorMatchEqual=true matchSize==1
 						if (meter < extendArgs.matchSize) {
-							keySet.add(row[cacheKeyIndex].toString());
+							keySet.add(dictionary.getValue(i, cacheKeyIndex).toString());
 						}
 						meter++;
 						break;
@@ -1357,7 +1401,68 @@ public class SqlToyDaoSupport {
 					break;
 				}
 			}
-			i++;
+		}
+		String[] result = new String[keySet.size()];
+		keySet.toArray(result);
+		return result;
+	}
+
+	/**
+	 * @TODO 基于倒排索引的名称匹配,只对候选行做与全量扫描一致的相等和like校验
+	 * @param matchIndex
+	 * @param matchLowStr
+	 * @param extendArgs
+	 * @return
+	 */
+	private String[] cacheMatchKeys(TranslateMatchIndex matchIndex, String matchLowStr, CacheMatchExtend extendArgs) {
+		int[] nameIndexes = extendArgs.matchIndexs;
+		int cacheKeyIndex = extendArgs.cacheKeyIndex;
+		List<String> keySet = new ArrayList<String>();
+		Object[] row;
+		int equalRow = -1;
+		// 优先匹配相等的
+		if (extendArgs.priorMatchEqual) {
+			for (int rowIndex : matchIndex.candidates(new String[] { matchLowStr })) {
+				row = matchIndex.getRow(rowIndex);
+				if (row == null) {
+					continue;
+				}
+				for (int index : nameIndexes) {
+					if (row[index] != null && row[index].toString().toLowerCase().equals(matchLowStr)) {
+						keySet.add(row[cacheKeyIndex].toString());
+						equalRow = rowIndex;
+						break;
+					}
+				}
+				if (equalRow != -1) {
+					break;
+				}
+			}
+		}
+		// 开始like 分词模式的匹配
+		String[] lowName = matchLowStr.split("\\s+");
+		int meter = keySet.size();
+		for (int rowIndex : matchIndex.candidates(lowName)) {
+			// 相等的行排除,避免重复
+			if (rowIndex == equalRow) {
+				continue;
+			}
+			row = matchIndex.getRow(rowIndex);
+			if (row == null) {
+				continue;
+			}
+			for (int index : nameIndexes) {
+				if (row[index] != null && StringUtil.like(row[index].toString().toLowerCase(), lowName)) {
+					if (meter < extendArgs.matchSize) {
+						keySet.add(row[cacheKeyIndex].toString());
+					}
+					meter++;
+					break;
+				}
+			}
+			if (meter == extendArgs.matchSize) {
+				break;
+			}
 		}
 		String[] result = new String[keySet.size()];
 		keySet.toArray(result);
@@ -1385,9 +1490,10 @@ public class SqlToyDaoSupport {
 		if (translateHandler == null) {
 			throw new IllegalArgumentException("缓存翻译行取key和设置name的反调函数不能为null!");
 		}
-		// 获取缓存,框架会自动判断null并实现缓存数据的加载和更新检测
-		final HashMap<String, Object[]> cache = getTranslateCache(cacheName, cacheType);
-		if (cache == null || cache.isEmpty()) {
+		// 获取缓存的查找字典,框架会自动判断null并实现缓存数据的加载和更新检测
+		final TranslateDictionary dictionary = this.sqlToyContext.getTranslateManager().getDictionary(cacheName,
+				cacheType);
+		if (dictionary == null || dictionary.isEmpty()) {
 			return;
 		}
 		Iterator iter = dataSet.iterator();
@@ -1396,7 +1502,7 @@ public class SqlToyDaoSupport {
 		Object name;
 		// 默认名称字段列为1
 		int cacheIndex = (cacheNameIndex == null) ? 1 : cacheNameIndex.intValue();
-		Object[] keyRow;
+		int keyRow;
 		// 循环获取行数据
 		while (iter.hasNext()) {
 			row = iter.next();
@@ -1404,9 +1510,9 @@ public class SqlToyDaoSupport {
 				// 反调获取需要翻译的key
 				key = translateHandler.getKey(row);
 				if (key != null) {
-					keyRow = cache.get(key.toString());
+					keyRow = dictionary.indexOf(key);
 					// 从缓存中获取对应的名称
-					name = (keyRow == null) ? null : keyRow[cacheIndex];
+					name = (keyRow == -1) ? null : dictionary.getValue(keyRow, cacheIndex);
 					// 反调设置行数据中具体列或属性翻译后的名称
 					translateHandler.setName(row, (name == null) ? "" : name.toString());
 				}
@@ -1933,34 +2039,27 @@ public class SqlToyDaoSupport {
 			thread = parallQueryList.size();
 		}
 		List<QueryResult<T>> results = new ArrayList<QueryResult<T>>();
-		ExecutorService pool = null;
 		try {
-			pool = Executors.newFixedThreadPool(thread);
-			List<Future<ParallQueryResult>> futureResult = new ArrayList<Future<ParallQueryResult>>();
+			List<ParallQueryExecutor> tasks = new ArrayList<ParallQueryExecutor>(parallQueryList.size());
 			SqlToyConfig sqlToyConfig;
-			Future<ParallQueryResult> future;
 			for (ParallQuery query : parallQueryList) {
 				sqlToyConfig = sqlToyContext.getSqlToyConfig(
 						new QueryExecutor(query.getExtend().sql).resultType(query.getExtend().resultType),
 						SqlType.search, getDialect(query.getExtend().dataSource));
 				// 自定义条件参数
 				if (query.getExtend().selfCondition) {
-					future = pool.submit(new ParallQueryExecutor(sqlToyContext, dialectFactory, sqlToyConfig, query,
+					tasks.add(new ParallQueryExecutor(sqlToyContext, dialectFactory, sqlToyConfig, query,
 							query.getExtend().names, query.getExtend().values,
 							getDataSource(query.getExtend().dataSource, sqlToyConfig)));
 				} else {
-					future = pool.submit(new ParallQueryExecutor(sqlToyContext, dialectFactory, sqlToyConfig, query,
+					tasks.add(new ParallQueryExecutor(sqlToyContext, dialectFactory, sqlToyConfig, query,
 							paramNames, paramValues, getDataSource(query.getExtend().dataSource, sqlToyConfig)));
 				}
-				futureResult.add(future);
-			}
-			pool.shutdown();
-			// 设置最大等待时长
-			if (parallConfig.getMaxWaitSeconds() != null) {
-				pool.awaitTermination(parallConfig.getMaxWaitSeconds(), TimeUnit.SECONDS);
-			} else {
-				pool.awaitTermination(SqlToyConstants.PARALLEL_MAXWAIT_SECONDS, TimeUnit.SECONDS);
 			}
+			// 提交共享线程池执行,并设置最大等待时长
+			List<Future<ParallQueryResult>> futureResult = sqlToyContext.getExecutorManager().invokeAll(
+					ExecutorManager.PARALLEL_QUERY, tasks, thread,
+					(parallConfig.getMaxWaitSeconds() == null) ? -1 : parallConfig.getMaxWaitSeconds());
 			ParallQueryResult item;
 			int index = 0;
 			for (Future<ParallQueryResult> result : futureResult) {
@@ -1975,10 +2074,6 @@ public class SqlToyDaoSupport {
 		} catch (Exception e) {
 			e.printStackTrace();
 			throw new DataAccessException("并行查询执行错误:" + e.getMessage(), e);
-		} finally {
-			if (pool != null) {
-				pool.shutdownNow();
-			}
 		}
 		return results;
 	}
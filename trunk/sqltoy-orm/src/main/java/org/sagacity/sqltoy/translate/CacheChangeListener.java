@@ -0,0 +1,26 @@
+package org.sagacity.sqltoy.translate;
+
+import java.util.Map;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 缓存变更事件的接收方(由CacheUpdateWatcher实现),CacheChangeSource通过其推送变更
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+public interface CacheChangeListener {
+	/**
+	 * @TODO 缓存整体失效(下次使用时重新加载)
+	 * @param cacheName
+	 * @param cacheType 为null表示cacheName下全部缓存
+	 */
+	public void onClear(String cacheName, String cacheType);
+
+	/**
+	 * @TODO 缓存增量变更
+	 * @param cacheName
+	 * @param cacheType  缓存内部不分组的为null
+	 * @param increments 变更的记录(key->缓存行)
+	 */
+	public void onIncrement(String cacheName, String cacheType, Map<String, Object[]> increments);
+}
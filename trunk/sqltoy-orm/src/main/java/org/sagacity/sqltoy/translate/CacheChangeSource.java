@@ -0,0 +1,20 @@
+package org.sagacity.sqltoy.translate;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 缓存变更事件来源扩展接口:在定时检测之外,由外部(如进程内发布、本机socket、消息队列)主动推送缓存变更
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+public interface CacheChangeSource {
+	/**
+	 * @TODO 开始接收变更,变更通过listener推送
+	 * @param listener
+	 */
+	public void start(CacheChangeListener listener);
+
+	/**
+	 * @TODO 停止接收变更
+	 */
+	public void stop();
+}
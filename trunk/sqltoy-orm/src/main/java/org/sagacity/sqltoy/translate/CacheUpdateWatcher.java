@@ -1,10 +1,23 @@
 package org.sagacity.sqltoy.translate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.sagacity.sqltoy.SqlToyConstants;
 import org.sagacity.sqltoy.SqlToyContext;
 import org.sagacity.sqltoy.translate.cache.TranslateCacheManager;
 import org.sagacity.sqltoy.translate.model.CacheCheckResult;
@@ -22,23 +35,18 @@ import org.slf4j.LoggerFactory;
  * @modify {Date:2019-1-22,修改检测时间格式为yyyy-MM-dd HH:mm:ss 避免时间对比精度差异}
  * @modify {Date:2019-10-14,增加集群节点的时间差异参数,便于包容性检测缓存更新}
  * @modify {Date:2020-3-26,增加缓存增量更新机制,而不是清除缓存}
+ * @modify {Date:2026-10-18,增量更新改为基于副本构建新版本后整体发布,避免与读线程并发修改同一HashMap}
+ * @modify {Date:2026-10-18,增加基于快照版本的启动补齐检测reconcile}
+ * @modify {Date:2026-10-18,由单线程循环sleep改为调度器驱动,各检测任务并发执行并有超时和随机错峰,
+ *         支持CacheChangeSource主动推送变更,提供检测耗时和变更数量统计}
+ * @modify {Date:2026-10-18,检测线程实际退出后才再次提交,避免超时后忽略中断的检测反复提交占满线程池}
  */
-public class CacheUpdateWatcher extends Thread {
+public class CacheUpdateWatcher implements CacheChangeListener {
 	/**
 	 * 定义日志
 	 */
 	private final Logger logger = LoggerFactory.getLogger(CacheUpdateWatcher.class);
 
-	/**
-	 * 最后检测时间
-	 */
-	private ConcurrentHashMap<String, Long> lastCheckTime = new ConcurrentHashMap<String, Long>();
-
-	/**
-	 * 更新检测任务前缀
-	 */
-	private final String prefix = "checker_";
-
 	/**
 	 * 时间格式到秒级别(避免存在时间精度的差异)
 	 */
@@ -68,6 +76,54 @@ public class CacheUpdateWatcher extends Thread {
 	 */
 	private int deviationSeconds = 0;
 
+	/**
+	 * 检测任务
+	 */
+	private final List<CheckerTask> tasks = new ArrayList<CheckerTask>();
+
+	/**
+	 * 启动时需立即补齐检测的任务(检测起始时间为快照版本)
+	 */
+	private HashMap<Integer, Long> reconcileTimes = new HashMap<Integer, Long>();
+
+	/**
+	 * 主动推送变更的事件来源
+	 */
+	private List<CacheChangeSource> changeSources = new ArrayList<CacheChangeSource>();
+
+	/**
+	 * 每秒判断一次是否有到期的检测任务
+	 */
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * 执行检测任务
+	 */
+	private ExecutorService checkExecutor;
+
+	/**
+	 * 单个检测任务的超时时长(毫秒)
+	 */
+	private final long timeoutMillis;
+
+	/**
+	 * 随机错峰的最大时长(毫秒)
+	 */
+	private final long jitterMillis;
+
+	/**
+	 * 检测任务状态:空闲、已提交排队、执行中
+	 */
+	private final static int IDLE = 0;
+
+	private final static int QUEUED = 1;
+
+	private final static int RUNNING = 2;
+
+	private final AtomicLong eventCount = new AtomicLong(0);
+
+	private final AtomicLong eventChangedKeys = new AtomicLong(0);
+
 	public CacheUpdateWatcher(SqlToyContext sqlToyContext, TranslateCacheManager translateCacheManager,
 			List<CheckerConfigModel> updateCheckers, int delaySeconds, int deviationSeconds) {
 		this.sqlToyContext = sqlToyContext;
@@ -75,69 +131,220 @@ public class CacheUpdateWatcher extends Thread {
 		this.updateCheckers = updateCheckers;
 		this.delaySeconds = delaySeconds;
 		this.deviationSeconds = deviationSeconds;
+		this.timeoutMillis = SqlToyConstants.getTranslateCheckerTimeoutSeconds() * 1000L;
+		this.jitterMillis = SqlToyConstants.getTranslateCheckerJitterSeconds() * 1000L;
 		// 初始化检测时间
 		if (updateCheckers != null && !updateCheckers.isEmpty()) {
-			Long checkTime = DateUtil.parse(System.currentTimeMillis(), dateFmt).getTime();
+			long checkTime = DateUtil.parse(System.currentTimeMillis(), dateFmt).getTime();
 			for (int i = 0; i < updateCheckers.size(); i++) {
-				// 初始化时间错开2秒,避免检测频率一致导致都集中时间执行
-				lastCheckTime.put(prefix + i, checkTime + 2000);
+				tasks.add(new CheckerTask(i, updateCheckers.get(i), checkTime + 2000));
+			}
+		}
+	}
+
+	/**
+	 * @param changeSources 主动推送变更的事件来源
+	 */
+	public void setChangeSources(List<CacheChangeSource> changeSources) {
+		if (changeSources != null) {
+			this.changeSources = changeSources;
+		}
+	}
+
+	/**
+	 * @TODO 缓存由快照装载时,以快照版本时间为起点在启动时立即执行一次检测,补齐快照之后发生的变更
+	 * @param snapshotVersions 已装载缓存的快照版本(cacheName->version)
+	 */
+	public void reconcile(Map<String, Long> snapshotVersions) {
+		if (snapshotVersions == null || snapshotVersions.isEmpty()) {
+			return;
+		}
+		Long minVersion = null;
+		for (Long version : snapshotVersions.values()) {
+			if (minVersion == null || version < minVersion) {
+				minVersion = version;
+			}
+		}
+		Long version;
+		for (CheckerTask task : tasks) {
+			// 增量检测对应单个缓存,非增量检测结果可能涉及任意缓存
+			version = task.config.isIncrement() ? snapshotVersions.get(task.config.getCache()) : minVersion;
+			if (version != null) {
+				reconcileTimes.put(task.index, version);
 			}
 		}
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see java.util.TimerTask#run()
+	/**
+	 * @TODO 启动检测调度和变更事件接收
 	 */
+	public synchronized void start() {
+		if (scheduler != null) {
+			return;
+		}
+		AtomicInteger threadIndex = new AtomicInteger(0);
+		scheduler = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+			Thread thread = new Thread(runnable, "sqltoy-cache-watcher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		if (!tasks.isEmpty()) {
+			int threads = Math.max(1, Math.min(tasks.size(), SqlToyConstants.getTranslateCheckerThreads()));
+			checkExecutor = Executors.newFixedThreadPool(threads, (runnable) -> {
+				Thread thread = new Thread(runnable, "sqltoy-cache-checker-" + threadIndex.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			// 快照装载的缓存立即补齐变更
+			Long reconcileTime;
+			for (CheckerTask task : tasks) {
+				reconcileTime = reconcileTimes.get(task.index);
+				if (reconcileTime != null) {
+					submit(task, reconcileTime, System.currentTimeMillis());
+				}
+			}
+			// 延时,避免项目启动过程中检测
+			scheduler.scheduleWithFixedDelay(this::tick, Math.max(delaySeconds, 0), 1, TimeUnit.SECONDS);
+		}
+		for (CacheChangeSource changeSource : changeSources) {
+			try {
+				changeSource.start(this);
+			} catch (Exception e) {
+				logger.error("启动缓存变更事件来源:{} 发生异常:{}", changeSource.getClass().getName(), e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * @TODO 停止检测调度和变更事件接收
+	 */
+	public synchronized void stop() {
+		for (CacheChangeSource changeSource : changeSources) {
+			try {
+				changeSource.stop();
+			} catch (Exception e) {
+				logger.warn("停止缓存变更事件来源:{} 发生异常:{}", changeSource.getClass().getName(), e.getMessage());
+			}
+		}
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+		if (checkExecutor != null) {
+			// 被中断的检测结果不完整,不记录也不推进检测时间
+			for (CheckerTask task : tasks) {
+				task.generation.incrementAndGet();
+				// 尚未开始执行的检测不会再执行
+				task.state.compareAndSet(QUEUED, IDLE);
+			}
+			checkExecutor.shutdownNow();
+			checkExecutor = null;
+		}
+	}
+
 	@Override
-	public void run() {
-		// 延时,避免项目启动过程中检测
+	public void onClear(String cacheName, String cacheType) {
+		eventCount.incrementAndGet();
+		logger.debug("接收到缓存变更事件: cacheName:{} cacheType:{}!", cacheName, (cacheType == null) ? "无" : cacheType);
+		sqlToyContext.getTranslateManager().clear(cacheName, cacheType);
+		eventChangedKeys.incrementAndGet();
+	}
+
+	@Override
+	public void onIncrement(String cacheName, String cacheType, Map<String, Object[]> increments) {
+		if (increments == null || increments.isEmpty()) {
+			return;
+		}
+		eventCount.incrementAndGet();
+		if (sqlToyContext.getTranslateManager().incrementUpdate(cacheName, cacheType, increments)) {
+			eventChangedKeys.addAndGet(increments.size());
+		}
+	}
+
+	/**
+	 * @TODO 判断到期的检测任务并提交执行,同时终止超时的任务
+	 */
+	private void tick() {
 		try {
-			if (delaySeconds >= 1) {
-				Thread.sleep(1000 * delaySeconds);
-			}
-		} catch (InterruptedException e) {
-		}
-		boolean isRun = true;
-		Long preCheck;
-		CheckerConfigModel checkerConfig;
-		long interval;
-		long nowInterval;
-		long nowMillis;
-		String checker;
-		LocalDateTime ldt;
-		int hourMinutes;
-		while (isRun) {
-			// 多个检测任务
-			for (int i = 0; i < updateCheckers.size(); i++) {
-				checker = prefix + i;
-				checkerConfig = updateCheckers.get(i);
-				// 上次检测时间
-				preCheck = lastCheckTime.get(checker);
-				// 当前检测时间
-				nowMillis = System.currentTimeMillis();
-				// 当前的时间间隔
-				nowInterval = (nowMillis - preCheck.longValue()) / 1000;
-				ldt = LocalDateTime.now();
-				// 当前时间区间格式HHmm
-				hourMinutes = ldt.getHour() * 100 + ldt.getMinute();
-				interval = getInterval(checkerConfig.getTimeSections(), hourMinutes);
-				// 间隔大于设定阈值,执行检测
-				if (nowInterval >= interval) {
-					// 更新最后检测时间
-					lastCheckTime.put(checker, Long.valueOf(DateUtil.parse(nowMillis, dateFmt).getTime()));
-					// 执行检测(检测时间扣减集群节点时间偏离)
-					doCheck(sqlToyContext, checkerConfig, DateUtil.addSecond(preCheck, deviationSeconds).getTime());
+			long nowMillis = System.currentTimeMillis();
+			LocalDateTime ldt = LocalDateTime.now();
+			// 当前时间区间格式HHmm
+			int hourMinutes = ldt.getHour() * 100 + ldt.getMinute();
+			long interval;
+			Future<?> running;
+			for (CheckerTask task : tasks) {
+				running = task.running;
+				// 以检测实际退出为准(Future被取消后isDone()即为true,但忽略中断的检测仍占用线程)
+				if (task.state.get() != IDLE) {
+					// 排队中被取消的检测不会再执行
+					if (running != null && running.isCancelled()
+							&& task.state.compareAndSet(QUEUED, IDLE)) {
+						continue;
+					}
+					if (running != null && !running.isCancelled() && nowMillis - task.startedAt > timeoutMillis) {
+						// 超时不推进检测时间,待检测实际退出后再次检测覆盖同一时间段
+						task.generation.incrementAndGet();
+						running.cancel(true);
+						task.timeoutCount.incrementAndGet();
+						logger.warn("缓存更新检测:{} 执行超过:{} 毫秒,已终止!", task.getName(), timeoutMillis);
+					}
+					continue;
+				}
+				interval = getInterval(task.config.getTimeSections(), hourMinutes) * 1000;
+				// 间隔大于设定阈值(加上随机错峰),执行检测
+				if (nowMillis - task.lastCheckTime >= interval + task.jitter) {
+					submit(task, task.lastCheckTime, nowMillis);
 				}
 			}
+		} catch (Exception e) {
+			logger.error("缓存更新检测调度发生异常:{}", e.getMessage(), e);
+		}
+	}
+
+	private void submit(CheckerTask task, long preCheck, long nowMillis) {
+		long checkTime = DateUtil.parse(nowMillis, dateFmt).getTime();
+		task.startedAt = nowMillis;
+		long generation = task.generation.incrementAndGet();
+		task.state.set(QUEUED);
+		try {
+			task.running = checkExecutor.submit(() -> runCheck(task, generation, preCheck, checkTime));
+		} catch (RejectedExecutionException e) {
+			// 已经停止
+			task.state.set(IDLE);
+		}
+	}
+
+	private void runCheck(CheckerTask task, long generation, long preCheck, long checkTime) {
+		// 排队期间已被放弃
+		if (!task.state.compareAndSet(QUEUED, RUNNING)) {
+			return;
+		}
+		try {
+			long start = System.nanoTime();
+			int changed = 0;
 			try {
-				// 一秒钟监测一次是否有到时的检测任务
-				Thread.sleep(1000);
-			} catch (InterruptedException e) {
-				logger.warn("缓存翻译检测缓存变更异常,检测线程将终止!{}", e.getMessage(), e);
-				isRun = false;
+				// 执行检测(检测时间扣减集群节点时间偏离)
+				changed = doCheck(sqlToyContext, task.config,
+						DateUtil.addSecond(preCheck, deviationSeconds).getTime());
+			} catch (Exception e) {
+				logger.error("缓存更新检测:{} 发生异常:{}", task.getName(), e.getMessage(), e);
 			}
+			long cost = System.nanoTime() - start;
+			// 被超时终止的检测不记录
+			if (task.generation.get() != generation) {
+				return;
+			}
+			task.record(cost, changed);
+			task.lastCheckTime = checkTime;
+			long interval = getInterval(task.config.getTimeSections(),
+					LocalDateTime.now().getHour() * 100 + LocalDateTime.now().getMinute()) * 1000;
+			long maxJitter = Math.min(jitterMillis, interval / 5);
+			task.jitter = (maxJitter <= 0) ? 0 : ThreadLocalRandom.current().nextLong(maxJitter + 1);
+			logger.debug("缓存更新检测:{} 耗时:{} 毫秒,变更:{} 条!", task.getName(), TimeUnit.NANOSECONDS.toMillis(cost),
+					changed);
+		} finally {
+			// 检测实际退出后才允许再次提交
+			task.state.set(IDLE);
 		}
 	}
 
@@ -166,20 +373,24 @@ public class CacheUpdateWatcher extends Thread {
 	 * @param sqlToyContext
 	 * @param checkerConfig
 	 * @param lastCheckTime
+	 * @return 变更的记录数量
 	 */
-	private void doCheck(SqlToyContext sqlToyContext, CheckerConfigModel checkerConfig, Long lastCheckTime) {
+	private int doCheck(SqlToyContext sqlToyContext, CheckerConfigModel checkerConfig, Long lastCheckTime) {
 		List<CacheCheckResult> results = TranslateFactory.doCheck(sqlToyContext, checkerConfig,
 				DateUtil.getTimestamp(lastCheckTime));
 		if (results == null || results.isEmpty()) {
-			return;
+			return 0;
 		}
+		int count = 0;
 		// 非增量更新检测(发生变更即清空缓存)
 		if (!checkerConfig.isIncrement()) {
 			try {
 				for (CacheCheckResult result : results) {
 					logger.debug("检测到缓存发生更新: cacheName:{} cacheType:{}!", result.getCacheName(),
 							(result.getCacheType() == null) ? "无" : result.getCacheType());
-					translateCacheManager.clear(result.getCacheName(), result.getCacheType());
+					// 通过TranslateManager清除,同步删除本地快照
+					sqlToyContext.getTranslateManager().clear(result.getCacheName(), result.getCacheType());
+					count++;
 				}
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -190,36 +401,26 @@ public class CacheUpdateWatcher extends Thread {
 			String cacheName = checkerConfig.getCache();
 			try {
 				logger.debug("检测到缓存cacheName:{} 发生:{} 条记录更新!", cacheName, results.size());
-				HashMap<String, Object[]> cacheData;
-				int count = 0;
-				// 内部不存在分组的缓存
-				if (!checkerConfig.isHasInsideGroup()) {
-					cacheData = translateCacheManager.getCache(cacheName, null);
-					// 缓存为null,等待首次调用进行加载
-					if (cacheData == null) {
-						return;
-					}
-					for (CacheCheckResult result : results) {
-						// key不能为null
-						if (result.getItem()[0] != null) {
-							cacheData.put(result.getItem()[0].toString(), result.getItem());
-							count++;
-						}
+				// 按cacheType归集变更,每个缓存基于副本批量构建新版本后整体发布,不直接修改读线程正在使用的数据
+				LinkedHashMap<String, HashMap<String, Object[]>> increments = new LinkedHashMap<String, HashMap<String, Object[]>>();
+				String cacheType;
+				for (CacheCheckResult result : results) {
+					// key不能为null
+					if (result.getItem()[0] != null) {
+						// 内部不存在分组的缓存统一为null
+						cacheType = checkerConfig.isHasInsideGroup() ? result.getCacheType() : null;
+						increments.computeIfAbsent(cacheType, (type) -> new HashMap<String, Object[]>())
+								.put(result.getItem()[0].toString(), result.getItem());
 					}
-				} // 内部存在分组的缓存(如数据字典)
-				else {
-					for (CacheCheckResult result : results) {
-						if (result.getItem()[0] != null) {
-							cacheData = translateCacheManager.getCache(cacheName, result.getCacheType());
-							// 为null则等待首次调用加载
-							if (cacheData != null) {
-								cacheData.put(result.getItem()[0].toString(), result.getItem());
-								count++;
-							} else {
-								logger.warn("增量缓存更新:cacheName={},cacheType={},未取到对应缓存数据,请检查数据结构是否正确(或缓存未必调用并初始化过)!",
-										cacheName, result.getCacheType());
-							}
-						}
+				}
+				for (Map.Entry<String, HashMap<String, Object[]>> entry : increments.entrySet()) {
+					// 缓存为null,等待首次调用进行加载
+					if (sqlToyContext.getTranslateManager().incrementUpdate(cacheName, entry.getKey(),
+							entry.getValue())) {
+						count += entry.getValue().size();
+					} else if (entry.getKey() != null) {
+						logger.warn("增量缓存更新:cacheName={},cacheType={},未取到对应缓存数据,请检查数据结构是否正确(或缓存未必调用并初始化过)!",
+								cacheName, entry.getKey());
 					}
 				}
 				logger.debug("缓存实际完成:{} 条记录更新!", count);
@@ -228,5 +429,138 @@ public class CacheUpdateWatcher extends Thread {
 				logger.error("缓存增量更新检测,更新缓存:{} 发生异常:{}", cacheName, e.getMessage());
 			}
 		}
+		return count;
+	}
+
+	/**
+	 * @return 各检测任务的执行统计
+	 */
+	public List<CheckerTask> getCheckerStats() {
+		return Collections.unmodifiableList(tasks);
+	}
+
+	/**
+	 * @return 接收到的变更事件数量
+	 */
+	public long getEventCount() {
+		return eventCount.get();
+	}
+
+	/**
+	 * @return 变更事件涉及的记录数量(清除缓存计为1)
+	 */
+	public long getEventChangedKeys() {
+		return eventChangedKeys.get();
+	}
+
+	/**
+	 * 检测任务及其执行统计
+	 */
+	public static class CheckerTask {
+		private final int index;
+
+		private final CheckerConfigModel config;
+
+		/**
+		 * 最后检测时间
+		 */
+		private volatile long lastCheckTime;
+
+		/**
+		 * 本轮随机错峰时长
+		 */
+		private volatile long jitter;
+
+		private volatile Future<?> running;
+
+		private volatile long startedAt;
+
+		/**
+		 * 检测执行状态,执行线程实际退出后才恢复为IDLE
+		 */
+		private final AtomicInteger state = new AtomicInteger(IDLE);
+
+		/**
+		 * 每次提交检测递增,超时终止时也递增,用于识别已被放弃的检测
+		 */
+		private final AtomicLong generation = new AtomicLong(0);
+
+		private final AtomicLong checkCount = new AtomicLong(0);
+
+		private final AtomicLong timeoutCount = new AtomicLong(0);
+
+		private final AtomicLong checkNanos = new AtomicLong(0);
+
+		private final AtomicLong maxCheckNanos = new AtomicLong(0);
+
+		private final AtomicLong changedKeys = new AtomicLong(0);
+
+		private volatile int lastChangedKeys;
+
+		private CheckerTask(int index, CheckerConfigModel config, long lastCheckTime) {
+			this.index = index;
+			this.config = config;
+			this.lastCheckTime = lastCheckTime;
+		}
+
+		private void record(long nanos, int changed) {
+			checkCount.incrementAndGet();
+			checkNanos.addAndGet(nanos);
+			maxCheckNanos.accumulateAndGet(nanos, Math::max);
+			changedKeys.addAndGet(changed);
+			lastChangedKeys = changed;
+		}
+
+		/**
+		 * @return 检测任务名称(增量检测为缓存名称)
+		 */
+		public String getName() {
+			return "checker_" + index + ((config.getCache() == null) ? "" : "(" + config.getCache() + ")");
+		}
+
+		public long getLastCheckTime() {
+			return lastCheckTime;
+		}
+
+		public long getCheckCount() {
+			return checkCount.get();
+		}
+
+		public long getTimeoutCount() {
+			return timeoutCount.get();
+		}
+
+		/**
+		 * @return 平均检测耗时(毫秒)
+		 */
+		public double getAverageCheckMillis() {
+			long count = checkCount.get();
+			return (count == 0) ? 0 : checkNanos.get() / 1000000.0 / count;
+		}
+
+		public long getMaxCheckMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(maxCheckNanos.get());
+		}
+
+		/**
+		 * @return 累计变更的记录数
+		 */
+		public long getChangedKeys() {
+			return changedKeys.get();
+		}
+
+		/**
+		 * @return 最近一次检测变更的记录数
+		 */
+		public int getLastChangedKeys() {
+			return lastChangedKeys;
+		}
+
+		@Override
+		public String toString() {
+			return getName() + "[check=" + checkCount.get() + ",timeout=" + timeoutCount.get() + ",avgMillis="
+					+ getAverageCheckMillis() + ",maxMillis=" + getMaxCheckMillis() + ",changedKeys="
+					+ changedKeys.get() + "]";
+		}
 	}
 }
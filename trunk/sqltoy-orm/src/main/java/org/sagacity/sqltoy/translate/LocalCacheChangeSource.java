@@ -0,0 +1,48 @@
+package org.sagacity.sqltoy.translate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 进程内的缓存变更事件来源:应用修改字典等数据后直接调用publish推送变更,无需等待定时检测
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+public class LocalCacheChangeSource implements CacheChangeSource {
+	private final List<CacheChangeListener> listeners = new CopyOnWriteArrayList<CacheChangeListener>();
+
+	@Override
+	public void start(CacheChangeListener listener) {
+		listeners.add(listener);
+	}
+
+	@Override
+	public void stop() {
+		listeners.clear();
+	}
+
+	/**
+	 * @TODO 推送缓存整体失效
+	 * @param cacheName
+	 * @param cacheType
+	 */
+	public void publishClear(String cacheName, String cacheType) {
+		for (CacheChangeListener listener : listeners) {
+			listener.onClear(cacheName, cacheType);
+		}
+	}
+
+	/**
+	 * @TODO 推送缓存增量变更
+	 * @param cacheName
+	 * @param cacheType
+	 * @param increments
+	 */
+	public void publishIncrement(String cacheName, String cacheType, Map<String, Object[]> increments) {
+		for (CacheChangeListener listener : listeners) {
+			listener.onIncrement(cacheName, cacheType, increments);
+		}
+	}
+}
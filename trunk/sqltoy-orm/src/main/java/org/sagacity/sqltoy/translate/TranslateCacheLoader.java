@@ -0,0 +1,236 @@
+package org.sagacity.sqltoy.translate;
+
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 缓存翻译数据的单飞(single-flight)加载器:同一cacheName+cacheType同一时刻只有一个线程执行加载,
+ *              其余线程等待其结果;开启stale-while-revalidate时,重新加载期间其余线程直接使用上一次加载的数据
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+public class TranslateCacheLoader {
+	/**
+	 * 定义日志
+	 */
+	protected final static Logger logger = LoggerFactory.getLogger(TranslateCacheLoader.class);
+
+	/**
+	 * 正在加载中的缓存
+	 */
+	private final ConcurrentHashMap<String, CompletableFuture<HashMap<String, Object[]>>> loadings = new ConcurrentHashMap<String, CompletableFuture<HashMap<String, Object[]>>>();
+
+	/**
+	 * 最近一次成功加载的数据(仅stale-while-revalidate模式保留)
+	 */
+	private final ConcurrentHashMap<String, HashMap<String, Object[]>> snapshots = new ConcurrentHashMap<String, HashMap<String, Object[]>>();
+
+	/**
+	 * 是否在重新加载期间使用旧数据
+	 */
+	private final boolean staleWhileRevalidate;
+
+	/**
+	 * 等待其他线程加载的最长时间(毫秒)
+	 */
+	private final long waitMillis;
+
+	private final AtomicLong loadCount = new AtomicLong(0);
+
+	private final AtomicLong loadFailCount = new AtomicLong(0);
+
+	private final AtomicLong loadNanos = new AtomicLong(0);
+
+	private final AtomicLong maxLoadNanos = new AtomicLong(0);
+
+	private final AtomicLong waitCount = new AtomicLong(0);
+
+	private final AtomicLong waitNanos = new AtomicLong(0);
+
+	private final AtomicLong waitTimeoutCount = new AtomicLong(0);
+
+	private final AtomicLong staleCount = new AtomicLong(0);
+
+	/**
+	 * @param staleWhileRevalidate 重新加载期间是否继续使用上一次加载的数据
+	 * @param waitSeconds          等待其他线程加载的最长时间(秒)
+	 */
+	public TranslateCacheLoader(boolean staleWhileRevalidate, int waitSeconds) {
+		this.staleWhileRevalidate = staleWhileRevalidate;
+		this.waitMillis = (waitSeconds < 1) ? 1000L : waitSeconds * 1000L;
+	}
+
+	/**
+	 * @TODO 单飞方式加载缓存数据
+	 * @param cacheName
+	 * @param cacheType
+	 * @param loader    实际加载逻辑(加载并放入缓存)
+	 * @return
+	 */
+	public HashMap<String, Object[]> load(String cacheName, String cacheType,
+			Supplier<HashMap<String, Object[]>> loader) {
+		String key = getKey(cacheName, cacheType);
+		CompletableFuture<HashMap<String, Object[]>> future = new CompletableFuture<HashMap<String, Object[]>>();
+		CompletableFuture<HashMap<String, Object[]>> running = loadings.putIfAbsent(key, future);
+		// 当前线程负责加载
+		if (running == null) {
+			return doLoad(key, future, loader);
+		}
+		// 其他线程正在加载,有旧数据直接使用
+		HashMap<String, Object[]> stale = staleWhileRevalidate ? snapshots.get(key) : null;
+		if (stale != null) {
+			staleCount.incrementAndGet();
+			return stale;
+		}
+		waitCount.incrementAndGet();
+		long start = System.nanoTime();
+		try {
+			return running.get(waitMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			waitTimeoutCount.incrementAndGet();
+			logger.warn("等待缓存:cacheName={},cacheType={} 加载超过:{} 毫秒,改为自行加载!", cacheName, cacheType, waitMillis);
+			return loader.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			return null;
+		} finally {
+			waitNanos.addAndGet(System.nanoTime() - start);
+		}
+	}
+
+	private HashMap<String, Object[]> doLoad(String key, CompletableFuture<HashMap<String, Object[]>> future,
+			Supplier<HashMap<String, Object[]>> loader) {
+		long start = System.nanoTime();
+		HashMap<String, Object[]> result = null;
+		try {
+			result = loader.get();
+		} catch (RuntimeException e) {
+			logger.error("加载缓存:{} 发生异常:{}", key, e.getMessage(), e);
+		} finally {
+			long cost = System.nanoTime() - start;
+			loadCount.incrementAndGet();
+			loadNanos.addAndGet(cost);
+			maxLoadNanos.accumulateAndGet(cost, Math::max);
+			boolean success = (result != null && !result.isEmpty());
+			if (!success) {
+				loadFailCount.incrementAndGet();
+			} else if (staleWhileRevalidate) {
+				snapshots.put(key, result);
+			}
+			// 加载失败则继续提供旧数据
+			if (!success && staleWhileRevalidate && snapshots.containsKey(key)) {
+				result = snapshots.get(key);
+			}
+			loadings.remove(key, future);
+			future.complete(result);
+		}
+		return result;
+	}
+
+	/**
+	 * @TODO 缓存被外部整体更新时同步旧数据
+	 * @param cacheName
+	 * @param cacheType
+	 * @param cacheValue
+	 */
+	public void update(String cacheName, String cacheType, HashMap<String, Object[]> cacheValue) {
+		if (!staleWhileRevalidate) {
+			return;
+		}
+		String key = getKey(cacheName, cacheType);
+		if (cacheValue == null || cacheValue.isEmpty()) {
+			snapshots.remove(key);
+		} else {
+			snapshots.put(key, cacheValue);
+		}
+	}
+
+	/**
+	 * @TODO 清除全部旧数据
+	 */
+	public void destroy() {
+		snapshots.clear();
+	}
+
+	public boolean isStaleWhileRevalidate() {
+		return staleWhileRevalidate;
+	}
+
+	/**
+	 * @return 实际加载次数
+	 */
+	public long getLoadCount() {
+		return loadCount.get();
+	}
+
+	/**
+	 * @return 加载结果为空或异常的次数
+	 */
+	public long getLoadFailCount() {
+		return loadFailCount.get();
+	}
+
+	/**
+	 * @return 平均加载耗时(毫秒)
+	 */
+	public double getAverageLoadMillis() {
+		long count = loadCount.get();
+		return (count == 0) ? 0 : loadNanos.get() / 1000000.0 / count;
+	}
+
+	/**
+	 * @return 最大加载耗时(毫秒)
+	 */
+	public long getMaxLoadMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(maxLoadNanos.get());
+	}
+
+	/**
+	 * @return 等待其他线程加载的次数
+	 */
+	public long getWaitCount() {
+		return waitCount.get();
+	}
+
+	/**
+	 * @return 累计等待时长(毫秒)
+	 */
+	public long getWaitMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+	}
+
+	public long getWaitTimeoutCount() {
+		return waitTimeoutCount.get();
+	}
+
+	/**
+	 * @return 加载期间直接使用旧数据的次数
+	 */
+	public long getStaleCount() {
+		return staleCount.get();
+	}
+
+	@Override
+	public String toString() {
+		return "TranslateCacheLoader[load=" + loadCount.get() + ",loadFail=" + loadFailCount.get() + ",avgLoadMillis="
+				+ getAverageLoadMillis() + ",maxLoadMillis=" + getMaxLoadMillis() + ",wait=" + waitCount.get()
+				+ ",waitMillis=" + getWaitMillis() + ",waitTimeout=" + waitTimeoutCount.get() + ",stale="
+				+ staleCount.get() + "]";
+	}
+
+	private static String getKey(String cacheName, String cacheType) {
+		return (cacheType == null) ? cacheName : cacheName + ":" + cacheType;
+	}
+}
@@ -17,6 +17,7 @@ import org.sagacity.sqltoy.config.model.SqlType;
 import org.sagacity.sqltoy.dialect.DialectFactory;
 import org.sagacity.sqltoy.model.QueryExecutor;
 import org.sagacity.sqltoy.plugins.datasource.DataSourceSelector;
+import org.sagacity.sqltoy.translate.cache.TranslateDictionary;
 import org.sagacity.sqltoy.translate.model.CacheCheckResult;
 import org.sagacity.sqltoy.translate.model.CheckerConfigModel;
 import org.sagacity.sqltoy.translate.model.TranslateConfigModel;
@@ -37,6 +38,7 @@ import com.alibaba.fastjson.JSONObject;
  * @description 缓存刷新检测接口定义
  * @author zhongxuchen
  * @version v1.0,Date:2018年3月8日
+ * @modify 2026-10-18 加载的缓存数据对重复的短字符串去重
  */
 public class TranslateFactory {
 	/**
@@ -272,6 +274,9 @@ public class TranslateFactory {
 		// 增加错误日志提醒
 		if (cacheData == null || cacheData.isEmpty()) {
 			logger.error("缓存cacheName={} 数据集为空,请检查对应的配置和查询逻辑是否正确!", cacheModel.getCache());
+		} else {
+			// 重复的短字符串共用同一实例,缓存数据与查找字典均受益
+			TranslateDictionary.internValues(cacheData);
 		}
 		return cacheData;
 	}
@@ -9,13 +9,17 @@ import java.util.Map;
 import java.util.Set;
 
 import org.sagacity.sqltoy.SqlExecuteStat;
+import org.sagacity.sqltoy.SqlToyConstants;
 import org.sagacity.sqltoy.SqlToyContext;
 import org.sagacity.sqltoy.config.model.SqlExecuteTrace;
 import org.sagacity.sqltoy.config.model.Translate;
 import org.sagacity.sqltoy.model.IgnoreKeyCaseMap;
 import org.sagacity.sqltoy.model.inner.TranslateExtend;
 import org.sagacity.sqltoy.translate.cache.TranslateCacheManager;
+import org.sagacity.sqltoy.translate.cache.TranslateDictionary;
+import org.sagacity.sqltoy.translate.cache.TranslateMatchIndex;
 import org.sagacity.sqltoy.translate.cache.impl.TranslateEhcacheManager;
+import org.sagacity.sqltoy.translate.cache.impl.TranslateMappedFileManager;
 import org.sagacity.sqltoy.translate.model.CheckerConfigModel;
 import org.sagacity.sqltoy.translate.model.DefaultConfig;
 import org.sagacity.sqltoy.translate.model.TranslateConfigModel;
@@ -30,6 +34,10 @@ import org.slf4j.LoggerFactory;
  * @version v1.0,Date:2013年4月8日
  * @modify {Date:2017-12-8,提取缓存时增加分库策略判断,如果存在分库策略dataSource则按照分库逻辑提取}
  * @modify {Date:2018-1-5,增强缓存更新检测机制}
+ * @modify {Date:2026-10-18,缓存数据加载改为单飞方式,避免缓存清除后并发线程同时查询数据库(缓存击穿)}
+ * @modify {Date:2026-10-18,翻译字典优先直接从缓存管理器获取,支持内存映射文件缓存}
+ * @modify {Date:2026-10-18,增加缓存本地快照,启动时并行装载并由更新检测补齐快照之后的变更}
+ * @modify {Date:2026-10-18,缓存更新检测改为调度执行,支持CacheChangeSource主动推送变更}
  */
 public class TranslateManager {
 	/**
@@ -74,6 +82,16 @@ public class TranslateManager {
 
 	private SqlToyContext sqlToyContext;
 
+	/**
+	 * 缓存数据单飞加载器
+	 */
+	private TranslateCacheLoader cacheLoader;
+
+	/**
+	 * 缓存数据本地快照(未配置快照路径则为null)
+	 */
+	private TranslateSnapshotStore snapshotStore;
+
 	/**
 	 * @param translateConfig the translateConfig to set
 	 */
@@ -97,6 +115,8 @@ public class TranslateManager {
 		try {
 			this.sqlToyContext = sqlToyContext;
 			initialized = true;
+			cacheLoader = new TranslateCacheLoader(SqlToyConstants.translateStaleWhileRevalidate(),
+					SqlToyConstants.getTranslateLoadWaitSeconds());
 			logger.debug("开始加载sqltoy的translate缓存翻译配置文件:{}", translateConfig);
 			// 加载和解析缓存翻译的配置
 			DefaultConfig defaultConfig = TranslateConfigParse.parseTranslateConfig(sqlToyContext, translateMap,
@@ -109,22 +129,52 @@ public class TranslateManager {
 				} else {
 					translateCacheManager = cacheManager;
 				}
+				// 内存映射文件缓存过期后由后台重新加载并继续提供当前数据,无需在堆内保留上一次加载的数据
+				if (translateCacheManager instanceof TranslateMappedFileManager) {
+					cacheLoader = new TranslateCacheLoader(false, SqlToyConstants.getTranslateLoadWaitSeconds());
+				}
 				// 设置默认存储路径
-				if (!StringUtil.isBlank(defaultConfig.getDiskStorePath())
-						&& translateCacheManager instanceof TranslateEhcacheManager) {
-					((TranslateEhcacheManager) translateCacheManager)
-							.setDiskStorePath(defaultConfig.getDiskStorePath());
+				if (!StringUtil.isBlank(defaultConfig.getDiskStorePath())) {
+					if (translateCacheManager instanceof TranslateEhcacheManager) {
+						((TranslateEhcacheManager) translateCacheManager)
+								.setDiskStorePath(defaultConfig.getDiskStorePath());
+					} else if (translateCacheManager instanceof TranslateMappedFileManager) {
+						((TranslateMappedFileManager) translateCacheManager)
+								.setStorePath(defaultConfig.getDiskStorePath());
+					}
 				}
 				// 设置装入具体缓存配置
 				translateCacheManager.setTranslateMap(translateMap);
+				translateCacheManager.setDataLoader((cacheModel, cacheType) -> TranslateFactory
+						.getCacheData(sqlToyContext, cacheModel, cacheType));
 				boolean initSuccess = translateCacheManager.init();
+				// 装载本地快照(内存映射文件缓存本身即持久化,无需快照)
+				IgnoreKeyCaseMap<String, Long> snapshotVersions = null;
+				String snapshotPath = SqlToyConstants.getTranslateSnapshotPath();
+				if (initSuccess && StringUtil.isNotBlank(snapshotPath)
+						&& !(translateCacheManager instanceof TranslateMappedFileManager)) {
+					snapshotStore = new TranslateSnapshotStore(snapshotPath);
+					if (snapshotStore.init()) {
+						snapshotVersions = restoreSnapshots();
+					} else {
+						snapshotStore = null;
+					}
+				}
 				// 每隔1秒执行一次检查(检查各个任务时间间隔是否到达设定的区间,并不意味着一秒执行数据库或调用接口) 正常情况下,
 				// 这种检查都是高效率的空转不影响性能
-				if (initSuccess && !updateCheckers.isEmpty()) {
+				List<CacheChangeSource> changeSources = sqlToyContext.getCacheChangeSources();
+				boolean hasChangeSource = changeSources != null && !changeSources.isEmpty();
+				if (initSuccess && (!updateCheckers.isEmpty() || hasChangeSource)) {
 					cacheCheck = new CacheUpdateWatcher(sqlToyContext, translateCacheManager, updateCheckers,
 							delayCheckCacheSeconds, defaultConfig.getDeviationSeconds());
+					cacheCheck.setChangeSources(changeSources);
+					// 以快照版本为起点检测快照之后的变更
+					if (snapshotVersions != null && !snapshotVersions.isEmpty()) {
+						cacheCheck.reconcile(snapshotVersions);
+					}
 					cacheCheck.start();
-					logger.debug("sqltoy的translate缓存配置加载完成,已经启动:{} 个缓存更新检测!", updateCheckers.size());
+					logger.debug("sqltoy的translate缓存配置加载完成,已经启动:{} 个缓存更新检测,{} 个缓存变更事件来源!",
+							updateCheckers.size(), hasChangeSource ? changeSources.size() : 0);
 				} else {
 					logger.debug("sqltoy的translate缓存配置加载完成,您没有配置缓存更新检测机制或没有配置缓存,将不做缓存更新检测!");
 				}
@@ -138,7 +188,41 @@ public class TranslateManager {
 	}
 
 	/**
-	 * @todo 根据sqltoy sql.xml中的翻译设置获取对应的缓存(多个translate对应的多个缓存结果)
+	 * @TODO 并行装载本地快照放入缓存(过期或配置已删除的快照不装载)
+	 * @return 已装载缓存的最早快照版本(cacheName->version)
+	 */
+	private IgnoreKeyCaseMap<String, Long> restoreSnapshots() {
+		long start = System.currentTimeMillis();
+		IgnoreKeyCaseMap<String, Long> result = new IgnoreKeyCaseMap<String, Long>();
+		TranslateConfigModel cacheModel;
+		Long minVersion;
+		int count = 0;
+		for (TranslateSnapshotStore.Snapshot snapshot : snapshotStore
+				.loadAll(SqlToyConstants.getTranslateSnapshotParallelism())) {
+			cacheModel = translateMap.get(snapshot.getCacheName());
+			if (cacheModel == null) {
+				snapshotStore.delete(snapshot.getCacheName(), snapshot.getCacheType());
+				continue;
+			}
+			if (cacheModel.getKeepAlive() > 0 && start - snapshot.getVersion() > cacheModel.getKeepAlive() * 1000L) {
+				continue;
+			}
+			translateCacheManager.publish(cacheModel, cacheModel.getCache(), snapshot.getCacheType(),
+					snapshot.getCacheValue());
+			cacheLoader.update(cacheModel.getCache(), snapshot.getCacheType(), snapshot.getCacheValue());
+			minVersion = result.get(cacheModel.getCache());
+			if (minVersion == null || minVersion > snapshot.getVersion()) {
+				result.put(cacheModel.getCache(), snapshot.getVersion());
+			}
+			count++;
+		}
+		logger.debug("装载:{} 个缓存翻译快照,耗时:{} 毫秒!", count, System.currentTimeMillis() - start);
+		return result;
+	}
+
+	/**
+	 * @todo 根据sqltoy sql.xml中的翻译设置获取对应的缓存(多个translate对应的多个缓存结果),
+	 *       非堆内存储(如内存映射文件)每次调用都会生成完整的HashMap副本,翻译请使用getTranslateDictionaries
 	 * @param translates
 	 * @return
 	 */
@@ -177,6 +261,65 @@ public class TranslateManager {
 		return result;
 	}
 
+	/**
+	 * @TODO 根据翻译设置获取对应缓存的紧凑查找字典(翻译时整数型key免toString直接查找)
+	 * @param translates
+	 * @return key为translate的column
+	 */
+	public HashMap<String, TranslateDictionary> getTranslateDictionaries(HashMap<String, Translate> translates) {
+		// 获得当前线程中的sql执行日志，后续缓存获取会覆盖掉日志
+		SqlExecuteTrace sqlTrace = SqlExecuteStat.get();
+		HashMap<String, TranslateDictionary> result = new HashMap<String, TranslateDictionary>();
+		TranslateConfigModel cacheModel;
+		TranslateExtend extend;
+		TranslateDictionary dictionary;
+		for (Translate translate : translates.values()) {
+			extend = translate.getExtend();
+			if (!translateMap.containsKey(extend.cache)) {
+				logger.error("cacheName:{} 没有配置,请检查sqltoy-translate.xml文件!", extend.cache);
+				continue;
+			}
+			cacheModel = translateMap.get(extend.cache);
+			dictionary = getDictionary(cacheModel, extend.cacheType);
+			if (dictionary != null && !dictionary.isEmpty()) {
+				result.put(extend.column, dictionary);
+			} else {
+				result.put(extend.column, TranslateDictionary.EMPTY);
+				logger.warn("sqltoy translate:cacheName={},cache-type={},column={}配置不正确,未获取对应cache数据!",
+						cacheModel.getCache(), extend.cacheType, extend.column);
+			}
+		}
+		// 将调用获取缓存之前的日志放回线程中
+		if (sqlTrace != null) {
+			SqlExecuteStat.set(sqlTrace);
+		}
+		return result;
+	}
+
+	/**
+	 * @TODO 获取缓存的查找字典,缓存未加载时加载
+	 * @param cacheModel
+	 * @param cacheType
+	 * @return
+	 */
+	private TranslateDictionary getDictionary(TranslateConfigModel cacheModel, String cacheType) {
+		// 优先直接获取缓存管理器中的字典(内存映射文件等实现无需转换HashMap)
+		TranslateDictionary dictionary = translateCacheManager.getDictionary(cacheModel.getCache(), cacheType);
+		if (dictionary != null && !dictionary.isEmpty()) {
+			return dictionary;
+		}
+		HashMap<String, Object[]> cache = getCacheData(cacheModel, cacheType);
+		if (cache == null || cache.isEmpty()) {
+			return dictionary;
+		}
+		dictionary = translateCacheManager.getDictionary(cacheModel.getCache(), cacheType);
+		// 使用的是加载期间的旧数据
+		if (dictionary == null || dictionary.isEmpty()) {
+			dictionary = translateCacheManager.getDictionary(cacheModel.getCache(), cacheType, cache);
+		}
+		return dictionary;
+	}
+
 	/**
 	 * @todo 根据sqltoy sql.xml中的翻译设置获取对应的缓存
 	 * @param cacheModel
@@ -188,17 +331,33 @@ public class TranslateManager {
 		HashMap<String, Object[]> result = translateCacheManager.getCache(cacheModel.getCache(), cacheType);
 		// 数据为空则执行调用逻辑提取数据放入缓存，否则直接返回
 		if (result == null || result.isEmpty()) {
-			result = TranslateFactory.getCacheData(sqlToyContext, cacheModel, cacheType);
-			// 放入缓存
-			if (result != null && !result.isEmpty()) {
-				translateCacheManager.put(cacheModel, cacheModel.getCache(), cacheType, result);
-			}
+			// 同一缓存只由一个线程加载,其余线程等待结果或使用旧数据
+			result = cacheLoader.load(cacheModel.getCache(), cacheType, () -> {
+				// 等待加载锁期间可能已经被其他线程加载
+				HashMap<String, Object[]> cacheData = translateCacheManager.getCache(cacheModel.getCache(),
+						cacheType);
+				if (cacheData != null && !cacheData.isEmpty()) {
+					return cacheData;
+				}
+				// 快照版本以开始加载的时间为准,加载期间的变更由更新检测补齐
+				long loadTime = System.currentTimeMillis();
+				cacheData = TranslateFactory.getCacheData(sqlToyContext, cacheModel, cacheType);
+				// 放入缓存
+				if (cacheData != null && !cacheData.isEmpty()) {
+					translateCacheManager.publish(cacheModel, cacheModel.getCache(), cacheType, cacheData);
+					if (snapshotStore != null) {
+						snapshotStore.save(cacheModel.getCache(), cacheType, cacheData, loadTime);
+					}
+				}
+				return cacheData;
+			});
 		}
 		return result;
 	}
 
 	/**
-	 * @todo 提供对外的访问(如要做增量更新可以对这里的数据进行修改即可达到缓存的更新作用)
+	 * @todo 提供对外的访问(返回的数据为只读的当前版本,更新请使用put或incrementUpdate,不要直接修改),
+	 *       非堆内存储(如内存映射文件)每次调用都会生成完整的HashMap副本,查找和匹配请使用getDictionary
 	 * @param cacheName
 	 * @param cacheType (一般为null,不为空时一般用于数据字典等同于dictType)
 	 * @return
@@ -219,6 +378,45 @@ public class TranslateManager {
 		return result;
 	}
 
+	/**
+	 * @TODO 获取缓存的查找字典(缓存未加载时加载),按key查找和逐行匹配均无需转换为HashMap
+	 * @param cacheName
+	 * @param cacheType (一般为null,不为空时一般用于数据字典等同于dictType)
+	 * @return
+	 */
+	public TranslateDictionary getDictionary(String cacheName, String cacheType) {
+		TranslateConfigModel cacheModel = translateMap.get(cacheName);
+		if (cacheModel == null) {
+			logger.error("cacheName:{} 没有配置,请检查sqltoy-translate.xml文件!", cacheName);
+			return null;
+		}
+		// 获得当前线程中的sql执行日志，后续缓存获取会覆盖掉日志
+		SqlExecuteTrace sqlTrace = SqlExecuteStat.get();
+		TranslateDictionary result = getDictionary(cacheModel, cacheType);
+		// 将调用获取缓存之前的日志放回线程中
+		if (sqlTrace != null) {
+			SqlExecuteStat.set(sqlTrace);
+		}
+		return result;
+	}
+
+	/**
+	 * @TODO 获取缓存名称反向匹配的倒排索引
+	 * @param cacheName
+	 * @param cacheType
+	 * @param dictionary   当前获取到的查找字典
+	 * @param matchIndexes 参与匹配的名称列
+	 * @return
+	 */
+	public TranslateMatchIndex getMatchIndex(String cacheName, String cacheType, TranslateDictionary dictionary,
+			int[] matchIndexes) {
+		TranslateConfigModel cacheModel = translateMap.get(cacheName);
+		if (translateCacheManager == null || cacheModel == null || dictionary == null) {
+			return null;
+		}
+		return translateCacheManager.getMatchIndex(cacheModel.getCache(), cacheType, dictionary, matchIndexes);
+	}
+
 	/**
 	 * @todo 更新单个缓存的整体数据
 	 * @param cacheName
@@ -232,10 +430,43 @@ public class TranslateManager {
 				logger.error("cacheName:{} 没有配置,请检查sqltoy-translate.xml文件!", cacheName);
 				return;
 			}
-			translateCacheManager.put(cacheModel, cacheModel.getCache(), cacheType, cacheValue);
+			translateCacheManager.publish(cacheModel, cacheModel.getCache(), cacheType, cacheValue);
+			cacheLoader.update(cacheModel.getCache(), cacheType, cacheValue);
+			if (snapshotStore != null) {
+				if (cacheValue == null || cacheValue.isEmpty()) {
+					snapshotStore.delete(cacheModel.getCache(), cacheType);
+				} else {
+					snapshotStore.save(cacheModel.getCache(), cacheType, cacheValue, System.currentTimeMillis());
+				}
+			}
 		}
 	}
 
+	/**
+	 * @todo 增量更新缓存(基于当前版本副本写入变更后整体发布,读线程不受影响)
+	 * @param cacheName
+	 * @param cacheType  (默认为null，针对诸如数据字典类型的，对应字典类型)
+	 * @param increments 变更的记录(key->缓存行)
+	 * @return 缓存尚未加载返回false
+	 */
+	public boolean incrementUpdate(String cacheName, String cacheType, Map<String, Object[]> increments) {
+		if (translateCacheManager == null) {
+			return false;
+		}
+		TranslateConfigModel cacheModel = translateMap.get(cacheName);
+		if (cacheModel == null) {
+			logger.error("cacheName:{} 没有配置,请检查sqltoy-translate.xml文件!", cacheName);
+			return false;
+		}
+		boolean result = translateCacheManager.incrementUpdate(cacheModel.getCache(), cacheType, increments);
+		// 仅在保留旧数据时同步(内存映射文件不保留,避免将字典整体转换为HashMap)
+		if (result && cacheLoader.isStaleWhileRevalidate()) {
+			cacheLoader.update(cacheModel.getCache(), cacheType,
+					translateCacheManager.getCache(cacheModel.getCache(), cacheType));
+		}
+		return result;
+	}
+
 	/**
 	 * @todo 清空缓存
 	 * @param cacheName
@@ -245,7 +476,10 @@ public class TranslateManager {
 		if (translateCacheManager != null) {
 			TranslateConfigModel cacheModel = translateMap.get(cacheName);
 			if (cacheModel != null) {
-				translateCacheManager.clear(cacheModel.getCache(), cacheType);
+				translateCacheManager.invalidate(cacheModel.getCache(), cacheType);
+				if (snapshotStore != null) {
+					snapshotStore.delete(cacheModel.getCache(), cacheType);
+				}
 			}
 		}
 	}
@@ -288,13 +522,33 @@ public class TranslateManager {
 		return translateCacheManager;
 	}
 
+	/**
+	 * @return 缓存数据加载器(提供加载耗时、等待次数等统计)
+	 */
+	public TranslateCacheLoader getCacheLoader() {
+		return cacheLoader;
+	}
+
+	/**
+	 * @return 缓存更新检测(可获取各检测任务的执行统计),未启用时为null
+	 */
+	public CacheUpdateWatcher getCacheUpdateWatcher() {
+		return cacheCheck;
+	}
+
 	public void destroy() {
 		try {
+			if (cacheCheck != null) {
+				cacheCheck.stop();
+			}
 			if (translateCacheManager != null) {
 				translateCacheManager.destroy();
 			}
-			if (cacheCheck != null && !cacheCheck.isInterrupted()) {
-				cacheCheck.interrupt();
+			if (cacheLoader != null) {
+				cacheLoader.destroy();
+			}
+			if (snapshotStore != null) {
+				snapshotStore.destroy();
 			}
 		} catch (Exception e) {
 
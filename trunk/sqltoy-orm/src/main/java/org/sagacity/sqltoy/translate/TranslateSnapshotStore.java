@@ -0,0 +1,287 @@
+package org.sagacity.sqltoy.translate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.sagacity.sqltoy.translate.cache.impl.MappedTranslateDictionary;
+import org.sagacity.sqltoy.utils.StringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 缓存翻译数据的本地快照:缓存加载后异步写入紧凑格式的本地文件(文件头记录数据版本即开始加载的时间),
+ *              应用启动时并行装载全部快照,再由缓存更新检测以快照版本为起点检测期间的变更,避免启动后首次查询同步加载大缓存
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ * @modify 2026-10-18 删除快照与保存统一由写入线程按提交顺序执行,避免删除先于已排队的保存执行而留下过期快照
+ */
+public class TranslateSnapshotStore {
+	/**
+	 * 定义日志
+	 */
+	protected final static Logger logger = LoggerFactory.getLogger(TranslateSnapshotStore.class);
+
+	private final static String FILE_SUFFIX = ".snap";
+
+	/**
+	 * 文件名中cacheName和cacheType的分隔符(URL编码后不会出现)
+	 */
+	private final static String TYPE_SPLIT = "@";
+
+	private final File storeDir;
+
+	/**
+	 * 快照写入(异步,避免阻塞加载缓存的查询线程)
+	 */
+	private final ExecutorService writer;
+
+	public TranslateSnapshotStore(String storePath) {
+		this.storeDir = new File(storePath);
+		this.writer = Executors.newSingleThreadExecutor((runnable) -> {
+			Thread thread = new Thread(runnable, "sqltoy-translate-snapshot");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * @TODO 初始化存储路径
+	 * @return
+	 */
+	public boolean init() {
+		if (!storeDir.exists() && !storeDir.mkdirs()) {
+			logger.error("缓存翻译快照路径:{} 创建失败,快照将不生效!", storeDir.getPath());
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @TODO 异步保存快照
+	 * @param cacheName
+	 * @param cacheType
+	 * @param cacheValue
+	 * @param version    数据版本(开始加载的时间)
+	 */
+	public void save(String cacheName, String cacheType, HashMap<String, Object[]> cacheValue, long version) {
+		if (cacheValue == null || cacheValue.isEmpty()) {
+			return;
+		}
+		try {
+			writer.execute(() -> write(cacheName, cacheType, cacheValue, version));
+		} catch (RejectedExecutionException e) {
+			// 已经销毁
+		}
+	}
+
+	/**
+	 * @TODO 同步保存快照
+	 * @param cacheName
+	 * @param cacheType
+	 * @param cacheValue
+	 * @param version
+	 * @return
+	 */
+	public boolean write(String cacheName, String cacheType, HashMap<String, Object[]> cacheValue, long version) {
+		File file = new File(storeDir, getFileName(cacheName, cacheType));
+		File tmpFile = new File(file.getPath() + "." + System.nanoTime() + ".tmp");
+		try {
+			MappedTranslateDictionary.write(tmpFile, cacheValue, version);
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			return true;
+		} catch (Exception e) {
+			logger.warn("保存缓存:{} cacheType:{} 快照失败:{}", cacheName, cacheType, e.getMessage());
+			tmpFile.delete();
+			return false;
+		}
+	}
+
+	/**
+	 * @TODO 异步删除快照(cacheType为空时删除cacheName下全部快照),与save在同一写入线程按提交顺序执行
+	 * @param cacheName
+	 * @param cacheType
+	 */
+	public void delete(String cacheName, String cacheType) {
+		try {
+			writer.execute(() -> remove(cacheName, cacheType));
+		} catch (RejectedExecutionException e) {
+			// 已经销毁,不再有排队的保存,直接删除
+			remove(cacheName, cacheType);
+		}
+	}
+
+	private void remove(String cacheName, String cacheType) {
+		if (StringUtil.isNotBlank(cacheType)) {
+			new File(storeDir, getFileName(cacheName, cacheType)).delete();
+			return;
+		}
+		File[] files = storeDir.listFiles();
+		if (files == null) {
+			return;
+		}
+		String[] nameAndType;
+		for (File file : files) {
+			nameAndType = parseFileName(file.getName());
+			if (nameAndType != null && nameAndType[0].equals(cacheName)) {
+				file.delete();
+			}
+		}
+	}
+
+	/**
+	 * @TODO 并行装载全部快照(损坏的快照直接删除)
+	 * @param parallelism
+	 * @return
+	 */
+	public List<Snapshot> loadAll(int parallelism) {
+		List<Snapshot> result = new ArrayList<Snapshot>();
+		File[] files = storeDir.listFiles();
+		if (files == null || files.length == 0) {
+			return result;
+		}
+		List<File> snapFiles = new ArrayList<File>();
+		for (File file : files) {
+			if (parseFileName(file.getName()) != null) {
+				snapFiles.add(file);
+			}
+		}
+		if (snapFiles.isEmpty()) {
+			return result;
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, snapFiles.size())));
+		try {
+			List<Future<Snapshot>> futures = new ArrayList<Future<Snapshot>>();
+			for (File file : snapFiles) {
+				futures.add(pool.submit(() -> read(file)));
+			}
+			Snapshot snapshot;
+			for (Future<Snapshot> future : futures) {
+				try {
+					snapshot = future.get();
+					if (snapshot != null) {
+						result.add(snapshot);
+					}
+				} catch (Exception e) {
+					logger.warn("装载缓存翻译快照失败:{}", e.getMessage());
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+		return result;
+	}
+
+	/**
+	 * @TODO 关闭快照写入(等待已提交的写入完成)
+	 */
+	public void destroy() {
+		writer.shutdown();
+		try {
+			writer.awaitTermination(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private Snapshot read(File file) {
+		String[] nameAndType = parseFileName(file.getName());
+		try {
+			MappedTranslateDictionary dictionary = new MappedTranslateDictionary(
+					ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+			return new Snapshot(nameAndType[0], nameAndType[1], dictionary.getCreateTime(), dictionary.toMap());
+		} catch (IOException | RuntimeException e) {
+			logger.warn("缓存翻译快照文件:{} 无法装载,将删除:{}", file.getName(), e.getMessage());
+			file.delete();
+			return null;
+		}
+	}
+
+	private static String getFileName(String cacheName, String cacheType) {
+		try {
+			String fileName = URLEncoder.encode(cacheName, "UTF-8");
+			if (StringUtil.isNotBlank(cacheType)) {
+				fileName = fileName + TYPE_SPLIT + URLEncoder.encode(cacheType, "UTF-8");
+			}
+			return fileName + FILE_SUFFIX;
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @TODO 从文件名解析cacheName和cacheType
+	 * @param fileName
+	 * @return 非快照文件返回null
+	 */
+	private static String[] parseFileName(String fileName) {
+		if (!fileName.endsWith(FILE_SUFFIX)) {
+			return null;
+		}
+		String name = fileName.substring(0, fileName.length() - FILE_SUFFIX.length());
+		int index = name.indexOf(TYPE_SPLIT);
+		try {
+			if (index == -1) {
+				return new String[] { URLDecoder.decode(name, "UTF-8"), null };
+			}
+			return new String[] { URLDecoder.decode(name.substring(0, index), "UTF-8"),
+					URLDecoder.decode(name.substring(index + 1), "UTF-8") };
+		} catch (UnsupportedEncodingException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 装载的快照
+	 */
+	public static class Snapshot {
+		private final String cacheName;
+
+		private final String cacheType;
+
+		private final long version;
+
+		private final HashMap<String, Object[]> cacheValue;
+
+		public Snapshot(String cacheName, String cacheType, long version, HashMap<String, Object[]> cacheValue) {
+			this.cacheName = cacheName;
+			this.cacheType = cacheType;
+			this.version = version;
+			this.cacheValue = cacheValue;
+		}
+
+		public String getCacheName() {
+			return cacheName;
+		}
+
+		public String getCacheType() {
+			return cacheType;
+		}
+
+		/**
+		 * @return 数据版本(开始加载的时间)
+		 */
+		public long getVersion() {
+			return version;
+		}
+
+		public HashMap<String, Object[]> getCacheValue() {
+			return cacheValue;
+		}
+	}
+}
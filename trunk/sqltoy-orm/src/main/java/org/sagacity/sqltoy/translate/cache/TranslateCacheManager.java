@@ -1,6 +1,13 @@
 package org.sagacity.sqltoy.translate.cache;
 
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
 
 import org.sagacity.sqltoy.model.IgnoreKeyCaseMap;
 import org.sagacity.sqltoy.translate.model.TranslateConfigModel;
@@ -10,10 +17,36 @@ import org.sagacity.sqltoy.translate.model.TranslateConfigModel;
  * @description translate 翻译缓存管理接口定义，为基于其他缓存框架的实现提供接口规范
  * @author zhongxuchen
  * @version v1.0,Date:2013-4-14
+ * @modify 2026-10-18 缓存数据以不可变版本方式发布,增量更新基于副本批量构建后整体替换,避免读线程读到修改中的HashMap
+ * @modify 2026-10-18 增加基于当前版本数据的紧凑查找字典getDictionary
+ * @modify 2026-10-18 增加getDictionary(cacheName,cacheType)和dataLoader,便于非堆内存储的实现直接提供字典和后台重建缓存
+ * @modify 2026-10-18 增加名称反向匹配的倒排索引getMatchIndex,增量更新时同步维护
+ * @modify 2026-10-18 增加invalidate,在版本锁内清空缓存
+ * @modify 2026-10-18 字典改为发布新版本时在版本锁内构建,避免读线程并发重建,字典不再持有原始缓存数据
  */
 public abstract class TranslateCacheManager {
 	protected IgnoreKeyCaseMap<String, TranslateConfigModel> translateMap = new IgnoreKeyCaseMap<String, TranslateConfigModel>();
 
+	/**
+	 * 缓存数据版本(cacheName:cacheType),每次整体发布新数据递增
+	 */
+	private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<String, AtomicLong>();
+
+	/**
+	 * 基于当前版本缓存数据构建的紧凑查找字典(发布时在版本锁内构建)
+	 */
+	private final ConcurrentHashMap<String, PublishedDictionary> dictionaries = new ConcurrentHashMap<String, PublishedDictionary>();
+
+	/**
+	 * 名称反向匹配的倒排索引(cacheName:cacheType#名称列)
+	 */
+	private final ConcurrentHashMap<String, TranslateMatchIndex> matchIndexes = new ConcurrentHashMap<String, TranslateMatchIndex>();
+
+	/**
+	 * 缓存数据加载逻辑(由TranslateManager设置,参数为缓存配置和cacheType),供需要在后台重建缓存的实现使用
+	 */
+	protected BiFunction<TranslateConfigModel, String, HashMap<String, Object[]>> dataLoader;
+
 	/**
 	 * 缓存管理器名称
 	 */
@@ -72,4 +105,282 @@ public abstract class TranslateCacheManager {
 		this.translateMap = translateMap;
 	}
 
+	public void setDataLoader(BiFunction<TranslateConfigModel, String, HashMap<String, Object[]>> dataLoader) {
+		this.dataLoader = dataLoader;
+	}
+
+	/**
+	 * @TODO 发布新版本的缓存数据(发布后的数据视为只读,后续修改须通过incrementUpdate或再次发布)
+	 * @param cacheModel
+	 * @param cacheName
+	 * @param cacheType
+	 * @param cacheValue
+	 * @return 新的版本号
+	 */
+	public long publish(TranslateConfigModel cacheModel, String cacheName, String cacheType,
+			HashMap<String, Object[]> cacheValue) {
+		AtomicLong version = getVersionHolder(cacheName, cacheType);
+		synchronized (version) {
+			put(cacheModel, cacheName, cacheType, cacheValue);
+			publishDictionary(cacheName, cacheType, cacheValue);
+			updateMatchIndexes(cacheName, cacheType, null, null, null);
+			return version.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @TODO 增量更新缓存:复制当前版本数据并批量写入变更,构建完成后整体发布为新版本,读线程始终读取完整的某一版本
+	 * @param cacheName
+	 * @param cacheType
+	 * @param increments 变更的记录(key->缓存行)
+	 * @return 缓存尚未加载(等待首次调用加载)返回false
+	 */
+	public boolean incrementUpdate(String cacheName, String cacheType, Map<String, Object[]> increments) {
+		if (increments == null || increments.isEmpty()) {
+			return true;
+		}
+		TranslateConfigModel cacheModel = translateMap.get(cacheName);
+		if (cacheModel == null) {
+			return false;
+		}
+		AtomicLong version = getVersionHolder(cacheName, cacheType);
+		synchronized (version) {
+			// 存储实现自身支持增量写入(如内存映射文件归并写入)
+			Boolean applied = applyIncrements(cacheModel, cacheName, cacheType, increments);
+			if (applied != null) {
+				// 写入失败时存储实现已清除缓存,同样需要废弃字典和匹配索引
+				dictionaries.remove(getVersionKey(cacheName, cacheType));
+				updateMatchIndexes(cacheName, cacheType, null, null, null);
+				version.incrementAndGet();
+				return applied;
+			}
+			HashMap<String, Object[]> current = getCache(cacheName, cacheType);
+			if (current == null) {
+				return false;
+			}
+			HashMap<String, Object[]> next = new HashMap<String, Object[]>(
+					(int) ((current.size() + increments.size()) / 0.75f) + 1);
+			next.putAll(current);
+			next.putAll(increments);
+			put(cacheModel, cacheName, cacheType, next);
+			publishDictionary(cacheName, cacheType, next);
+			updateMatchIndexes(cacheName, cacheType, current, next, increments);
+			version.incrementAndGet();
+		}
+		return true;
+	}
+
+	/**
+	 * @TODO 由存储实现直接写入增量(已持有版本锁),默认返回null表示不支持,由incrementUpdate复制当前数据后整体发布
+	 * @param cacheModel
+	 * @param cacheName
+	 * @param cacheType
+	 * @param increments
+	 * @return null:不支持;true:写入成功;false:缓存尚未加载或写入失败(需清除缓存)
+	 */
+	protected Boolean applyIncrements(TranslateConfigModel cacheModel, String cacheName, String cacheType,
+			Map<String, Object[]> increments) {
+		return null;
+	}
+
+	/**
+	 * @TODO 在版本锁内清空缓存(与publish、incrementUpdate互斥),避免清空与进行中的增量更新交错导致旧数据被重新写入
+	 * @param cacheName
+	 * @param cacheType
+	 * @return 新的版本号
+	 */
+	public long invalidate(String cacheName, String cacheType) {
+		AtomicLong version = getVersionHolder(cacheName, cacheType);
+		synchronized (version) {
+			clear(cacheName, cacheType);
+			dictionaries.remove(getVersionKey(cacheName, cacheType));
+			updateMatchIndexes(cacheName, cacheType, null, null, null);
+			return version.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @TODO 获取缓存当前的查找字典,非堆内存储的实现可覆盖此方法直接提供字典
+	 * @param cacheName
+	 * @param cacheType
+	 * @return 缓存未加载返回null
+	 */
+	public TranslateDictionary getDictionary(String cacheName, String cacheType) {
+		HashMap<String, Object[]> cacheValue = getCache(cacheName, cacheType);
+		if (cacheValue == null || cacheValue.isEmpty()) {
+			return null;
+		}
+		return getDictionary(cacheName, cacheType, cacheValue);
+	}
+
+	/**
+	 * @TODO 获取缓存数据对应的紧凑查找字典(字典在发布新版本时构建,读取时直接复用)
+	 * @param cacheName
+	 * @param cacheType
+	 * @param cacheValue 当前获取到的缓存数据
+	 * @return
+	 */
+	public TranslateDictionary getDictionary(String cacheName, String cacheType, HashMap<String, Object[]> cacheValue) {
+		if (cacheValue == null || cacheValue.isEmpty()) {
+			return TranslateDictionary.EMPTY;
+		}
+		// 非堆内存储不缓存基于HashMap构建的字典,避免比对版本时将存储数据整体转换为HashMap
+		if (!isHeapDictionary()) {
+			return TranslateDictionary.build(cacheValue);
+		}
+		String key = getVersionKey(cacheName, cacheType);
+		PublishedDictionary published = dictionaries.get(key);
+		if (published != null && published.source.get() == cacheValue) {
+			return published.dictionary;
+		}
+		// 非publish写入的数据(如实现自身加载的数据),在版本锁内只构建一次
+		AtomicLong version = getVersionHolder(cacheName, cacheType);
+		synchronized (version) {
+			published = dictionaries.get(key);
+			if (published != null && published.source.get() == cacheValue) {
+				return published.dictionary;
+			}
+			// 读线程持有的旧版本数据(如加载期间的旧数据)不替换当前版本的字典
+			if (getCache(cacheName, cacheType) != cacheValue) {
+				return TranslateDictionary.build(cacheValue);
+			}
+			published = new PublishedDictionary(cacheValue);
+			dictionaries.put(key, published);
+			return published.dictionary;
+		}
+	}
+
+	/**
+	 * @TODO 发布新版本时(已持有版本锁)构建字典,读线程无需各自重建
+	 * @param cacheName
+	 * @param cacheType
+	 * @param cacheValue
+	 */
+	private void publishDictionary(String cacheName, String cacheType, HashMap<String, Object[]> cacheValue) {
+		String key = getVersionKey(cacheName, cacheType);
+		if (!isHeapDictionary() || cacheValue == null || cacheValue.isEmpty()) {
+			dictionaries.remove(key);
+			return;
+		}
+		dictionaries.put(key, new PublishedDictionary(cacheValue));
+	}
+
+	/**
+	 * @TODO 是否使用基于堆内缓存数据构建的字典(非堆内存储且覆盖了getDictionary的实现返回false,发布时不再构建)
+	 * @return
+	 */
+	protected boolean isHeapDictionary() {
+		return true;
+	}
+
+	/**
+	 * @TODO 获取缓存数据名称反向匹配的倒排索引(缓存整体发布新版本后重新构建,增量更新时增量维护)
+	 * @param cacheName
+	 * @param cacheType
+	 * @param cacheValue   当前获取到的缓存数据
+	 * @param matchIndexes 参与匹配的名称列
+	 * @return
+	 */
+	public TranslateMatchIndex getMatchIndex(String cacheName, String cacheType, HashMap<String, Object[]> cacheValue,
+			int[] matchIndexes) {
+		String key = getVersionKey(cacheName, cacheType) + "#" + Arrays.toString(matchIndexes);
+		TranslateMatchIndex matchIndex = this.matchIndexes.get(key);
+		if (matchIndex != null && matchIndex.getSource() == cacheValue) {
+			return matchIndex;
+		}
+		// 同一索引只由一个线程构建
+		return this.matchIndexes.compute(key, (indexKey, old) -> (old != null && old.getSource() == cacheValue) ? old
+				: TranslateMatchIndex.build(cacheValue, matchIndexes.clone()));
+	}
+
+	/**
+	 * @TODO 获取查找字典对应的名称反向匹配倒排索引:堆内存储基于当前缓存数据构建(可随增量更新维护),
+	 *       非堆内存储直接基于字典构建,不将缓存数据转换为HashMap
+	 * @param cacheName
+	 * @param cacheType
+	 * @param dictionary   当前获取到的查找字典
+	 * @param matchIndexes 参与匹配的名称列
+	 * @return
+	 */
+	public TranslateMatchIndex getMatchIndex(String cacheName, String cacheType, TranslateDictionary dictionary,
+			int[] matchIndexes) {
+		if (isHeapDictionary()) {
+			HashMap<String, Object[]> cacheValue = getCache(cacheName, cacheType);
+			if (cacheValue != null && !cacheValue.isEmpty()) {
+				return getMatchIndex(cacheName, cacheType, cacheValue, matchIndexes);
+			}
+		}
+		String key = getVersionKey(cacheName, cacheType) + "#" + Arrays.toString(matchIndexes);
+		TranslateMatchIndex matchIndex = this.matchIndexes.get(key);
+		if (matchIndex != null && matchIndex.getDictionary() == dictionary) {
+			return matchIndex;
+		}
+		return this.matchIndexes.compute(key,
+				(indexKey, old) -> (old != null && old.getDictionary() == dictionary) ? old
+						: TranslateMatchIndex.build(dictionary, matchIndexes.clone()));
+	}
+
+	/**
+	 * @TODO 缓存发布新版本后维护倒排索引:增量更新基于原索引追加变更,整体发布则清除待下次使用时重建
+	 */
+	private void updateMatchIndexes(String cacheName, String cacheType, HashMap<String, Object[]> current,
+			HashMap<String, Object[]> next, Map<String, Object[]> increments) {
+		if (matchIndexes.isEmpty()) {
+			return;
+		}
+		String prefix = getVersionKey(cacheName, cacheType) + "#";
+		Map.Entry<String, TranslateMatchIndex> entry;
+		TranslateMatchIndex matchIndex;
+		Iterator<Map.Entry<String, TranslateMatchIndex>> iter = matchIndexes.entrySet().iterator();
+		while (iter.hasNext()) {
+			entry = iter.next();
+			if (!entry.getKey().startsWith(prefix)) {
+				continue;
+			}
+			matchIndex = entry.getValue();
+			if (increments != null && matchIndex.getSource() == current) {
+				matchIndex = matchIndex.increment(next, increments);
+			} else {
+				matchIndex = null;
+			}
+			if (matchIndex == null) {
+				iter.remove();
+			} else {
+				entry.setValue(matchIndex);
+			}
+		}
+	}
+
+	/**
+	 * @TODO 获取缓存数据当前版本号
+	 * @param cacheName
+	 * @param cacheType
+	 * @return 0表示尚未发布
+	 */
+	public long getVersion(String cacheName, String cacheType) {
+		AtomicLong version = versions.get(getVersionKey(cacheName, cacheType));
+		return (version == null) ? 0 : version.get();
+	}
+
+	private AtomicLong getVersionHolder(String cacheName, String cacheType) {
+		return versions.computeIfAbsent(getVersionKey(cacheName, cacheType), (key) -> new AtomicLong(0));
+	}
+
+	private static String getVersionKey(String cacheName, String cacheType) {
+		return (cacheType == null || cacheType.trim().equals("")) ? cacheName : cacheName + ":" + cacheType;
+	}
+
+	/**
+	 * 已发布版本的字典,弱引用对应的缓存数据仅用于判断是否为同一版本,不延长旧版本数据的生命周期
+	 */
+	private static class PublishedDictionary {
+		private final WeakReference<HashMap<String, Object[]>> source;
+
+		private final TranslateDictionary dictionary;
+
+		private PublishedDictionary(HashMap<String, Object[]> source) {
+			this.source = new WeakReference<HashMap<String, Object[]>>(source);
+			this.dictionary = TranslateDictionary.build(source);
+		}
+	}
 }
@@ -0,0 +1,335 @@
+package org.sagacity.sqltoy.translate.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 缓存翻译的紧凑型查找字典:数值型key存放于long开放寻址表,其余key存放于字符串开放寻址表,
+ *              缓存值按列存放(不再为每行保留独立数组),翻译时整数型的key无需toString即可直接查找;
+ *              短字符串(如状态、类别名称、上级编码)在构建时去重共用同一实例。缓存值保留全部列:同一缓存会被sql翻译、
+ *              cache-arg、cacheMatchKeys以及translate(...)等按运行时指定的任意列访问,构建时无法确定可以舍弃的列
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ * @modify 2026-10-18 构建时对短字符串的key和缓存值去重
+ */
+public class TranslateDictionary {
+	/**
+	 * 空字典
+	 */
+	public final static TranslateDictionary EMPTY = build(new HashMap<String, Object[]>());
+
+	/**
+	 * 开放寻址表的最大负载
+	 */
+	private final static float LOAD_FACTOR = 0.5f;
+
+	/**
+	 * 参与去重的字符串最大长度(长文本重复概率低,不做去重)
+	 */
+	private final static int INTERN_MAX_LENGTH = 32;
+
+	private final long[] longKeys;
+
+	/**
+	 * 行号+1,0表示空位
+	 */
+	private final int[] longRows;
+
+	private final String[] strKeys;
+
+	private final int[] strRows;
+
+	/**
+	 * 按列存放的缓存值:columns[列][行]
+	 */
+	private final Object[][] columns;
+
+	private final int size;
+
+	/**
+	 * 提供给其他存储方式(如内存映射文件)的字典扩展
+	 */
+	protected TranslateDictionary() {
+		this.longKeys = new long[0];
+		this.longRows = new int[0];
+		this.strKeys = new String[0];
+		this.strRows = new int[0];
+		this.columns = new Object[0][0];
+		this.size = 0;
+	}
+
+	private TranslateDictionary(int longCount, int strCount, int width, int size) {
+		this.longKeys = new long[tableSize(longCount)];
+		this.longRows = new int[longKeys.length];
+		this.strKeys = new String[tableSize(strCount)];
+		this.strRows = new int[strKeys.length];
+		this.columns = new Object[width][size];
+		this.size = size;
+	}
+
+	/**
+	 * @TODO 基于缓存数据构建字典(空数组的缓存行视同不存在),字典只保留按列存放的值,不持有原始缓存数据
+	 * @param source
+	 * @return
+	 */
+	public static TranslateDictionary build(HashMap<String, Object[]> source) {
+		int longCount = 0;
+		int strCount = 0;
+		int width = 0;
+		int size = 0;
+		Object[] row;
+		for (Map.Entry<String, Object[]> entry : source.entrySet()) {
+			row = entry.getValue();
+			if (entry.getKey() == null || row == null || row.length == 0) {
+				continue;
+			}
+			if (isCanonicalLong(entry.getKey())) {
+				longCount++;
+			} else {
+				strCount++;
+			}
+			width = Math.max(width, row.length);
+			size++;
+		}
+		TranslateDictionary dictionary = new TranslateDictionary(longCount, strCount, width, size);
+		// 同一字典内重复的短字符串共用同一实例
+		HashMap<String, String> pool = new HashMap<String, String>();
+		int rowIndex = 0;
+		String key;
+		for (Map.Entry<String, Object[]> entry : source.entrySet()) {
+			key = entry.getKey();
+			row = entry.getValue();
+			if (key == null || row == null || row.length == 0) {
+				continue;
+			}
+			if (isCanonicalLong(key)) {
+				dictionary.putLong(Long.parseLong(key), rowIndex);
+			} else {
+				dictionary.putString((String) intern(key, pool), rowIndex);
+			}
+			for (int i = 0; i < row.length; i++) {
+				dictionary.columns[i][rowIndex] = intern(row[i], pool);
+			}
+			rowIndex++;
+		}
+		return dictionary;
+	}
+
+	/**
+	 * @TODO 将缓存数据中重复的短字符串替换为同一实例(直接修改缓存行,用于刚加载尚未发布的缓存数据)
+	 * @param cacheValue
+	 */
+	public static void internValues(Map<String, Object[]> cacheValue) {
+		if (cacheValue == null || cacheValue.isEmpty()) {
+			return;
+		}
+		HashMap<String, String> pool = new HashMap<String, String>();
+		Object[] row;
+		for (Map.Entry<String, Object[]> entry : cacheValue.entrySet()) {
+			row = entry.getValue();
+			if (row == null) {
+				continue;
+			}
+			for (int i = 0; i < row.length; i++) {
+				row[i] = intern(row[i], pool);
+			}
+		}
+	}
+
+	/**
+	 * @TODO 查找key对应的行,整数类型直接按数值查找,其余按字符串查找
+	 * @param key
+	 * @return -1表示不存在
+	 */
+	public int indexOf(Object key) {
+		if (key == null) {
+			return -1;
+		}
+		if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+			return findLong(((Number) key).longValue());
+		}
+		return indexOf(key.toString());
+	}
+
+	/**
+	 * @TODO 按字符串key查找行
+	 * @param key
+	 * @return -1表示不存在
+	 */
+	public int indexOf(String key) {
+		if (key == null) {
+			return -1;
+		}
+		int row = findString(key);
+		if (row == -1 && isCanonicalLong(key)) {
+			return findLong(Long.parseLong(key));
+		}
+		return row;
+	}
+
+	/**
+	 * @TODO 获取行对应列的缓存值
+	 * @param row
+	 * @param column
+	 * @return
+	 */
+	public Object getValue(int row, int column) {
+		return columns[column][row];
+	}
+
+	/**
+	 * @TODO 获取key对应的缓存行(兼容以数组方式使用的场景)
+	 * @param key
+	 * @return
+	 */
+	public Object[] get(Object key) {
+		int row = indexOf(key);
+		if (row == -1) {
+			return null;
+		}
+		return getRow(row);
+	}
+
+	/**
+	 * @TODO 获取行对应的全部缓存值
+	 * @param row
+	 * @return
+	 */
+	public Object[] getRow(int row) {
+		int width = getWidth(row);
+		Object[] result = new Object[width];
+		for (int i = 0; i < width; i++) {
+			result[i] = getValue(row, i);
+		}
+		return result;
+	}
+
+	/**
+	 * @TODO 获取行的列数
+	 * @param row
+	 * @return
+	 */
+	public int getWidth(int row) {
+		return columns.length;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	private void putLong(long key, int row) {
+		int mask = longKeys.length - 1;
+		int slot = hash(key) & mask;
+		while (longRows[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		longKeys[slot] = key;
+		longRows[slot] = row + 1;
+	}
+
+	private int findLong(long key) {
+		int mask = longKeys.length - 1;
+		int slot = hash(key) & mask;
+		int row;
+		while ((row = longRows[slot]) != 0) {
+			if (longKeys[slot] == key) {
+				return row - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void putString(String key, int row) {
+		int mask = strKeys.length - 1;
+		int slot = spread(key.hashCode()) & mask;
+		while (strRows[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		strKeys[slot] = key;
+		strRows[slot] = row + 1;
+	}
+
+	private int findString(String key) {
+		int mask = strKeys.length - 1;
+		int slot = spread(key.hashCode()) & mask;
+		int row;
+		while ((row = strRows[slot]) != 0) {
+			if (key.equals(strKeys[slot])) {
+				return row - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * @TODO 判断是否为标准的long字符串(与Long.toString结果一致,如:05、-0、+1 不是)
+	 * @param key
+	 * @return
+	 */
+	private static boolean isCanonicalLong(String key) {
+		int length = key.length();
+		if (length == 0 || length > 20) {
+			return false;
+		}
+		int start = (key.charAt(0) == '-') ? 1 : 0;
+		if (start == length) {
+			return false;
+		}
+		// 前导0
+		if (key.charAt(start) == '0' && (length > start + 1 || start == 1)) {
+			return false;
+		}
+		char c;
+		for (int i = start; i < length; i++) {
+			c = key.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		// 19位以内不会越界
+		if (length - start < 19) {
+			return true;
+		}
+		try {
+			Long.parseLong(key);
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	private static Object intern(Object value, HashMap<String, String> pool) {
+		if (!(value instanceof String) || ((String) value).length() > INTERN_MAX_LENGTH) {
+			return value;
+		}
+		String result = pool.putIfAbsent((String) value, (String) value);
+		return (result == null) ? value : result;
+	}
+
+	private static int tableSize(int count) {
+		int capacity = 2;
+		int need = (int) Math.ceil(count / LOAD_FACTOR) + 1;
+		while (capacity < need) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	private static int hash(long key) {
+		key ^= (key >>> 33);
+		key *= 0xff51afd7ed558ccdL;
+		key ^= (key >>> 33);
+		return (int) key;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+}
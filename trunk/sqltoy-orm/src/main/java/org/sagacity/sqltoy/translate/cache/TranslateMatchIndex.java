@@ -0,0 +1,314 @@
+package org.sagacity.sqltoy.translate.cache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 缓存名称反向匹配key的倒排索引:将名称列(小写)拆分为单字和相邻双字,记录包含的行,
+ *              匹配时只需对索引给出的候选行做原有的like校验;增量更新时基础索引不变,变更行放入增量索引,
+ *              被覆盖的旧行在校验时通过与当前缓存数据比对排除
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ * @modify 2026-10-18 支持基于查找字典构建,行数据按需从字典读取(内存映射文件等非堆内存储无需转换HashMap)
+ */
+public class TranslateMatchIndex {
+	/**
+	 * 空候选
+	 */
+	private final static int[] EMPTY = new int[0];
+
+	/**
+	 * 增量数据超过基础数据的比例则不再增量维护(由调用方重新构建)
+	 */
+	private final static int REBUILD_RATIO = 8;
+
+	/**
+	 * 索引对应的缓存数据
+	 */
+	private final HashMap<String, Object[]> source;
+
+	/**
+	 * 索引对应的查找字典(基于字典构建时不为null)
+	 */
+	private final TranslateDictionary dictionary;
+
+	/**
+	 * 名称列
+	 */
+	private final int[] matchIndexes;
+
+	private final Segment base;
+
+	private final Segment delta;
+
+	private TranslateMatchIndex(HashMap<String, Object[]> source, TranslateDictionary dictionary, int[] matchIndexes,
+			Segment base, Segment delta) {
+		this.source = source;
+		this.dictionary = dictionary;
+		this.matchIndexes = matchIndexes;
+		this.base = base;
+		this.delta = delta;
+	}
+
+	/**
+	 * @TODO 基于缓存数据构建索引(行顺序与缓存数据的遍历顺序一致)
+	 * @param source
+	 * @param matchIndexes 参与匹配的名称列
+	 * @return
+	 */
+	public static TranslateMatchIndex build(HashMap<String, Object[]> source, int[] matchIndexes) {
+		String[] keys = new String[source.size()];
+		Object[][] rows = new Object[source.size()][];
+		int count = 0;
+		for (Map.Entry<String, Object[]> entry : source.entrySet()) {
+			keys[count] = entry.getKey();
+			rows[count] = entry.getValue();
+			count++;
+		}
+		Segment base = new Segment(keys, rows, count, matchIndexes, 0, (row) -> rows[row]);
+		return new TranslateMatchIndex(source, null, matchIndexes, base, emptySegment(matchIndexes, count));
+	}
+
+	/**
+	 * @TODO 基于查找字典构建索引(行号即字典行号,行数据按需从字典读取,不在堆内复制缓存数据)
+	 * @param dictionary
+	 * @param matchIndexes 参与匹配的名称列
+	 * @return
+	 */
+	public static TranslateMatchIndex build(TranslateDictionary dictionary, int[] matchIndexes) {
+		int count = dictionary.size();
+		Segment base = new Segment(null, null, count, matchIndexes, 0, dictionary::getRow);
+		return new TranslateMatchIndex(null, dictionary, matchIndexes, base, emptySegment(matchIndexes, count));
+	}
+
+	private static Segment emptySegment(int[] matchIndexes, int offset) {
+		return new Segment(new String[0], new Object[0][], 0, matchIndexes, offset, (row) -> null);
+	}
+
+	/**
+	 * @TODO 基于增量变更生成新版本缓存数据的索引(仅重建增量部分)
+	 * @param next       增量更新后的缓存数据
+	 * @param increments 变更的记录
+	 * @return 增量过大或基于字典构建返回null,由调用方重新构建
+	 */
+	public TranslateMatchIndex increment(HashMap<String, Object[]> next, Map<String, Object[]> increments) {
+		int count = delta.count + increments.size();
+		if (dictionary != null || count * REBUILD_RATIO > base.count) {
+			return null;
+		}
+		String[] keys = Arrays.copyOf(delta.keys, count);
+		Object[][] rows = Arrays.copyOf(delta.rows, count);
+		int index = delta.count;
+		for (Map.Entry<String, Object[]> entry : increments.entrySet()) {
+			keys[index] = entry.getKey();
+			rows[index] = entry.getValue();
+			index++;
+		}
+		return new TranslateMatchIndex(next, null, matchIndexes, base,
+				new Segment(keys, rows, count, matchIndexes, base.count, (row) -> rows[row]));
+	}
+
+	/**
+	 * @TODO 获取可能匹配全部关键词的候选行(升序,需再做like校验)
+	 * @param lowKeywords 小写的关键词
+	 * @return
+	 */
+	public int[] candidates(String[] lowKeywords) {
+		int[] baseRows = base.candidates(lowKeywords);
+		int[] deltaRows = delta.candidates(lowKeywords);
+		if (deltaRows.length == 0) {
+			return baseRows;
+		}
+		int[] result = Arrays.copyOf(baseRows, baseRows.length + deltaRows.length);
+		System.arraycopy(deltaRows, 0, result, baseRows.length, deltaRows.length);
+		return result;
+	}
+
+	/**
+	 * @TODO 获取行数据
+	 * @param row
+	 * @return 已被增量更新覆盖的旧行返回null
+	 */
+	public Object[] getRow(int row) {
+		// 字典不可变,行号即字典行号
+		if (dictionary != null) {
+			return dictionary.getRow(row);
+		}
+		Segment segment = (row < base.count) ? base : delta;
+		int index = row - segment.offset;
+		Object[] result = segment.rows[index];
+		// 与当前缓存数据不是同一行,说明已经被覆盖
+		if (result == null || source.get(segment.keys[index]) != result) {
+			return null;
+		}
+		return result;
+	}
+
+	/**
+	 * @return 索引对应的缓存数据(基于字典构建时为null)
+	 */
+	public HashMap<String, Object[]> getSource() {
+		return source;
+	}
+
+	/**
+	 * @return 索引对应的查找字典(基于缓存数据构建时为null)
+	 */
+	public TranslateDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * @TODO 单字直接以字符为值,相邻双字在高位加标识
+	 */
+	private static long gram(char first, char second) {
+		return (1L << 32) | ((long) first << 16) | second;
+	}
+
+	/**
+	 * @TODO 获取关键词需要的全部字元
+	 */
+	private static long[] keywordGrams(String keyword) {
+		if (keyword.length() == 1) {
+			return new long[] { keyword.charAt(0) };
+		}
+		long[] grams = new long[keyword.length() - 1];
+		for (int i = 0; i < grams.length; i++) {
+			grams[i] = gram(keyword.charAt(i), keyword.charAt(i + 1));
+		}
+		return grams;
+	}
+
+	/**
+	 * 一组行的倒排索引
+	 */
+	private static class Segment {
+		private final String[] keys;
+
+		private final Object[][] rows;
+
+		private final int count;
+
+		/**
+		 * 行号起始值
+		 */
+		private final int offset;
+
+		/**
+		 * 排序后的字元
+		 */
+		private final long[] grams;
+
+		/**
+		 * 字元对应的行号(升序)
+		 */
+		private final int[][] postings;
+
+		/**
+		 * @param reader 按段内行号读取行数据
+		 */
+		private Segment(String[] keys, Object[][] rows, int count, int[] matchIndexes, int offset,
+				IntFunction<Object[]> reader) {
+			this.keys = keys;
+			this.rows = rows;
+			this.count = count;
+			this.offset = offset;
+			// 第一遍统计每个字元的行数,第二遍填充行号
+			HashMap<Long, int[]> counts = new HashMap<Long, int[]>();
+			long[] rowGrams;
+			int size;
+			for (int i = 0; i < count; i++) {
+				rowGrams = rowGrams(reader.apply(i), matchIndexes);
+				for (long gram : rowGrams) {
+					counts.computeIfAbsent(gram, (key) -> new int[1])[0]++;
+				}
+			}
+			this.grams = new long[counts.size()];
+			size = 0;
+			for (Long gram : counts.keySet()) {
+				grams[size++] = gram;
+			}
+			Arrays.sort(grams);
+			this.postings = new int[grams.length][];
+			int[] filled = new int[grams.length];
+			for (int i = 0; i < grams.length; i++) {
+				postings[i] = new int[counts.get(grams[i])[0]];
+			}
+			int index;
+			for (int i = 0; i < count; i++) {
+				rowGrams = rowGrams(reader.apply(i), matchIndexes);
+				for (long gram : rowGrams) {
+					index = Arrays.binarySearch(grams, gram);
+					postings[index][filled[index]++] = offset + i;
+				}
+			}
+		}
+
+		/**
+		 * @TODO 取全部关键词字元中行数最少的一个作为候选
+		 */
+		private int[] candidates(String[] lowKeywords) {
+			if (count == 0) {
+				return EMPTY;
+			}
+			int[] result = null;
+			int index;
+			for (String keyword : lowKeywords) {
+				if (keyword.isEmpty()) {
+					continue;
+				}
+				for (long gram : keywordGrams(keyword)) {
+					index = Arrays.binarySearch(grams, gram);
+					if (index < 0) {
+						return EMPTY;
+					}
+					if (result == null || postings[index].length < result.length) {
+						result = postings[index];
+					}
+				}
+			}
+			return (result == null) ? EMPTY : result;
+		}
+
+		/**
+		 * @TODO 获取行内全部名称列的字元(去重)
+		 */
+		private static long[] rowGrams(Object[] row, int[] matchIndexes) {
+			if (row == null) {
+				return new long[0];
+			}
+			int size = 0;
+			String[] names = new String[matchIndexes.length];
+			for (int i = 0; i < matchIndexes.length; i++) {
+				if (matchIndexes[i] < row.length && row[matchIndexes[i]] != null) {
+					names[i] = row[matchIndexes[i]].toString().toLowerCase();
+					size += names[i].length() * 2;
+				}
+			}
+			long[] result = new long[size];
+			size = 0;
+			for (String name : names) {
+				if (name == null) {
+					continue;
+				}
+				for (int i = 0; i < name.length(); i++) {
+					result[size++] = name.charAt(i);
+					if (i + 1 < name.length()) {
+						result[size++] = gram(name.charAt(i), name.charAt(i + 1));
+					}
+				}
+			}
+			Arrays.sort(result, 0, size);
+			int unique = 0;
+			for (int i = 0; i < size; i++) {
+				if (unique == 0 || result[unique - 1] != result[i]) {
+					result[unique++] = result[i];
+				}
+			}
+			return Arrays.copyOf(result, unique);
+		}
+	}
+}
@@ -0,0 +1,562 @@
+package org.sagacity.sqltoy.translate.cache.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.sagacity.sqltoy.translate.cache.TranslateDictionary;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 基于内存映射文件的缓存翻译字典,数据存放于堆外(操作系统页缓存),同一主机多个JVM可只读共享同一文件
+ *              文件格式:文件头(魔数、格式版本、生成时间、记录数、偏移表位置)+按key的UTF-8字节排序的记录+记录偏移表,
+ *              记录为:key长度、key、列数、各列值(类型标识+值),仅支持常用类型,其余类型以toString存放
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ * @modify 2026-10-18 格式版本2:增加java.sql.Date/Time、Short、Byte、Float、BigInteger、LocalDate/LocalTime/LocalDateTime类型标识,
+ *         读取后保持原类型
+ */
+public class MappedTranslateDictionary extends TranslateDictionary {
+	/**
+	 * 文件魔数:SQDT
+	 */
+	private final static int MAGIC = 0x53514454;
+
+	private final static int FORMAT_VERSION = 2;
+
+	/**
+	 * 文件头长度
+	 */
+	private final static int HEADER_SIZE = 24;
+
+	/**
+	 * 文件头中记录数所在下标
+	 */
+	private final static int ROWS_INDEX = 16;
+
+	/**
+	 * 文件头中偏移表位置所在下标
+	 */
+	private final static int OFFSETS_POS_INDEX = 20;
+
+	private final static byte TYPE_NULL = 0;
+	private final static byte TYPE_STRING = 1;
+	private final static byte TYPE_LONG = 2;
+	private final static byte TYPE_INTEGER = 3;
+	private final static byte TYPE_DECIMAL = 4;
+	private final static byte TYPE_DOUBLE = 5;
+	private final static byte TYPE_BOOLEAN = 6;
+	private final static byte TYPE_DATE = 7;
+	private final static byte TYPE_TIMESTAMP = 8;
+	private final static byte TYPE_SQL_DATE = 9;
+	private final static byte TYPE_SQL_TIME = 10;
+	private final static byte TYPE_SHORT = 11;
+	private final static byte TYPE_BYTE = 12;
+	private final static byte TYPE_FLOAT = 13;
+	private final static byte TYPE_BIG_INTEGER = 14;
+	private final static byte TYPE_LOCAL_DATE = 15;
+	private final static byte TYPE_LOCAL_TIME = 16;
+	private final static byte TYPE_LOCAL_DATE_TIME = 17;
+
+	/**
+	 * 只读映射(仅使用绝对位置读取,多线程共享安全)
+	 */
+	private final ByteBuffer buffer;
+
+	private final long createTime;
+
+	private final int rows;
+
+	private final int offsetsPos;
+
+	public MappedTranslateDictionary(ByteBuffer buffer) {
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IllegalArgumentException("非sqltoy缓存翻译字典文件!");
+		}
+		// 版本1为版本2的子集,可直接读取
+		if (buffer.getInt(4) != FORMAT_VERSION && buffer.getInt(4) != 1) {
+			throw new IllegalArgumentException("缓存翻译字典文件格式版本:" + buffer.getInt(4) + " 不支持!");
+		}
+		this.buffer = buffer;
+		this.createTime = buffer.getLong(8);
+		this.rows = buffer.getInt(ROWS_INDEX);
+		this.offsetsPos = buffer.getInt(OFFSETS_POS_INDEX);
+		if (offsetsPos < HEADER_SIZE || (long) offsetsPos + rows * 4L > buffer.capacity()) {
+			throw new IllegalArgumentException("缓存翻译字典文件不完整!");
+		}
+	}
+
+	/**
+	 * @TODO 将缓存数据写入文件(空数组的缓存行视同不存在)
+	 * @param file
+	 * @param cacheValue
+	 * @throws IOException
+	 */
+	public static void write(File file, HashMap<String, Object[]> cacheValue) throws IOException {
+		write(file, cacheValue, System.currentTimeMillis());
+	}
+
+	/**
+	 * @TODO 将缓存数据写入文件,并指定生成时间(作为数据的版本)
+	 * @param file
+	 * @param cacheValue
+	 * @param createTime
+	 * @throws IOException
+	 */
+	public static void write(File file, HashMap<String, Object[]> cacheValue, long createTime) throws IOException {
+		byte[][] keys = new byte[cacheValue.size()][];
+		Object[][] values = new Object[cacheValue.size()][];
+		Integer[] sorted = new Integer[cacheValue.size()];
+		int rows = 0;
+		for (Map.Entry<String, Object[]> entry : cacheValue.entrySet()) {
+			if (entry.getKey() == null || entry.getValue() == null || entry.getValue().length == 0) {
+				continue;
+			}
+			keys[rows] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+			values[rows] = entry.getValue();
+			sorted[rows] = rows;
+			rows++;
+		}
+		Arrays.sort(sorted, 0, rows, (a, b) -> compare(keys[a], keys[b]));
+		int[] offsets = new int[rows];
+		int offsetsPos;
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 65536))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(createTime);
+			out.writeInt(rows);
+			// 偏移表位置写完记录后回填
+			out.writeInt(0);
+			byte[] key;
+			Object[] row;
+			for (int i = 0; i < rows; i++) {
+				key = keys[sorted[i]];
+				row = values[sorted[i]];
+				offsets[i] = out.size();
+				writeRecord(out, key, row);
+				// DataOutputStream计数超过int上限后固定为Integer.MAX_VALUE
+				if (out.size() >= Integer.MAX_VALUE - (rows * 4L)) {
+					throw new IOException("缓存数据超过2G,不能使用内存映射文件存储!");
+				}
+			}
+			offsetsPos = out.size();
+			for (int offset : offsets) {
+				out.writeInt(offset);
+			}
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(OFFSETS_POS_INDEX);
+			raf.writeInt(offsetsPos);
+		}
+	}
+
+	/**
+	 * @TODO 将当前字典与增量数据按key顺序归并写入新文件:原有记录直接复制字节,无需整体还原为HashMap(空数组的增量行表示删除)
+	 * @param file
+	 * @param current    当前字典
+	 * @param increments 变更的记录
+	 * @param createTime 生成时间
+	 * @throws IOException
+	 */
+	public static void merge(File file, MappedTranslateDictionary current, Map<String, Object[]> increments,
+			long createTime) throws IOException {
+		int incCount = increments.size();
+		byte[][] incKeys = new byte[incCount][];
+		Object[][] incValues = new Object[incCount][];
+		Integer[] sorted = new Integer[incCount];
+		int index = 0;
+		for (Map.Entry<String, Object[]> entry : increments.entrySet()) {
+			if (entry.getKey() == null) {
+				continue;
+			}
+			incKeys[index] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+			incValues[index] = entry.getValue();
+			sorted[index] = index;
+			index++;
+		}
+		incCount = index;
+		Arrays.sort(sorted, 0, incCount, (a, b) -> compare(incKeys[a], incKeys[b]));
+		int[] offsets = new int[current.rows + incCount];
+		int rows = 0;
+		int offsetsPos;
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 65536))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(createTime);
+			// 记录数和偏移表位置写完记录后回填
+			out.writeInt(0);
+			out.writeInt(0);
+			int i = 0;
+			int j = 0;
+			int cmp;
+			Object[] row;
+			while (i < current.rows || j < incCount) {
+				if (i >= current.rows) {
+					cmp = 1;
+				} else if (j >= incCount) {
+					cmp = -1;
+				} else {
+					cmp = current.compareKey(current.offset(i), incKeys[sorted[j]]);
+				}
+				if (cmp < 0) {
+					offsets[rows++] = out.size();
+					current.copyRecord(i, out);
+					i++;
+				} else {
+					row = incValues[sorted[j]];
+					if (row != null && row.length > 0) {
+						offsets[rows++] = out.size();
+						writeRecord(out, incKeys[sorted[j]], row);
+					}
+					// 相同key以增量为准
+					if (cmp == 0) {
+						i++;
+					}
+					j++;
+				}
+				if (out.size() >= Integer.MAX_VALUE - (offsets.length * 4L)) {
+					throw new IOException("缓存数据超过2G,不能使用内存映射文件存储!");
+				}
+			}
+			offsetsPos = out.size();
+			for (int k = 0; k < rows; k++) {
+				out.writeInt(offsets[k]);
+			}
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(ROWS_INDEX);
+			raf.writeInt(rows);
+			raf.writeInt(offsetsPos);
+		}
+	}
+
+	@Override
+	public int indexOf(Object key) {
+		if (key == null) {
+			return -1;
+		}
+		return indexOf(key.toString());
+	}
+
+	/**
+	 * 二分查找
+	 */
+	@Override
+	public int indexOf(String key) {
+		if (key == null) {
+			return -1;
+		}
+		byte[] probe = key.getBytes(StandardCharsets.UTF_8);
+		int low = 0;
+		int high = rows - 1;
+		int mid;
+		int cmp;
+		while (low <= high) {
+			mid = (low + high) >>> 1;
+			cmp = compareKey(offset(mid), probe);
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public Object getValue(int row, int column) {
+		int pos = valuesPos(row);
+		int width = buffer.getShort(pos) & 0xffff;
+		if (column >= width) {
+			return null;
+		}
+		pos += 2;
+		for (int i = 0; i < column; i++) {
+			pos = skipValue(pos);
+		}
+		return readValue(pos);
+	}
+
+	@Override
+	public int getWidth(int row) {
+		return buffer.getShort(valuesPos(row)) & 0xffff;
+	}
+
+	@Override
+	public int size() {
+		return rows;
+	}
+
+	/**
+	 * @TODO 获取行对应的key
+	 * @param row
+	 * @return
+	 */
+	public String getKey(int row) {
+		int offset = offset(row);
+		return readString(offset + 4, buffer.getInt(offset));
+	}
+
+	/**
+	 * @return 文件生成时间
+	 */
+	public long getCreateTime() {
+		return createTime;
+	}
+
+	/**
+	 * @TODO 转为HashMap(兼容以HashMap方式使用缓存的场景),每次调用均在堆内生成完整副本且不保留,
+	 *       查找和匹配请直接使用字典
+	 * @return
+	 */
+	public HashMap<String, Object[]> toMap() {
+		HashMap<String, Object[]> result = new HashMap<String, Object[]>((int) (rows / 0.75f) + 1);
+		int pos;
+		int width;
+		Object[] row;
+		for (int i = 0; i < rows; i++) {
+			pos = valuesPos(i);
+			width = buffer.getShort(pos) & 0xffff;
+			pos += 2;
+			row = new Object[width];
+			for (int j = 0; j < width; j++) {
+				row[j] = readValue(pos);
+				pos = skipValue(pos);
+			}
+			result.put(getKey(i), row);
+		}
+		return result;
+	}
+
+	private int offset(int row) {
+		return buffer.getInt(offsetsPos + row * 4);
+	}
+
+	private int valuesPos(int row) {
+		int offset = offset(row);
+		return offset + 4 + buffer.getInt(offset);
+	}
+
+	private int compareKey(int offset, byte[] probe) {
+		int length = buffer.getInt(offset);
+		int start = offset + 4;
+		int min = Math.min(length, probe.length);
+		int cmp;
+		for (int i = 0; i < min; i++) {
+			cmp = (buffer.get(start + i) & 0xff) - (probe[i] & 0xff);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return length - probe.length;
+	}
+
+	private String readString(int pos, int length) {
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = buffer.get(pos + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private Object readValue(int pos) {
+		switch (buffer.get(pos)) {
+		case TYPE_NULL:
+			return null;
+		case TYPE_STRING:
+			return readString(pos + 5, buffer.getInt(pos + 1));
+		case TYPE_LONG:
+			return buffer.getLong(pos + 1);
+		case TYPE_INTEGER:
+			return buffer.getInt(pos + 1);
+		case TYPE_DECIMAL:
+			return new BigDecimal(readString(pos + 5, buffer.getInt(pos + 1)));
+		case TYPE_DOUBLE:
+			return buffer.getDouble(pos + 1);
+		case TYPE_BOOLEAN:
+			return buffer.get(pos + 1) == 1;
+		case TYPE_DATE:
+			return new Date(buffer.getLong(pos + 1));
+		case TYPE_TIMESTAMP:
+			Timestamp timestamp = new Timestamp(buffer.getLong(pos + 1));
+			timestamp.setNanos(buffer.getInt(pos + 9));
+			return timestamp;
+		case TYPE_SQL_DATE:
+			return new java.sql.Date(buffer.getLong(pos + 1));
+		case TYPE_SQL_TIME:
+			return new Time(buffer.getLong(pos + 1));
+		case TYPE_SHORT:
+			return buffer.getShort(pos + 1);
+		case TYPE_BYTE:
+			return buffer.get(pos + 1);
+		case TYPE_FLOAT:
+			return buffer.getFloat(pos + 1);
+		case TYPE_BIG_INTEGER:
+			return new BigInteger(readString(pos + 5, buffer.getInt(pos + 1)));
+		case TYPE_LOCAL_DATE:
+			return LocalDate.ofEpochDay(buffer.getLong(pos + 1));
+		case TYPE_LOCAL_TIME:
+			return LocalTime.ofNanoOfDay(buffer.getLong(pos + 1));
+		case TYPE_LOCAL_DATE_TIME:
+			return LocalDateTime.of(LocalDate.ofEpochDay(buffer.getLong(pos + 1)),
+					LocalTime.ofNanoOfDay(buffer.getLong(pos + 9)));
+		default:
+			throw new IllegalStateException("缓存翻译字典文件存在未知的数据类型!");
+		}
+	}
+
+	private int skipValue(int pos) {
+		switch (buffer.get(pos)) {
+		case TYPE_NULL:
+			return pos + 1;
+		case TYPE_STRING:
+		case TYPE_DECIMAL:
+		case TYPE_BIG_INTEGER:
+			return pos + 5 + buffer.getInt(pos + 1);
+		case TYPE_LONG:
+		case TYPE_DOUBLE:
+		case TYPE_DATE:
+		case TYPE_SQL_DATE:
+		case TYPE_SQL_TIME:
+		case TYPE_LOCAL_DATE:
+		case TYPE_LOCAL_TIME:
+			return pos + 9;
+		case TYPE_INTEGER:
+		case TYPE_FLOAT:
+			return pos + 5;
+		case TYPE_SHORT:
+			return pos + 3;
+		case TYPE_BOOLEAN:
+		case TYPE_BYTE:
+			return pos + 2;
+		case TYPE_TIMESTAMP:
+			return pos + 13;
+		case TYPE_LOCAL_DATE_TIME:
+			return pos + 17;
+		default:
+			throw new IllegalStateException("缓存翻译字典文件存在未知的数据类型!");
+		}
+	}
+
+	private static void writeRecord(DataOutputStream out, byte[] key, Object[] row) throws IOException {
+		out.writeInt(key.length);
+		out.write(key);
+		out.writeShort(row.length);
+		for (Object value : row) {
+			writeValue(out, value);
+		}
+	}
+
+	/**
+	 * @TODO 原样复制一条记录的字节
+	 */
+	private void copyRecord(int row, DataOutputStream out) throws IOException {
+		int start = offset(row);
+		int pos = valuesPos(row);
+		int width = buffer.getShort(pos) & 0xffff;
+		pos += 2;
+		for (int i = 0; i < width; i++) {
+			pos = skipValue(pos);
+		}
+		ByteBuffer record = buffer.duplicate();
+		record.position(start);
+		byte[] bytes = new byte[pos - start];
+		record.get(bytes);
+		out.write(bytes);
+	}
+
+	private static void writeValue(DataOutputStream out, Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(TYPE_NULL);
+		} else if (value instanceof Long) {
+			out.writeByte(TYPE_LONG);
+			out.writeLong((Long) value);
+		} else if (value instanceof Integer) {
+			out.writeByte(TYPE_INTEGER);
+			out.writeInt((Integer) value);
+		} else if (value instanceof BigDecimal) {
+			out.writeByte(TYPE_DECIMAL);
+			writeString(out, ((BigDecimal) value).toString());
+		} else if (value instanceof Double) {
+			out.writeByte(TYPE_DOUBLE);
+			out.writeDouble((Double) value);
+		} else if (value instanceof Boolean) {
+			out.writeByte(TYPE_BOOLEAN);
+			out.writeByte(((Boolean) value) ? 1 : 0);
+		} else if (value instanceof Timestamp) {
+			out.writeByte(TYPE_TIMESTAMP);
+			out.writeLong(((Timestamp) value).getTime());
+			out.writeInt(((Timestamp) value).getNanos());
+		} else if (value instanceof java.sql.Date) {
+			out.writeByte(TYPE_SQL_DATE);
+			out.writeLong(((java.sql.Date) value).getTime());
+		} else if (value instanceof Time) {
+			out.writeByte(TYPE_SQL_TIME);
+			out.writeLong(((Time) value).getTime());
+		} else if (value instanceof Date) {
+			out.writeByte(TYPE_DATE);
+			out.writeLong(((Date) value).getTime());
+		} else if (value instanceof Short) {
+			out.writeByte(TYPE_SHORT);
+			out.writeShort((Short) value);
+		} else if (value instanceof Byte) {
+			out.writeByte(TYPE_BYTE);
+			out.writeByte((Byte) value);
+		} else if (value instanceof Float) {
+			out.writeByte(TYPE_FLOAT);
+			out.writeFloat((Float) value);
+		} else if (value instanceof BigInteger) {
+			out.writeByte(TYPE_BIG_INTEGER);
+			writeString(out, value.toString());
+		} else if (value instanceof LocalDate) {
+			out.writeByte(TYPE_LOCAL_DATE);
+			out.writeLong(((LocalDate) value).toEpochDay());
+		} else if (value instanceof LocalTime) {
+			out.writeByte(TYPE_LOCAL_TIME);
+			out.writeLong(((LocalTime) value).toNanoOfDay());
+		} else if (value instanceof LocalDateTime) {
+			out.writeByte(TYPE_LOCAL_DATE_TIME);
+			out.writeLong(((LocalDateTime) value).toLocalDate().toEpochDay());
+			out.writeLong(((LocalDateTime) value).toLocalTime().toNanoOfDay());
+		} else {
+			out.writeByte(TYPE_STRING);
+			writeString(out, value.toString());
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static int compare(byte[] a, byte[] b) {
+		int min = Math.min(a.length, b.length);
+		int cmp;
+		for (int i = 0; i < min; i++) {
+			cmp = (a[i] & 0xff) - (b[i] & 0xff);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return a.length - b.length;
+	}
+}
@@ -0,0 +1,430 @@
+package org.sagacity.sqltoy.translate.cache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.sagacity.sqltoy.translate.cache.TranslateCacheManager;
+import org.sagacity.sqltoy.translate.cache.TranslateDictionary;
+import org.sagacity.sqltoy.translate.model.TranslateConfigModel;
+import org.sagacity.sqltoy.utils.StringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 提供基于内存映射文件的缓存实现:缓存数据写为按key排序的字典文件(先写临时文件再原子替换)后只读映射,
+ *              数据不占用堆内存;同一主机多个JVM配置相同的存储路径即可共享文件,其他JVM更新文件后自动重新映射;
+ *              缓存超过keepAlive后继续使用当前数据,同时由后台线程重新加载并整体替换
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ * @modify 2026-10-18 文件名追加原始名称的hash避免不同缓存映射到同一文件;后台加载失败按指数退避;
+ *         按文件标识、修改时间和大小检测变更;增量更新归并写入,不再整体还原为HashMap
+ */
+public class TranslateMappedFileManager extends TranslateCacheManager {
+	/**
+	 * 定义全局日志
+	 */
+	protected final static Logger logger = LoggerFactory.getLogger(TranslateMappedFileManager.class);
+
+	private final static String FILE_SUFFIX = ".dict";
+
+	/**
+	 * 检测文件是否被其他JVM更新的时间间隔(毫秒)
+	 */
+	private final static long CHECK_INTERVAL = 1000;
+
+	/**
+	 * 后台重新加载失败后的最小重试间隔(毫秒),连续失败按倍数递增,最大不超过keepAlive
+	 */
+	private final static long REFRESH_RETRY_INTERVAL = 1000;
+
+	/**
+	 * 字典文件存放路径
+	 */
+	private String storePath = System.getProperty("java.io.tmpdir") + File.separator + "sqltoy-translate";
+
+	private final ConcurrentHashMap<String, MappedCache> caches = new ConcurrentHashMap<String, MappedCache>();
+
+	/**
+	 * 缓存过期后台重新加载
+	 */
+	private ExecutorService refresher;
+
+	/**
+	 * @param storePath the storePath to set
+	 */
+	public void setStorePath(String storePath) {
+		this.storePath = storePath;
+	}
+
+	public String getStorePath() {
+		return storePath;
+	}
+
+	/**
+	 * 兼容以HashMap方式获取缓存的场景:每次调用都会将字典完整复制到堆内存(不保留),翻译、查找和名称匹配均直接使用字典
+	 */
+	@Override
+	public HashMap<String, Object[]> getCache(String cacheName, String cacheType) {
+		TranslateDictionary dictionary = getDictionary(cacheName, cacheType);
+		if (dictionary == null) {
+			return null;
+		}
+		logger.debug("以HashMap方式获取缓存:{} 类型:{},将完整复制:{} 条字典数据到堆内存!", cacheName, cacheType, dictionary.size());
+		return ((MappedTranslateDictionary) dictionary).toMap();
+	}
+
+	@Override
+	public TranslateDictionary getDictionary(String cacheName, String cacheType) {
+		MappedCache cache = getMappedCache(cacheName, cacheType);
+		long now = System.currentTimeMillis();
+		if (now - cache.lastCheck >= CHECK_INTERVAL) {
+			cache.lastCheck = now;
+			remapIfChanged(cache);
+		}
+		MappedTranslateDictionary dictionary = cache.dictionary;
+		if (dictionary == null) {
+			return null;
+		}
+		TranslateConfigModel cacheModel = translateMap.get(cacheName);
+		if (cacheModel != null && cacheModel.getKeepAlive() > 0
+				&& now - dictionary.getCreateTime() > cacheModel.getKeepAlive() * 1000L) {
+			// 无法后台加载则视同缓存失效,由调用方重新加载
+			if (dataLoader == null || refresher == null) {
+				return null;
+			}
+			// 上次后台加载失败或结果为空,退避期内继续使用当前数据
+			if (now >= cache.nextRefreshTime) {
+				refresh(cacheModel, cacheName, cacheType, cache);
+			}
+		}
+		return dictionary;
+	}
+
+	/**
+	 * 字典直接映射文件,无需在发布时构建堆内字典
+	 */
+	@Override
+	protected boolean isHeapDictionary() {
+		return false;
+	}
+
+	@Override
+	public void put(TranslateConfigModel cacheModel, String cacheName, String cacheType,
+			HashMap<String, Object[]> cacheValue) {
+		if (cacheValue == null) {
+			clear(cacheName, cacheType);
+			return;
+		}
+		MappedCache cache = getMappedCache(cacheName, cacheType);
+		synchronized (cache) {
+			try {
+				replaceFile(cache, (tmpFile) -> MappedTranslateDictionary.write(tmpFile, cacheValue));
+			} catch (Exception e) {
+				logger.error("写入缓存:{} 的字典文件:{} 发生异常:{}", cacheName, cache.file.getPath(), e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * @TODO 增量更新:基于当前映射的字典与变更记录按key归并写入新文件,原有记录直接复制字节
+	 */
+	@Override
+	protected Boolean applyIncrements(TranslateConfigModel cacheModel, String cacheName, String cacheType,
+			Map<String, Object[]> increments) {
+		MappedCache cache = getMappedCache(cacheName, cacheType);
+		synchronized (cache) {
+			remapIfChanged(cache);
+			final MappedTranslateDictionary current = cache.dictionary;
+			if (current == null) {
+				return false;
+			}
+			try {
+				// 保留原生成时间,增量更新不延长keepAlive
+				replaceFile(cache, (tmpFile) -> MappedTranslateDictionary.merge(tmpFile, current, increments,
+						current.getCreateTime()));
+				return true;
+			} catch (Exception e) {
+				logger.error("增量写入缓存:{} 的字典文件:{} 发生异常:{},清除缓存等待重新加载!", cacheName, cache.file.getPath(),
+						e.getMessage(), e);
+			}
+		}
+		// 避免继续使用未包含变更的旧数据
+		clear(cacheName, cacheType);
+		return false;
+	}
+
+	@Override
+	public void clear(String cacheName, String cacheType) {
+		if (StringUtil.isNotBlank(cacheType)) {
+			caches.remove(getKey(cacheName, cacheType));
+			new File(storePath, getFileName(cacheName, cacheType)).delete();
+			return;
+		}
+		// 清除cacheName下全部缓存
+		String prefix = cacheName + ":";
+		String key;
+		Iterator<String> iter = caches.keySet().iterator();
+		while (iter.hasNext()) {
+			key = iter.next();
+			if (key.equals(cacheName) || key.startsWith(prefix)) {
+				iter.remove();
+			}
+		}
+		String fileName = getFileName(cacheName, null);
+		String filePrefix = fileName.substring(0, fileName.length() - FILE_SUFFIX.length()) + "@";
+		File[] files = new File(storePath).listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (file.getName().equals(fileName)
+						|| (file.getName().startsWith(filePrefix) && file.getName().endsWith(FILE_SUFFIX))) {
+					file.delete();
+				}
+			}
+		}
+	}
+
+	@Override
+	public boolean init() {
+		File storeDir = new File(storePath);
+		if (!storeDir.exists() && !storeDir.mkdirs()) {
+			logger.error("缓存翻译字典文件路径:{} 创建失败!", storePath);
+			return false;
+		}
+		if (refresher == null) {
+			refresher = Executors.newSingleThreadExecutor((runnable) -> {
+				Thread thread = new Thread(runnable, "sqltoy-translate-mapped-refresh");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		logger.debug("已经启动基于内存映射文件的缓存管理器,存储路径:{}", storePath);
+		return true;
+	}
+
+	@Override
+	public void destroy() {
+		if (refresher != null) {
+			refresher.shutdownNow();
+			refresher = null;
+		}
+		caches.clear();
+	}
+
+	/**
+	 * @TODO 后台重新加载(同一缓存同时只有一个重新加载任务)
+	 */
+	private void refresh(TranslateConfigModel cacheModel, String cacheName, String cacheType, MappedCache cache) {
+		if (!cache.refreshing.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			refresher.execute(() -> {
+				try {
+					HashMap<String, Object[]> cacheValue = dataLoader.apply(cacheModel, cacheType);
+					if (cacheValue != null && !cacheValue.isEmpty()) {
+						publish(cacheModel, cacheName, cacheType, cacheValue);
+						cache.refreshFailures = 0;
+						cache.nextRefreshTime = 0;
+					} else {
+						backoff(cacheModel, cache);
+						logger.warn("缓存:{} cacheType:{} 后台重新加载结果为空,继续使用当前数据!", cacheName, cacheType);
+					}
+				} catch (Exception e) {
+					backoff(cacheModel, cache);
+					logger.error("缓存:{} cacheType:{} 后台重新加载发生异常:{}", cacheName, cacheType, e.getMessage(), e);
+				} finally {
+					cache.refreshing.set(false);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			cache.refreshing.set(false);
+		}
+	}
+
+	/**
+	 * @TODO 后台加载失败(或结果为空)后按指数退避,避免每次访问都触发重新加载
+	 */
+	private static void backoff(TranslateConfigModel cacheModel, MappedCache cache) {
+		int failures = Math.min(++cache.refreshFailures, 16);
+		long interval = REFRESH_RETRY_INTERVAL << (failures - 1);
+		if (cacheModel.getKeepAlive() > 0) {
+			interval = Math.min(interval, Math.max(cacheModel.getKeepAlive() * 1000L, REFRESH_RETRY_INTERVAL));
+		}
+		cache.nextRefreshTime = System.currentTimeMillis() + interval;
+	}
+
+	/**
+	 * @TODO 先写临时文件再原子替换,并重新映射
+	 */
+	private void replaceFile(MappedCache cache, FileWriter writer) throws IOException {
+		File tmpFile = new File(cache.file.getPath() + "." + System.nanoTime() + ".tmp");
+		try {
+			writer.write(tmpFile);
+			Files.move(tmpFile.toPath(), cache.file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			cache.dictionary = map(cache.file);
+			cache.stamp = FileStamp.of(cache.file);
+			cache.lastCheck = System.currentTimeMillis();
+		} finally {
+			tmpFile.delete();
+		}
+	}
+
+	/**
+	 * @TODO 文件被其他JVM(或其他实例)更新或删除后重新映射(按文件标识、修改时间和大小判断,原子替换后文件标识会变化,
+	 *       不依赖修改时间的精度)
+	 * @param cache
+	 */
+	private void remapIfChanged(MappedCache cache) {
+		synchronized (cache) {
+			FileStamp stamp = FileStamp.of(cache.file);
+			// 文件不存在
+			if (stamp == null) {
+				cache.dictionary = null;
+				cache.stamp = null;
+				return;
+			}
+			if (stamp.equals(cache.stamp)) {
+				return;
+			}
+			try {
+				cache.dictionary = map(cache.file);
+				cache.stamp = stamp;
+			} catch (Exception e) {
+				logger.warn("映射缓存翻译字典文件:{} 失败:{}", cache.file.getPath(), e.getMessage());
+			}
+		}
+	}
+
+	private MappedCache getMappedCache(String cacheName, String cacheType) {
+		return caches.computeIfAbsent(getKey(cacheName, cacheType),
+				(key) -> new MappedCache(new File(storePath, getFileName(cacheName, cacheType))));
+	}
+
+	private static MappedTranslateDictionary map(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("缓存翻译字典文件超过2G!");
+			}
+			// 通道关闭后映射依然有效
+			return new MappedTranslateDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	private static String getKey(String cacheName, String cacheType) {
+		return StringUtil.isBlank(cacheType) ? cacheName : cacheName + ":" + cacheType;
+	}
+
+	/**
+	 * @TODO 文件名:cacheName-hash[@cacheType-hash].dict,非字母数字字符统一替换为下划线,
+	 *       追加原始名称的hash区分替换后相同的名称(如:a.b与a/b)
+	 */
+	private static String getFileName(String cacheName, String cacheType) {
+		String fileName = toFileName(cacheName);
+		if (StringUtil.isNotBlank(cacheType)) {
+			fileName = fileName + "@" + toFileName(cacheType);
+		}
+		return fileName + FILE_SUFFIX;
+	}
+
+	private static String toFileName(String name) {
+		// FNV-1a 64位hash
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < name.length(); i++) {
+			hash ^= name.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return name.replaceAll("[^\\w\\-.]", "_") + "-" + Long.toHexString(hash);
+	}
+
+	@FunctionalInterface
+	private interface FileWriter {
+		void write(File file) throws IOException;
+	}
+
+	/**
+	 * 文件标识(inode等)、修改时间(文件系统支持的最高精度)和大小
+	 */
+	private static class FileStamp {
+		private final Object fileKey;
+
+		private final FileTime lastModified;
+
+		private final long size;
+
+		private FileStamp(Object fileKey, FileTime lastModified, long size) {
+			this.fileKey = fileKey;
+			this.lastModified = lastModified;
+			this.size = size;
+		}
+
+		/**
+		 * @return 文件不存在返回null
+		 */
+		private static FileStamp of(File file) {
+			try {
+				BasicFileAttributes attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+				return new FileStamp(attrs.fileKey(), attrs.lastModifiedTime(), attrs.size());
+			} catch (IOException e) {
+				return null;
+			}
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof FileStamp)) {
+				return false;
+			}
+			FileStamp other = (FileStamp) obj;
+			return size == other.size && Objects.equals(fileKey, other.fileKey)
+					&& Objects.equals(lastModified, other.lastModified);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(fileKey, lastModified, size);
+		}
+	}
+
+	private static class MappedCache {
+		private final File file;
+
+		private volatile MappedTranslateDictionary dictionary;
+
+		/**
+		 * 当前映射的文件标识
+		 */
+		private volatile FileStamp stamp;
+
+		private volatile long lastCheck;
+
+		private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+		/**
+		 * 后台加载连续失败次数以及下次允许重新加载的时间
+		 */
+		private volatile int refreshFailures;
+
+		private volatile long nextRefreshTime;
+
+		private MappedCache(File file) {
+			this.file = file;
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package org.sagacity.sqltoy.utils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 按(类,属性集合)预编译的对象属性读取计划:get方法只匹配一次,通过LambdaMetafactory生成调用(不可用时退化为MethodHandle),
+ *              供批量保存、修改时从对象集合中提取属性值
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ * @modify 2026-10-18 缓存改为ClassValue加每类LRU,避免强引用业务类及超限时整体清空
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class BeanPropsReader {
+	/**
+	 * 单个类缓存的读取计划数量上限
+	 */
+	private final static int MAX_READERS_PER_CLASS = 256;
+
+	private final static MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	/**
+	 * 读取计划挂在类自身上(ClassValue),类(含其classloader)卸载时随之回收,避免静态Map强引用业务类;
+	 * 每个类按最近最少使用淘汰超出上限的属性组合
+	 */
+	private final static ClassValue<Map<String, BeanPropsReader>> readers = new ClassValue<Map<String, BeanPropsReader>>() {
+		@Override
+		protected Map<String, BeanPropsReader> computeValue(Class<?> type) {
+			return Collections.synchronizedMap(new LinkedHashMap<String, BeanPropsReader>(16, 0.75f, true) {
+				private static final long serialVersionUID = 5412309788034519347L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, BeanPropsReader> eldest) {
+					return size() > MAX_READERS_PER_CLASS;
+				}
+			});
+		}
+	};
+
+	private final Class beanClass;
+
+	private final String[] properties;
+
+	/**
+	 * 属性对应的get调用(未匹配为null)
+	 */
+	private final Function[] getters;
+
+	/**
+	 * 属性名称(小写)和顺序,供ReflectPropsHandler使用
+	 */
+	private final HashMap<String, Integer> propertyIndexMap;
+
+	public BeanPropsReader(Class beanClass, String[] properties) {
+		this.beanClass = beanClass;
+		this.properties = properties;
+		int size = properties.length;
+		this.getters = new Function[size];
+		this.propertyIndexMap = new HashMap<String, Integer>();
+		for (int i = 0; i < size; i++) {
+			if (properties[i] != null) {
+				propertyIndexMap.put(properties[i].toLowerCase(), i);
+			}
+		}
+		Method[] methods = BeanUtil.matchGetMethods(beanClass, properties);
+		boolean lambdaAble = BeanRowMapper.isLambdaAble(beanClass);
+		for (int i = 0; i < size; i++) {
+			if (methods[i] != null) {
+				try {
+					getters[i] = createGetter(methods[i], lambdaAble);
+				} catch (Exception e) {
+					throw new IllegalArgumentException(
+							"类:" + beanClass.getName() + " 属性:" + properties[i] + " 构造get调用失败:" + e.getMessage(), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @TODO 获取类和属性集合对应的读取计划(按类缓存)
+	 * @param beanClass
+	 * @param properties
+	 * @return
+	 */
+	public static BeanPropsReader getReader(Class beanClass, String[] properties) {
+		Map<String, BeanPropsReader> classReaders = readers.get(beanClass);
+		String key = String.join(",", properties);
+		BeanPropsReader reader = classReaders.get(key);
+		if (reader == null) {
+			reader = new BeanPropsReader(beanClass, properties);
+			// 超出上限时淘汰该类最久未使用的读取计划(防止动态属性组合无限增长)
+			classReaders.put(key, reader);
+		}
+		return reader;
+	}
+
+	/**
+	 * @TODO 读取第index个属性的值(无get方法返回null)
+	 * @param bean
+	 * @param index
+	 * @return
+	 */
+	public Object getValue(Object bean, int index) {
+		Function getter = getters[index];
+		if (getter == null) {
+			return null;
+		}
+		return getter.apply(bean);
+	}
+
+	public boolean hasGetter(int index) {
+		return getters[index] != null;
+	}
+
+	public int size() {
+		return getters.length;
+	}
+
+	public Class getBeanClass() {
+		return beanClass;
+	}
+
+	public String[] getProperties() {
+		return properties;
+	}
+
+	/**
+	 * @TODO 属性(小写)和顺序的映射,只读共享
+	 * @return
+	 */
+	public HashMap<String, Integer> getPropertyIndexMap() {
+		return propertyIndexMap;
+	}
+
+	private static Function createGetter(Method method, boolean lambdaAble) throws Exception {
+		MethodHandle handle = LOOKUP.unreflect(BeanRowMapper.accessible(method));
+		if (lambdaAble && BeanRowMapper.isLambdaAble(method.getDeclaringClass())) {
+			try {
+				Class returnType = method.getReturnType();
+				if (returnType.isPrimitive()) {
+					returnType = MethodType.methodType(returnType).wrap().returnType();
+				}
+				CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+						MethodType.methodType(Object.class, Object.class), handle,
+						MethodType.methodType(returnType, method.getDeclaringClass()));
+				return (Function) site.getTarget().invokeExact();
+			} catch (Throwable e) {
+				// 退化为MethodHandle
+			}
+		}
+		final MethodHandle getter = handle.asType(MethodType.methodType(Object.class, Object.class));
+		return (bean) -> {
+			try {
+				return getter.invokeExact(bean);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
+		};
+	}
+}
@@ -0,0 +1,295 @@
+package org.sagacity.sqltoy.utils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.sagacity.sqltoy.plugins.TypeHandler;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 按(类,属性集合)缓存的行数据到对象的映射器:set方法、参数类型、泛型类型只解析一次,
+ *              set方法通过LambdaMetafactory生成调用(不可用时退化为MethodHandle),替代逐单元格的Method.invoke
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class BeanRowMapper {
+	/**
+	 * 单个类缓存的映射器数量上限(不同查询字段组合)
+	 */
+	private final static int MAX_MAPPERS_PER_CLASS = 256;
+
+	private final static MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	/**
+	 * 映射器挂在类自身上(ClassValue),类(含其classloader)卸载时随之回收,避免静态Map强引用业务类;
+	 * 每个类按最近最少使用淘汰超出上限的字段组合
+	 */
+	private final static ClassValue<Map<String, BeanRowMapper>> mappers = new ClassValue<Map<String, BeanRowMapper>>() {
+		@Override
+		protected Map<String, BeanRowMapper> computeValue(Class<?> type) {
+			return Collections.synchronizedMap(new LinkedHashMap<String, BeanRowMapper>(16, 0.75f, true) {
+				private static final long serialVersionUID = -2816533947082148245L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, BeanRowMapper> eldest) {
+					return size() > MAX_MAPPERS_PER_CLASS;
+				}
+			});
+		}
+	};
+
+	private final Class voClass;
+
+	/**
+	 * 无参构造器
+	 */
+	private final MethodHandle constructor;
+
+	/**
+	 * 属性对应的set调用(未匹配为null)
+	 */
+	private final BiConsumer[] setters;
+
+	/**
+	 * set方法名称(异常提示)
+	 */
+	private final String[] setterNames;
+
+	/**
+	 * set方法参数类型
+	 */
+	private final Class[] propTypes;
+
+	/**
+	 * 基本类型对应的包装类型,值为该类型时无需转换
+	 */
+	private final Class[] boxedTypes;
+
+	/**
+	 * 参数类型名称(原始和小写)
+	 */
+	private final String[] propTypeNames;
+
+	private final String[] propTypeLowNames;
+
+	/**
+	 * 泛型类型
+	 */
+	private final Class[] genericTypes;
+
+	private BeanRowMapper(Class voClass, String[] properties) throws Exception {
+		this.voClass = voClass;
+		this.constructor = LOOKUP.unreflectConstructor(accessible(voClass.getDeclaredConstructor()))
+				.asType(MethodType.methodType(Object.class));
+		int size = properties.length;
+		Method[] methods = BeanUtil.matchSetMethods(voClass, properties);
+		setters = new BiConsumer[size];
+		setterNames = new String[size];
+		propTypes = new Class[size];
+		boxedTypes = new Class[size];
+		propTypeNames = new String[size];
+		propTypeLowNames = new String[size];
+		genericTypes = new Class[size];
+		boolean lambdaAble = isLambdaAble(voClass);
+		Type[] types;
+		for (int i = 0; i < size; i++) {
+			if (methods[i] == null) {
+				continue;
+			}
+			setterNames[i] = methods[i].getName();
+			propTypes[i] = methods[i].getParameterTypes()[0];
+			boxedTypes[i] = boxedType(propTypes[i]);
+			propTypeNames[i] = propTypes[i].getTypeName();
+			propTypeLowNames[i] = propTypeNames[i].toLowerCase();
+			types = methods[i].getGenericParameterTypes();
+			if (types.length > 0 && types[0] instanceof ParameterizedType) {
+				Type actualType = ((ParameterizedType) types[0]).getActualTypeArguments()[0];
+				if (actualType instanceof Class) {
+					genericTypes[i] = (Class) actualType;
+				}
+			}
+			setters[i] = createSetter(methods[i], lambdaAble);
+		}
+	}
+
+	/**
+	 * @TODO 获取类和属性集合对应的映射器
+	 * @param voClass
+	 * @param properties
+	 * @return
+	 */
+	public static BeanRowMapper getMapper(Class voClass, String[] properties) {
+		Map<String, BeanRowMapper> classMappers = mappers.get(voClass);
+		String key = String.join(",", properties);
+		BeanRowMapper mapper = classMappers.get(key);
+		if (mapper == null) {
+			try {
+				mapper = new BeanRowMapper(voClass, properties);
+			} catch (Exception e) {
+				throw new IllegalArgumentException("类:" + voClass.getName() + " 构造行映射器失败:" + e.getMessage(), e);
+			}
+			// 超出上限时淘汰该类最久未使用的映射器(防止动态sql字段组合无限增长)
+			classMappers.put(key, mapper);
+		}
+		return mapper;
+	}
+
+	/**
+	 * @TODO 创建对象实例
+	 * @return
+	 * @throws Exception
+	 */
+	public Object newInstance() throws Exception {
+		try {
+			return constructor.invokeExact();
+		} catch (Exception | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * @TODO 给第index个属性赋值(值为null或属性无set方法则忽略)
+	 * @param typeHandler
+	 * @param bean
+	 * @param index
+	 * @param value
+	 * @param autoConvertType
+	 * @throws Exception
+	 */
+	public void setValue(TypeHandler typeHandler, Object bean, int index, Object value, boolean autoConvertType)
+			throws Exception {
+		BiConsumer setter = setters[index];
+		if (setter == null || value == null) {
+			return;
+		}
+		Object realValue = value;
+		if (autoConvertType) {
+			Class valueType = value.getClass();
+			// 存在自定义TypeHandler一律走convertType,保持原有类型转换逻辑;否则类型一致(或基本类型对应的包装类型)无需转换
+			if (typeHandler != null || (valueType != propTypes[index] && valueType != boxedTypes[index])) {
+				realValue = BeanUtil.convertType(typeHandler, value, propTypeNames[index], propTypeLowNames[index],
+						genericTypes[index]);
+			}
+		}
+		setter.accept(bean, realValue);
+	}
+
+	/**
+	 * @TODO 属性是否存在对应的set方法
+	 * @param index
+	 * @return
+	 */
+	public boolean hasSetter(int index) {
+		return setters[index] != null;
+	}
+
+	public String getSetterName(int index) {
+		return setterNames[index];
+	}
+
+	public Class getVoClass() {
+		return voClass;
+	}
+
+	/**
+	 * @TODO 优先用LambdaMetafactory生成直接调用,失败则用MethodHandle
+	 * @param method
+	 * @param lambdaAble
+	 * @return
+	 * @throws Exception
+	 */
+	private static BiConsumer createSetter(Method method, boolean lambdaAble) throws Exception {
+		MethodHandle handle = LOOKUP.unreflect(accessible(method));
+		if (lambdaAble && isLambdaAble(method.getDeclaringClass())) {
+			try {
+				Class paramType = boxedType(method.getParameterTypes()[0]);
+				CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+						MethodType.methodType(BiConsumer.class), MethodType.methodType(void.class, Object.class, Object.class),
+						handle, MethodType.methodType(void.class, method.getDeclaringClass(),
+								(paramType == null) ? method.getParameterTypes()[0] : paramType));
+				return (BiConsumer) site.getTarget().invokeExact();
+			} catch (Throwable e) {
+				// 退化为MethodHandle
+			}
+		}
+		final MethodHandle setter = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+		return (bean, value) -> {
+			try {
+				setter.invokeExact(bean, value);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
+		};
+	}
+
+	/**
+	 * @TODO 生成的lambda类由sqltoy的classloader定义,需能访问到目标类且类和方法为public
+	 * @param voClass
+	 * @return
+	 */
+	static boolean isLambdaAble(Class voClass) {
+		if (!Modifier.isPublic(voClass.getModifiers())) {
+			return false;
+		}
+		try {
+			return Class.forName(voClass.getName(), false, BeanRowMapper.class.getClassLoader()) == voClass;
+		} catch (Throwable e) {
+			return false;
+		}
+	}
+
+	static <T extends java.lang.reflect.AccessibleObject> T accessible(T member) {
+		try {
+			member.setAccessible(true);
+		} catch (Exception e) {
+		}
+		return member;
+	}
+
+	private static Class boxedType(Class type) {
+		if (!type.isPrimitive()) {
+			return null;
+		}
+		if (type == int.class) {
+			return Integer.class;
+		}
+		if (type == long.class) {
+			return Long.class;
+		}
+		if (type == double.class) {
+			return Double.class;
+		}
+		if (type == boolean.class) {
+			return Boolean.class;
+		}
+		if (type == float.class) {
+			return Float.class;
+		}
+		if (type == short.class) {
+			return Short.class;
+		}
+		if (type == byte.class) {
+			return Byte.class;
+		}
+		if (type == char.class) {
+			return Character.class;
+		}
+		return null;
+	}
+}
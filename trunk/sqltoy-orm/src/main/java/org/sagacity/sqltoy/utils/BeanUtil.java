@@ -442,9 +442,22 @@ public class BeanUtil {
 	 */
 	public static Object convertType(TypeHandler typeHandler, Object value, String typeOriginName, Class genericType)
 			throws Exception {
+		return convertType(typeHandler, value, typeOriginName, typeOriginName.toLowerCase(), genericType);
+	}
+
+	/**
+	 * @todo 类型转换(typeName为预先转换好的小写类型名称,避免逐个值重复转换)
+	 * @param typeHandler
+	 * @param value
+	 * @param typeOriginName
+	 * @param typeName
+	 * @param genericType
+	 * @return
+	 * @throws Exception
+	 */
+	protected static Object convertType(TypeHandler typeHandler, Object value, String typeOriginName,
+			String typeName, Class genericType) throws Exception {
 		Object paramValue = value;
-		// 转换为小写
-		String typeName = typeOriginName.toLowerCase();
 		// 非数组类型,但传递的参数值是数组类型,提取第一个参数
 		if (!typeName.contains("[]") && paramValue != null && paramValue.getClass().isArray()) {
 			paramValue = CollectionUtil.convertArray(paramValue)[0];
@@ -886,13 +899,20 @@ public class BeanUtil {
 		Object[] result = new Object[methodLength];
 		// 判断是否存在属性值处理反调
 		boolean hasHandler = (reflectPropsHandler != null) ? true : false;
+		// 普通对象使用缓存的属性读取计划(子对象属性xxx.xxx仍逐级反射)
+		BeanPropsReader propsReader = (serializable instanceof Map) ? null
+				: BeanPropsReader.getReader(serializable.getClass(), properties);
 		// 存在反调，则将对象的属性和属性所在的顺序放入hashMap中，便于后面反调中通过属性调用
 		if (hasHandler && !reflectPropsHandler.initPropsIndexMap()) {
-			HashMap<String, Integer> propertyIndexMap = new HashMap<String, Integer>();
-			for (int i = 0; i < methodLength; i++) {
-				propertyIndexMap.put(properties[i].toLowerCase(), i);
+			if (propsReader != null) {
+				reflectPropsHandler.setPropertyIndexMap(propsReader.getPropertyIndexMap());
+			} else {
+				HashMap<String, Integer> propertyIndexMap = new HashMap<String, Integer>();
+				for (int i = 0; i < methodLength; i++) {
+					propertyIndexMap.put(properties[i].toLowerCase(), i);
+				}
+				reflectPropsHandler.setPropertyIndexMap(propertyIndexMap);
 			}
-			reflectPropsHandler.setPropertyIndexMap(propertyIndexMap);
 		}
 		String[] fields;
 		Iterator<?> iter;
@@ -904,7 +924,9 @@ public class BeanUtil {
 		try {
 			// 通过反射提取属性getMethod返回的数据值
 			for (int i = 0; i < methodLength; i++) {
-				if (properties[i] != null) {
+				if (propsReader != null && propsReader.hasGetter(i)) {
+					result[i] = propsReader.getValue(serializable, i);
+				} else if (properties[i] != null) {
 					// 支持xxxx.xxx 子对象属性提取
 					fields = properties[i].split("\\.");
 					fieldValue = serializable;
@@ -990,47 +1012,56 @@ public class BeanUtil {
 		if (null == dataSet || dataSet.isEmpty() || null == properties || properties.length < 1) {
 			return null;
 		}
-		List<Object[]> resultList = new ArrayList<Object[]>();
+		// 以第一个非空对象的类型获取缓存的属性读取计划
+		Object rowObject = null;
+		for (Object row : dataSet) {
+			if (row != null) {
+				rowObject = row;
+				break;
+			}
+		}
+		BeanPropsReader propsReader = (rowObject == null) ? null
+				: BeanPropsReader.getReader(rowObject.getClass(), properties);
+		return reflectBeansToInnerAry(dataSet, propsReader, properties.length, defaultValues, reflectPropsHandler);
+	}
+
+	/**
+	 * @todo 通过预编译的属性读取计划(如EntityMeta上缓存的)从对象集合中取出属性值,默认值和反调在同一次遍历中完成
+	 * @param dataSet
+	 * @param propsReader
+	 * @param defaultValues
+	 * @param reflectPropsHandler
+	 * @return
+	 */
+	public static List<Object[]> reflectBeansToInnerAry(List dataSet, BeanPropsReader propsReader,
+			Object[] defaultValues, ReflectPropsHandler reflectPropsHandler) {
+		if (null == dataSet || dataSet.isEmpty() || null == propsReader || propsReader.size() < 1) {
+			return null;
+		}
+		return reflectBeansToInnerAry(dataSet, propsReader, propsReader.size(), defaultValues, reflectPropsHandler);
+	}
+
+	private static List<Object[]> reflectBeansToInnerAry(List dataSet, BeanPropsReader propsReader, int methodLength,
+			Object[] defaultValues, ReflectPropsHandler reflectPropsHandler) {
+		List<Object[]> resultList = new ArrayList<Object[]>(dataSet.size());
 		try {
-			int methodLength = properties.length;
 			int defaultValueLength = (defaultValues == null) ? 0 : defaultValues.length;
-			Method[] realMethods = null;
-			boolean inited = false;
 			Object rowObject = null;
-			Object[] params = new Object[] {};
 			// 判断是否存在属性值处理反调
-			boolean hasHandler = (reflectPropsHandler != null) ? true : false;
-			// 存在反调，则将对象的属性和属性所在的顺序放入hashMap中，便于后面反调中通过属性调用
+			boolean hasHandler = (reflectPropsHandler != null && propsReader != null) ? true : false;
+			// 存在反调，则将对象的属性和属性所在的顺序(读取计划中预先构造)提供给反调
 			if (hasHandler) {
-				HashMap<String, Integer> propertyIndexMap = new HashMap<String, Integer>();
-				for (int i = 0; i < methodLength; i++) {
-					propertyIndexMap.put(properties[i].toLowerCase(), i);
-				}
-				reflectPropsHandler.setPropertyIndexMap(propertyIndexMap);
+				reflectPropsHandler.setPropertyIndexMap(propsReader.getPropertyIndexMap());
 			}
 			// 逐行提取属性数据
 			for (int i = 0, n = dataSet.size(); i < n; i++) {
 				rowObject = dataSet.get(i);
 				if (null != rowObject) {
-					// 初始化属性对应getMethod的位置,提升反射的效率
-					if (!inited) {
-						realMethods = matchGetMethods(rowObject.getClass(), properties);
-						inited = true;
-					}
 					Object[] dataAry = new Object[methodLength];
-					// 通过反射提取属性getMethod返回的数据值
 					for (int j = 0; j < methodLength; j++) {
-						if (null != realMethods[j]) {
-							dataAry[j] = realMethods[j].invoke(rowObject, params);
-							if (null == dataAry[j] && null != defaultValues) {
-								dataAry[j] = (j >= defaultValueLength) ? null : defaultValues[j];
-							}
-						} else {
-							if (defaultValues == null) {
-								dataAry[j] = null;
-							} else {
-								dataAry[j] = (j >= defaultValueLength) ? null : defaultValues[j];
-							}
+						dataAry[j] = propsReader.getValue(rowObject, j);
+						if (null == dataAry[j] && j < defaultValueLength) {
+							dataAry[j] = defaultValues[j];
 						}
 					}
 					// 反调对数据值进行加工处理
@@ -1118,32 +1149,15 @@ public class BeanUtil {
 			Object[] rowArray;
 			List rowList;
 			int indexSize = indexs.length;
-			Method[] realMethods = matchSetMethods(voClass, properties);
-			String[] methodTypes = new String[indexSize];
-			Class[] genericTypes = new Class[indexSize];
-			Type[] types;
-			// 自动适配属性的数据类型
-			if (autoConvertType) {
-				for (int i = 0; i < indexSize; i++) {
-					if (null != realMethods[i]) {
-						methodTypes[i] = realMethods[i].getParameterTypes()[0].getTypeName();
-						types = realMethods[i].getGenericParameterTypes();
-						if (types.length > 0) {
-							if (types[0] instanceof ParameterizedType) {
-								genericTypes[i] = (Class) ((ParameterizedType) types[0]).getActualTypeArguments()[0];
-							}
-						}
-					}
-				}
-			}
-
+			// 按类和属性缓存的映射器(set方法、类型只解析一次)
+			BeanRowMapper rowMapper = BeanRowMapper.getMapper(voClass, properties);
 			Iterator iter = datas.iterator();
 			int index = 0;
 			int size;
 			while (iter.hasNext()) {
 				rowObject = iter.next();
 				if (rowObject != null) {
-					bean = voClass.getDeclaredConstructor().newInstance();
+					bean = rowMapper.newInstance();
 					if (meter == 0) {
 						if (rowObject instanceof Object[]) {
 							isArray = true;
@@ -1155,18 +1169,9 @@ public class BeanUtil {
 						for (int i = 0; i < indexSize; i++) {
 							if (indexs[i] < size) {
 								cellData = rowArray[indexs[i]];
-								if (realMethods[i] != null && cellData != null) {
-									propertyName = realMethods[i].getName();
-									// 类型相同
-									if (cellData.getClass().getTypeName().equals(methodTypes[i])) {
-										realMethods[i].invoke(bean, cellData);
-									} else {
-										realMethods[i].invoke(bean,
-												autoConvertType
-														? convertType(typeHandler, cellData, methodTypes[i],
-																genericTypes[i])
-														: cellData);
-									}
+								if (cellData != null && rowMapper.hasSetter(i)) {
+									propertyName = rowMapper.getSetterName(i);
+									rowMapper.setValue(typeHandler, bean, i, cellData, autoConvertType);
 								}
 							}
 						}
@@ -1176,17 +1181,9 @@ public class BeanUtil {
 						for (int i = 0; i < indexSize; i++) {
 							if (indexs[i] < size) {
 								cellData = rowList.get(indexs[i]);
-								if (realMethods[i] != null && cellData != null) {
-									propertyName = realMethods[i].getName();
-									if (cellData.getClass().getTypeName().equals(methodTypes[i])) {
-										realMethods[i].invoke(bean, cellData);
-									} else {
-										realMethods[i].invoke(bean,
-												autoConvertType
-														? convertType(typeHandler, cellData, methodTypes[i],
-																genericTypes[i])
-														: cellData);
-									}
+								if (cellData != null && rowMapper.hasSetter(i)) {
+									propertyName = rowMapper.getSetterName(i);
+									rowMapper.setValue(typeHandler, bean, i, cellData, autoConvertType);
 								}
 							}
 						}
@@ -9,6 +9,8 @@ import javax.sql.DataSource;
 import org.sagacity.sqltoy.SqlToyConstants;
 import org.sagacity.sqltoy.SqlToyContext;
 import org.sagacity.sqltoy.callback.DataSourceCallbackHandler;
+import org.sagacity.sqltoy.plugins.datasource.DataSourceRouter;
+import org.sagacity.sqltoy.plugins.datasource.StatementCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,6 +20,8 @@ import org.slf4j.LoggerFactory;
  * @author zhongxuchen
  * @version v1.0,Date:2015年3月3日
  * @modify data:2020-06-10 剔除mssql2008,hana,增加tidb、guassdb、oceanbase、dm数据库方言的支持
+ * @modify data:2026-10-18 processDataSource统计数据源执行延时和连接异常,用于分库路由和熔断
+ * @modify data:2026-10-18 processDataSource将连接与SqlToyContext的PreparedStatement缓存绑定到当前调用链
  */
 public class DataSourceUtils {
 	/**
@@ -463,9 +467,21 @@ public class DataSourceUtils {
 	 */
 	public static Object processDataSource(SqlToyContext sqltoyContext, DataSource datasource,
 			DataSourceCallbackHandler handler) {
-		Connection conn = sqltoyContext.getConnection(datasource);
+		// 统计数据源的延时、在途数和连接异常,用于分库路由选择和熔断
+		DataSourceRouter router = (datasource == null) ? null : sqltoyContext.getDataSourceRouter();
+		long startNanos = (router == null) ? 0 : router.begin(datasource);
+		Connection conn;
+		try {
+			conn = sqltoyContext.getConnection(datasource);
+		} catch (RuntimeException e) {
+			if (router != null) {
+				router.end(datasource, startNanos, true);
+			}
+			throw e;
+		}
 		Integer dbType;
 		String dialect;
+		Throwable error = null;
 		try {
 			// 统一提取数据库方言类型
 			if (null != sqltoyContext && StringUtil.isNotBlank(sqltoyContext.getDialect())) {
@@ -482,8 +498,15 @@ public class DataSourceUtils {
 						conn.getMetaData().getUserName());
 			}
 			// 调用反调，传入conn和数据库类型进行实际业务处理(数据库类型主要便于DialectFactory获取对应方言处理类)
-			handler.doConnection(conn, dbType, dialect);
+			// 连接由sqltoyContext获取并释放,绑定其语句缓存
+			StatementCache.bind(conn, sqltoyContext.getStatementCache());
+			try {
+				handler.doConnection(conn, dbType, dialect);
+			} finally {
+				StatementCache.unbind();
+			}
 		} catch (Exception e) {
+			error = e;
 			e.printStackTrace();
 			sqltoyContext.releaseConnection(conn, datasource);
 			conn = null;
@@ -491,6 +514,9 @@ public class DataSourceUtils {
 		} finally {
 			// 释放连接,连接池实际是归还连接，未必一定关闭
 			sqltoyContext.releaseConnection(conn, datasource);
+			if (router != null) {
+				router.end(datasource, startNanos, error);
+			}
 		}
 		// 返回反调的结果
 		return handler.getResult();
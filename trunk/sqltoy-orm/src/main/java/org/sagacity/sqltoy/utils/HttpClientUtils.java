@@ -6,27 +6,23 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.auth.UsernamePasswordCredentials;
-import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 import org.elasticsearch.client.Request;
 import org.elasticsearch.client.Response;
-import org.elasticsearch.client.RestClient;
 import org.sagacity.sqltoy.SqlToyContext;
 import org.sagacity.sqltoy.config.model.ElasticEndpoint;
 import org.sagacity.sqltoy.config.model.NoSqlConfigModel;
 import org.sagacity.sqltoy.exception.DataAccessException;
+import org.sagacity.sqltoy.plugins.http.HttpClientManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +34,8 @@ import com.alibaba.fastjson.JSONObject;
  * @description 提供基于http请求的工具类
  * @author zhongxuchen
  * @version v1.0,Date:2018年1月7日
+ * @modify {Date:2026-10-18,改为使用HttpClientManager连接池复用连接,不再每次请求新建client并关闭连接;
+ *         修复elastic restClient在请求后被关闭导致后续请求失败}
  */
 public class HttpClientUtils {
 	/**
@@ -59,46 +57,44 @@ public class HttpClientUtils {
 
 	private final static String POST = "POST";
 
+	/**
+	 * 未提供SqlToyContext时使用的连接池
+	 */
+	private final static HttpClientManager DEFAULT_MANAGER = new HttpClientManager();
+
 	private HttpClientUtils() {
 	}
 
+	private static HttpClientManager getHttpClientManager(SqlToyContext sqltoyContext) {
+		if (sqltoyContext == null || sqltoyContext.getHttpClientManager() == null) {
+			return DEFAULT_MANAGER;
+		}
+		return sqltoyContext.getHttpClientManager();
+	}
+
 	public static String doPost(SqlToyContext sqltoyContext, final String url, String username, String password,
 			String[] paramName, String[] paramValue) throws Exception {
 		HttpPost httpPost = new HttpPost(url);
-		// 设置connection是否自动关闭
-		httpPost.setHeader("Connection", "close");
 		httpPost.setConfig(requestConfig);
-		CloseableHttpClient client = null;
-		try {
-			if (StringUtil.isNotBlank(username) && StringUtil.isNotBlank(password)) {
-				// 凭据提供器
-				CredentialsProvider credsProvider = new BasicCredentialsProvider();
-				credsProvider.setCredentials(AuthScope.ANY,
-						// 认证用户名和密码
-						new UsernamePasswordCredentials(username, password));
-				client = HttpClients.custom().setDefaultCredentialsProvider(credsProvider).build();
-			} else {
-				client = HttpClients.createDefault();
-			}
-			if (paramValue != null && paramValue.length > 0) {
-				List<NameValuePair> nvps = new ArrayList<NameValuePair>();
-				for (int i = 0; i < paramValue.length; i++) {
-					if (paramValue[i] != null) {
-						nvps.add(new BasicNameValuePair(paramName[i], paramValue[i]));
-					}
+		if (paramValue != null && paramValue.length > 0) {
+			List<NameValuePair> nvps = new ArrayList<NameValuePair>();
+			for (int i = 0; i < paramValue.length; i++) {
+				if (paramValue[i] != null) {
+					nvps.add(new BasicNameValuePair(paramName[i], paramValue[i]));
 				}
-				HttpEntity httpEntity = new UrlEncodedFormEntity(nvps, CHARSET);
-				((UrlEncodedFormEntity) httpEntity).setContentType(CONTENT_TYPE);
-				httpPost.setEntity(httpEntity);
 			}
-			HttpResponse response = client.execute(httpPost);
+			HttpEntity httpEntity = new UrlEncodedFormEntity(nvps, CHARSET);
+			((UrlEncodedFormEntity) httpEntity).setContentType(CONTENT_TYPE);
+			httpPost.setEntity(httpEntity);
+		}
+		// 连接池复用的client,不关闭client,读取完响应后连接归还连接池
+		CloseableHttpClient client = getHttpClientManager(sqltoyContext).getClient(url, username, password);
+		try (CloseableHttpResponse response = client.execute(httpPost)) {
 			// 返回结果
 			HttpEntity reponseEntity = response.getEntity();
 			if (reponseEntity != null) {
 				return EntityUtils.toString(reponseEntity, CHARSET);
 			}
-		} catch (Exception e) {
-			throw e;
 		}
 		return null;
 	}
@@ -144,22 +140,12 @@ public class HttpClientUtils {
 				logger.debug("esRestClient执行:URL=[{}],Path={},执行的JSON=[{}]", esConfig.getUrl(), realUrl,
 						JSON.toJSONString(postValue));
 			}
-			// 默认采用post请求
-			RestClient restClient = null;
-			try {
-				restClient = esConfig.getRestClient();
-				Request request = new Request(POST, realUrl);
-				request.setEntity(httpEntity);
-				Response response = restClient.performRequest(request);
-				reponseEntity = response.getEntity();
-			} catch (Exception e) {
-				throw e;
-			} finally {
-				if (restClient != null) {
-					restClient.close();
-				}
-			}
-		} // 组织httpclient模式调用(此种模式不推荐使用)
+			// 默认采用post请求(restClient随ElasticEndpoint长期复用,不能在请求后关闭)
+			Request request = new Request(POST, realUrl);
+			request.setEntity(httpEntity);
+			Response response = esConfig.getRestClient().performRequest(request);
+			reponseEntity = response.getEntity();
+		} // 组织httpclient模式调用(单一地址)
 		else {
 			realUrl = wrapUrl(esConfig, nosqlConfig);
 			HttpPost httpPost = new HttpPost(realUrl);
@@ -167,9 +153,6 @@ public class HttpClientUtils {
 				logger.debug("httpClient执行URL=[{}],执行的JSON=[{}]", realUrl, JSON.toJSONString(postValue));
 			}
 			httpPost.setEntity(httpEntity);
-
-			// 设置connection是否自动关闭
-			httpPost.setHeader("Connection", "close");
 			// 自定义超时
 			if (nosqlConfig.getRequestTimeout() != 30000 || nosqlConfig.getConnectTimeout() != 10000
 					|| nosqlConfig.getSocketTimeout() != 180000) {
@@ -179,22 +162,15 @@ public class HttpClientUtils {
 			} else {
 				httpPost.setConfig(requestConfig);
 			}
-			CloseableHttpClient client = null;
-			try {
-				if (StringUtil.isNotBlank(esConfig.getUsername()) && StringUtil.isNotBlank(esConfig.getPassword())) {
-					// 凭据提供器
-					CredentialsProvider credsProvider = new BasicCredentialsProvider();
-					credsProvider.setCredentials(AuthScope.ANY,
-							// 认证用户名和密码
-							new UsernamePasswordCredentials(esConfig.getUsername(), esConfig.getPassword()));
-					client = HttpClients.custom().setDefaultCredentialsProvider(credsProvider).build();
-				} else {
-					client = HttpClients.createDefault();
-				}
-				HttpResponse response = client.execute(httpPost);
+			// 每个ElasticEndpoint地址复用同一个连接池client
+			CloseableHttpClient client = getHttpClientManager(sqltoyContext).getClient(esConfig.getUrl(),
+					esConfig.getUsername(), esConfig.getPassword());
+			try (CloseableHttpResponse response = client.execute(httpPost)) {
 				reponseEntity = response.getEntity();
-			} catch (Exception e) {
-				throw e;
+				// 在归还连接前读取完整响应
+				if (reponseEntity != null) {
+					reponseEntity = new BufferedHttpEntity(reponseEntity);
+				}
 			}
 		}
 		String result = null;
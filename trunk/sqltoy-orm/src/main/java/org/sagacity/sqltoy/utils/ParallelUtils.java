@@ -5,11 +5,12 @@ package org.sagacity.sqltoy.utils;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
 
@@ -20,17 +21,29 @@ import org.sagacity.sqltoy.config.model.EntityMeta;
 import org.sagacity.sqltoy.config.model.ShardingConfig;
 import org.sagacity.sqltoy.config.model.ShardingGroupModel;
 import org.sagacity.sqltoy.dialect.executor.DialectExecutor;
+import org.sagacity.sqltoy.exception.ShardingExecuteException;
 import org.sagacity.sqltoy.model.ShardingResult;
+import org.sagacity.sqltoy.plugins.executor.ExecutorManager;
 import org.sagacity.sqltoy.plugins.sharding.ShardingUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * @project sagacity-sqltoy
  * @description sqltoy对象集合相关操作、sharding策略分组以及并行提交相关数据库进行执行
  * @author zhongxuchen
  * @version v1.0,Date:2017年11月3日
+ * @modify 2026-10-18 改为使用SqlToyContext统一管理的线程池,不再每次创建线程池
+ * @modify 2026-10-18 多分片时大分组拆分成子批次并行执行,返回每个分片的执行结果,部分分片失败时抛出ShardingExecuteException
+ * @modify 2026-10-18 同一分片的子批次默认顺序执行(sqltoy.sharding.batch.chunk.parallel=true开启并行),超时被取消时抛出携带各分片结果的ShardingExecuteException
  */
-@SuppressWarnings("rawtypes")
+@SuppressWarnings({ "rawtypes", "unchecked" })
 public class ParallelUtils {
+	/**
+	 * 定义日志
+	 */
+	protected final static Logger logger = LoggerFactory.getLogger(ParallelUtils.class);
+
 	private ParallelUtils() {
 	}
 
@@ -46,65 +59,240 @@ public class ParallelUtils {
 	 */
 	public static List execute(final SqlToyContext sqlToyContext, List entities, boolean wrapIdValue,
 			DataSource dataSource, ParallelCallbackHandler handler) throws Exception {
+		List<ShardingResult> shardingResults = executeShards(sqlToyContext, entities, wrapIdValue, dataSource,
+				handler);
+		// 单分组直接返回
+		if (shardingResults.size() == 1 && shardingResults.get(0).isSuccess()) {
+			return shardingResults.get(0).getRows();
+		}
+		ShardingConfig shardingConfig = sqlToyContext.getEntityMeta(entities.get(0).getClass()).getShardingConfig();
+		List results = new ArrayList();
+		List<ShardingResult> failedResults = new ArrayList<ShardingResult>();
+		for (ShardingResult item : shardingResults) {
+			if (!item.isSuccess()) {
+				failedResults.add(item);
+			}
+			if (item.getRows() != null && !item.getRows().isEmpty()) {
+				results.addAll(item.getRows());
+			}
+		}
+		if (!failedResults.isEmpty()) {
+			// 全局异常则抛出,让事务进行全部回滚
+			if (shardingConfig.isGlobalRollback()) {
+				throw new ShardingExecuteException("分库分表批量操作共" + shardingResults.size() + "个分片,其中"
+						+ failedResults.size() + "个执行失败:" + failedResults.get(0).getMessage(), shardingResults);
+			}
+			for (ShardingResult item : failedResults) {
+				logger.warn("分库分表批量操作分片执行失败,失败记录数:{},{}", item.getFailedEntities().size(), item.getMessage());
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * @TODO 按sharding策略分组并行执行,返回每个分片(库+表)的执行结果,调用方可据此只重试失败的分片
+	 *       <p>
+	 *       单分组在当前线程执行(异常直接抛出);多分组时记录数超过sqltoy.sharding.batch.chunk.size的分组拆分成多个子批次,
+	 *       通过共享线程池按maxConcurrents限流并行执行(同一分片的子批次默认在同一任务中顺序执行);
+	 *       超过maxWaitSeconds被取消时抛出ShardingExecuteException,通过getResults()获取各分片结果
+	 *       </p>
+	 * @param sqlToyContext
+	 * @param entities
+	 * @param wrapIdValue
+	 * @param dataSource
+	 * @param handler
+	 * @return
+	 * @throws Exception
+	 */
+	public static List<ShardingResult> executeShards(final SqlToyContext sqlToyContext, List entities,
+			boolean wrapIdValue, DataSource dataSource, ParallelCallbackHandler handler) throws Exception {
 		// 获取对象的媒体信息
 		EntityMeta entityMeta = sqlToyContext.getEntityMeta(entities.get(0).getClass());
 		// 主键值需要提前按照主键策略赋予(sequence 和assign模式的不会实际执行赋值)
 		if (wrapIdValue) {
 			ShardingUtils.assignPKs(sqlToyContext, entityMeta, entities);
 		}
-		// 将批量集合数据按sharding策略处理后的库和表组成的key分组
+		// 将批量集合数据按sharding策略处理后的库和表分组
 		Collection<ShardingGroupModel> shardingGroups = ShardingUtils.groupShardings(sqlToyContext, entities,
 				entityMeta, dataSource);
 		// 单分组直接执行
 		if (shardingGroups.size() == 1) {
-			return handler.execute(sqlToyContext, shardingGroups.iterator().next());
+			ShardingGroupModel group = shardingGroups.iterator().next();
+			ShardingResult result = new ShardingResult();
+			result.setShardingModel(group.getShardingModel());
+			result.setEntitySize(group.getEntities().size());
+			result.setRows(handler.execute(sqlToyContext, group));
+			return Collections.singletonList(result);
 		}
 
 		// 开始多线程并行执行
 		ShardingConfig shardingConfig = entityMeta.getShardingConfig();
-		List results = new ArrayList();
+		List<ShardingGroupModel> chunks = splitGroups(shardingGroups, SqlToyConstants.getShardingBatchChunkSize());
+		// 默认同一分片的子批次在同一任务中顺序执行
+		List<List<ShardingGroupModel>> taskChunks = groupTasks(chunks,
+				SqlToyConstants.isShardingBatchChunkParallel());
 		// 并行线程数量
-		int threads = shardingGroups.size();
-		// 是否全局异常回滚
-		boolean globalRollback = shardingConfig.isGlobalRollback();
+		int threads = taskChunks.size();
 		// 如果额外策略配置了线程数量,则按照指定的线程数量执行
 		if (threads > shardingConfig.getMaxConcurrents() && shardingConfig.getMaxConcurrents() > 1) {
 			threads = shardingConfig.getMaxConcurrents();
 		}
-		ExecutorService pool = Executors.newFixedThreadPool(threads);
-		List<Future<ShardingResult>> futureResults = new ArrayList<Future<ShardingResult>>();
-		Future<ShardingResult> future;
-		for (ShardingGroupModel group : shardingGroups) {
-			future = pool.submit(new DialectExecutor(sqlToyContext, group, handler));
-			futureResults.add(future);
+		List<Callable<List<ShardingResult>>> tasks = new ArrayList<Callable<List<ShardingResult>>>(
+				taskChunks.size());
+		for (final List<ShardingGroupModel> groups : taskChunks) {
+			tasks.add(() -> {
+				List<ShardingResult> items = new ArrayList<ShardingResult>(groups.size());
+				for (ShardingGroupModel group : groups) {
+					items.add(new DialectExecutor(sqlToyContext, group, handler).call());
+				}
+				return items;
+			});
 		}
-		pool.shutdown();
-		// 设置最大等待时长
-		if (shardingConfig.getMaxWaitSeconds() > 0) {
-			pool.awaitTermination(shardingConfig.getMaxWaitSeconds(), TimeUnit.SECONDS);
-		} else {
-			pool.awaitTermination(SqlToyConstants.PARALLEL_MAXWAIT_SECONDS, TimeUnit.SECONDS);
+		// 提交共享线程池执行,并设置最大等待时长
+		List<Future<List<ShardingResult>>> futureResults = sqlToyContext.getExecutorManager()
+				.invokeAll(ExecutorManager.SHARDING, tasks, threads, shardingConfig.getMaxWaitSeconds());
+		return collectResults(taskChunks, futureResults, shardingConfig.getMaxWaitSeconds());
+	}
+
+	/**
+	 * @TODO 将子批次组织成并行任务:非并行模式下同一分片(相邻且共用ShardingModel)的子批次归入同一任务顺序执行
+	 * @param chunks
+	 * @param chunkParallel 子批次是否各自作为独立任务并行执行
+	 * @return
+	 */
+	public static List<List<ShardingGroupModel>> groupTasks(List<ShardingGroupModel> chunks, boolean chunkParallel) {
+		List<List<ShardingGroupModel>> result = new ArrayList<List<ShardingGroupModel>>();
+		List<ShardingGroupModel> groups = null;
+		for (ShardingGroupModel chunk : chunks) {
+			if (chunkParallel || groups == null || groups.get(0).getShardingModel() != chunk.getShardingModel()) {
+				groups = new ArrayList<ShardingGroupModel>();
+				result.add(groups);
+			}
+			groups.add(chunk);
 		}
-		// 提取各个线程返回的结果进行合并
-		try {
-			ShardingResult item;
-			for (Future<ShardingResult> futureResult : futureResults) {
-				item = futureResult.get();
-				// 全局异常则抛出,让事务进行全部回滚。
-				if (item != null && !item.isSuccess() && globalRollback) {
-					throw new RuntimeException(item.getMessage());
-				}
-				if (item != null && item.getRows() != null && !item.getRows().isEmpty()) {
-					results.addAll(item.getRows());
+		return result;
+	}
+
+	/**
+	 * @TODO 汇总各任务的执行结果并按分片合并,存在因超时被取消的任务时抛出携带各分片结果的ShardingExecuteException
+	 *       (已完成的分片保留执行结果,失败和被取消的分片记录failedEntities)
+	 * @param taskChunks     与futureResults一一对应的任务子批次
+	 * @param futureResults
+	 * @param maxWaitSeconds
+	 * @return
+	 * @throws ShardingExecuteException
+	 */
+	public static List<ShardingResult> collectResults(List<List<ShardingGroupModel>> taskChunks,
+			List<Future<List<ShardingResult>>> futureResults, long maxWaitSeconds) {
+		List<ShardingGroupModel> chunks = new ArrayList<ShardingGroupModel>();
+		List<ShardingResult> chunkResults = new ArrayList<ShardingResult>();
+		List<ShardingGroupModel> groups;
+		List<ShardingResult> items;
+		String message;
+		int cancelled = 0;
+		for (int i = 0; i < taskChunks.size(); i++) {
+			groups = taskChunks.get(i);
+			chunks.addAll(groups);
+			items = null;
+			message = null;
+			try {
+				items = futureResults.get(i).get();
+			} catch (CancellationException e) {
+				cancelled++;
+				message = "执行分库分表超过最大等待时长:" + maxWaitSeconds + "秒,任务被取消,执行结果未知";
+			} catch (ExecutionException e) {
+				message = "执行分库分表发生异常:" + ((e.getCause() == null) ? e.getMessage() : e.getCause().getMessage());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				cancelled++;
+				message = "执行分库分表等待结果时线程被中断,执行结果未知";
+			}
+			for (int j = 0; j < groups.size(); j++) {
+				if (items != null && j < items.size() && items.get(j) != null) {
+					chunkResults.add(items.get(j));
+				} else {
+					ShardingResult item = new ShardingResult();
+					if (message != null) {
+						item.setSuccess(false);
+						item.setMessage(message);
+					}
+					chunkResults.add(item);
 				}
 			}
-		} catch (Exception e) {
-			e.printStackTrace();
-			throw e;
-		} finally {
-			pool.shutdownNow();
+		}
+		List<ShardingResult> results = mergeResults(chunks, chunkResults);
+		if (cancelled > 0) {
+			throw new ShardingExecuteException("分库分表批量操作共" + taskChunks.size() + "个任务,其中" + cancelled + "个超过最大等待时长:"
+					+ maxWaitSeconds + "秒被取消", results);
 		}
 		return results;
 	}
 
+	/**
+	 * @TODO 将记录数超过chunkSize的分组拆分成多个子批次(共用同一个ShardingModel,相邻排列)
+	 * @param shardingGroups
+	 * @param chunkSize 小于1表示不拆分
+	 * @return
+	 */
+	public static List<ShardingGroupModel> splitGroups(Collection<ShardingGroupModel> shardingGroups, int chunkSize) {
+		List<ShardingGroupModel> result = new ArrayList<ShardingGroupModel>(shardingGroups.size());
+		List entities;
+		ShardingGroupModel chunk;
+		for (ShardingGroupModel group : shardingGroups) {
+			entities = group.getEntities();
+			if (chunkSize < 1 || entities.size() <= chunkSize) {
+				result.add(group);
+				continue;
+			}
+			for (int start = 0; start < entities.size(); start += chunkSize) {
+				chunk = new ShardingGroupModel();
+				chunk.setKey(group.getKey());
+				chunk.setShardingModel(group.getShardingModel());
+				chunk.setEntities(entities.subList(start, Math.min(start + chunkSize, entities.size())));
+				result.add(chunk);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @TODO 将子批次的执行结果按分片合并,失败子批次的记录汇总到failedEntities
+	 * @param chunks
+	 * @param chunkResults 与chunks一一对应
+	 * @return
+	 */
+	public static List<ShardingResult> mergeResults(List<ShardingGroupModel> chunks, List<ShardingResult> chunkResults) {
+		List<ShardingResult> result = new ArrayList<ShardingResult>();
+		ShardingResult merged = null;
+		ShardingGroupModel chunk;
+		ShardingResult item;
+		List rows;
+		List failedEntities;
+		for (int i = 0; i < chunks.size(); i++) {
+			chunk = chunks.get(i);
+			item = chunkResults.get(i);
+			// 拆分的子批次共用同一个ShardingModel且相邻
+			if (merged == null || merged.getShardingModel() != chunk.getShardingModel()) {
+				merged = new ShardingResult();
+				merged.setShardingModel(chunk.getShardingModel());
+				merged.setRows(new ArrayList());
+				merged.setFailedEntities(new ArrayList());
+				result.add(merged);
+			}
+			merged.setEntitySize(merged.getEntitySize() + chunk.getEntities().size());
+			if (item.getRows() != null) {
+				rows = merged.getRows();
+				rows.addAll(item.getRows());
+			}
+			if (!item.isSuccess()) {
+				merged.setSuccess(false);
+				failedEntities = merged.getFailedEntities();
+				failedEntities.addAll(chunk.getEntities());
+				merged.setMessage(
+						(merged.getMessage() == null) ? item.getMessage() : merged.getMessage() + ";" + item.getMessage());
+			}
+		}
+		return result;
+	}
+
 }
@@ -18,6 +18,7 @@ import org.sagacity.sqltoy.SqlToyContext;
 import org.sagacity.sqltoy.config.model.CacheFilterModel;
 import org.sagacity.sqltoy.config.model.ParamFilterModel;
 import org.sagacity.sqltoy.model.ParamsFilter;
+import org.sagacity.sqltoy.translate.cache.TranslateDictionary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,6 +28,7 @@ import org.slf4j.LoggerFactory;
  * @author zhongxuchen
  * @version v1.0,Date:2013-3-23
  * @modify Date:2020-7-15 {增加l-like,r-like为参数单边补充%从而不破坏索引,默认是两边}
+ * @modify 2026-10-18 cache-arg基于缓存查找字典匹配,不再将缓存整体获取为HashMap
  */
 @SuppressWarnings({ "rawtypes", "unchecked" })
 public class ParamFilterUtils {
@@ -149,16 +151,16 @@ public class ParamFilterUtils {
 						aliasName);
 				return;
 			}
-			// 获取缓存数据
-			HashMap<String, Object[]> cacheDataMap = sqlToyContext.getTranslateManager()
-					.getCacheData(paramFilterModel.getCacheName(), paramFilterModel.getCacheType());
-			if (cacheDataMap == null || cacheDataMap.isEmpty()) {
+			// 获取缓存的查找字典(内存映射文件等非堆内存储无需转换为HashMap)
+			TranslateDictionary dictionary = sqlToyContext.getTranslateManager()
+					.getDictionary(paramFilterModel.getCacheName(), paramFilterModel.getCacheType());
+			if (dictionary == null || dictionary.isEmpty()) {
 				logger.warn("缓存:{} 可能不存在,在通过缓存获取查询条件key值时异常,请检查!", paramFilterModel.getCacheName());
 				return;
 			}
 
 			// 本身就是一个key 代码值,不做处理
-			if (cacheDataMap.containsKey(paramValue)) {
+			if (dictionary.indexOf(paramValue) != -1) {
 				// 存在别名,设置别名对应的值
 				if (StringUtil.isNotBlank(paramFilterModel.getAliasName())) {
 					int aliasIndex = paramIndexMap.get(paramFilterModel.getAliasName());
@@ -207,26 +209,24 @@ public class ParamFilterUtils {
 			List<Object> matchKeys = new ArrayList<Object>();
 
 			// 循环缓存进行匹配,匹配上将key值放入数组
-			Iterator<Object[]> iter = cacheDataMap.values().iterator();
-			Object[] cacheRow;
+			Object cacheValue;
 			int cacheKeyIndex = paramFilterModel.getCacheKeyIndex();
 			boolean skip = false;
 			// 将条件参数值转小写进行统一比较
 			String[] lowMatchStr = paramValue.trim().toLowerCase().split("\\s+");
 			boolean hasEqual = false;
-			while (iter.hasNext()) {
-				cacheRow = iter.next();
+			for (int row = 0; row < dictionary.size(); row++) {
 				skip = false;
 				// 对缓存进行过滤(比如过滤本人授权访问机构下面的员工或当期状态为生效的员工)
 				if (hasFilter) {
 					for (int i = 0; i < cacheFilters.length; i++) {
 						cacheFilter = cacheFilters[i];
 						// 过滤条件是否相等
-						if (cacheRow[cacheFilter.getCacheIndex()] == null) {
+						cacheValue = dictionary.getValue(row, cacheFilter.getCacheIndex());
+						if (cacheValue == null) {
 							hasEqual = false;
 						} else {
-							hasEqual = filterValues.get(i)
-									.containsKey(cacheRow[cacheFilter.getCacheIndex()].toString());
+							hasEqual = filterValues.get(i).containsKey(cacheValue.toString());
 						}
 						// 条件成立则过滤掉
 						if ((cacheFilter.getCompareType().equals("eq") && hasEqual)
@@ -239,10 +239,11 @@ public class ParamFilterUtils {
 				if (!skip) {
 					for (int matchIndex : matchIndexes) {
 						// 匹配检索,全部转成小写比较
-						if (cacheRow[matchIndex] != null
-								&& StringUtil.like(cacheRow[matchIndex].toString().toLowerCase(), lowMatchStr)) {
+						cacheValue = dictionary.getValue(row, matchIndex);
+						if (cacheValue != null
+								&& StringUtil.like(cacheValue.toString().toLowerCase(), lowMatchStr)) {
 							// 第0列为key
-							matchKeys.add(cacheRow[cacheKeyIndex]);
+							matchKeys.add(dictionary.getValue(row, cacheKeyIndex));
 							matchCnt++;
 							break;
 						}
@@ -0,0 +1,284 @@
+package org.sagacity.sqltoy.utils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.sagacity.sqltoy.callback.DecryptHandler;
+import org.sagacity.sqltoy.config.model.Translate;
+import org.sagacity.sqltoy.model.IgnoreCaseSet;
+import org.sagacity.sqltoy.model.inner.TranslateExtend;
+import org.sagacity.sqltoy.translate.cache.TranslateDictionary;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 查询结果行读取计划:依据ResultSetMetaData一次性编译出列下标、取值方式以及解密、缓存翻译动作,
+ *              逐行读取时按下标取值,避免驱动按列名查找以及每个单元格重复的字符串处理
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ * @modify {Date:2026-10-18,增加按列批量翻译:读取时不翻译,全部读取后逐列对去重后的值翻译再回填}
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class ResultRowReader {
+	/**
+	 * 取值方式
+	 */
+	private final static int GET_OBJECT = 0;
+
+	private final static int GET_STRING = 1;
+
+	private final static int GET_LONG = 2;
+
+	private final static int GET_INT = 3;
+
+	private final static int GET_BIG_DECIMAL = 4;
+
+	private final static int GET_TIMESTAMP = 5;
+
+	/**
+	 * 结果列数
+	 */
+	private final int size;
+
+	/**
+	 * ResultSet中的列下标(从1开始)
+	 */
+	private final int[] columnIndexes;
+
+	private final int[] getterTypes;
+
+	/**
+	 * 解密用的列名
+	 */
+	private final String[] labelNames;
+
+	/**
+	 * 需要解密的列
+	 */
+	private final boolean[] decrypts;
+
+	private final DecryptHandler decryptHandler;
+
+	/**
+	 * 列对应的缓存翻译(null表示不翻译)
+	 */
+	private final TranslateExtend[] translates;
+
+	private final TranslateDictionary[] translateCaches;
+
+	/**
+	 * 读取行时不做缓存翻译,由translateColumns在全部读取后按列统一翻译
+	 */
+	private boolean deferTranslate = false;
+
+	private ResultRowReader(int size, DecryptHandler decryptHandler) {
+		this.size = size;
+		this.columnIndexes = new int[size];
+		this.getterTypes = new int[size];
+		this.labelNames = new String[size];
+		this.decrypts = new boolean[size];
+		this.translates = new TranslateExtend[size];
+		this.translateCaches = new TranslateDictionary[size];
+		this.decryptHandler = decryptHandler;
+	}
+
+	/**
+	 * @TODO 依据结果集元数据编译行读取计划
+	 * @param rs
+	 * @param labelNames      结果列名(与startColIndex之后的列一一对应)
+	 * @param startColIndex   起始列(跳过分页等附加的列)
+	 * @param decryptHandler  解密处理器,可为null
+	 * @param translateMap    缓存翻译配置,可为null
+	 * @param translateCaches 缓存翻译数据,可为null
+	 * @return
+	 * @throws SQLException
+	 */
+	public static ResultRowReader compile(ResultSet rs, String[] labelNames, int startColIndex,
+			DecryptHandler decryptHandler, HashMap<String, Translate> translateMap,
+			HashMap<String, TranslateDictionary> translateCaches) throws SQLException {
+		int size = labelNames.length;
+		ResultRowReader reader = new ResultRowReader(size, decryptHandler);
+		ResultSetMetaData metaData = rs.getMetaData();
+		boolean hasTranslate = (translateMap != null && !translateMap.isEmpty() && translateCaches != null
+				&& !translateCaches.isEmpty());
+		IgnoreCaseSet decryptColumns = (decryptHandler == null) ? null : decryptHandler.getColumns();
+		String label;
+		String labelLow;
+		Translate translate;
+		for (int i = 0; i < size; i++) {
+			label = labelNames[i];
+			labelLow = label.toLowerCase();
+			reader.columnIndexes[i] = startColIndex + i + 1;
+			reader.getterTypes[i] = getterType(metaData, startColIndex + i + 1);
+			reader.labelNames[i] = label;
+			if (decryptColumns != null) {
+				reader.decrypts[i] = decryptColumns.contains(label) || decryptColumns.contains(label.replace("_", ""));
+			}
+			if (hasTranslate) {
+				// 优先按列名,其次按列下标匹配缓存翻译
+				translate = translateMap.get(labelLow);
+				if (translate == null || translate.getExtend() == null) {
+					translate = translateMap.get(Integer.toString(i));
+				}
+				if (translate != null && translate.getExtend() != null) {
+					reader.translateCaches[i] = translateCaches.get(translate.getExtend().column);
+					if (reader.translateCaches[i] != null) {
+						reader.translates[i] = translate.getExtend();
+					}
+				}
+			}
+		}
+		return reader;
+	}
+
+	/**
+	 * @TODO 按驱动声明的getObject返回类型选择对应的强类型取值方法,保证结果类型与getObject一致
+	 * @param metaData
+	 * @param columnIndex
+	 * @return
+	 */
+	private static int getterType(ResultSetMetaData metaData, int columnIndex) {
+		String className;
+		try {
+			className = metaData.getColumnClassName(columnIndex);
+		} catch (Exception e) {
+			// 部分驱动未实现
+			return GET_OBJECT;
+		}
+		if (className == null) {
+			return GET_OBJECT;
+		}
+		switch (className) {
+		case "java.lang.String":
+			return GET_STRING;
+		case "java.lang.Long":
+			return GET_LONG;
+		case "java.lang.Integer":
+			return GET_INT;
+		case "java.math.BigDecimal":
+			return GET_BIG_DECIMAL;
+		case "java.sql.Timestamp":
+			return GET_TIMESTAMP;
+		default:
+			return GET_OBJECT;
+		}
+	}
+
+	/**
+	 * @TODO 读取当前行数据
+	 * @param rs
+	 * @param ignoreAllEmptySet 全部为null时返回null
+	 * @return
+	 * @throws Exception
+	 */
+	public List readRow(ResultSet rs, boolean ignoreAllEmptySet) throws Exception {
+		List rowData = new ArrayList(size);
+		Object fieldValue;
+		boolean allNull = true;
+		for (int i = 0; i < size; i++) {
+			fieldValue = getValue(rs, i);
+			if (null != fieldValue) {
+				allNull = false;
+				if (decrypts[i]) {
+					fieldValue = decryptHandler.decrypt(labelNames[i], fieldValue);
+				}
+				if (translates[i] != null && !deferTranslate) {
+					fieldValue = ResultUtils.translateKey(translates[i], translateCaches[i], fieldValue);
+				}
+			}
+			rowData.add(fieldValue);
+		}
+		// 全null返回null结果，外围判断结果为null则不加入结果集合
+		if (allNull && ignoreAllEmptySet) {
+			return null;
+		}
+		return rowData;
+	}
+
+	private Object getValue(ResultSet rs, int i) throws Exception {
+		int columnIndex = columnIndexes[i];
+		switch (getterTypes[i]) {
+		case GET_STRING:
+			return rs.getString(columnIndex);
+		case GET_LONG: {
+			long value = rs.getLong(columnIndex);
+			return rs.wasNull() ? null : Long.valueOf(value);
+		}
+		case GET_INT: {
+			int value = rs.getInt(columnIndex);
+			return rs.wasNull() ? null : Integer.valueOf(value);
+		}
+		case GET_BIG_DECIMAL:
+			return rs.getBigDecimal(columnIndex);
+		case GET_TIMESTAMP:
+			return rs.getTimestamp(columnIndex);
+		default: {
+			Object value = rs.getObject(columnIndex);
+			if (value instanceof java.sql.Clob) {
+				return SqlUtil.clobToString((java.sql.Clob) value);
+			}
+			return value;
+		}
+		}
+	}
+
+	/**
+	 * @TODO 设置读取行时不翻译,改为全部读取后调用translateColumns按列翻译(缩短游标占用时间)
+	 * @return 存在需要翻译的列返回true
+	 */
+	public boolean deferTranslate() {
+		for (TranslateExtend translate : translates) {
+			if (translate != null) {
+				deferTranslate = true;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @TODO 按列对已读取的结果做缓存翻译:先收集列内不重复的值逐一翻译,再回填到各行
+	 * @param rows              readRow读取的结果
+	 * @param parallelThreshold 行数达到此值时并行回填,小于等于0表示不并行
+	 */
+	public void translateColumns(List<List> rows, int parallelThreshold) {
+		if (!deferTranslate || rows == null || rows.isEmpty()) {
+			return;
+		}
+		boolean parallel = parallelThreshold > 0 && rows.size() >= parallelThreshold;
+		HashMap<Object, Object> translated = new HashMap<Object, Object>();
+		Object fieldValue;
+		for (int i = 0; i < size; i++) {
+			if (translates[i] == null) {
+				continue;
+			}
+			translated.clear();
+			for (List row : rows) {
+				fieldValue = row.get(i);
+				if (fieldValue != null && !translated.containsKey(fieldValue)) {
+					translated.put(fieldValue, ResultUtils.translateKey(translates[i], translateCaches[i], fieldValue));
+				}
+			}
+			final int column = i;
+			IntStream rowIndexes = IntStream.range(0, rows.size());
+			if (parallel) {
+				rowIndexes = rowIndexes.parallel();
+			}
+			rowIndexes.forEach((rowIndex) -> {
+				List row = rows.get(rowIndex);
+				Object value = row.get(column);
+				if (value != null) {
+					row.set(column, translated.get(value));
+				}
+			});
+		}
+	}
+
+	public int getSize() {
+		return size;
+	}
+}
@@ -52,6 +52,7 @@ import org.sagacity.sqltoy.plugins.calculator.RowsChainRelative;
 import org.sagacity.sqltoy.plugins.calculator.UnpivotList;
 import org.sagacity.sqltoy.plugins.secure.DesensitizeProvider;
 import org.sagacity.sqltoy.translate.TranslateConfigParse;
+import org.sagacity.sqltoy.translate.cache.TranslateDictionary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,6 +63,8 @@ import org.slf4j.LoggerFactory;
  * @version v1.0,Date:2013-4-18
  * @modify Date:2016-12-13 {对行转列分类参照集合进行了排序}
  * @modify Date:2020-05-29 {将脱敏和格式化转到calculate中,便于elastic和mongo查询提供同样的功能}
+ * @modify Date:2026-10-18 {结果行提取改为ResultRowReader按列下标预编译读取,替代逐单元格按列名取值}
+ * @modify Date:2026-10-18 {增加按列批量缓存翻译选项,先读取全部数据释放游标再逐列翻译}
  */
 @SuppressWarnings({ "rawtypes", "unchecked" })
 public class ResultUtils {
@@ -233,17 +236,18 @@ public class ResultUtils {
 		// 判断是否有缓存翻译器定义
 		Boolean hasTranslate = (sqlToyConfig.getTranslateMap().isEmpty()) ? false : true;
 		HashMap<String, Translate> translateMap = sqlToyConfig.getTranslateMap();
-		HashMap<String, HashMap<String, Object[]>> translateCache = null;
+		HashMap<String, TranslateDictionary> translateCache = null;
 		if (hasTranslate) {
-			translateCache = sqlToyContext.getTranslateManager().getTranslates(translateMap);
+			translateCache = sqlToyContext.getTranslateManager().getTranslateDictionaries(translateMap);
 			if (translateCache == null || translateCache.isEmpty()) {
 				hasTranslate = false;
 				logger.debug("通过缓存配置未获取到缓存数据,请正确配置TranslateManager!");
 			}
 		}
+		// 依据结果集元数据一次性编译行读取计划(列下标、取值方式、解密和翻译)
+		ResultRowReader rowReader = ResultRowReader.compile(rs, labelNames, startColIndex, decryptHandler,
+				hasTranslate ? translateMap : null, translateCache);
 
-		// link 目前只支持单个字段运算
-		int columnSize = labelNames.length;
 		int index = 0;
 
 		// 警告阀值
@@ -278,7 +282,7 @@ public class ResultUtils {
 			Object linkValue;
 			String linkStr;
 			boolean translateLink = hasTranslate ? translateMap.containsKey(linkColumnLow) : false;
-			HashMap<String, Object[]> linkTranslateMap = null;
+			TranslateDictionary linkTranslateMap = null;
 			int linkTranslateIndex = 1;
 			TranslateExtend extend = null;
 			if (translateLink) {
@@ -286,7 +290,8 @@ public class ResultUtils {
 				linkTranslateIndex = extend.index;
 				linkTranslateMap = translateCache.get(extend.column);
 			}
-			Object[] cacheValues;
+			int cacheRow;
+			Object cacheValue;
 			// 判断link拼接是否重新开始
 			boolean isLastProcess = false;
 			boolean doLink = true;
@@ -297,14 +302,14 @@ public class ResultUtils {
 					linkStr = "";
 				} else {
 					if (translateLink) {
-						cacheValues = linkTranslateMap.get(linkValue.toString());
-						if (cacheValues == null) {
+						cacheRow = linkTranslateMap.indexOf(linkValue);
+						if (cacheRow == -1) {
 							linkStr = "[" + linkValue + "]未匹配";
 							logger.debug("translate cache:{},cacheType:{}, 对应的key:{} 没有设置相应的value!", extend.cache,
 									extend.cacheType, linkValue);
 						} else {
-							linkStr = (cacheValues[linkTranslateIndex] == null) ? ""
-									: cacheValues[linkTranslateIndex].toString();
+							cacheValue = linkTranslateMap.getValue(cacheRow, linkTranslateIndex);
+							linkStr = (cacheValue == null) ? "" : cacheValue.toString();
 						}
 					} else {
 						linkStr = linkValue.toString();
@@ -321,12 +326,7 @@ public class ResultUtils {
 					}
 					linkBuffer.append(linkStr);
 					linkSet.add(linkStr);
-					if (hasTranslate) {
-						rowTemp = processResultRowWithTranslate(translateMap, translateCache, labelNames, rs,
-								columnSize, decryptHandler, ignoreAllEmpty);
-					} else {
-						rowTemp = processResultRow(rs, labelNames, columnSize, decryptHandler, ignoreAllEmpty);
-					}
+					rowTemp = rowReader.readRow(rs, ignoreAllEmpty);
 					if (rowTemp != null) {
 						items.add(rowTemp);
 					}
@@ -367,51 +367,33 @@ public class ResultUtils {
 			if (updateRowHandler != null) {
 				isUpdate = true;
 			}
-			// 循环通过java reflection将rs中的值映射到VO中
-			if (hasTranslate) {
-				while (rs.next()) {
-					// 先修改后再获取最终值
-					if (isUpdate) {
-						updateRowHandler.updateRow(rs, index);
-						rs.updateRow();
-					}
-					rowTemp = processResultRowWithTranslate(translateMap, translateCache, labelNames, rs, columnSize,
-							decryptHandler, ignoreAllEmpty);
-					if (rowTemp != null) {
-						items.add(rowTemp);
-					}
-					index++;
-					// 存在超出25000条数据的查询(具体数据规模可以通过参数进行定义)
-					if (index == warnThresholds) {
-						warnLimit = true;
-					}
-					// 超出最大提取数据阀值,直接终止数据提取
-					if (index == maxThresholds) {
-						maxLimit = true;
-						break;
-					}
+			// 按列批量翻译:读取时不翻译,全部读取后再逐列翻译
+			boolean columnarTranslate = hasTranslate && SqlToyConstants.isColumnarTranslate()
+					&& rowReader.deferTranslate();
+			// 按编译好的行读取计划逐行提取
+			while (rs.next()) {
+				// 先修改后再获取最终值
+				if (isUpdate) {
+					updateRowHandler.updateRow(rs, index);
+					rs.updateRow();
 				}
-			} else {
-				while (rs.next()) {
-					if (isUpdate) {
-						updateRowHandler.updateRow(rs, index);
-						rs.updateRow();
-					}
-					rowTemp = processResultRow(rs, labelNames, columnSize, decryptHandler, ignoreAllEmpty);
-					if (rowTemp != null) {
-						items.add(rowTemp);
-					}
-					index++;
-					// 存在超出警告规模级的数据查询
-					if (index == warnThresholds) {
-						warnLimit = true;
-					}
-					// 提取数据超过上限(-1表示不限制)
-					if (index == maxThresholds) {
-						maxLimit = true;
-						break;
-					}
+				rowTemp = rowReader.readRow(rs, ignoreAllEmpty);
+				if (rowTemp != null) {
+					items.add(rowTemp);
 				}
+				index++;
+				// 存在超出25000条数据的查询(具体数据规模可以通过参数进行定义)
+				if (index == warnThresholds) {
+					warnLimit = true;
+				}
+				// 超出最大提取数据阀值,直接终止数据提取
+				if (index == maxThresholds) {
+					maxLimit = true;
+					break;
+				}
+			}
+			if (columnarTranslate) {
+				rowReader.translateColumns(items, SqlToyConstants.getColumnarTranslateParallelThreshold());
 			}
 		}
 		// 超出警告阀值
@@ -474,16 +456,17 @@ public class ResultUtils {
 		// 判断是否有缓存翻译器定义
 		Boolean hasTranslate = (sqlToyConfig.getTranslateMap().isEmpty()) ? false : true;
 		HashMap<String, Translate> translateMap = sqlToyConfig.getTranslateMap();
-		HashMap<String, HashMap<String, Object[]>> translateCache = null;
+		HashMap<String, TranslateDictionary> translateCache = null;
 		if (hasTranslate) {
-			translateCache = sqlToyContext.getTranslateManager().getTranslates(translateMap);
+			translateCache = sqlToyContext.getTranslateManager().getTranslateDictionaries(translateMap);
 			if (translateCache == null || translateCache.isEmpty()) {
 				hasTranslate = false;
 				logger.debug("通过缓存配置未获取到缓存数据,请正确配置TranslateManager!");
 			}
 		}
-		// link 目前只支持单个字段运算
-		int columnSize = labelNames.length;
+		// 依据结果集元数据一次性编译行读取计划(列下标、取值方式、解密和翻译)
+		ResultRowReader rowReader = ResultRowReader.compile(rs, labelNames, startColIndex, decryptHandler,
+				hasTranslate ? translateMap : null, translateCache);
 		int index = 0;
 		// 警告阀值
 		int warnThresholds = SqlToyConstants.getWarnThresholds();
@@ -532,7 +515,8 @@ public class ResultUtils {
 		Object[] linkValues = new Object[linkCols];
 		String[] linkStrs = new String[linkCols];
 		TranslateExtend extend = null;
-		Object[] cacheValues;
+		int cacheRow;
+		Object cacheValue;
 		List rowTemp;
 		Object identity = null;
 		// 判断link拼接是否重新开始
@@ -548,14 +532,14 @@ public class ResultUtils {
 				} else {
 					if (translateLinks[i]) {
 						extend = transExtends[i];
-						cacheValues = translateCache.get(extend.column).get(linkValues[i].toString());
-						if (cacheValues == null) {
+						cacheRow = translateCache.get(extend.column).indexOf(linkValues[i]);
+						if (cacheRow == -1) {
 							linkStrs[i] = "[" + linkValues[i] + "]未匹配";
 							logger.debug("translate cache:{},cacheType:{}, 对应的key:{} 没有设置相应的value!", extend.cache,
 									extend.cacheType, linkValues[i]);
 						} else {
-							linkStrs[i] = (cacheValues[extend.index] == null) ? ""
-									: cacheValues[extend.index].toString();
+							cacheValue = translateCache.get(extend.column).getValue(cacheRow, extend.index);
+							linkStrs[i] = (cacheValue == null) ? "" : cacheValue.toString();
 						}
 					} else {
 						linkStrs[i] = linkValues[i].toString();
@@ -586,12 +570,7 @@ public class ResultUtils {
 					}
 				}
 				// 提取result中的数据(identity相等时不需要提取)
-				if (hasTranslate) {
-					rowTemp = processResultRowWithTranslate(translateMap, translateCache, labelNames, rs, columnSize,
-							decryptHandler, ignoreAllEmpty);
-				} else {
-					rowTemp = processResultRow(rs, labelNames, columnSize, decryptHandler, ignoreAllEmpty);
-				}
+				rowTemp = rowReader.readRow(rs, ignoreAllEmpty);
 				if (rowTemp != null) {
 					items.add(rowTemp);
 				}
@@ -864,56 +843,6 @@ public class ResultUtils {
 		return rowData;
 	}
 
-	/**
-	 * @todo 存在缓存翻译的结果处理
-	 * @param translateMap
-	 * @param translateCaches
-	 * @param labelNames
-	 * @param rs
-	 * @param size
-	 * @param ignoreAllEmptySet
-	 * @return
-	 * @throws Exception
-	 */
-	private static List processResultRowWithTranslate(HashMap<String, Translate> translateMap,
-			HashMap<String, HashMap<String, Object[]>> translateCaches, String[] labelNames, ResultSet rs, int size,
-			DecryptHandler decryptHandler, boolean ignoreAllEmptySet) throws Exception {
-		List rowData = new ArrayList();
-		Object fieldValue;
-		TranslateExtend extend;
-		String label;
-		String keyIndex;
-		boolean allNull = true;
-		for (int i = 0; i < size; i++) {
-			label = labelNames[i];
-			fieldValue = rs.getObject(label);
-			label = label.toLowerCase();
-			keyIndex = Integer.toString(i);
-			if (null != fieldValue) {
-				allNull = false;
-				if (fieldValue instanceof java.sql.Clob) {
-					fieldValue = SqlUtil.clobToString((java.sql.Clob) fieldValue);
-				}
-				// 解密
-				if (decryptHandler != null) {
-					fieldValue = decryptHandler.decrypt(label, fieldValue);
-				}
-				if (translateMap.containsKey(label) || translateMap.containsKey(keyIndex)) {
-					extend = translateMap.get(label).getExtend();
-					if (extend == null) {
-						extend = translateMap.get(keyIndex).getExtend();
-					}
-					fieldValue = translateKey(extend, translateCaches.get(extend.column), fieldValue);
-				}
-			}
-			rowData.add(fieldValue);
-		}
-		if (allNull && ignoreAllEmptySet) {
-			return null;
-		}
-		return rowData;
-	}
-
 	/**
 	 * @date 2018-5-26 优化缓存翻译，提供keyCode1,keyCode2,keyCode3 形式的多代码翻译
 	 * @todo 统一对key进行缓存翻译
@@ -922,19 +851,24 @@ public class ResultUtils {
 	 * @param fieldValue
 	 * @return
 	 */
-	private static Object translateKey(TranslateExtend extend, HashMap<String, Object[]> translateKeyMap,
-			Object fieldValue) {
-		String fieldStr = fieldValue.toString();
+	static Object translateKey(TranslateExtend extend, TranslateDictionary translateKeyMap, Object fieldValue) {
 		// 单值翻译
 		if (extend.splitRegex == null) {
+			int cacheRow;
+			String fieldStr = null;
 			if (extend.keyTemplate != null) {
 				// keyTemplate已经提前做了规整,将${key},${},${0} 统一成了{}
-				fieldStr = extend.keyTemplate.replace("{}", fieldStr);
+				fieldStr = extend.keyTemplate.replace("{}", fieldValue.toString());
+				cacheRow = translateKeyMap.indexOf(fieldStr);
+			} else {
+				// 整数型key直接按数值查找,无需toString
+				cacheRow = translateKeyMap.indexOf(fieldValue);
 			}
-			// 根据key获取缓存值
-			Object[] cacheValues = translateKeyMap.get(fieldStr);
 			// 未匹配到
-			if (cacheValues == null || cacheValues.length == 0) {
+			if (cacheRow == -1) {
+				if (fieldStr == null) {
+					fieldStr = fieldValue.toString();
+				}
 				// 定义未匹配模板则不输出日志
 				if (extend.uncached != null) {
 					fieldValue = extend.uncached.replace("${value}", fieldStr);
@@ -944,10 +878,11 @@ public class ResultUtils {
 							extend.cacheType, fieldValue);
 				}
 			} else {
-				fieldValue = cacheValues[extend.index];
+				fieldValue = translateKeyMap.getValue(cacheRow, extend.index);
 			}
 			return fieldValue;
 		}
+		String fieldStr = fieldValue.toString();
 		// 将字符串用分隔符切分开进行逐个翻译
 		String[] keys = null;
 		String splitReg = extend.splitRegex.trim();
@@ -966,13 +901,13 @@ public class ResultUtils {
 		String linkSign = extend.linkSign;
 		StringBuilder result = new StringBuilder();
 		int index = 0;
-		Object[] cacheValues;
+		int cacheRow;
 		for (String key : keys) {
 			if (index > 0) {
 				result.append(linkSign);
 			}
-			cacheValues = translateKeyMap.get(key.trim());
-			if (cacheValues == null || cacheValues.length == 0) {
+			cacheRow = translateKeyMap.indexOf(key.trim());
+			if (cacheRow == -1) {
 				// 定义未匹配模板则不输出日志
 				if (extend.uncached != null) {
 					result.append(extend.uncached.replace("${value}", key));
@@ -982,7 +917,7 @@ public class ResultUtils {
 							extend.cacheType, key);
 				}
 			} else {
-				result.append(cacheValues[extend.index]);
+				result.append(translateKeyMap.getValue(cacheRow, extend.index));
 			}
 			index++;
 		}
@@ -1300,8 +1235,8 @@ public class ResultUtils {
 			return;
 		}
 		// 获取缓存数据
-		HashMap<String, HashMap<String, Object[]>> cacheDatas = sqlToyContext.getTranslateManager()
-				.getTranslates(translateConfig);
+		HashMap<String, TranslateDictionary> cacheDatas = sqlToyContext.getTranslateManager()
+				.getTranslateDictionaries(translateConfig);
 		List voList;
 		if (result instanceof List) {
 			voList = (List) result;
@@ -1317,7 +1252,7 @@ public class ResultUtils {
 		TranslateExtend trans;
 		Object srcFieldValue;
 		Object fieldValue;
-		HashMap<String, Object[]> cacheData;
+		TranslateDictionary cacheData;
 		try {
 			for (int i = 0; i < voList.size(); i++) {
 				item = voList.get(i);
@@ -4,9 +4,6 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Reader;
-import java.lang.reflect.Method;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Blob;
@@ -44,6 +41,7 @@ import org.sagacity.sqltoy.config.SqlConfigParseUtils;
 import org.sagacity.sqltoy.config.model.EntityMeta;
 import org.sagacity.sqltoy.model.TreeTableModel;
 import org.sagacity.sqltoy.plugins.TypeHandler;
+import org.sagacity.sqltoy.plugins.datasource.StatementCache;
 import org.sagacity.sqltoy.utils.DataSourceUtils.DBType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,6 +61,8 @@ import org.slf4j.LoggerFactory;
  * @modify Date:2017-6-14 {修复针对阿里的druid数据库datasource针对clob类型处理的错误}
  * @modify Date:2019-7-5 剔除对druid clob bug的支持(druid 1.1.10 已经修复)
  * @modify Date:2020-06-18 用BeanUtil代替BeanInfo中getWriteMethod,完成对象属性赋值
+ * @modify 2026-10-18 增加连接(事务)范围内PreparedStatement缓存
+ * @modify 2026-10-18 语句缓存改为从当前调用链绑定的连接获取,不再使用全局静态缓存
  */
 @SuppressWarnings({ "rawtypes", "unchecked" })
 public class SqlUtil {
@@ -111,6 +111,39 @@ public class SqlUtil {
 	private SqlUtil() {
 	}
 
+	/**
+	 * @TODO 获取PreparedStatement,连接由SqlToyContext获取并绑定了语句缓存时,同一连接内复用相同sql的语句
+	 * @param conn
+	 * @param dbType
+	 * @param sql
+	 * @param resultSetType        小于0表示使用默认
+	 * @param resultSetConcurrency
+	 * @return
+	 * @throws SQLException
+	 */
+	private static PreparedStatement prepareStatement(Connection conn, Integer dbType, String sql, int resultSetType,
+			int resultSetConcurrency) throws SQLException {
+		StatementCache cache = StatementCache.current(conn);
+		if (cache != null) {
+			return cache.prepareStatement(conn, dbType, sql, resultSetType, resultSetConcurrency);
+		}
+		if (resultSetType < 0) {
+			return conn.prepareStatement(sql);
+		}
+		return conn.prepareStatement(sql, resultSetType, resultSetConcurrency);
+	}
+
+	/**
+	 * @TODO 关闭PreparedStatement,缓存的语句则归还到缓存
+	 * @param pst
+	 * @throws SQLException
+	 */
+	private static void closeStatement(PreparedStatement pst) throws SQLException {
+		if (!StatementCache.recycleCurrent(pst)) {
+			pst.close();
+		}
+	}
+
 	/**
 	 * @todo 合成数据库in 查询的条件(不建议使用)
 	 * @param conditions :数据库in条件的数据集合，可以是POJO List或Object[]
@@ -428,29 +461,14 @@ public class SqlUtil {
 				fields[i] = fields[i].replace("_", "");
 			}
 		}
-		// 匹配对应的set方法
-		Method[] setMethods = BeanUtil.matchSetMethods(voClass, fields);
-		// set方法对应参数的类型,并全部转为小写
-		String[] propTypes = new String[setMethods.length];
-		Class[] genericTypes = new Class[setMethods.length];
-		Type[] types;
-		for (int i = 0; i < propTypes.length; i++) {
-			if (setMethods[i] != null) {
-				propTypes[i] = setMethods[i].getParameterTypes()[0].getTypeName();
-				types = setMethods[i].getGenericParameterTypes();
-				if (types.length > 0) {
-					if (types[0] instanceof ParameterizedType) {
-						genericTypes[i] = (Class) ((ParameterizedType) types[0]).getActualTypeArguments()[0];
-					}
-				}
-			}
-		}
+		// 按类和属性缓存的映射器(set方法、参数类型只解析一次)
+		BeanRowMapper rowMapper = BeanRowMapper.getMapper(voClass, fields);
 		int index = 0;
 		// 循环通过java reflection将rs中的值映射到VO中
 		Object rowData;
 		while (rs.next()) {
-			rowData = reflectResultRowToVOClass(typeHandler, decryptHandler, rs, columnNames, setMethods, propTypes,
-					genericTypes, voClass, ignoreAllEmptySet);
+			rowData = reflectResultRowToVOClass(typeHandler, decryptHandler, rs, columnNames, rowMapper,
+					ignoreAllEmptySet);
 			if (rowData != null) {
 				resultList.add(rowData);
 			}
@@ -482,37 +500,28 @@ public class SqlUtil {
 	 * @param decryptHandler    解密
 	 * @param rs
 	 * @param columnLabels
-	 * @param setMethods
-	 * @param propTypes
-	 * @param genericTypes
-	 * @param voClass
+	 * @param rowMapper
 	 * @param ignoreAllEmptySet
 	 * @return
 	 * @throws Exception
 	 */
 	private static Object reflectResultRowToVOClass(TypeHandler typeHandler, DecryptHandler decryptHandler,
-			ResultSet rs, String[] columnLabels, Method[] setMethods, String[] propTypes, Class[] genericTypes,
-			Class voClass, boolean ignoreAllEmptySet) throws Exception {
-		// 根据匹配的字段通过java reflection将rs中的值映射到VO中
-		Object bean = voClass.getDeclaredConstructor().newInstance();
+			ResultSet rs, String[] columnLabels, BeanRowMapper rowMapper, boolean ignoreAllEmptySet) throws Exception {
+		// 根据匹配的字段将rs中的值映射到VO中
+		Object bean = rowMapper.newInstance();
 		Object fieldValue;
 		boolean allNull = true;
-		Method method;
-		// 已经小写
-		String typeName;
 		String label;
 		for (int i = 0, n = columnLabels.length; i < n; i++) {
-			label = columnLabels[i];
-			method = setMethods[i];
-			typeName = propTypes[i];
-			if (method != null) {
+			if (rowMapper.hasSetter(i)) {
+				label = columnLabels[i];
 				fieldValue = rs.getObject(label);
 				if (null != fieldValue) {
 					if (decryptHandler != null) {
 						fieldValue = decryptHandler.decrypt(label, fieldValue);
 					}
 					allNull = false;
-					method.invoke(bean, BeanUtil.convertType(typeHandler, fieldValue, typeName, genericTypes[i]));
+					rowMapper.setValue(typeHandler, bean, i, fieldValue, true);
 				}
 			}
 		}
@@ -559,7 +568,7 @@ public class SqlUtil {
 					rs = null;
 				}
 				if (pst != null) {
-					pst.close();
+					closeStatement(pst);
 					pst = null;
 				}
 			} catch (SQLException se) {
@@ -794,7 +803,7 @@ public class SqlUtil {
 			final Connection conn, final Integer dbType, final boolean ignoreAllEmptySet,
 			final HashMap<String, String> colFieldMap, final int fetchSize, final int maxRows) throws Exception {
 		ResultSet rs = null;
-		PreparedStatement pst = conn.prepareStatement(queryStr, ResultSet.TYPE_FORWARD_ONLY,
+		PreparedStatement pst = prepareStatement(conn, dbType, queryStr, ResultSet.TYPE_FORWARD_ONLY,
 				ResultSet.CONCUR_READ_ONLY);
 		if (fetchSize > 0) {
 			pst.setFetchSize(fetchSize);
@@ -806,8 +815,13 @@ public class SqlUtil {
 			public void execute(Object obj, PreparedStatement pst, ResultSet rs) throws Exception {
 				setParamsValue(typeHandler, conn, dbType, pst, params, null, 0);
 				rs = pst.executeQuery();
-				this.setResult(processResultSet(typeHandler, rs, voClass, rowCallbackHandler, decryptHandler, 0,
-						ignoreAllEmptySet, colFieldMap));
+				try {
+					this.setResult(processResultSet(typeHandler, rs, voClass, rowCallbackHandler, decryptHandler, 0,
+							ignoreAllEmptySet, colFieldMap));
+				} finally {
+					// 语句可能被缓存复用,结果集需主动关闭
+					rs.close();
+				}
 			}
 		});
 		// 为null返回一个空集合
@@ -949,7 +963,7 @@ public class SqlUtil {
 				conn.setAutoCommit(autoCommit.booleanValue());
 				hasSetAutoCommit = true;
 			}
-			pst = conn.prepareStatement(updateSql);
+			pst = prepareStatement(conn, dbType, updateSql, -1, -1);
 			int totalRows = rowDatas.size();
 			boolean useBatch = (totalRows > 1) ? true : false;
 			Object rowData;
@@ -1020,7 +1034,7 @@ public class SqlUtil {
 		} finally {
 			try {
 				if (pst != null) {
-					pst.close();
+					closeStatement(pst);
 					pst = null;
 				}
 			} catch (SQLException se) {
@@ -1413,7 +1427,7 @@ public class SqlUtil {
 				hasSetAutoCommit = true;
 			}
 		}
-		PreparedStatement pst = conn.prepareStatement(realSql);
+		PreparedStatement pst = prepareStatement(conn, dbType, realSql, -1, -1);
 		Object result = preparedStatementProcess(null, pst, null, new PreparedStatementResultHandler() {
 			@Override
 			public void execute(Object obj, PreparedStatement pst, ResultSet rs) throws SQLException, IOException {
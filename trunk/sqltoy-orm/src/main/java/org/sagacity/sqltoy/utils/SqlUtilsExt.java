@@ -10,6 +10,8 @@ import java.sql.SQLException;
 import java.time.LocalTime;
 import java.util.Date;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.sagacity.sqltoy.SqlToyConstants;
 import org.sagacity.sqltoy.config.model.SqlToyConfig;
@@ -23,6 +25,7 @@ import org.slf4j.LoggerFactory;
  * @description 提供针对SqlUtil类的扩展,提供更有针对性的操作,提升性能
  * @author zhongxuchen
  * @version v1.0,Date:2015年4月22日
+ * @modify 2026-10-18 增加saveAll多行values合并插入batchInsertByMultiValues
  */
 public class SqlUtilsExt {
 	/**
@@ -30,6 +33,16 @@ public class SqlUtilsExt {
 	 */
 	private final static Logger logger = LoggerFactory.getLogger(SqlUtilsExt.class);
 
+	/**
+	 * insert 语句中values(...)部分的起始匹配
+	 */
+	private final static Pattern VALUES_PATTERN = Pattern.compile("(?i)\\)\\s*values\\s*\\(");
+
+	/**
+	 * 多行values插入每累计多少条语句执行一次executeBatch
+	 */
+	private final static int MULTI_VALUES_PIPELINE = 8;
+
 	private SqlUtilsExt() {
 	}
 
@@ -129,6 +142,207 @@ public class SqlUtilsExt {
 		return updateCount;
 	}
 
+	/**
+	 * @TODO 判断数据库是否启用saveAll多行values合并插入(mysql、tidb、postgresql、gaussdb、clickhouse)
+	 * @param dbType
+	 * @return
+	 */
+	public static boolean isMultiValuesInsert(Integer dbType) {
+		if (dbType == null || getMultiValuesMaxParams(dbType) < 1) {
+			return false;
+		}
+		String dialects = SqlToyConstants.getMultiValuesInsertDialects();
+		if (StringUtil.isBlank(dialects)) {
+			return false;
+		}
+		String dialect = DataSourceUtils.getDialect(dbType);
+		for (String item : dialects.toLowerCase().split("\\,")) {
+			item = item.trim();
+			if (item.equals(dialect) || (dbType == DBType.MYSQL57 && item.equals(DataSourceUtils.Dialect.MYSQL))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @TODO 不同数据库单条语句绑定参数数量上限(mysql协议65535,postgresql协议32767)
+	 * @param dbType
+	 * @return 小于1表示不支持
+	 */
+	private static int getMultiValuesMaxParams(int dbType) {
+		switch (dbType) {
+		case DBType.MYSQL:
+		case DBType.MYSQL57:
+		case DBType.TIDB:
+			return SqlToyConstants.getMultiValuesMaxParams(DataSourceUtils.getDialect(dbType), 65535);
+		case DBType.POSTGRESQL:
+		case DBType.GAUSSDB:
+			return SqlToyConstants.getMultiValuesMaxParams(DataSourceUtils.getDialect(dbType), 32767);
+		case DBType.CLICKHOUSE:
+			// clickhouse驱动客户端拼接参数,无协议上限,由batchSize控制
+			return SqlToyConstants.getMultiValuesMaxParams(DataSourceUtils.getDialect(dbType), Integer.MAX_VALUE);
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * @TODO 将insert into table (cols) values (?,?) 形式的批量插入改写成多行values
+	 *       insert into table (cols) values (?,?),(?,?) 按参数数量上限分段执行,减少网络往返和语句解析
+	 * @param typeHandler
+	 * @param insertSql
+	 * @param rowDatas
+	 * @param fieldsType
+	 * @param fieldsDefaultValue
+	 * @param fieldsNullable
+	 * @param batchSize          单条语句的最大记录数
+	 * @param autoCommit
+	 * @param conn
+	 * @param dbType
+	 * @return
+	 * @throws Exception
+	 */
+	public static Long batchInsertByMultiValues(TypeHandler typeHandler, final String insertSql,
+			final List<Object[]> rowDatas, final Integer[] fieldsType, final String[] fieldsDefaultValue,
+			final Boolean[] fieldsNullable, final int batchSize, final Boolean autoCommit, final Connection conn,
+			final Integer dbType) throws Exception {
+		if (rowDatas == null || rowDatas.isEmpty()) {
+			logger.warn("batchInsertByMultiValues批量插入数据库操作数据为空!");
+			return 0L;
+		}
+		int totalRows = rowDatas.size();
+		int columns = (rowDatas.get(0) == null) ? 0 : rowDatas.get(0).length;
+		int chunkRows = (columns == 0) ? 0 : Math.min(getMultiValuesMaxParams(dbType) / columns, batchSize);
+		String[] sqlParts = (chunkRows > 1 && totalRows > 1) ? splitValuesSql(insertSql) : null;
+		// 无法改写(如单条记录、sql结构不匹配、存在null行)则按常规batch方式执行
+		if (sqlParts == null || rowDatas.contains(null)) {
+			return batchUpdateByJdbc(typeHandler, insertSql, rowDatas, fieldsType, fieldsDefaultValue, fieldsNullable,
+					batchSize, autoCommit, conn, dbType);
+		}
+		long updateCount = 0;
+		PreparedStatement pst = null;
+		boolean supportDefaultValue = (fieldsDefaultValue != null && fieldsNullable != null) ? true : false;
+		try {
+			boolean hasSetAutoCommit = false;
+			if (autoCommit != null && autoCommit.booleanValue() != conn.getAutoCommit()) {
+				conn.setAutoCommit(autoCommit.booleanValue());
+				hasSetAutoCommit = true;
+			}
+			int fullChunks = totalRows / chunkRows;
+			int remainRows = totalRows % chunkRows;
+			int[] updateRows;
+			int index = 0;
+			if (fullChunks > 0) {
+				pst = conn.prepareStatement(buildValuesSql(sqlParts, chunkRows));
+				for (int chunk = 0; chunk < fullChunks; chunk++) {
+					setChunkParams(typeHandler, conn, dbType, pst, rowDatas, index, chunkRows, fieldsType,
+							fieldsDefaultValue, fieldsNullable, supportDefaultValue);
+					index += chunkRows;
+					if (fullChunks == 1) {
+						updateCount += pst.executeUpdate();
+					} else {
+						pst.addBatch();
+						// 分段流水执行,避免一次性堆积过多参数
+						if ((chunk + 1) % MULTI_VALUES_PIPELINE == 0 || chunk + 1 == fullChunks) {
+							updateRows = pst.executeBatch();
+							for (int t : updateRows) {
+								updateCount = updateCount + ((t > 0) ? t : 0);
+							}
+							pst.clearBatch();
+						}
+					}
+				}
+				pst.close();
+				pst = null;
+			}
+			// 剩余不足一段的记录
+			if (remainRows > 0) {
+				pst = conn.prepareStatement(buildValuesSql(sqlParts, remainRows));
+				setChunkParams(typeHandler, conn, dbType, pst, rowDatas, index, remainRows, fieldsType,
+						fieldsDefaultValue, fieldsNullable, supportDefaultValue);
+				updateCount += pst.executeUpdate();
+			}
+			if (hasSetAutoCommit) {
+				conn.setAutoCommit(!autoCommit);
+			}
+		} catch (Exception e) {
+			logger.error(e.getMessage(), e);
+			throw e;
+		} finally {
+			try {
+				if (pst != null) {
+					pst.close();
+					pst = null;
+				}
+			} catch (SQLException se) {
+				logger.error(se.getMessage(), se);
+			}
+		}
+		return updateCount;
+	}
+
+	/**
+	 * @TODO 将insert语句拆分成values前部分、单行values表达式、values后部分
+	 * @param insertSql
+	 * @return 不匹配返回null
+	 */
+	private static String[] splitValuesSql(String insertSql) {
+		Matcher matcher = VALUES_PATTERN.matcher(insertSql);
+		if (!matcher.find()) {
+			return null;
+		}
+		int groupStart = matcher.end() - 1;
+		int groupEnd = StringUtil.getSymMarkIndex("(", ")", insertSql, groupStart);
+		if (groupEnd == -1) {
+			return null;
+		}
+		// 后续存在多个values(如insert into ... select)不做改写
+		String tail = insertSql.substring(groupEnd + 1);
+		if (VALUES_PATTERN.matcher(tail).find()) {
+			return null;
+		}
+		return new String[] { insertSql.substring(0, groupStart), insertSql.substring(groupStart, groupEnd + 1),
+				tail };
+	}
+
+	private static String buildValuesSql(String[] sqlParts, int rows) {
+		StringBuilder sql = new StringBuilder(sqlParts[0].length() + sqlParts[2].length()
+				+ (sqlParts[1].length() + 1) * rows);
+		sql.append(sqlParts[0]);
+		for (int i = 0; i < rows; i++) {
+			if (i > 0) {
+				sql.append(",");
+			}
+			sql.append(sqlParts[1]);
+		}
+		sql.append(sqlParts[2]);
+		return sql.toString();
+	}
+
+	private static void setChunkParams(TypeHandler typeHandler, Connection conn, Integer dbType,
+			PreparedStatement pst, List<Object[]> rowDatas, int startRow, int rows, Integer[] fieldsType,
+			String[] fieldsDefaultValue, Boolean[] fieldsNullable, boolean supportDefaultValue) throws Exception {
+		boolean hasFieldType = (fieldsType != null);
+		Object[] rowData;
+		Object cellValue;
+		int fieldType;
+		int paramIndex = 1;
+		for (int i = startRow, end = startRow + rows; i < end; i++) {
+			rowData = rowDatas.get(i);
+			for (int j = 0, n = rowData.length; j < n; j++) {
+				fieldType = (hasFieldType) ? fieldsType[j] : -1;
+				if (supportDefaultValue) {
+					cellValue = getDefaultValue(rowData[j], fieldsDefaultValue[j], fieldType, fieldsNullable[j]);
+				} else {
+					cellValue = rowData[j];
+				}
+				SqlUtil.setParamValue(typeHandler, conn, dbType, pst, cellValue, fieldType, paramIndex);
+				paramIndex++;
+			}
+		}
+	}
+
 	/**
 	 * @TODO 针对sqlserver进行特殊化处理(主要针对Timestamp类型的兼容)
 	 * @param typeHandler
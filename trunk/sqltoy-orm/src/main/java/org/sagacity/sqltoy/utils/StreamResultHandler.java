@@ -0,0 +1,156 @@
+package org.sagacity.sqltoy.utils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.sagacity.sqltoy.SqlToyContext;
+import org.sagacity.sqltoy.callback.DecryptHandler;
+import org.sagacity.sqltoy.callback.RowCallbackHandler;
+import org.sagacity.sqltoy.config.model.SqlToyConfig;
+import org.sagacity.sqltoy.config.model.Translate;
+import org.sagacity.sqltoy.exception.DataAccessException;
+import org.sagacity.sqltoy.model.IgnoreCaseSet;
+import org.sagacity.sqltoy.model.QueryResult;
+import org.sagacity.sqltoy.model.inner.QueryExecutorExtend;
+import org.sagacity.sqltoy.translate.cache.TranslateDictionary;
+
+/**
+ * @project sagacity-sqltoy
+ * @description 流式查询的行处理器:在ResultSet打开期间逐行完成解密、缓存翻译,按小批次做脱敏、格式化和结果类型映射后推送给消费者,
+ *              不在内存中保留全部结果
+ * @author zhongxuchen
+ * @version v1.0,Date:2026-10-18
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class StreamResultHandler<T> extends RowCallbackHandler {
+	/**
+	 * 默认批次记录数
+	 */
+	private final static int DEFAULT_BATCH_SIZE = 200;
+
+	/**
+	 * 最大批次记录数
+	 */
+	private final static int MAX_BATCH_SIZE = 1000;
+
+	private final SqlToyContext sqlToyContext;
+
+	private final SqlToyConfig sqlToyConfig;
+
+	private final QueryExecutorExtend extend;
+
+	private final Consumer<T> consumer;
+
+	private final int batchSize;
+
+	private DecryptHandler decryptHandler;
+
+	private String[] labelNames;
+
+	/**
+	 * 首行时依据元数据编译的行读取计划
+	 */
+	private ResultRowReader rowReader;
+
+	private List<List> batchRows;
+
+	/**
+	 * 已经推送给消费者的记录数
+	 */
+	private long count = 0;
+
+	public StreamResultHandler(SqlToyContext sqlToyContext, SqlToyConfig sqlToyConfig, QueryExecutorExtend extend,
+			DecryptHandler decryptHandler, int fetchSize, Consumer<T> consumer) {
+		this.sqlToyContext = sqlToyContext;
+		this.sqlToyConfig = sqlToyConfig;
+		this.extend = extend;
+		this.consumer = consumer;
+		this.batchSize = (fetchSize > 0) ? Math.min(fetchSize, MAX_BATCH_SIZE) : DEFAULT_BATCH_SIZE;
+		this.batchRows = new ArrayList<List>(batchSize);
+		// 重新组合解密字段(entityMeta中的和sql自定义的合并)
+		IgnoreCaseSet decryptColumns = new IgnoreCaseSet();
+		if (decryptHandler != null && decryptHandler.getColumns() != null) {
+			decryptColumns.addAll(decryptHandler.getColumns());
+		}
+		if (sqlToyConfig.getDecryptColumns() != null) {
+			decryptColumns.addAll(sqlToyConfig.getDecryptColumns());
+		}
+		if (!decryptColumns.isEmpty()) {
+			this.decryptHandler = new DecryptHandler(sqlToyContext.getFieldsSecureProvider(), decryptColumns);
+		}
+	}
+
+	@Override
+	public void processRow(ResultSet rs, int index) throws SQLException {
+		try {
+			if (labelNames == null) {
+				init(rs);
+			}
+			List row = rowReader.readRow(rs, sqlToyConfig.isIgnoreEmpty());
+			if (row != null) {
+				batchRows.add(row);
+				if (batchRows.size() >= batchSize) {
+					flush();
+				}
+			}
+		} catch (SQLException | RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DataAccessException(e);
+		}
+	}
+
+	/**
+	 * @TODO 将剩余批次的数据推送给消费者(ResultSet遍历完成后调用)
+	 * @throws Exception
+	 */
+	public void flush() throws Exception {
+		if (batchRows.isEmpty()) {
+			return;
+		}
+		QueryResult batch = new QueryResult();
+		batch.setLabelNames(labelNames);
+		batch.setRows(batchRows);
+		// 字段脱敏、格式化(流式查询已经排除了旋转、汇总等需要全量数据的计算)
+		ResultUtils.calculate(sqlToyContext.getDesensitizeProvider(), sqlToyConfig, batch, null, extend);
+		List items = batch.getRows();
+		if (extend.resultType != null) {
+			// wrapQueryResult 会改写labelNames,需传入副本
+			items = ResultUtils.wrapQueryResult(sqlToyContext, items, labelNames.clone(), (Class) extend.resultType,
+					false, extend.humpMapLabel);
+		}
+		// 先切换批次,避免消费者异常后重复推送
+		batchRows = new ArrayList<List>(batchSize);
+		for (Object item : items) {
+			consumer.accept((T) item);
+			count++;
+		}
+	}
+
+	/**
+	 * @return 推送给消费者的记录数
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	private void init(ResultSet rs) throws SQLException {
+		ResultSetMetaData metaData = rs.getMetaData();
+		int columnCount = metaData.getColumnCount();
+		labelNames = new String[columnCount];
+		for (int i = 0; i < columnCount; i++) {
+			labelNames[i] = metaData.getColumnLabel(i + 1);
+		}
+		HashMap<String, Translate> translateMap = sqlToyConfig.getTranslateMap();
+		HashMap<String, TranslateDictionary> translateCache = null;
+		if (translateMap != null && !translateMap.isEmpty()) {
+			translateCache = sqlToyContext.getTranslateManager().getTranslateDictionaries(translateMap);
+		}
+		rowReader = ResultRowReader.compile(rs, labelNames, 0, decryptHandler, translateMap, translateCache);
+	}
+}
@@ -1,7 +1,13 @@
 package org.sagacity.sqltoy.config;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -139,4 +145,67 @@ public class SqlConfigParseUtilsTest {
 		String[] result = SqlConfigParseUtils.getSqlParamsName(sql, true);
 		System.err.println(JSON.toJSONString(result));
 	}
+
+	@Test
+	public void testSqlTemplate() throws Exception {
+		String[] sqls = { "select * from table where 1=1 #[and id=:id and name like :name] #[and status=:status]",
+				"select * from t where #[@if(:status==1) and id=:id] #[or name like :name] order by id",
+				"select * from t where #[t.id in (:ids) #[and name like :name]] #[and flag is not :flag]",
+				"update t set #[a=:id] #[,b=:name] where c=:status",
+				"select * from t where (#[a=:id] #[and b=:name]) and c in (:ids)",
+				"select #[@value(:name)] as x from t where #[a=:id] #[and @blank(:status) b=1] and d=:flag" };
+		String[] paramsNamed = { "id", "name", "status", "ids", "flag" };
+		Object[][] paramsValues = { { null, null, null, null, null }, { "1", "chen", 1, new Object[] { 1, 2 }, true },
+				{ null, "ch%", 2, Arrays.asList("a", "b"), false }, { "1", null, null, "'a','b'", null } };
+		SqlToyResult result;
+		SqlToyResult compareResult;
+		for (String sql : sqls) {
+			for (Object[] paramsValue : paramsValues) {
+				result = SqlTemplate.compile(sql).process(paramsNamed, paramsValue.clone(), null);
+				compareResult = SqlConfigParseUtils.processSqlByParse(sql, paramsNamed, paramsValue.clone(), null);
+				assertEquals(compareResult.getSql().replaceAll("\\s+", " ").trim(),
+						result.getSql().replaceAll("\\s+", " ").trim());
+				assertArrayEquals(compareResult.getParamsValue(), result.getParamsValue());
+			}
+		}
+	}
+
+	@Test
+	public void testIsConditionFollowedByParam() throws Exception {
+		String sql = "select * from t where 1=1 #[and a=:a and b is not :b and c=:c]";
+		String[] paramsNamed = { "a", "b", "c" };
+		// is (not) ? 条件后还有参数的#[]不编译模板,保持原有逐步解析逻辑
+		assertFalse(SqlTemplate.compile(sql).isCompiled());
+		Object[][] paramsValues = { { 1, null, "x" }, { 1, null, null }, { 1, true, 2 } };
+		for (Object[] paramsValue : paramsValues) {
+			SqlToyResult result = SqlConfigParseUtils.processSql(sql, paramsNamed, paramsValue.clone(), null);
+			SqlToyResult compareResult = SqlConfigParseUtils.processSqlByParse(sql, paramsNamed, paramsValue.clone(),
+					null);
+			assertEquals(compareResult.getSql(), result.getSql());
+			assertArrayEquals(compareResult.getParamsValue(), result.getParamsValue());
+		}
+	}
+
+	@Test
+	public void testTemplateCacheEviction() {
+		SqlTemplateCache cache = new SqlTemplateCache(2);
+		SqlTemplate template1 = SqlTemplate.compile("select * from t where a=?");
+		SqlTemplate template2 = SqlTemplate.compile("select * from t where b=?");
+		cache.put("sql1", template1);
+		cache.put("sql2", template2);
+		// sql1近期被访问,淘汰sql2
+		assertTrue(cache.get("sql1") == template1);
+		cache.put("sql3", SqlTemplate.compile("select * from t where c=?"));
+		assertEquals(2, cache.size());
+		assertTrue(cache.get("sql1") == template1);
+		assertTrue(cache.get("sql2") == null);
+		assertTrue(cache.get("sql3") != null);
+		// 重复放入不增加数量
+		cache.put("sql3", template2);
+		assertEquals(2, cache.size());
+		// 全部被访问过时按时钟顺序淘汰
+		cache.put("sql4", template2);
+		assertEquals(2, cache.size());
+		assertTrue(cache.get("sql4") == template2);
+	}
 }
@@ -0,0 +1,74 @@
+package org.sagacity.sqltoy.dialect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.SqlToyContext;
+import org.sagacity.sqltoy.config.SqlConfigParseUtils;
+import org.sagacity.sqltoy.config.model.SqlToyConfig;
+import org.sagacity.sqltoy.config.model.SqlType;
+import org.sagacity.sqltoy.model.QueryExecutor;
+import org.sagacity.sqltoy.plugins.datasource.ConnectionFactory;
+
+/**
+ * @TODO forEach流式查询:mysql允许fetchSize=Integer.MIN_VALUE开启驱动流式读取
+ * @author zhongxuchen
+ *
+ */
+public class ForEachTest {
+	private final static String SQL = "select staff_id,staff_name from sys_staff";
+
+	@Test
+	public void testMySqlStreamFetchSize() {
+		MockJdbc mockJdbc = createMockJdbc();
+		List<Map> rows = forEach(mockJdbc, "mysql");
+		assertEquals(3, rows.size());
+		assertEquals("name23", rows.get(2).get("staffName"));
+		assertEquals(1, mockJdbc.getFetchSizes().size());
+		assertEquals(Integer.MIN_VALUE, mockJdbc.getFetchSizes().get(0));
+	}
+
+	@Test
+	public void testOtherDbIgnoreMinValue() {
+		MockJdbc mockJdbc = createMockJdbc();
+		List<Map> rows = forEach(mockJdbc, "postgresql");
+		assertEquals(3, rows.size());
+		// 非mysql不传递Integer.MIN_VALUE给驱动
+		assertTrue(mockJdbc.getFetchSizes().stream().allMatch((size) -> size > 0));
+	}
+
+	private List<Map> forEach(final MockJdbc mockJdbc, String dialect) {
+		SqlToyContext sqlToyContext = new SqlToyContext();
+		sqlToyContext.setDialect(dialect);
+		sqlToyContext.setConnectionFactory(new ConnectionFactory() {
+			@Override
+			public Connection getConnection(DataSource dataSource) {
+				return mockJdbc.createConnection();
+			}
+
+			@Override
+			public void releaseConnection(Connection conn, DataSource datasource) {
+			}
+		});
+		SqlToyConfig sqlToyConfig = SqlConfigParseUtils.parseSqlToyConfig(SQL, dialect, SqlType.search);
+		QueryExecutor queryExecutor = new QueryExecutor(SQL).resultType(HashMap.class).fetchSize(Integer.MIN_VALUE);
+		final List<Map> rows = new ArrayList<Map>();
+		DialectFactory.getInstance().forEach(sqlToyContext, queryExecutor, sqlToyConfig, null,
+				(row) -> rows.add((Map) row));
+		return rows;
+	}
+
+	private MockJdbc createMockJdbc() {
+		return new MockJdbc(3, new String[] { "STAFF_ID", "STAFF_NAME" },
+				new Object[][] { { "S21", "name21" }, { "S22", "name22" }, { "S23", "name23" } });
+	}
+}
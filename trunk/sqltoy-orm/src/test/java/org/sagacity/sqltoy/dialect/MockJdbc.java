@@ -0,0 +1,138 @@
+package org.sagacity.sqltoy.dialect;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @TODO 通过动态代理模拟mysql的jdbc连接:count查询返回总记录数,其余查询返回固定的记录,并记录设置的fetchSize
+ * @author zhongxuchen
+ *
+ */
+public class MockJdbc {
+	private final long total;
+
+	private final String[] labels;
+
+	private final Object[][] rows;
+
+	private final List<Integer> fetchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+
+	public MockJdbc(long total, String[] labels, Object[][] rows) {
+		this.total = total;
+		this.labels = labels;
+		this.rows = rows;
+	}
+
+	/**
+	 * 查询语句上设置过的fetchSize
+	 */
+	public List<Integer> getFetchSizes() {
+		return fetchSizes;
+	}
+
+	public Connection createConnection() {
+		final DatabaseMetaData dbMeta = proxy(DatabaseMetaData.class, (method, args) -> {
+			if (method.getName().equals("getDatabaseProductName")) {
+				return "MySQL";
+			}
+			if (method.getName().equals("getDatabaseMajorVersion")) {
+				return 8;
+			}
+			return null;
+		});
+		return proxy(Connection.class, (method, args) -> {
+			switch (method.getName()) {
+			case "getAutoCommit":
+				return true;
+			case "getMetaData":
+				return dbMeta;
+			case "prepareStatement":
+				return createStatement((String) args[0]);
+			default:
+				return null;
+			}
+		});
+	}
+
+	private PreparedStatement createStatement(final String sql) {
+		final boolean count = sql.toLowerCase().contains("count(");
+		return proxy(PreparedStatement.class, (method, args) -> {
+			if (method.getName().equals("setFetchSize")) {
+				fetchSizes.add((Integer) args[0]);
+			} else if (method.getName().equals("executeQuery")) {
+				return count ? createResultSet(new String[] { "CNT" }, new Object[][] { { total } })
+						: createResultSet(labels, rows);
+			}
+			return null;
+		});
+	}
+
+	private static ResultSet createResultSet(final String[] labels, final Object[][] rows) {
+		final int[] cursor = { -1 };
+		final ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (method, args) -> {
+			switch (method.getName()) {
+			case "getColumnCount":
+				return labels.length;
+			case "getColumnLabel":
+			case "getColumnName":
+				return labels[(Integer) args[0] - 1];
+			case "getColumnType":
+				return Types.VARCHAR;
+			case "getColumnTypeName":
+				return "VARCHAR";
+			default:
+				return null;
+			}
+		});
+		return proxy(ResultSet.class, (method, args) -> {
+			switch (method.getName()) {
+			case "next":
+				return ++cursor[0] < rows.length;
+			case "getMetaData":
+				return metaData;
+			case "getObject":
+			case "getString":
+				return rows[cursor[0]][(Integer) args[0] - 1];
+			case "getLong":
+				return ((Number) rows[cursor[0]][(Integer) args[0] - 1]).longValue();
+			default:
+				return null;
+			}
+		});
+	}
+
+	@FunctionalInterface
+	private interface Invoker {
+		Object invoke(Method method, Object[] args) throws Throwable;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, final Invoker invoker) {
+		final Map<Class<?>, Object> defaults = new HashMap<Class<?>, Object>();
+		defaults.put(boolean.class, false);
+		defaults.put(int.class, 0);
+		defaults.put(long.class, 0L);
+		defaults.put(short.class, (short) 0);
+		defaults.put(byte.class, (byte) 0);
+		defaults.put(double.class, 0d);
+		defaults.put(float.class, 0f);
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class[] { type }, (proxy, method, args) -> {
+			Object result = invoker.invoke(method, args);
+			if (result == null && method.getReturnType().isPrimitive()) {
+				return defaults.get(method.getReturnType());
+			}
+			return result;
+		});
+	}
+}
@@ -0,0 +1,118 @@
+package org.sagacity.sqltoy.dialect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.SqlToyContext;
+import org.sagacity.sqltoy.config.SqlConfigParseUtils;
+import org.sagacity.sqltoy.config.model.PageOptimize;
+import org.sagacity.sqltoy.config.model.SqlToyConfig;
+import org.sagacity.sqltoy.config.model.SqlType;
+import org.sagacity.sqltoy.model.QueryExecutor;
+import org.sagacity.sqltoy.model.QueryResult;
+import org.sagacity.sqltoy.plugins.datasource.ConnectionFactory;
+import org.sagacity.sqltoy.plugins.executor.ExecutorManager;
+import org.sagacity.sqltoy.plugins.executor.ExecutorMetrics;
+
+/**
+ * @TODO 并行分页测试(模拟jdbc):并行与串行结果一致,线程池饱和时由调用线程执行
+ * @author zhongxuchen
+ *
+ */
+public class ParallelPageTest {
+	private final static String SQL = "select staff_id,staff_name from sys_staff where status=:status";
+
+	private final static long TOTAL = 23;
+
+	@Test
+	public void testParallelSameAsSerial() throws Exception {
+		AtomicInteger connections = new AtomicInteger(0);
+		SqlToyContext sqlToyContext = createContext(connections);
+		try {
+			QueryResult serial = findPage(sqlToyContext, false);
+			int serialConnections = connections.getAndSet(0);
+			QueryResult parallel = findPage(sqlToyContext, true);
+			assertSameResult(serial, parallel);
+			// 非事务下count借用独立连接
+			assertEquals(1, serialConnections);
+			assertEquals(2, connections.get());
+		} finally {
+			sqlToyContext.getExecutorManager().destroy();
+		}
+	}
+
+	@Test
+	public void testCallerRunsWhenRejected() throws Exception {
+		System.setProperty("sqltoy.executor.page.threads", "1");
+		System.setProperty("sqltoy.executor.page.queue.size", "1");
+		System.setProperty("sqltoy.executor.page.reject.policy", "callerRuns");
+		SqlToyContext sqlToyContext = createContext(new AtomicInteger(0));
+		final CountDownLatch latch = new CountDownLatch(1);
+		try {
+			QueryResult serial = findPage(sqlToyContext, false);
+			// 占满线程和队列
+			for (int i = 0; i < 2; i++) {
+				sqlToyContext.getExecutorManager().submit(ExecutorManager.PAGE, () -> {
+					latch.await();
+					return null;
+				});
+			}
+			QueryResult parallel = findPage(sqlToyContext, true);
+			assertSameResult(serial, parallel);
+			ExecutorMetrics metrics = sqlToyContext.getExecutorManager().getMetrics(ExecutorManager.PAGE);
+			assertEquals(2, metrics.getCallerRunsCount());
+			assertEquals(2, metrics.getRejectedCount());
+		} finally {
+			latch.countDown();
+			sqlToyContext.getExecutorManager().destroy();
+			System.clearProperty("sqltoy.executor.page.threads");
+			System.clearProperty("sqltoy.executor.page.queue.size");
+			System.clearProperty("sqltoy.executor.page.reject.policy");
+		}
+	}
+
+	private void assertSameResult(QueryResult serial, QueryResult parallel) {
+		assertEquals(TOTAL, serial.getRecordCount());
+		assertEquals(serial.getRecordCount(), parallel.getRecordCount());
+		assertEquals(serial.getPageNo(), parallel.getPageNo());
+		assertEquals(serial.getPageSize(), parallel.getPageSize());
+		assertEquals(serial.getRows(), parallel.getRows());
+		assertTrue(parallel.isSuccess());
+	}
+
+	private QueryResult findPage(SqlToyContext sqlToyContext, boolean parallel) {
+		SqlToyConfig sqlToyConfig = SqlConfigParseUtils.parseSqlToyConfig(SQL, "mysql", SqlType.search);
+		QueryExecutor queryExecutor = new QueryExecutor(SQL).names("status").values(1)
+				.pageOptimize(new PageOptimize().parallel(parallel).aliveSeconds(0));
+		return DialectFactory.getInstance().findPage(sqlToyContext, queryExecutor, sqlToyConfig, 3, 10, null);
+	}
+
+	/**
+	 * 模拟mysql:count返回TOTAL,分页查询返回第3页的3条记录
+	 */
+	private SqlToyContext createContext(final AtomicInteger connections) {
+		final MockJdbc mockJdbc = new MockJdbc(TOTAL, new String[] { "STAFF_ID", "STAFF_NAME" },
+				new Object[][] { { "S21", "name21" }, { "S22", "name22" }, { "S23", "name23" } });
+		SqlToyContext sqlToyContext = new SqlToyContext();
+		sqlToyContext.setDialect("mysql");
+		sqlToyContext.setConnectionFactory(new ConnectionFactory() {
+			@Override
+			public Connection getConnection(DataSource dataSource) {
+				connections.incrementAndGet();
+				return mockJdbc.createConnection();
+			}
+
+			@Override
+			public void releaseConnection(Connection conn, DataSource datasource) {
+			}
+		});
+		return sqlToyContext;
+	}
+}
@@ -0,0 +1,102 @@
+package org.sagacity.sqltoy.plugins;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.model.IgnoreCaseLinkedMap;
+import org.sagacity.sqltoy.plugins.sharding.ConsistentHashRing;
+import org.sagacity.sqltoy.plugins.sharding.ConsistentHashRing.HashRange;
+import org.sagacity.sqltoy.plugins.sharding.impl.ConsistentHashShardingStrategy;
+
+/**
+ * @TODO 一致性hash分库分表及扩容迁移区间测试
+ * @author zhongxuchen
+ *
+ */
+public class ConsistentHashShardingTest {
+	@Test
+	public void testHash() {
+		// 不同数值类型取值相同则hash相同
+		assertEquals(ConsistentHashRing.hash(100), ConsistentHashRing.hash(100L));
+		assertEquals(ConsistentHashRing.hash(new BigDecimal("100.00")), ConsistentHashRing.hash(100L));
+		assertEquals(ConsistentHashRing.hash("S0001"), ConsistentHashRing.hash("S0001"));
+		assertFalse(ConsistentHashRing.hash("S0001") == ConsistentHashRing.hash("S0002"));
+	}
+
+	@Test
+	public void testDistribution() {
+		ConsistentHashShardingStrategy strategy = new ConsistentHashShardingStrategy();
+		strategy.setDataSources(nodes("ds", 8));
+		strategy.initialize();
+		HashMap<String, Integer> counts = new HashMap<String, Integer>();
+		IgnoreCaseLinkedMap<String, Object> paramsMap = new IgnoreCaseLinkedMap<String, Object>();
+		String dataSource;
+		for (int i = 0; i < 80000; i++) {
+			paramsMap.put("staffId", (i % 2 == 0) ? Integer.toString(-i) : "S" + i);
+			dataSource = strategy.getShardingDB(null, null, null, null, paramsMap).getDataSourceName();
+			assertNotNull(dataSource);
+			counts.put(dataSource, counts.getOrDefault(dataSource, 0) + 1);
+		}
+		assertEquals(8, counts.size());
+		for (Integer count : counts.values()) {
+			// 平均10000,偏差在20%以内
+			assertTrue(count > 8000 && count < 12000, counts.toString());
+		}
+		assertEquals(8, strategy.getShardingDBs(null, null, null, null).size());
+	}
+
+	@Test
+	public void testPlanMoves() {
+		ConsistentHashShardingStrategy strategy = new ConsistentHashShardingStrategy();
+		strategy.setDataSources(nodes("ds", 8));
+		strategy.initialize();
+		ConsistentHashRing oldRing = strategy.getDataSourceRing();
+		LinkedHashMap<String, Integer> newNodes = nodes("ds", 12);
+		ConsistentHashRing newRing = new ConsistentHashRing(newNodes, 160);
+		List<HashRange> moves = strategy.planDataSourceMoves(newNodes);
+		assertFalse(moves.isEmpty());
+		int moved = 0;
+		long hash;
+		String from;
+		String to;
+		for (int i = 0; i < 60000; i++) {
+			hash = ConsistentHashRing.hash("S" + i);
+			from = oldRing.getNodeByHash(hash);
+			to = newRing.getNodeByHash(hash);
+			HashRange range = null;
+			for (HashRange move : moves) {
+				if (move.contains(hash)) {
+					range = move;
+					break;
+				}
+			}
+			if (from.equals(to)) {
+				assertEquals(null, range);
+			} else {
+				moved++;
+				// 只迁移到新增节点
+				assertTrue(Integer.parseInt(to.substring(2)) > 8);
+				assertEquals(from, range.getFrom());
+				assertEquals(to, range.getTo());
+			}
+		}
+		// 理论迁移比例为1/3
+		assertTrue(moved > 16000 && moved < 24000, "moved=" + moved);
+	}
+
+	private static LinkedHashMap<String, Integer> nodes(String prefix, int size) {
+		LinkedHashMap<String, Integer> result = new LinkedHashMap<String, Integer>();
+		for (int i = 1; i <= size; i++) {
+			result.put(prefix + i, 1);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,111 @@
+package org.sagacity.sqltoy.plugins;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.plugins.datasource.DataSourceRouter;
+
+/**
+ * @TODO 数据源按延时、在途数选择及熔断测试
+ * @author zhongxuchen
+ *
+ */
+public class DataSourceRouterTest {
+	@Test
+	public void testSelectByLatency() throws Exception {
+		DataSourceRouter router = new DataSourceRouter(1, 3, 60000);
+		DataSource[] dataSources = { mockDataSource(), mockDataSource(), mockDataSource() };
+		// 第一个数据源延时较高
+		long start = router.begin(dataSources[0]);
+		Thread.sleep(20);
+		router.end(dataSources[0], start, (Throwable) null);
+		for (int i = 1; i < 3; i++) {
+			router.end(dataSources[i], router.begin(dataSources[i]), (Throwable) null);
+		}
+		assertTrue(router.getHealth(dataSources[0]).getEwmaMillis() >= 20);
+		int[] counts = new int[3];
+		for (int i = 0; i < 1000; i++) {
+			counts[router.select(dataSources, new int[] { 1, 1, 1 })]++;
+		}
+		// 延时统计尚未衰减时,两两比较延时高的落选
+		assertEquals(0, counts[0]);
+		assertTrue(counts[1] > 300 && counts[2] > 300);
+		// 权重为0不参与选择
+		for (int i = 0; i < 100; i++) {
+			assertEquals(2, router.select(dataSources, new int[] { 1, 0, 1 }));
+		}
+	}
+
+	@Test
+	public void testLatencyDecay() throws Exception {
+		DataSourceRouter router = new DataSourceRouter(0.5, 3, 60000, 100);
+		DataSource[] dataSources = { mockDataSource(), mockDataSource() };
+		long start = router.begin(dataSources[0]);
+		Thread.sleep(50);
+		router.end(dataSources[0], start, (Throwable) null);
+		// peak:更高的延时立即生效
+		assertTrue(router.getHealth(dataSources[0]).getEwmaMillis() >= 45);
+		Thread.sleep(1000);
+		// 长时间未被选中,延时统计衰减
+		assertTrue(router.getHealth(dataSources[0]).getEwmaMillis() < 0.1);
+		start = router.begin(dataSources[1]);
+		Thread.sleep(5);
+		router.end(dataSources[1], start, (Throwable) null);
+		// 一次慢请求不会导致永久落选,衰减后重新获得请求
+		assertEquals(0, router.select(dataSources, null));
+	}
+
+	@Test
+	public void testCircuitBreaker() throws Exception {
+		DataSourceRouter router = new DataSourceRouter(0.5, 3, 200);
+		DataSource[] dataSources = { mockDataSource(), mockDataSource() };
+		// 业务异常不计为故障
+		for (int i = 0; i < 5; i++) {
+			router.end(dataSources[0], router.begin(dataSources[0]), new SQLSyntaxErrorException("bad sql"));
+		}
+		assertEquals(DataSourceRouter.CLOSED, router.getHealth(dataSources[0]).getState());
+		for (int i = 0; i < 3; i++) {
+			router.end(dataSources[0], router.begin(dataSources[0]),
+					new RuntimeException(new SQLException("Connection refused", "08001")));
+		}
+		assertEquals(DataSourceRouter.OPEN, router.getHealth(dataSources[0]).getState());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(1, router.select(dataSources, null));
+		}
+		Thread.sleep(250);
+		// 熔断期满放行一个探测请求
+		assertEquals(0, router.select(dataSources, null));
+		assertEquals(DataSourceRouter.HALF_OPEN, router.getHealth(dataSources[0]).getState());
+		assertEquals(1, router.select(dataSources, null));
+		// 探测失败继续熔断
+		router.end(dataSources[0], router.begin(dataSources[0]), true);
+		assertEquals(DataSourceRouter.OPEN, router.getHealth(dataSources[0]).getState());
+		Thread.sleep(250);
+		assertEquals(0, router.select(dataSources, null));
+		// 探测成功恢复
+		router.end(dataSources[0], router.begin(dataSources[0]), (Throwable) null);
+		assertEquals(DataSourceRouter.CLOSED, router.getHealth(dataSources[0]).getState());
+		assertFalse(DataSourceRouter.isConnectionFailure(new IllegalArgumentException()));
+	}
+
+	private static DataSource mockDataSource() {
+		return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class[] { DataSource.class },
+				(proxy, method, args) -> {
+					if (method.getName().equals("hashCode")) {
+						return System.identityHashCode(proxy);
+					}
+					if (method.getName().equals("equals")) {
+						return proxy == args[0];
+					}
+					return null;
+				});
+	}
+}
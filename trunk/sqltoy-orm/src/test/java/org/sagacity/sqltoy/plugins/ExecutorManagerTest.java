@@ -0,0 +1,72 @@
+package org.sagacity.sqltoy.plugins;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.plugins.executor.ExecutorManager;
+import org.sagacity.sqltoy.plugins.executor.ExecutorMetrics;
+
+/**
+ * @TODO 共享线程池测试
+ * @author zhongxuchen
+ *
+ */
+public class ExecutorManagerTest {
+	@Test
+	public void testInvokeAll() throws Exception {
+		ExecutorManager executorManager = new ExecutorManager();
+		final AtomicInteger running = new AtomicInteger(0);
+		final AtomicInteger maxRunning = new AtomicInteger(0);
+		List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+		for (int i = 0; i < 20; i++) {
+			final int index = i;
+			tasks.add(() -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				Thread.sleep(10);
+				running.decrementAndGet();
+				return index;
+			});
+		}
+		// 单次调用最多3个并行
+		List<Future<Integer>> futures = executorManager.invokeAll(ExecutorManager.PARALLEL_QUERY, tasks, 3, 10);
+		for (int i = 0; i < 20; i++) {
+			assertEquals(i, futures.get(i).get());
+		}
+		assertTrue(maxRunning.get() <= 3);
+		ExecutorMetrics metrics = executorManager.getMetrics(ExecutorManager.PARALLEL_QUERY);
+		System.err.println(metrics);
+		assertEquals(20, metrics.getSubmittedCount());
+		executorManager.destroy();
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		ExecutorManager executorManager = new ExecutorManager();
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		for (int i = 0; i < 3; i++) {
+			tasks.add(() -> {
+				Thread.sleep(5000);
+				return null;
+			});
+		}
+		// 超时不抛异常,返回与任务一一对应且已取消的Future(第3个任务因并发许可不足尚未提交)
+		long start = System.currentTimeMillis();
+		List<Future<Object>> futures = executorManager.invokeAll(ExecutorManager.PAGE, tasks, 2, 1);
+		assertTrue(System.currentTimeMillis() - start < 4000);
+		assertEquals(3, futures.size());
+		for (Future<Object> future : futures) {
+			assertTrue(future.isCancelled());
+			assertThrows(CancellationException.class, () -> future.get());
+		}
+		executorManager.destroy();
+	}
+}
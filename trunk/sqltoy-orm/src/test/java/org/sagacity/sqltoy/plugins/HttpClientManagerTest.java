@@ -0,0 +1,70 @@
+package org.sagacity.sqltoy.plugins;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.http.pool.PoolStats;
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.SqlToyContext;
+import org.sagacity.sqltoy.exception.DataAccessException;
+import org.sagacity.sqltoy.plugins.http.HttpClientManager;
+import org.sagacity.sqltoy.utils.HttpClientUtils;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * @TODO http连接池复用测试(本地http服务)
+ * @author zhongxuchen
+ *
+ */
+public class HttpClientManagerTest {
+	@Test
+	public void testPooledClient() throws Exception {
+		// 记录请求来源端口,连接复用时端口不变
+		Set<Integer> remotePorts = ConcurrentHashMap.newKeySet();
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", (exchange) -> {
+			remotePorts.add(exchange.getRemoteAddress().getPort());
+			byte[] body = ("ok:" + exchange.getRequestURI().getPath()).getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		SqlToyContext sqlToyContext = new SqlToyContext();
+		HttpClientManager clientManager = sqlToyContext.getHttpClientManager();
+		String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+		try {
+			for (int i = 0; i < 5; i++) {
+				assertEquals("ok:/cache/" + i, HttpClientUtils.doPost(sqlToyContext, baseUrl + "/cache/" + i, null,
+						null, new String[] { "type" }, new String[] { "dict" }));
+			}
+			// 顺序请求复用同一连接
+			assertEquals(1, remotePorts.size());
+			// 同一服务地址共享client,不同用户独立
+			assertSame(clientManager.getClient(baseUrl + "/a", null, null),
+					clientManager.getClient(baseUrl + "/b?x=1", "", null));
+			assertNotSame(clientManager.getClient(baseUrl, null, null),
+					clientManager.getClient(baseUrl, "admin", "pwd"));
+			Map<String, PoolStats> poolStats = clientManager.getPoolStats();
+			assertEquals(2, poolStats.size());
+			PoolStats stats = poolStats.get(baseUrl);
+			assertEquals(0, stats.getLeased());
+			assertEquals(1, stats.getAvailable());
+		} finally {
+			sqlToyContext.destroy();
+			server.stop(0);
+		}
+		assertThrows(DataAccessException.class, () -> clientManager.getClient(baseUrl, null, null));
+	}
+}
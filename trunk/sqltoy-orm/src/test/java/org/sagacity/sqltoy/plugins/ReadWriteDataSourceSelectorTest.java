@@ -0,0 +1,83 @@
+package org.sagacity.sqltoy.plugins;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.SqlToyContext;
+import org.sagacity.sqltoy.config.model.SqlType;
+import org.sagacity.sqltoy.plugins.datasource.impl.ReadWriteDataSourceSelector;
+import org.springframework.context.support.GenericApplicationContext;
+
+/**
+ * @TODO 读写分离数据源选择测试
+ * @author zhongxuchen
+ *
+ */
+public class ReadWriteDataSourceSelectorTest {
+	@Test
+	public void testReadWriteSplit() throws Exception {
+		DataSource primary = mockDataSource();
+		DataSource replica1 = mockDataSource();
+		DataSource replica2 = mockDataSource();
+		DataSource other = mockDataSource();
+		GenericApplicationContext applicationContext = new GenericApplicationContext();
+		applicationContext.getBeanFactory().registerSingleton("primary", primary);
+		applicationContext.getBeanFactory().registerSingleton("replica1", replica1);
+		applicationContext.getBeanFactory().registerSingleton("replica2", replica2);
+		applicationContext.getBeanFactory().registerSingleton("other", other);
+		applicationContext.refresh();
+		SqlToyContext sqlToyContext = new SqlToyContext();
+		sqlToyContext.setApplicationContext(applicationContext);
+		ReadWriteDataSourceSelector selector = new ReadWriteDataSourceSelector();
+		HashMap<String, String> replicas = new HashMap<String, String>();
+		replicas.put("primary", "replica1, replica2,notExist");
+		selector.setReplicas(replicas);
+		selector.setStickySeconds(1);
+		selector.initialize(sqlToyContext);
+		ReadWriteDataSourceSelector.clearWriteMark();
+
+		// 查询分配到从库
+		Set<DataSource> reads = new HashSet<DataSource>();
+		for (int i = 0; i < 200; i++) {
+			reads.add(selector.getDataSource(applicationContext, null, null, primary, null, SqlType.search));
+		}
+		assertTrue(reads.contains(replica1) && reads.contains(replica2) && !reads.contains(primary));
+		// 未配置从库的数据源不变
+		assertSame(other, selector.getDataSource(applicationContext, null, null, other, null, SqlType.search));
+		// 直接指定数据源不做分离
+		assertSame(primary, selector.getDataSource(applicationContext, primary, null, null, null, SqlType.search));
+		// 未指明操作类型(如对象加载)走主库,但不触发写后保持
+		assertSame(primary, selector.getDataSource(applicationContext, null, null, primary, null, null));
+		assertTrue(selector.getDataSource(applicationContext, null, null, primary, null, SqlType.search) != primary);
+		// 写操作走主库,之后保持期内的查询也走主库
+		assertSame(primary, selector.getDataSource(applicationContext, null, null, primary, null, SqlType.update));
+		assertSame(primary, selector.getDataSource(applicationContext, null, null, primary, null, SqlType.search));
+		Thread.sleep(1100);
+		assertTrue(selector.getDataSource(applicationContext, null, null, primary, null, SqlType.search) != primary);
+		selector.destroy();
+	}
+
+	private static DataSource mockDataSource() {
+		return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class[] { DataSource.class },
+				(proxy, method, args) -> {
+					if (method.getName().equals("hashCode")) {
+						return System.identityHashCode(proxy);
+					}
+					if (method.getName().equals("equals")) {
+						return proxy == args[0];
+					}
+					if (method.getName().equals("toString")) {
+						return "mockDataSource@" + System.identityHashCode(proxy);
+					}
+					return null;
+				});
+	}
+}
@@ -0,0 +1,141 @@
+package org.sagacity.sqltoy.plugins;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.config.model.ShardingGroupModel;
+import org.sagacity.sqltoy.config.model.ShardingModel;
+import org.sagacity.sqltoy.exception.ShardingExecuteException;
+import org.sagacity.sqltoy.model.ShardingResult;
+import org.sagacity.sqltoy.utils.ParallelUtils;
+
+/**
+ * @TODO 分库分表批量写入子批次拆分、任务分组及分片结果合并(含超时取消)测试
+ * @author zhongxuchen
+ *
+ */
+public class ShardingBatchTest {
+	@Test
+	public void testSplitAndMerge() {
+		ShardingGroupModel group1 = createGroup("ds1", "t_order_1", 7);
+		ShardingGroupModel group2 = createGroup("ds2", "t_order_2", 3);
+		List<ShardingGroupModel> chunks = ParallelUtils.splitGroups(Arrays.asList(group1, group2), 3);
+		// 7条拆成3+3+1,3条不拆分
+		assertEquals(4, chunks.size());
+		assertEquals(3, chunks.get(0).getEntities().size());
+		assertEquals(1, chunks.get(2).getEntities().size());
+		assertSame(group1.getShardingModel(), chunks.get(2).getShardingModel());
+		assertSame(group2, chunks.get(3));
+		// 不拆分
+		assertEquals(2, ParallelUtils.splitGroups(Arrays.asList(group1, group2), 0).size());
+
+		// 第一个分片的第二个子批次失败
+		List<ShardingResult> chunkResults = new ArrayList<ShardingResult>();
+		for (int i = 0; i < chunks.size(); i++) {
+			ShardingResult item = new ShardingResult();
+			if (i == 1) {
+				item.setSuccess(false);
+				item.setMessage("connection reset");
+			} else {
+				item.setRows(Arrays.asList((long) chunks.get(i).getEntities().size()));
+			}
+			chunkResults.add(item);
+		}
+		List<ShardingResult> results = ParallelUtils.mergeResults(chunks, chunkResults);
+		assertEquals(2, results.size());
+		ShardingResult first = results.get(0);
+		assertFalse(first.isSuccess());
+		assertEquals(7, first.getEntitySize());
+		assertEquals(Arrays.asList(3, 4, 5), first.getFailedEntities());
+		assertEquals(Arrays.asList(3L, 1L), first.getRows());
+		assertEquals("t_order_1", first.getShardingModel().getTableName());
+		assertTrue(results.get(1).isSuccess());
+		assertTrue(results.get(1).getFailedEntities().isEmpty());
+		assertEquals(3, results.get(1).getEntitySize());
+
+		ShardingExecuteException exception = new ShardingExecuteException("failed", results);
+		assertEquals(1, exception.getFailedResults().size());
+		assertSame(first, exception.getFailedResults().get(0));
+	}
+
+	@Test
+	public void testGroupTasks() {
+		ShardingGroupModel group1 = createGroup("ds1", "t_order_1", 7);
+		ShardingGroupModel group2 = createGroup("ds2", "t_order_2", 3);
+		List<ShardingGroupModel> chunks = ParallelUtils.splitGroups(Arrays.asList(group1, group2), 3);
+		// 默认同一分片的子批次归入同一任务顺序执行
+		List<List<ShardingGroupModel>> tasks = ParallelUtils.groupTasks(chunks, false);
+		assertEquals(2, tasks.size());
+		assertEquals(3, tasks.get(0).size());
+		assertSame(chunks.get(0), tasks.get(0).get(0));
+		assertSame(chunks.get(2), tasks.get(0).get(2));
+		assertSame(group2, tasks.get(1).get(0));
+		// 开启并行后每个子批次一个任务
+		assertEquals(4, ParallelUtils.groupTasks(chunks, true).size());
+	}
+
+	@Test
+	public void testTimeoutResults() {
+		ShardingGroupModel group1 = createGroup("ds1", "t_order_1", 7);
+		ShardingGroupModel group2 = createGroup("ds2", "t_order_2", 3);
+		List<ShardingGroupModel> chunks = ParallelUtils.splitGroups(Arrays.asList(group1, group2), 3);
+		List<List<ShardingGroupModel>> tasks = ParallelUtils.groupTasks(chunks, false);
+		List<Future<List<ShardingResult>>> futures = new ArrayList<Future<List<ShardingResult>>>();
+		// 第一个分片完成,第二个分片超时被取消
+		FutureTask<List<ShardingResult>> done = new FutureTask<List<ShardingResult>>(() -> {
+			List<ShardingResult> items = new ArrayList<ShardingResult>();
+			for (ShardingGroupModel chunk : tasks.get(0)) {
+				ShardingResult item = new ShardingResult();
+				item.setRows(Arrays.asList((long) chunk.getEntities().size()));
+				items.add(item);
+			}
+			return items;
+		});
+		done.run();
+		futures.add(done);
+		FutureTask<List<ShardingResult>> cancelled = new FutureTask<List<ShardingResult>>(() -> null);
+		cancelled.cancel(false);
+		futures.add(cancelled);
+		ShardingExecuteException exception = assertThrows(ShardingExecuteException.class,
+				() -> ParallelUtils.collectResults(tasks, futures, 30));
+		List<ShardingResult> results = exception.getResults();
+		assertEquals(2, results.size());
+		assertTrue(results.get(0).isSuccess());
+		assertEquals(Arrays.asList(3L, 3L, 1L), results.get(0).getRows());
+		assertEquals(1, exception.getFailedResults().size());
+		ShardingResult second = exception.getFailedResults().get(0);
+		assertEquals("t_order_2", second.getShardingModel().getTableName());
+		assertEquals(Arrays.asList(0, 1, 2), second.getFailedEntities());
+		assertTrue(second.getMessage().contains("30秒"));
+
+		// 未超时正常返回合并结果
+		List<ShardingResult> completed = ParallelUtils.collectResults(tasks.subList(0, 1), futures.subList(0, 1), 30);
+		assertEquals(1, completed.size());
+		assertEquals(7, completed.get(0).getEntitySize());
+	}
+
+	private static ShardingGroupModel createGroup(String dataSourceName, String tableName, int size) {
+		ShardingModel shardingModel = new ShardingModel();
+		shardingModel.setDataSourceName(dataSourceName);
+		shardingModel.setTableName(tableName);
+		List<Integer> entities = new ArrayList<Integer>();
+		for (int i = 0; i < size; i++) {
+			entities.add(i);
+		}
+		ShardingGroupModel group = new ShardingGroupModel();
+		group.setKey(dataSourceName + tableName);
+		group.setShardingModel(shardingModel);
+		group.setEntities(entities);
+		return group;
+	}
+}
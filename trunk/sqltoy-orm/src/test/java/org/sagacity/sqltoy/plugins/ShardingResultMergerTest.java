@@ -0,0 +1,113 @@
+package org.sagacity.sqltoy.plugins;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.plugins.sharding.ShardingResultMerger;
+import org.sagacity.sqltoy.plugins.sharding.ShardingResultMerger.MergeOrder;
+import org.sagacity.sqltoy.utils.DataSourceUtils.DBType;
+
+/**
+ * @TODO 跨分片查询结果归并测试
+ * @author zhongxuchen
+ *
+ */
+public class ShardingResultMergerTest {
+	private final static String[] LABELS = { "STAFF_ID", "STAFF_NAME", "SALARY" };
+
+	@Test
+	public void testParseOrder() {
+		MergeOrder order = ShardingResultMerger.parseOrder(
+				"select t.staff_id,t.staff_name,t.salary from (select * from staff order by staff_name) t "
+						+ "where t.status=:status order by t.salary desc nulls last,2 limit 10",
+				LABELS);
+		assertArrayEquals(new int[] { 2, 1 }, order.getColumns());
+		assertArrayEquals(new boolean[] { true, false }, order.getDescs());
+		// 子查询中的order by不作为归并排序
+		assertNull(ShardingResultMerger.parseOrder("select * from (select * from staff order by salary) t", LABELS));
+		// 排序字段不在结果列中,无法按序归并
+		assertThrows(IllegalArgumentException.class,
+				() -> ShardingResultMerger.parseOrder("select staff_id from staff order by create_time", LABELS));
+		order = ShardingResultMerger.parseOrder("select * from staff where name='order by x' order by `STAFF_ID` asc",
+				LABELS);
+		assertArrayEquals(new int[] { 0 }, order.getColumns());
+		assertArrayEquals(new boolean[] { false }, order.getDescs());
+	}
+
+	@Test
+	public void testMerge() {
+		List<List<List>> shardRows = new ArrayList<List<List>>();
+		shardRows.add(rows(new Object[][] { { 1, "a", new BigDecimal("90") }, { 4, "d", new BigDecimal("50") } }));
+		shardRows.add(new ArrayList<List>());
+		shardRows.add(rows(new Object[][] { { 2, "b", 80L }, { 3, "c", 60 }, { 5, "e", null } }));
+		MergeOrder order = ShardingResultMerger.parseOrder("select * from staff order by salary desc", LABELS);
+		assertEquals("[1, 2, 3, 4, 5]", ids(ShardingResultMerger.merge(shardRows, order, 0, -1)));
+		// 第二页,每页2条
+		assertEquals("[3, 4]", ids(ShardingResultMerger.merge(shardRows, order, 2, 2)));
+		assertEquals("[]", ids(ShardingResultMerger.merge(shardRows, order, 6, 2)));
+		// 无排序按分片顺序拼接
+		assertEquals("[1, 4, 2, 3]", ids(ShardingResultMerger.merge(shardRows, null, 0, 4)));
+	}
+
+	@Test
+	public void testNullsOrder() {
+		// 各分片结果按数据库默认的null排序返回:postgresql/oracle降序null在前
+		List<List<List>> shardRows = new ArrayList<List<List>>();
+		shardRows.add(rows(new Object[][] { { 2, "b", null }, { 1, "a", 90 } }));
+		shardRows.add(rows(new Object[][] { { 4, "d", null }, { 3, "c", 80 } }));
+		MergeOrder order = ShardingResultMerger.parseOrder("select * from staff order by salary desc,staff_id", LABELS,
+				DBType.POSTGRESQL);
+		assertEquals("[2, 4, 1, 3]", ids(ShardingResultMerger.merge(shardRows, order, 0, -1)));
+		// mysql视null为最小值,降序null在后,与显式nulls last一致
+		shardRows = new ArrayList<List<List>>();
+		shardRows.add(rows(new Object[][] { { 1, "a", 90 }, { 2, "b", null } }));
+		shardRows.add(rows(new Object[][] { { 3, "c", 80 }, { 4, "d", null } }));
+		order = ShardingResultMerger.parseOrder("select * from staff order by salary desc,staff_id", LABELS,
+				DBType.MYSQL);
+		assertEquals("[1, 3, 2, 4]", ids(ShardingResultMerger.merge(shardRows, order, 0, -1)));
+		order = ShardingResultMerger.parseOrder("select * from staff order by salary desc nulls last,staff_id", LABELS,
+				DBType.POSTGRESQL);
+		assertEquals("[1, 3, 2, 4]", ids(ShardingResultMerger.merge(shardRows, order, 0, -1)));
+		order = ShardingResultMerger.parseOrder("select * from staff order by salary,staff_id", LABELS,
+				DBType.ORACLE);
+		assertArrayEquals(new boolean[] { false, false }, order.getNullsFirsts());
+		order = ShardingResultMerger.parseOrder("select * from staff order by salary nulls first,staff_id", LABELS,
+				DBType.ORACLE);
+		assertArrayEquals(new boolean[] { true, false }, order.getNullsFirsts());
+	}
+
+	@Test
+	public void testCollationConflict() {
+		List<List<List>> shardRows = new ArrayList<List<List>>();
+		// 大小写不敏感排序:a与B的顺序与java字符串比较相反
+		shardRows.add(rows(new Object[][] { { 1, "a", 1 }, { 2, "B", 1 } }));
+		shardRows.add(rows(new Object[][] { { 3, "c", 1 } }));
+		MergeOrder order = ShardingResultMerger.parseOrder("select * from staff order by staff_name", LABELS,
+				DBType.MYSQL);
+		assertThrows(IllegalArgumentException.class, () -> ShardingResultMerger.merge(shardRows, order, 0, -1));
+	}
+
+	private static List<List> rows(Object[][] values) {
+		List<List> result = new ArrayList<List>();
+		for (Object[] row : values) {
+			result.add(new ArrayList(Arrays.asList(row)));
+		}
+		return result;
+	}
+
+	private static String ids(List<List> rows) {
+		List<Object> result = new ArrayList<Object>();
+		for (List row : rows) {
+			result.add(row.get(0));
+		}
+		return result.toString();
+	}
+}
@@ -0,0 +1,208 @@
+package org.sagacity.sqltoy.plugins;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.SqlToyContext;
+import org.sagacity.sqltoy.callback.DataSourceCallbackHandler;
+import org.sagacity.sqltoy.plugins.datasource.ConnectionFactory;
+import org.sagacity.sqltoy.plugins.datasource.StatementCache;
+import org.sagacity.sqltoy.utils.DataSourceUtils;
+import org.sagacity.sqltoy.utils.DataSourceUtils.DBType;
+
+/**
+ * @TODO 连接范围PreparedStatement缓存测试
+ * @author zhongxuchen
+ *
+ */
+public class StatementCacheTest {
+	@Test
+	public void testReuseAndLru() throws Exception {
+		AtomicInteger prepared = new AtomicInteger(0);
+		AtomicInteger closed = new AtomicInteger(0);
+		Connection conn = mockConnection(prepared, closed);
+		StatementCache cache = new StatementCache(2, null);
+		PreparedStatement pst = cache.prepareStatement(conn, DBType.MYSQL, "update t set a=? where id=?", -1, -1);
+		// 使用中相同sql不复用
+		PreparedStatement nested = cache.prepareStatement(conn, DBType.MYSQL, "update t set a=? where id=?", -1, -1);
+		assertNotSame(pst, nested);
+		assertFalse(cache.recycle(nested));
+		assertTrue(cache.recycle(pst));
+		assertSame(pst, cache.prepareStatement(conn, DBType.MYSQL, "update t set a=? where id=?", -1, -1));
+		cache.recycle(pst);
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		// 超出LRU上限淘汰最早的语句
+		cache.recycle(cache.prepareStatement(conn, DBType.MYSQL, "select 1", -1, -1));
+		cache.recycle(cache.prepareStatement(conn, DBType.MYSQL, "select 2", -1, -1));
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(1, closed.get());
+		assertEquals(2, cache.getSize());
+		assertEquals(4, prepared.get());
+		// 连接释放关闭全部
+		cache.close(conn);
+		assertEquals(3, closed.get());
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void testDialects() throws Exception {
+		StatementCache cache = new StatementCache(10, "oracle,postgresql");
+		assertTrue(cache.isEnabled(DBType.ORACLE));
+		assertFalse(cache.isEnabled(DBType.MYSQL));
+		Connection conn = mockConnection(new AtomicInteger(0), new AtomicInteger(0));
+		PreparedStatement pst = cache.prepareStatement(conn, DBType.MYSQL, "select 1", -1, -1);
+		assertFalse(cache.recycle(pst));
+		assertFalse(cache.hasStatements(conn));
+		assertFalse(new StatementCache(0, null).isEnabled());
+	}
+
+	// 连接池代理重写了equals/hashCode(不同物理连接相等),缓存仍按连接对象区分,释放后不再持有
+	@Test
+	public void testIdentityKey() throws Exception {
+		AtomicInteger closed = new AtomicInteger(0);
+		Connection conn1 = mockConnection(new AtomicInteger(0), closed, true);
+		Connection conn2 = mockConnection(new AtomicInteger(0), closed, true);
+		assertEquals(conn1, conn2);
+		StatementCache cache = new StatementCache(10, null);
+		PreparedStatement pst1 = cache.prepareStatement(conn1, DBType.MYSQL, "select 1", -1, -1);
+		cache.recycle(pst1);
+		PreparedStatement pst2 = cache.prepareStatement(conn2, DBType.MYSQL, "select 1", -1, -1);
+		assertNotSame(pst1, pst2);
+		assertTrue(cache.recycle(pst2));
+		assertEquals(2, cache.getSize());
+		cache.close(conn1);
+		assertEquals(1, closed.get());
+		assertFalse(cache.hasStatements(conn1));
+		assertTrue(cache.hasStatements(conn2));
+		cache.close(conn2);
+		assertEquals(0, cache.getSize());
+	}
+
+	// 缓存归属各自的SqlToyContext,只作用于context获取的连接,调用方自行管理的连接不缓存
+	@Test
+	public void testBindContextConnection() throws Exception {
+		AtomicInteger closed = new AtomicInteger(0);
+		Connection outerConn = mockConnection(new AtomicInteger(0), closed);
+		Connection innerConn = mockConnection(new AtomicInteger(0), closed);
+		Connection callerConn = mockConnection(new AtomicInteger(0), closed);
+		SqlToyContext outerContext = createContext(outerConn, new StatementCache(10, null));
+		SqlToyContext innerContext = createContext(innerConn, new StatementCache(10, null));
+		final List<StatementCache> bound = new ArrayList<StatementCache>();
+		DataSourceUtils.processDataSource(outerContext, null, new DataSourceCallbackHandler() {
+			@Override
+			public void doConnection(Connection conn, Integer dbType, String dialect) throws Exception {
+				DataSourceUtils.processDataSource(innerContext, null, new DataSourceCallbackHandler() {
+					@Override
+					public void doConnection(Connection conn, Integer dbType, String dialect) throws Exception {
+						bound.add(StatementCache.current(innerConn));
+						bound.add(StatementCache.current(outerConn));
+						PreparedStatement pst = StatementCache.current(innerConn).prepareStatement(innerConn,
+								DBType.MYSQL, "select 1", -1, -1);
+						assertTrue(StatementCache.recycleCurrent(pst));
+					}
+				});
+				bound.add(StatementCache.current(outerConn));
+				bound.add(StatementCache.current(innerConn));
+				bound.add(StatementCache.current(callerConn));
+			}
+		});
+		assertSame(innerContext.getStatementCache(), bound.get(0));
+		assertSame(outerContext.getStatementCache(), bound.get(1));
+		assertSame(outerContext.getStatementCache(), bound.get(2));
+		assertNull(bound.get(3));
+		assertNull(bound.get(4));
+		// 调用链结束后解除绑定,非事务连接释放时关闭缓存的语句
+		assertNull(StatementCache.current(outerConn));
+		assertEquals(0, innerContext.getStatementCache().getSize());
+		assertEquals(1, closed.get());
+		// 未启用的缓存不绑定
+		SqlToyContext disabledContext = createContext(outerConn, new StatementCache(0, null));
+		DataSourceUtils.processDataSource(disabledContext, null, new DataSourceCallbackHandler() {
+			@Override
+			public void doConnection(Connection conn, Integer dbType, String dialect) throws Exception {
+				bound.add(StatementCache.current(outerConn));
+			}
+		});
+		assertNull(bound.get(5));
+	}
+
+	private SqlToyContext createContext(final Connection conn, StatementCache statementCache) {
+		SqlToyContext sqlToyContext = new SqlToyContext();
+		sqlToyContext.setDialect("mysql");
+		sqlToyContext.setStatementCache(statementCache);
+		sqlToyContext.setConnectionFactory(new ConnectionFactory() {
+			@Override
+			public Connection getConnection(DataSource dataSource) {
+				return conn;
+			}
+
+			@Override
+			public void releaseConnection(Connection conn, DataSource datasource) {
+			}
+		});
+		return sqlToyContext;
+	}
+
+	private Connection mockConnection(AtomicInteger prepared, AtomicInteger closed) {
+		return mockConnection(prepared, closed, false);
+	}
+
+	private Connection mockConnection(AtomicInteger prepared, AtomicInteger closed, boolean equalsAll) {
+		return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { Connection.class },
+				(proxy, method, args) -> {
+					if (method.getName().equals("prepareStatement")) {
+						prepared.incrementAndGet();
+						return mockStatement(closed);
+					}
+					if (method.getName().equals("getAutoCommit")) {
+						return true;
+					}
+					if (method.getName().equals("hashCode")) {
+						return equalsAll ? 1 : System.identityHashCode(proxy);
+					}
+					if (method.getName().equals("equals")) {
+						return equalsAll ? (args[0] instanceof Connection) : proxy == args[0];
+					}
+					return null;
+				});
+	}
+
+	private PreparedStatement mockStatement(AtomicInteger closed) {
+		final boolean[] isClosed = { false };
+		return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class[] { PreparedStatement.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "close":
+						isClosed[0] = true;
+						closed.incrementAndGet();
+						return null;
+					case "isClosed":
+						return isClosed[0];
+					case "getMaxRows":
+					case "getFetchSize":
+						return 0;
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					default:
+						return null;
+					}
+				});
+	}
+}
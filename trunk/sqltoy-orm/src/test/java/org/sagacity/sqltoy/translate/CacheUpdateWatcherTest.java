@@ -0,0 +1,217 @@
+package org.sagacity.sqltoy.translate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.SqlToyContext;
+import org.sagacity.sqltoy.translate.CacheUpdateWatcher.CheckerTask;
+import org.sagacity.sqltoy.translate.model.CheckerConfigModel;
+import org.sagacity.sqltoy.translate.model.TimeSection;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * @TODO 缓存更新检测调度测试:超时终止、忽略中断的检测不重复提交、停止时中断执行中的检测
+ * @author zhongxuchen
+ *
+ */
+public class CacheUpdateWatcherTest {
+	@Test
+	public void testTimeout() throws Exception {
+		System.setProperty("sqltoy.translate.checker.timeout.seconds", "1");
+		BlockingChecker checker = new BlockingChecker();
+		CacheUpdateWatcher watcher = createWatcher(checker);
+		try {
+			CheckerTask task = watcher.getCheckerStats().get(0);
+			long lastCheckTime = task.getLastCheckTime();
+			watcher.start();
+			assertTrue(checker.started.await(5, TimeUnit.SECONDS));
+			// 超时后由调度线程终止(中断执行线程)
+			assertTrue(checker.interrupted.await(5, TimeUnit.SECONDS));
+			Thread.sleep(200);
+			assertEquals(1, task.getTimeoutCount());
+			// 被终止的检测即使随后正常返回也不记录,不推进检测时间
+			assertEquals(0, task.getCheckCount());
+			assertEquals(lastCheckTime, task.getLastCheckTime());
+		} finally {
+			watcher.stop();
+			System.clearProperty("sqltoy.translate.checker.timeout.seconds");
+		}
+	}
+
+	@Test
+	public void testStop() throws Exception {
+		BlockingChecker checker = new BlockingChecker();
+		CacheUpdateWatcher watcher = createWatcher(checker);
+		LocalCacheChangeSource changeSource = new LocalCacheChangeSource();
+		watcher.setChangeSources(Collections.singletonList(changeSource));
+		watcher.start();
+		// 重复启动无影响
+		watcher.start();
+		assertTrue(checker.started.await(5, TimeUnit.SECONDS));
+		watcher.stop();
+		// 停止时中断执行中的检测并停止接收变更事件
+		assertTrue(checker.interrupted.await(5, TimeUnit.SECONDS));
+		changeSource.publishClear("staffIdName", null);
+		assertEquals(0, watcher.getEventCount());
+		CheckerTask task = watcher.getCheckerStats().get(0);
+		assertEquals(0, task.getTimeoutCount());
+		// 被中断的检测不记录
+		assertEquals(0, task.getCheckCount());
+		assertEquals(1, checker.calls.get());
+		// 重复停止无影响
+		watcher.stop();
+	}
+
+	@Test
+	public void testIgnoreInterrupt() throws Exception {
+		System.setProperty("sqltoy.translate.checker.timeout.seconds", "1");
+		System.setProperty("sqltoy.translate.checker.threads", "2");
+		System.setProperty("sqltoy.translate.checker.jitter.seconds", "0");
+		StuckChecker stuckChecker = new StuckChecker();
+		CountingChecker countingChecker = new CountingChecker();
+		HashMap<String, Object> checkers = new HashMap<String, Object>();
+		checkers.put("stuckChecker", stuckChecker);
+		checkers.put("countingChecker", countingChecker);
+		CacheUpdateWatcher watcher = createWatcher(checkers, 1);
+		try {
+			watcher.start();
+			assertTrue(stuckChecker.started.await(5, TimeUnit.SECONDS));
+			Thread.sleep(5000);
+			CheckerTask stuckTask = watcher.getCheckerStats().get(0);
+			// 忽略中断的检测未退出前不再提交,不会占满线程池
+			assertEquals(1, stuckChecker.calls.get());
+			assertEquals(1, stuckTask.getTimeoutCount());
+			assertEquals(0, stuckTask.getCheckCount());
+			// 其他检测仍正常执行
+			assertTrue(countingChecker.calls.get() >= 3);
+			assertTrue(watcher.getCheckerStats().get(1).getCheckCount() >= 3);
+			// 退出后恢复检测
+			stuckChecker.release.countDown();
+			Thread.sleep(2500);
+			assertTrue(stuckChecker.calls.get() >= 2);
+		} finally {
+			stuckChecker.release.countDown();
+			watcher.stop();
+			System.clearProperty("sqltoy.translate.checker.timeout.seconds");
+			System.clearProperty("sqltoy.translate.checker.threads");
+			System.clearProperty("sqltoy.translate.checker.jitter.seconds");
+		}
+	}
+
+	private CacheUpdateWatcher createWatcher(final BlockingChecker checker) {
+		return createWatcher(Collections.singletonMap("staffChecker", checker), 0);
+	}
+
+	/**
+	 * 启动后立即执行一次检测(快照补齐)
+	 * 
+	 * @param intervalSeconds 检测间隔(小于1取默认间隔)
+	 */
+	private CacheUpdateWatcher createWatcher(final Map<String, ?> checkers, int intervalSeconds) {
+		SqlToyContext sqlToyContext = new SqlToyContext();
+		sqlToyContext.setApplicationContext((ApplicationContext) Proxy.newProxyInstance(
+				ApplicationContext.class.getClassLoader(), new Class[] { ApplicationContext.class },
+				(proxy, method, args) -> {
+					if (method.getName().equals("containsBean")) {
+						return checkers.containsKey(args[0]);
+					}
+					if (method.getName().equals("getBean")) {
+						return checkers.get(args[0]);
+					}
+					return null;
+				}));
+		TimeSection timeSection = new TimeSection();
+		timeSection.setStart(0);
+		timeSection.setEnd(2400);
+		timeSection.setIntervalSeconds(intervalSeconds);
+		List<CheckerConfigModel> checkerConfigs = new ArrayList<CheckerConfigModel>();
+		HashMap<String, Long> snapshotVersions = new HashMap<String, Long>();
+		for (String name : new TreeSet<String>(checkers.keySet()).descendingSet()) {
+			CheckerConfigModel checkerConfig = new CheckerConfigModel();
+			checkerConfig.setType("service");
+			checkerConfig.setService(name);
+			checkerConfig.setMethod("check");
+			checkerConfig.setCache(name + "Cache");
+			checkerConfig.setIncrement(true);
+			if (intervalSeconds > 0) {
+				checkerConfig.setTimeSections(Collections.singletonList(timeSection));
+			}
+			checkerConfigs.add(checkerConfig);
+			snapshotVersions.put(name + "Cache", System.currentTimeMillis());
+		}
+		CacheUpdateWatcher watcher = new CacheUpdateWatcher(sqlToyContext, null, checkerConfigs, 0, 0);
+		watcher.reconcile(snapshotVersions);
+		return watcher;
+	}
+
+	/**
+	 * 忽略中断一直阻塞(模拟卡在jdbc/rest io中)直到被释放的检测服务
+	 */
+	public static class StuckChecker {
+		private final CountDownLatch started = new CountDownLatch(1);
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		private final AtomicInteger calls = new AtomicInteger(0);
+
+		public List check(Timestamp lastUpdateTime) {
+			calls.incrementAndGet();
+			started.countDown();
+			while (release.getCount() > 0) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					// 忽略中断
+				}
+			}
+			return new ArrayList();
+		}
+	}
+
+	/**
+	 * 记录调用次数的检测服务
+	 */
+	public static class CountingChecker {
+		private final AtomicInteger calls = new AtomicInteger(0);
+
+		public List check(Timestamp lastUpdateTime) {
+			calls.incrementAndGet();
+			return new ArrayList();
+		}
+	}
+
+	/**
+	 * 阻塞直到被中断的检测服务
+	 */
+	public static class BlockingChecker {
+		private final CountDownLatch started = new CountDownLatch(1);
+
+		private final CountDownLatch interrupted = new CountDownLatch(1);
+
+		private final AtomicInteger calls = new AtomicInteger(0);
+
+		public List check(Timestamp lastUpdateTime) {
+			calls.incrementAndGet();
+			started.countDown();
+			try {
+				Thread.sleep(30000);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+			return new ArrayList();
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package org.sagacity.sqltoy.translate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @TODO 进程内缓存变更事件推送测试
+ * @author zhongxuchen
+ *
+ */
+public class LocalCacheChangeSourceTest {
+	@Test
+	public void testPublish() {
+		List<String> events = new ArrayList<String>();
+		CacheChangeListener listener = new CacheChangeListener() {
+			@Override
+			public void onClear(String cacheName, String cacheType) {
+				events.add("clear:" + cacheName + ":" + cacheType);
+			}
+
+			@Override
+			public void onIncrement(String cacheName, String cacheType, Map<String, Object[]> increments) {
+				events.add("increment:" + cacheName + ":" + increments.size());
+			}
+		};
+		LocalCacheChangeSource changeSource = new LocalCacheChangeSource();
+		// 未启动前推送无接收者
+		changeSource.publishClear("dictKeyName", "SEX_TYPE");
+		changeSource.start(listener);
+		changeSource.publishClear("dictKeyName", "SEX_TYPE");
+		Map<String, Object[]> increments = new HashMap<String, Object[]>();
+		increments.put("S001", new Object[] { "S001", "张三" });
+		increments.put("S002", new Object[] { "S002", "李四" });
+		changeSource.publishIncrement("staffIdName", null, increments);
+		changeSource.stop();
+		changeSource.publishClear("staffIdName", null);
+		assertEquals(2, events.size());
+		assertEquals("clear:dictKeyName:SEX_TYPE", events.get(0));
+		assertEquals("increment:staffIdName:2", events.get(1));
+	}
+}
@@ -0,0 +1,88 @@
+package org.sagacity.sqltoy.translate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @TODO 缓存翻译单飞加载测试
+ * @author zhongxuchen
+ *
+ */
+public class TranslateCacheLoaderTest {
+	@Test
+	public void testSingleFlight() throws Exception {
+		TranslateCacheLoader loader = new TranslateCacheLoader(false, 10);
+		AtomicInteger loads = new AtomicInteger(0);
+		CountDownLatch release = new CountDownLatch(1);
+		List<HashMap<String, Object[]>> results = new CopyOnWriteArrayList<HashMap<String, Object[]>>();
+		int threads = 20;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < threads; i++) {
+			pool.submit(() -> results.add(loader.load("dictKeyName", "SEX_TYPE", () -> {
+				loads.incrementAndGet();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+				}
+				return dict("F", "女");
+			})));
+		}
+		// 等待全部线程进入加载或等待状态
+		while (loader.getWaitCount() < threads - 1) {
+			Thread.sleep(10);
+		}
+		release.countDown();
+		pool.shutdown();
+		pool.awaitTermination(10, TimeUnit.SECONDS);
+		assertEquals(1, loads.get());
+		assertEquals(threads, results.size());
+		for (HashMap<String, Object[]> result : results) {
+			assertSame(results.get(0), result);
+		}
+		assertEquals(1, loader.getLoadCount());
+	}
+
+	@Test
+	public void testStaleWhileRevalidate() throws Exception {
+		TranslateCacheLoader loader = new TranslateCacheLoader(true, 10);
+		HashMap<String, Object[]> first = loader.load("staffIdName", null, () -> dict("S001", "张三"));
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread refresh = new Thread(() -> loader.load("staffIdName", null, () -> {
+			loading.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+			}
+			return dict("S001", "李四");
+		}));
+		refresh.start();
+		loading.await();
+		// 重新加载期间直接返回旧数据
+		assertSame(first, loader.load("staffIdName", null, () -> dict("S001", "王五")));
+		assertEquals(1, loader.getStaleCount());
+		release.countDown();
+		refresh.join();
+		// 加载失败继续使用最近一次的数据
+		HashMap<String, Object[]> result = loader.load("staffIdName", null, () -> null);
+		assertEquals("李四", result.get("S001")[1]);
+		assertEquals(1, loader.getLoadFailCount());
+	}
+
+	private HashMap<String, Object[]> dict(String key, String name) {
+		HashMap<String, Object[]> result = new HashMap<String, Object[]>();
+		result.put(key, new Object[] { key, name });
+		return result;
+	}
+}
@@ -0,0 +1,65 @@
+package org.sagacity.sqltoy.translate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.model.IgnoreKeyCaseMap;
+import org.sagacity.sqltoy.translate.cache.TranslateCacheManager;
+import org.sagacity.sqltoy.translate.cache.TranslateDictionary;
+import org.sagacity.sqltoy.translate.cache.impl.TranslateCaffeineManager;
+import org.sagacity.sqltoy.translate.model.TranslateConfigModel;
+
+/**
+ * @TODO 缓存翻译版本化发布与增量更新测试
+ * @author zhongxuchen
+ *
+ */
+public class TranslateCacheManagerTest {
+	@Test
+	public void testIncrementUpdate() {
+		TranslateConfigModel cacheModel = new TranslateConfigModel();
+		cacheModel.setCache("dictKeyName");
+		IgnoreKeyCaseMap<String, TranslateConfigModel> translateMap = new IgnoreKeyCaseMap<String, TranslateConfigModel>();
+		translateMap.put("dictKeyName", cacheModel);
+		TranslateCacheManager cacheManager = new TranslateCaffeineManager();
+		cacheManager.setTranslateMap(translateMap);
+		cacheManager.init();
+		HashMap<String, Object[]> increments = new HashMap<String, Object[]>();
+		increments.put("M", new Object[] { "M", "男" });
+		// 未加载的缓存不做增量
+		assertFalse(cacheManager.incrementUpdate("dictKeyName", "SEX_TYPE", increments));
+		HashMap<String, Object[]> first = new HashMap<String, Object[]>();
+		first.put("F", new Object[] { "F", "女" });
+		assertEquals(1, cacheManager.publish(cacheModel, "dictKeyName", "SEX_TYPE", first));
+		HashMap<String, Object[]> reading = cacheManager.getCache("dictKeyName", "SEX_TYPE");
+		assertTrue(cacheManager.incrementUpdate("dictKeyName", "SEX_TYPE", increments));
+		HashMap<String, Object[]> current = cacheManager.getCache("dictKeyName", "SEX_TYPE");
+		// 读线程持有的旧版本保持不变
+		assertNotSame(reading, current);
+		assertNull(reading.get("M"));
+		assertEquals(2, current.size());
+		assertEquals("男", current.get("M")[1]);
+		assertEquals(2, cacheManager.getVersion("dictKeyName", "SEX_TYPE"));
+		// 字典在发布时构建,同一版本复用;读线程持有的旧版本数据单独构建,不替换当前版本字典
+		TranslateDictionary dictionary = cacheManager.getDictionary("dictKeyName", "SEX_TYPE");
+		assertEquals("男", dictionary.get("M")[1]);
+		assertSame(dictionary, cacheManager.getDictionary("dictKeyName", "SEX_TYPE", current));
+		TranslateDictionary old = cacheManager.getDictionary("dictKeyName", "SEX_TYPE", reading);
+		assertNotSame(dictionary, old);
+		assertNull(old.get("M"));
+		assertSame(dictionary, cacheManager.getDictionary("dictKeyName", "SEX_TYPE"));
+		// 清空与发布同样递增版本,清空后不能再做增量
+		assertEquals(3, cacheManager.invalidate("dictKeyName", "SEX_TYPE"));
+		assertNull(cacheManager.getCache("dictKeyName", "SEX_TYPE"));
+		assertNull(cacheManager.getDictionary("dictKeyName", "SEX_TYPE"));
+		assertFalse(cacheManager.incrementUpdate("dictKeyName", "SEX_TYPE", increments));
+		cacheManager.destroy();
+	}
+}
@@ -0,0 +1,77 @@
+package org.sagacity.sqltoy.translate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.translate.cache.TranslateDictionary;
+
+/**
+ * @TODO 缓存翻译紧凑字典测试
+ * @author zhongxuchen
+ *
+ */
+public class TranslateDictionaryTest {
+	@Test
+	public void testIndexOf() {
+		HashMap<String, Object[]> source = new HashMap<String, Object[]>();
+		for (long i = 0; i < 1000; i++) {
+			source.put(Long.toString(i * 7 - 3000), new Object[] { i * 7 - 3000, "name" + i });
+		}
+		source.put("05", new Object[] { "05", "五" });
+		source.put("S001", new Object[] { "S001", "张三" });
+		source.put("9223372036854775807", new Object[] { "max", "最大值" });
+		source.put("99999999999999999999", new Object[] { "overflow", "越界" });
+		// 空数组视同不存在
+		source.put("EMPTY", new Object[] {});
+		TranslateDictionary dictionary = TranslateDictionary.build(source);
+		assertEquals(1004, dictionary.size());
+		// 整数型key直接按数值查找,与toString后的字符串查找结果一致
+		assertEquals("name10", dictionary.getValue(dictionary.indexOf(Long.valueOf(-2930)), 1));
+		assertEquals("name10", dictionary.getValue(dictionary.indexOf(Integer.valueOf(-2930)), 1));
+		assertEquals("name10", dictionary.getValue(dictionary.indexOf("-2930"), 1));
+		assertEquals("五", dictionary.getValue(dictionary.indexOf("05"), 1));
+		assertEquals(-1, dictionary.indexOf(Integer.valueOf(5)));
+		assertEquals("张三", dictionary.getValue(dictionary.indexOf("S001"), 1));
+		assertEquals("最大值", dictionary.getValue(dictionary.indexOf(Long.MAX_VALUE), 1));
+		assertEquals("越界", dictionary.getValue(dictionary.indexOf("99999999999999999999"), 1));
+		// BigDecimal 按toString匹配(与原HashMap方式一致)
+		assertEquals(-1, dictionary.indexOf(new BigDecimal("7.0")));
+		assertEquals(-1, dictionary.indexOf("EMPTY"));
+		assertNull(dictionary.get("none"));
+		assertArrayEquals(new Object[] { "S001", "张三" }, dictionary.get("S001"));
+		assertEquals(-1, TranslateDictionary.EMPTY.indexOf("S001"));
+	}
+
+	@Test
+	public void testIntern() {
+		HashMap<String, Object[]> source = new HashMap<String, Object[]>();
+		StringBuilder longName = new StringBuilder();
+		for (int i = 0; i < 40; i++) {
+			longName.append('x');
+		}
+		for (int i = 0; i < 100; i++) {
+			// new String避免常量池让所有行本就共用同一实例
+			source.put("S" + i, new Object[] { new String("S" + i), new String("有效"), new String(longName), i });
+		}
+		TranslateDictionary dictionary = TranslateDictionary.build(source);
+		int first = dictionary.indexOf("S1");
+		int second = dictionary.indexOf("S2");
+		// 短字符串共用同一实例,长文本保持原样
+		assertSame(dictionary.getValue(first, 1), dictionary.getValue(second, 1));
+		assertNotSame(dictionary.getValue(first, 2), dictionary.getValue(second, 2));
+		assertEquals(longName.toString(), dictionary.getValue(first, 2));
+		assertEquals(1, dictionary.getValue(first, 3));
+
+		// 加载的缓存数据直接去重
+		TranslateDictionary.internValues(source);
+		assertSame(source.get("S1")[1], source.get("S2")[1]);
+		assertEquals("S1", source.get("S1")[0]);
+	}
+}
@@ -0,0 +1,149 @@
+package org.sagacity.sqltoy.translate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.model.IgnoreKeyCaseMap;
+import org.sagacity.sqltoy.translate.cache.TranslateDictionary;
+import org.sagacity.sqltoy.translate.cache.impl.TranslateMappedFileManager;
+import org.sagacity.sqltoy.translate.model.TranslateConfigModel;
+
+/**
+ * @TODO 基于内存映射文件的缓存翻译测试
+ * @author zhongxuchen
+ *
+ */
+public class TranslateMappedFileManagerTest {
+	@Test
+	public void testPutAndShare() throws Exception {
+		File storeDir = Files.createTempDirectory("sqltoy-mapped").toFile();
+		IgnoreKeyCaseMap<String, TranslateConfigModel> translateMap = new IgnoreKeyCaseMap<String, TranslateConfigModel>();
+		TranslateConfigModel cacheModel = new TranslateConfigModel();
+		cacheModel.setCache("dictKeyName");
+		translateMap.put("dictKeyName", cacheModel);
+		TranslateMappedFileManager writer = create(storeDir, translateMap);
+		HashMap<String, Object[]> cacheValue = new HashMap<String, Object[]>();
+		Timestamp time = Timestamp.valueOf("2026-10-18 10:20:30.123456789");
+		cacheValue.put("1", new Object[] { "1", "男", 1L, new BigDecimal("10.50"), time });
+		cacheValue.put("2", new Object[] { "2", "女", null });
+		cacheValue.put("中", new Object[] { "中", "中文" });
+		cacheValue.put("empty", new Object[] {});
+		writer.put(cacheModel, "dictKeyName", "SEX_TYPE", cacheValue);
+
+		TranslateDictionary dictionary = writer.getDictionary("dictKeyName", "SEX_TYPE");
+		assertEquals(3, dictionary.size());
+		assertEquals("男", dictionary.get(1)[1]);
+		assertEquals("男", dictionary.get("1")[1]);
+		int row = dictionary.indexOf(1L);
+		assertEquals(1L, dictionary.getValue(row, 2));
+		assertEquals(new BigDecimal("10.50"), dictionary.getValue(row, 3));
+		assertEquals(time, dictionary.getValue(row, 4));
+		assertNull(dictionary.get("2")[2]);
+		assertEquals("中文", dictionary.get("中")[1]);
+		assertEquals(-1, dictionary.indexOf("3"));
+		assertEquals(-1, dictionary.indexOf("empty"));
+		assertEquals(3, writer.getCache("dictKeyName", "SEX_TYPE").size());
+
+		// 同一主机其他JVM共享同一文件
+		TranslateMappedFileManager reader = create(storeDir, translateMap);
+		assertEquals("女", reader.getDictionary("dictKeyName", "SEX_TYPE").get("2")[1]);
+		assertNull(reader.getDictionary("dictKeyName", "POST_TYPE"));
+
+		// 增量更新归并写入:修改、新增,空记录表示删除
+		HashMap<String, Object[]> increments = new HashMap<String, Object[]>();
+		increments.put("2", new Object[] { "2", "女士" });
+		increments.put("3", new Object[] { "3", "未知" });
+		increments.put("中", new Object[] {});
+		assertTrue(writer.incrementUpdate("dictKeyName", "SEX_TYPE", increments));
+		dictionary = writer.getDictionary("dictKeyName", "SEX_TYPE");
+		assertEquals(3, dictionary.size());
+		assertEquals("女士", dictionary.get("2")[1]);
+		assertEquals("未知", dictionary.get("3")[1]);
+		assertEquals(time, dictionary.get("1")[4]);
+		assertEquals(-1, dictionary.indexOf("中"));
+		// 其他实例感知文件替换
+		Thread.sleep(1100);
+		assertEquals("女士", reader.getDictionary("dictKeyName", "SEX_TYPE").get("2")[1]);
+
+		writer.clear("dictKeyName", null);
+		assertNull(writer.getDictionary("dictKeyName", "SEX_TYPE"));
+		assertEquals(0, storeDir.listFiles((dir, name) -> name.endsWith(".dict")).length);
+		writer.destroy();
+		reader.destroy();
+		storeDir.delete();
+	}
+
+	@Test
+	public void testFileNameCollision() throws Exception {
+		File storeDir = Files.createTempDirectory("sqltoy-mapped").toFile();
+		TranslateMappedFileManager manager = create(storeDir,
+				new IgnoreKeyCaseMap<String, TranslateConfigModel>());
+		TranslateConfigModel cacheModel = new TranslateConfigModel();
+		HashMap<String, Object[]> first = new HashMap<String, Object[]>();
+		first.put("1", new Object[] { "1", "a/b" });
+		HashMap<String, Object[]> second = new HashMap<String, Object[]>();
+		second.put("1", new Object[] { "1", "a_b" });
+		// 替换非法字符后文件名相同,通过hash区分
+		manager.put(cacheModel, "a/b", "T", first);
+		manager.put(cacheModel, "a_b", "T", second);
+		assertEquals("a/b", manager.getDictionary("a/b", "T").get("1")[1]);
+		assertEquals("a_b", manager.getDictionary("a_b", "T").get("1")[1]);
+		manager.clear("a/b", null);
+		assertNull(manager.getDictionary("a/b", "T"));
+		assertEquals("a_b", manager.getDictionary("a_b", "T").get("1")[1]);
+		manager.clear("a_b", null);
+		manager.destroy();
+		storeDir.delete();
+	}
+
+	@Test
+	public void testRefreshBackoff() throws Exception {
+		File storeDir = Files.createTempDirectory("sqltoy-mapped").toFile();
+		IgnoreKeyCaseMap<String, TranslateConfigModel> translateMap = new IgnoreKeyCaseMap<String, TranslateConfigModel>();
+		TranslateConfigModel cacheModel = new TranslateConfigModel();
+		cacheModel.setCache("staffIdName");
+		cacheModel.setKeepAlive(1);
+		translateMap.put("staffIdName", cacheModel);
+		TranslateMappedFileManager manager = create(storeDir, translateMap);
+		final AtomicInteger loads = new AtomicInteger(0);
+		manager.setDataLoader((model, cacheType) -> {
+			loads.incrementAndGet();
+			throw new RuntimeException("load failed");
+		});
+		HashMap<String, Object[]> cacheValue = new HashMap<String, Object[]>();
+		cacheValue.put("S001", new Object[] { "S001", "张三" });
+		manager.put(cacheModel, "staffIdName", null, cacheValue);
+		Thread.sleep(1100);
+		// 超过keepAlive:后台加载失败继续使用当前数据,退避期内不再重复加载
+		for (int i = 0; i < 20; i++) {
+			assertEquals("张三", manager.getDictionary("staffIdName", null).get("S001")[1]);
+			Thread.sleep(10);
+		}
+		assertEquals(1, loads.get());
+		Thread.sleep(1100);
+		manager.getDictionary("staffIdName", null);
+		Thread.sleep(100);
+		assertEquals(2, loads.get());
+		manager.clear("staffIdName", null);
+		manager.destroy();
+		storeDir.delete();
+	}
+
+	private TranslateMappedFileManager create(File storeDir,
+			IgnoreKeyCaseMap<String, TranslateConfigModel> translateMap) {
+		TranslateMappedFileManager manager = new TranslateMappedFileManager();
+		manager.setStorePath(storeDir.getPath());
+		manager.setTranslateMap(translateMap);
+		manager.init();
+		return manager;
+	}
+}
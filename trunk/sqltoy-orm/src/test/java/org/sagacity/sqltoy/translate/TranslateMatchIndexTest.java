@@ -0,0 +1,165 @@
+package org.sagacity.sqltoy.translate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.model.IgnoreKeyCaseMap;
+import org.sagacity.sqltoy.translate.cache.TranslateCacheManager;
+import org.sagacity.sqltoy.translate.cache.TranslateDictionary;
+import org.sagacity.sqltoy.translate.cache.TranslateMatchIndex;
+import org.sagacity.sqltoy.translate.cache.impl.TranslateCaffeineManager;
+import org.sagacity.sqltoy.translate.cache.impl.TranslateMappedFileManager;
+import org.sagacity.sqltoy.translate.model.TranslateConfigModel;
+import org.sagacity.sqltoy.utils.StringUtil;
+
+/**
+ * @TODO 缓存名称反向匹配倒排索引测试(与全量扫描结果比对)
+ * @author zhongxuchen
+ *
+ */
+public class TranslateMatchIndexTest {
+	private final static int[] NAME_INDEXES = { 1, 2 };
+
+	private final static String[] QUERIES = { "张", "张三", "三 公司", "sqltoy", "SQL ORM", "x", "不存在", "有限 公司",
+			"a b" };
+
+	@Test
+	public void testMatchIndex() {
+		TranslateConfigModel cacheModel = new TranslateConfigModel();
+		cacheModel.setCache("customerIdName");
+		IgnoreKeyCaseMap<String, TranslateConfigModel> translateMap = new IgnoreKeyCaseMap<String, TranslateConfigModel>();
+		translateMap.put("customerIdName", cacheModel);
+		TranslateCacheManager cacheManager = new TranslateCaffeineManager();
+		cacheManager.setTranslateMap(translateMap);
+		cacheManager.init();
+		HashMap<String, Object[]> customers = customers();
+		cacheManager.publish(cacheModel, "customerIdName", null, customers);
+		HashMap<String, Object[]> current = cacheManager.getCache("customerIdName", null);
+		TranslateMatchIndex matchIndex = cacheManager.getMatchIndex("customerIdName", null, current, NAME_INDEXES);
+		assertSame(matchIndex, cacheManager.getMatchIndex("customerIdName", null, current, NAME_INDEXES));
+		for (String query : QUERIES) {
+			assertEquals(scan(current, query), match(matchIndex, query), query);
+		}
+
+		// 增量更新:修改名称、新增记录
+		HashMap<String, Object[]> increments = new HashMap<String, Object[]>();
+		increments.put("C1", new Object[] { "C1", "赵六", null });
+		increments.put("C500", new Object[] { "C500", "张三新客户", "sqltoy" });
+		cacheManager.incrementUpdate("customerIdName", null, increments);
+		HashMap<String, Object[]> next = cacheManager.getCache("customerIdName", null);
+		TranslateMatchIndex nextIndex = cacheManager.getMatchIndex("customerIdName", null, next, NAME_INDEXES);
+		assertNotSame(matchIndex, nextIndex);
+		for (String query : QUERIES) {
+			assertEquals(scan(next, query), match(nextIndex, query), query);
+		}
+		assertEquals(1, match(nextIndex, "赵六").size());
+
+		// 基于字典获取时堆内存储仍使用可增量维护的索引
+		TranslateDictionary dictionary = cacheManager.getDictionary("customerIdName", null);
+		assertSame(nextIndex, cacheManager.getMatchIndex("customerIdName", null, dictionary, NAME_INDEXES));
+		cacheManager.destroy();
+	}
+
+	/**
+	 * 内存映射文件存储直接基于字典构建索引,不转换为HashMap
+	 */
+	@Test
+	public void testDictionaryMatchIndex() throws Exception {
+		File storeDir = Files.createTempDirectory("sqltoy-match").toFile();
+		TranslateConfigModel cacheModel = new TranslateConfigModel();
+		cacheModel.setCache("customerIdName");
+		IgnoreKeyCaseMap<String, TranslateConfigModel> translateMap = new IgnoreKeyCaseMap<String, TranslateConfigModel>();
+		translateMap.put("customerIdName", cacheModel);
+		TranslateMappedFileManager cacheManager = new TranslateMappedFileManager();
+		cacheManager.setStorePath(storeDir.getPath());
+		cacheManager.setTranslateMap(translateMap);
+		cacheManager.init();
+		HashMap<String, Object[]> customers = customers();
+		cacheManager.publish(cacheModel, "customerIdName", null, customers);
+		TranslateDictionary dictionary = cacheManager.getDictionary("customerIdName", null);
+		TranslateMatchIndex matchIndex = cacheManager.getMatchIndex("customerIdName", null, dictionary,
+				NAME_INDEXES);
+		assertNull(matchIndex.getSource());
+		assertSame(dictionary, matchIndex.getDictionary());
+		assertSame(matchIndex, cacheManager.getMatchIndex("customerIdName", null, dictionary, NAME_INDEXES));
+		for (String query : QUERIES) {
+			assertEquals(scan(customers, query), match(matchIndex, query), query);
+		}
+
+		// 增量更新后字典重新映射,索引随之重建
+		HashMap<String, Object[]> increments = new HashMap<String, Object[]>();
+		increments.put("C1", new Object[] { "C1", "赵六", null });
+		cacheManager.incrementUpdate("customerIdName", null, increments);
+		TranslateDictionary next = cacheManager.getDictionary("customerIdName", null);
+		assertNotSame(dictionary, next);
+		TranslateMatchIndex nextIndex = cacheManager.getMatchIndex("customerIdName", null, next, NAME_INDEXES);
+		assertNotNull(nextIndex);
+		assertNotSame(matchIndex, nextIndex);
+		assertEquals(1, match(nextIndex, "赵六").size());
+
+		// 兼容HashMap方式获取时每次生成副本,不在堆内保留
+		assertNotSame(cacheManager.getCache("customerIdName", null), cacheManager.getCache("customerIdName", null));
+		cacheManager.clear("customerIdName", null);
+		cacheManager.destroy();
+		storeDir.delete();
+	}
+
+	private HashMap<String, Object[]> customers() {
+		HashMap<String, Object[]> customers = new HashMap<String, Object[]>();
+		String[] names = { "张三", "张三丰", "李四", "Sqltoy ORM", "张三科技有限公司", "王五有限公司", "a", "A B", "xyz" };
+		for (int i = 0; i < 200; i++) {
+			customers.put("C" + i,
+					new Object[] { "C" + i, names[i % names.length] + i, (i % 7 == 0) ? null : "简称" + i });
+		}
+		return customers;
+	}
+
+	/**
+	 * 全量扫描(原有逻辑)
+	 */
+	private TreeSet<String> scan(HashMap<String, Object[]> cache, String query) {
+		String[] lowName = query.toLowerCase().trim().split("\\s+");
+		TreeSet<String> result = new TreeSet<String>();
+		for (Object[] row : cache.values()) {
+			for (int index : NAME_INDEXES) {
+				if (row[index] != null && StringUtil.like(row[index].toString().toLowerCase(), lowName)) {
+					result.add(row[0].toString());
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+	private TreeSet<String> match(TranslateMatchIndex matchIndex, String query) {
+		String[] lowName = query.toLowerCase().trim().split("\\s+");
+		List<String> result = new ArrayList<String>();
+		Object[] row;
+		for (int rowIndex : matchIndex.candidates(lowName)) {
+			row = matchIndex.getRow(rowIndex);
+			if (row == null) {
+				continue;
+			}
+			for (int index : NAME_INDEXES) {
+				if (row[index] != null && StringUtil.like(row[index].toString().toLowerCase(), lowName)) {
+					result.add(row[0].toString());
+					break;
+				}
+			}
+		}
+		// 候选行不重复
+		assertEquals(result.size(), new TreeSet<String>(result).size());
+		return new TreeSet<String>(result);
+	}
+}
@@ -0,0 +1,115 @@
+package org.sagacity.sqltoy.translate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.translate.TranslateSnapshotStore.Snapshot;
+
+/**
+ * @TODO 缓存翻译本地快照测试
+ * @author zhongxuchen
+ *
+ */
+public class TranslateSnapshotStoreTest {
+	@Test
+	public void testSaveAndLoad() throws Exception {
+		File storeDir = Files.createTempDirectory("sqltoy-snapshot").toFile();
+		TranslateSnapshotStore store = new TranslateSnapshotStore(storeDir.getPath());
+		assertTrue(store.init());
+		HashMap<String, Object[]> sexType = new HashMap<String, Object[]>();
+		sexType.put("F", new Object[] { "F", "女" });
+		HashMap<String, Object[]> postType = new HashMap<String, Object[]>();
+		postType.put("P01", new Object[] { "P01", "经理" });
+		HashMap<String, Object[]> staff = new HashMap<String, Object[]>();
+		staff.put("S001", new Object[] { "S001", "张三", 100L });
+		assertTrue(store.write("dictKeyName", "SEX_TYPE", sexType, 1000L));
+		assertTrue(store.write("dictKeyName", "POST/TYPE@1", postType, 2000L));
+		// 异步写入,destroy时等待完成
+		store.save("staffIdName", null, staff, 3000L);
+		store.destroy();
+		// 非快照文件忽略
+		new File(storeDir, "readme.txt").createNewFile();
+
+		List<Snapshot> snapshots = new TranslateSnapshotStore(storeDir.getPath()).loadAll(4);
+		assertEquals(3, snapshots.size());
+		HashMap<String, Snapshot> snapshotMap = new HashMap<String, Snapshot>();
+		for (Snapshot snapshot : snapshots) {
+			snapshotMap.put(snapshot.getCacheName() + ":" + snapshot.getCacheType(), snapshot);
+		}
+		assertEquals(1000L, snapshotMap.get("dictKeyName:SEX_TYPE").getVersion());
+		assertEquals("女", snapshotMap.get("dictKeyName:SEX_TYPE").getCacheValue().get("F")[1]);
+		assertEquals("经理", snapshotMap.get("dictKeyName:POST/TYPE@1").getCacheValue().get("P01")[1]);
+		assertEquals(100L, snapshotMap.get("staffIdName:null").getCacheValue().get("S001")[2]);
+
+		TranslateSnapshotStore store2 = new TranslateSnapshotStore(storeDir.getPath());
+		store2.delete("dictKeyName", null);
+		store2.destroy();
+		snapshots = store2.loadAll(2);
+		assertEquals(1, snapshots.size());
+		assertNull(snapshots.get(0).getCacheType());
+		for (File file : storeDir.listFiles()) {
+			file.delete();
+		}
+		storeDir.delete();
+	}
+
+	@Test
+	public void testDeleteAfterSave() throws Exception {
+		File storeDir = Files.createTempDirectory("sqltoy-snapshot").toFile();
+		TranslateSnapshotStore store = new TranslateSnapshotStore(storeDir.getPath());
+		assertTrue(store.init());
+		HashMap<String, Object[]> staff = new HashMap<String, Object[]>();
+		staff.put("S001", new Object[] { "S001", "张三" });
+		// 保存与删除按提交顺序执行,删除不会先于排队中的保存
+		for (int i = 0; i < 20; i++) {
+			store.save("staffIdName", null, staff, i);
+			store.delete("staffIdName", null);
+		}
+		store.destroy();
+		assertTrue(store.loadAll(1).isEmpty());
+		storeDir.delete();
+	}
+
+	@Test
+	public void testKeepValueType() throws Exception {
+		File storeDir = Files.createTempDirectory("sqltoy-snapshot").toFile();
+		TranslateSnapshotStore store = new TranslateSnapshotStore(storeDir.getPath());
+		assertTrue(store.init());
+		Object[] values = new Object[] { "S001", java.sql.Date.valueOf("2026-10-18"), Time.valueOf("10:20:30"),
+				Timestamp.valueOf("2026-10-18 10:20:30.123456789"), new Date(1000L), (short) 2, (byte) 3, 1.5f,
+				new BigInteger("123456789012345678901234567890"), new BigDecimal("10.50"), 1, 2L, 2.5d, true,
+				LocalDate.of(2026, 10, 18), LocalTime.of(10, 20, 30, 123456789),
+				LocalDateTime.of(2026, 10, 18, 10, 20, 30, 123456789), null };
+		HashMap<String, Object[]> staff = new HashMap<String, Object[]>();
+		staff.put("S001", values);
+		assertTrue(store.write("staffIdName", null, staff, 1000L));
+		Object[] loaded = store.loadAll(1).get(0).getCacheValue().get("S001");
+		assertEquals(values.length, loaded.length);
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				assertEquals(values[i].getClass(), loaded[i].getClass());
+			}
+			assertEquals(values[i], loaded[i]);
+		}
+		store.destroy();
+		for (File file : storeDir.listFiles()) {
+			file.delete();
+		}
+		storeDir.delete();
+	}
+}
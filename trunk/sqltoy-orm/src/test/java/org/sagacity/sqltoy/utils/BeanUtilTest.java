@@ -1,7 +1,16 @@
 package org.sagacity.sqltoy.utils;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
 import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -9,11 +18,13 @@ import java.util.Locale;
 import java.util.Map;
 
 import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.callback.ReflectPropsHandler;
 import org.sagacity.sqltoy.demo.vo.DataRange;
 import org.sagacity.sqltoy.demo.vo.StaffInfoVO;
 import org.sagacity.sqltoy.demo.vo.TypeShowCase;
 import org.sagacity.sqltoy.model.IgnoreCaseLinkedMap;
 import org.sagacity.sqltoy.model.IgnoreKeyCaseMap;
+import org.sagacity.sqltoy.plugins.TypeHandler;
 
 public class BeanUtilTest {
 
@@ -154,6 +165,104 @@ public class BeanUtilTest {
 		System.err.println(realDataMap.get("chend1"));
 	}
 
+	// 缓存的行映射器:类型一致直接赋值,不一致自动转换
+	@Test
+	public void testReflectListToBean() {
+		List<Object[]> rows = new ArrayList<Object[]>();
+		rows.add(new Object[] { "S001", new java.math.BigDecimal("1"), java.sql.Timestamp.valueOf("2026-10-18 10:00:00"),
+				"zhongxuchen@gmail.com" });
+		rows.add(null);
+		rows.add(new Object[] { "S002", 0L, null, null });
+		String[] props = { "staffId", "status", "createTime", "email" };
+		List<StaffInfoVO> result = BeanUtil.reflectListToBean(null, rows, props, StaffInfoVO.class);
+		assertEquals(3, result.size());
+		assertEquals("S001", result.get(0).getStaffId());
+		assertEquals(Integer.valueOf(1), result.get(0).getStatus());
+		assertEquals(LocalDateTime.of(2026, 10, 18, 10, 0), result.get(0).getCreateTime());
+		assertNull(result.get(1));
+		assertEquals(Integer.valueOf(0), result.get(2).getStatus());
+		assertNull(result.get(2).getEmail());
+		// 同样的类和属性复用同一个映射器
+		assertSame(BeanRowMapper.getMapper(StaffInfoVO.class, props),
+				BeanRowMapper.getMapper(StaffInfoVO.class, props));
+	}
+
+	// 存在TypeHandler时包装类型到基本类型依然经过TypeHandler转换;映射器按类最近最少使用淘汰
+	@Test
+	public void testRowMapperTypeHandlerAndEvict() throws Exception {
+		final List<String> handled = new ArrayList<String>();
+		TypeHandler typeHandler = new TypeHandler() {
+			@Override
+			public boolean setValue(PreparedStatement pst, int paramIndex, int jdbcType, Object value)
+					throws SQLException {
+				return false;
+			}
+
+			@Override
+			public Object toJavaType(String javaTypeName, Class genericType, Object jdbcValue) throws Exception {
+				handled.add(javaTypeName);
+				return ((Integer) jdbcValue) * 10;
+			}
+		};
+		List<Object[]> rows = new ArrayList<Object[]>();
+		rows.add(new Object[] { 2 });
+		List<TypeShowCase> result = BeanUtil.reflectListToBean(typeHandler, rows, new String[] { "count" },
+				TypeShowCase.class);
+		assertEquals(20, result.get(0).getCount());
+		assertEquals(1, handled.size());
+		// 无TypeHandler时包装类型直接赋值
+		result = BeanUtil.reflectListToBean(null, rows, new String[] { "count" }, TypeShowCase.class);
+		assertEquals(2, result.get(0).getCount());
+
+		BeanRowMapper first = BeanRowMapper.getMapper(TypeShowCase.class, new String[] { "name" });
+		BeanRowMapper oldest = BeanRowMapper.getMapper(TypeShowCase.class, new String[] { "name", "status0" });
+		for (int i = 1; i < 300; i++) {
+			BeanRowMapper.getMapper(TypeShowCase.class, new String[] { "name", "status" + i });
+			// 持续使用的映射器不被淘汰
+			assertSame(first, BeanRowMapper.getMapper(TypeShowCase.class, new String[] { "name" }));
+		}
+		// 最久未使用的被单独淘汰
+		assertNotSame(oldest, BeanRowMapper.getMapper(TypeShowCase.class, new String[] { "name", "status0" }));
+	}
+
+	// 预编译属性读取计划:默认值和反调在同一次遍历中处理
+	@Test
+	public void testReflectBeansToInnerAry() {
+		List<StaffInfoVO> staffs = new ArrayList<StaffInfoVO>();
+		StaffInfoVO staff = new StaffInfoVO();
+		staff.setStaffId("S001");
+		staff.setStatus(1);
+		staffs.add(staff);
+		staffs.add(null);
+		staff = new StaffInfoVO();
+		staff.setStaffId("S002");
+		staffs.add(staff);
+		String[] props = { "staffId", "status", "email", "notExist" };
+		List<Object[]> result = BeanUtil.reflectBeansToInnerAry(staffs, props, new Object[] { null, 0, "none" },
+				new ReflectPropsHandler() {
+					@Override
+					public void process() {
+						this.setValue("email", this.getValue("staffId") + "@sqltoy.com");
+					}
+				});
+		assertEquals(3, result.size());
+		assertArrayEquals(new Object[] { "S001", 1, "S001@sqltoy.com", null }, result.get(0));
+		assertNull(result.get(1));
+		assertArrayEquals(new Object[] { "S002", 0, "S002@sqltoy.com", null }, result.get(2));
+		assertArrayEquals(new Object[] { "S001", 1, null },
+				BeanUtil.reflectBeanToAry(staffs.get(0), new String[] { "staffId", "status", "dataRange.beginDate" }));
+
+		BeanPropsReader first = BeanPropsReader.getReader(StaffInfoVO.class, new String[] { "staffId" });
+		BeanPropsReader oldest = BeanPropsReader.getReader(StaffInfoVO.class, new String[] { "staffId", "p0" });
+		for (int i = 1; i < 300; i++) {
+			BeanPropsReader.getReader(StaffInfoVO.class, new String[] { "staffId", "p" + i });
+			// 持续使用的读取计划不被淘汰
+			assertSame(first, BeanPropsReader.getReader(StaffInfoVO.class, new String[] { "staffId" }));
+		}
+		// 最久未使用的被单独淘汰
+		assertNotSame(oldest, BeanPropsReader.getReader(StaffInfoVO.class, new String[] { "staffId", "p0" }));
+	}
+
 	@Test
 	public void testBaseType() {
 		//System.err.println(BeanUtil.isBaseDataType(new HashMap()));
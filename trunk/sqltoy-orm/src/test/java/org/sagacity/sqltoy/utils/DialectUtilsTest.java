@@ -1,8 +1,21 @@
 package org.sagacity.sqltoy.utils;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Types;
+
 import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.config.model.EntityMeta;
+import org.sagacity.sqltoy.config.model.FieldMeta;
+import org.sagacity.sqltoy.config.model.PKStrategy;
 import org.sagacity.sqltoy.config.model.SqlParamsModel;
+import org.sagacity.sqltoy.dialect.utils.DialectExtUtils;
 import org.sagacity.sqltoy.dialect.utils.DialectUtils;
+import org.sagacity.sqltoy.dialect.utils.MySqlDialectUtils;
+import org.sagacity.sqltoy.utils.DataSourceUtils.DBType;
 
 /**
  * 增加对带问号查询转命名参数模式的校验测试
@@ -41,4 +54,47 @@ public class DialectUtilsTest {
 //		System.err.println("paramCnt=" + unifySqlParams.getParamCnt());
 	}
 
+	// 实体DML语句缓存:相同参数复用,分表表名不同则重新产生
+	@Test
+	public void testDmlSqlCache() {
+		EntityMeta entityMeta = createStaffMeta();
+		String insertSql = DialectExtUtils.generateInsertSql(DBType.MYSQL, entityMeta, entityMeta.getIdStrategy(),
+				"ifnull", null, false, null);
+		assertSame(insertSql, DialectExtUtils.generateInsertSql(DBType.MYSQL, entityMeta,
+				entityMeta.getIdStrategy(), "ifnull", null, false, null));
+		String shardingSql = DialectExtUtils.generateInsertSql(DBType.MYSQL, entityMeta, entityMeta.getIdStrategy(),
+				"ifnull", null, false, "sqltoy_staff_info_01");
+		assertTrue(shardingSql.contains("sqltoy_staff_info_01"));
+		assertEquals(insertSql.replace("sqltoy_staff_info", "sqltoy_staff_info_01"), shardingSql);
+		String saveOrUpdateSql = MySqlDialectUtils.getSaveOrUpdateSql(DBType.MYSQL, entityMeta,
+				new String[] { "staffName" }, null);
+		assertSame(saveOrUpdateSql,
+				MySqlDialectUtils.getSaveOrUpdateSql(DBType.MYSQL, entityMeta, new String[] { "staffName" }, null));
+		assertNotSame(saveOrUpdateSql, MySqlDialectUtils.getSaveOrUpdateSql(DBType.MYSQL, entityMeta, null, null));
+		// 表名变化后缓存失效
+		String tableName = entityMeta.getTableName();
+		entityMeta.setTableName("sqltoy_staff_info_bak");
+		assertTrue(DialectExtUtils.generateInsertSql(DBType.MYSQL, entityMeta, entityMeta.getIdStrategy(), "ifnull",
+				null, false, null).contains("sqltoy_staff_info_bak"));
+		entityMeta.setTableName(tableName);
+	}
+
+	private EntityMeta createStaffMeta() {
+		EntityMeta entityMeta = new EntityMeta();
+		entityMeta.setTableName("sqltoy_staff_info");
+		entityMeta.setIdStrategy(PKStrategy.ASSIGN);
+		String[] fields = { "staffName", "status", "staffId" };
+		String[] columns = { "STAFF_NAME", "STATUS", "STAFF_ID" };
+		for (int i = 0; i < fields.length; i++) {
+			FieldMeta fieldMeta = new FieldMeta(fields[i], columns[i], null,
+					(i == 1) ? Types.INTEGER : Types.VARCHAR, true, false, 0, 0, 0);
+			fieldMeta.setFieldType((i == 1) ? "java.lang.integer" : "java.lang.string");
+			fieldMeta.setPK(i == 2);
+			entityMeta.addFieldMeta(fieldMeta);
+		}
+		entityMeta.setIdArray(new String[] { "staffId" });
+		entityMeta.setRejectIdFieldArray(new String[] { "staffName", "status" });
+		entityMeta.setFieldsArray(fields);
+		return entityMeta;
+	}
 }
@@ -0,0 +1,107 @@
+package org.sagacity.sqltoy.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.SqlToyContext;
+import org.sagacity.sqltoy.config.model.PageOptimize;
+import org.sagacity.sqltoy.config.model.SqlToyConfig;
+import org.sagacity.sqltoy.dialect.utils.PageOptimizeUtils;
+import org.sagacity.sqltoy.plugins.page.PageCountKey;
+import org.sagacity.sqltoy.plugins.page.impl.DefaultPageCountCache;
+
+/**
+ * @TODO 分页优化总记录数缓存测试
+ * @author zhongxuchen
+ *
+ */
+public class PageCountCacheTest {
+	@Test
+	public void testOptimizeKey() {
+		String[] names = { "status", "orderIds" };
+		PageCountKey key = PageOptimizeUtils.generateOptimizeKey(names,
+				new Object[] { 1, new Object[] { "S001", "S002" } });
+		assertEquals(key, PageOptimizeUtils.generateOptimizeKey(names, new Object[] { "1", new String[] { "S001", "S002" } }));
+		assertNotEquals(key, PageOptimizeUtils.generateOptimizeKey(names, new Object[] { 1, new Object[] { "S001" } }));
+		assertNotEquals(key, PageOptimizeUtils.generateOptimizeKey(names, new Object[] { null, new Object[] { "S001", "S002" } }));
+		// 等价于对"name=value,..."字符串计算摘要
+		assertEquals(key, PageOptimizeUtils.toPageCountKey("status=1,orderIds=[S001,S002,]"));
+		assertEquals("status=1,orderIds=[S001,S002,]".length(), key.getLength());
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void testDeprecatedStringKey() {
+		SqlToyConfig sqlToyConfig = new SqlToyConfig("mysql");
+		sqlToyConfig.setId("sqltoy_legacy");
+		PageOptimize pageOptimize = new PageOptimize().aliveMax(100).aliveSeconds(60);
+		PageOptimizeUtils.registPageTotalCount(sqlToyConfig, pageOptimize, "status=1", 10L);
+		assertEquals(10L, PageOptimizeUtils.getPageTotalCount(sqlToyConfig, pageOptimize, "status=1"));
+		assertNull(PageOptimizeUtils.getPageTotalCount(sqlToyConfig, pageOptimize, "status=2"));
+		PageOptimizeUtils.remove("sqltoy_legacy");
+		assertNull(PageOptimizeUtils.getPageTotalCount(sqlToyConfig, pageOptimize, "status=1"));
+	}
+
+	@Test
+	public void testAliveMax() {
+		DefaultPageCountCache cache = new DefaultPageCountCache();
+		PageOptimize pageOptimize = new PageOptimize().aliveMax(100).aliveSeconds(60);
+		for (long i = 0; i < 1000; i++) {
+			cache.put("sqltoy_showcase", key(i), pageOptimize, i);
+			assertEquals(i, cache.get("sqltoy_showcase", key(i), pageOptimize));
+		}
+		int size = 0;
+		for (long i = 0; i < 1000; i++) {
+			if (cache.get("sqltoy_showcase", key(i), pageOptimize) != null) {
+				size++;
+			}
+		}
+		assertTrue(size <= 100);
+		// 最新登记的保留
+		assertEquals(999L, cache.get("sqltoy_showcase", key(999L), pageOptimize));
+		cache.remove("sqltoy_showcase");
+		assertNull(cache.get("sqltoy_showcase", key(999L), pageOptimize));
+	}
+
+	@Test
+	public void testHashCollision() {
+		DefaultPageCountCache cache = new DefaultPageCountCache();
+		PageOptimize pageOptimize = new PageOptimize().aliveMax(100).aliveSeconds(60);
+		// 第一个hash值相同但摘要其余部分不同,不能互相取到对方的总记录数
+		PageCountKey key = new PageCountKey(1L, 2L, 8);
+		PageCountKey collisionKey = new PageCountKey(1L, 3L, 8);
+		assertNotEquals(key, new PageCountKey(1L, 2L, 9));
+		cache.put("sqltoy_showcase", key, pageOptimize, 10L);
+		assertNull(cache.get("sqltoy_showcase", collisionKey, pageOptimize));
+		cache.put("sqltoy_showcase", collisionKey, pageOptimize, 20L);
+		assertEquals(10L, cache.get("sqltoy_showcase", new PageCountKey(1L, 2L, 8),
+				pageOptimize));
+		assertEquals(20L, cache.get("sqltoy_showcase", collisionKey, pageOptimize));
+	}
+
+	@Test
+	public void testContextIsolation() {
+		SqlToyContext context1 = new SqlToyContext();
+		context1.setPageCountCache(new DefaultPageCountCache());
+		SqlToyContext context2 = new SqlToyContext();
+		DefaultPageCountCache cache2 = new DefaultPageCountCache();
+		context2.setPageCountCache(cache2);
+		SqlToyConfig sqlToyConfig = new SqlToyConfig("mysql");
+		sqlToyConfig.setId("sqltoy_showcase");
+		PageOptimize pageOptimize = new PageOptimize().aliveMax(100).aliveSeconds(60);
+		PageCountKey key = key(1L);
+		PageOptimizeUtils.registPageTotalCount(context1, sqlToyConfig, pageOptimize, key, 10L);
+		assertEquals(10L, PageOptimizeUtils.getPageTotalCount(context1, sqlToyConfig, pageOptimize, key));
+		assertNull(PageOptimizeUtils.getPageTotalCount(context2, sqlToyConfig, pageOptimize, key));
+		// 一个context销毁不影响另一个context的缓存
+		cache2.destroy();
+		assertEquals(10L, PageOptimizeUtils.getPageTotalCount(context1, sqlToyConfig, pageOptimize, key));
+	}
+
+	private PageCountKey key(long id) {
+		return PageOptimizeUtils.generateOptimizeKey(new String[] { "id" }, new Object[] { id });
+	}
+}
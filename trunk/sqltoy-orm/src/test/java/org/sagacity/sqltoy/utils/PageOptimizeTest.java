@@ -2,6 +2,7 @@ package org.sagacity.sqltoy.utils;
 
 import org.sagacity.sqltoy.config.model.PageOptimize;
 import org.sagacity.sqltoy.config.model.SqlToyConfig;
+import org.sagacity.sqltoy.plugins.page.impl.DefaultPageCountCache;
 
 /**
  * @TODO 针对分页优化进行多线程模拟测试
@@ -17,9 +18,11 @@ public class PageOptimizeTest {
 		pageOptimize.aliveSeconds(60);
 		// 200个
 		pageOptimize.aliveMax(200);
+		DefaultPageCountCache pageCountCache = new DefaultPageCountCache();
+		pageCountCache.initialize(30);
 		// 模仿60个用户
 		for (int i = 0; i < 60; i++) {
-			PageOptimizeThread thread = new PageOptimizeThread(sqlToyConfig, pageOptimize,i);
+			PageOptimizeThread thread = new PageOptimizeThread(pageCountCache, sqlToyConfig, pageOptimize, i);
 			thread.start();
 		}
 
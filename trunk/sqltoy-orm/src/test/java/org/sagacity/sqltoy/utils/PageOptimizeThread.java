@@ -3,6 +3,8 @@ package org.sagacity.sqltoy.utils;
 import org.sagacity.sqltoy.config.model.PageOptimize;
 import org.sagacity.sqltoy.config.model.SqlToyConfig;
 import org.sagacity.sqltoy.dialect.utils.PageOptimizeUtils;
+import org.sagacity.sqltoy.plugins.page.PageCountCache;
+import org.sagacity.sqltoy.plugins.page.PageCountKey;
 
 /**
  * 模拟单个用户不停的组合查询
@@ -12,11 +14,14 @@ import org.sagacity.sqltoy.dialect.utils.PageOptimizeUtils;
  */
 public class PageOptimizeThread extends Thread {
 
+	private PageCountCache pageCountCache;
 	private SqlToyConfig sqlToyConfig;
 	private PageOptimize pageOptimize;
 	private int userId;
 
-	public PageOptimizeThread(SqlToyConfig sqlToyConfig, PageOptimize pageOptimize, int userId) {
+	public PageOptimizeThread(PageCountCache pageCountCache, SqlToyConfig sqlToyConfig, PageOptimize pageOptimize,
+			int userId) {
+		this.pageCountCache = pageCountCache;
 		this.sqlToyConfig = sqlToyConfig;
 		this.pageOptimize = pageOptimize;
 		this.userId = userId;
@@ -26,17 +31,18 @@ public class PageOptimizeThread extends Thread {
 	public void run() {
 		while (true) {
 			// 验证超量则需要随机记录>aliveMax,验证超时尽量将量控制在aliveMax边缘
-			String key = "key_" + NumberUtil.getRandomNum(1, 250);
+			PageCountKey key = PageOptimizeUtils.generateOptimizeKey(new String[] { "key" },
+					new Object[] { NumberUtil.getRandomNum(1, 250) });
 			try {
 				// 每次操作间隔在3~50秒之间
 				Thread.sleep(NumberUtil.getRandomNum(3, 25) * 1000);
 			} catch (InterruptedException e) {
 				e.printStackTrace();
 			}
-			Long count = PageOptimizeUtils.getPageTotalCount(sqlToyConfig, pageOptimize, key);
+			Long count = pageCountCache.get(sqlToyConfig.getIdOrSql(), key, pageOptimize);
 			// System.err.println("thread=" + index + " key=" + key + " count=" + count);
 			if (count == null) {
-				PageOptimizeUtils.registPageTotalCount(sqlToyConfig, pageOptimize, key, 500L);
+				pageCountCache.put(sqlToyConfig.getIdOrSql(), key, pageOptimize, 500L);
 			}
 		}
 	}
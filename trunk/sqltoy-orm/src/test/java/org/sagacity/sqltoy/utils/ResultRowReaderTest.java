@@ -0,0 +1,135 @@
+package org.sagacity.sqltoy.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.config.model.Translate;
+import org.sagacity.sqltoy.translate.cache.TranslateDictionary;
+
+/**
+ * @TODO 按列下标预编译的行读取测试(模拟ResultSet)
+ * @author zhongxuchen
+ *
+ */
+public class ResultRowReaderTest {
+	@Test
+	public void testReadRow() throws Exception {
+		// 第一列为分页附加的行号列
+		final String[] labels = { "ROW_NUM", "STAFF_ID", "SALARY", "SEX_TYPE", "REMARK" };
+		final String[] classNames = { "java.lang.Long", "java.lang.Long", "java.math.BigDecimal", "java.lang.String",
+				null };
+		final Object[][] rows = { { 1L, 100L, new BigDecimal("10.5"), "F", "a" }, { 2L, null, null, null, null } };
+		final int[] cursor = { -1 };
+		final boolean[] wasNull = { false };
+		final List<String> calls = new ArrayList<String>();
+		final ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+				ResultSetMetaData.class.getClassLoader(), new Class[] { ResultSetMetaData.class },
+				(proxy, method, args) -> {
+					if (method.getName().equals("getColumnClassName")) {
+						return classNames[(Integer) args[0] - 1];
+					}
+					return null;
+				});
+		ResultSet rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+				new Class[] { ResultSet.class }, (proxy, method, args) -> {
+					String name = method.getName();
+					if (name.equals("getMetaData")) {
+						return metaData;
+					}
+					if (name.equals("wasNull")) {
+						return wasNull[0];
+					}
+					if (name.startsWith("get")) {
+						calls.add(name + args[0]);
+						Object value = rows[cursor[0]][(Integer) args[0] - 1];
+						wasNull[0] = (value == null);
+						if (name.equals("getLong")) {
+							return (value == null) ? 0L : value;
+						}
+						return value;
+					}
+					return null;
+				});
+		HashMap<String, Translate> translateMap = new HashMap<String, Translate>();
+		// 按列下标定义的翻译
+		translateMap.put("2", new Translate("sexTypeCache").setColumn("SEX_TYPE"));
+		HashMap<String, TranslateDictionary> translateCache = new HashMap<String, TranslateDictionary>();
+		HashMap<String, Object[]> sexCache = new HashMap<String, Object[]>();
+		sexCache.put("F", new Object[] { "F", "女" });
+		translateCache.put("sex_type", TranslateDictionary.build(sexCache));
+		String[] labelNames = { "STAFF_ID", "SALARY", "SEX_TYPE", "REMARK" };
+		ResultRowReader reader = ResultRowReader.compile(rs, labelNames, 1, null, translateMap, translateCache);
+		cursor[0] = 0;
+		List row = reader.readRow(rs, true);
+		assertEquals("[100, 10.5, 女, a]", row.toString());
+		assertEquals("[getLong2, getBigDecimal3, getString4, getObject5]", calls.toString());
+		cursor[0] = 1;
+		// 全部为null的行忽略
+		assertNull(reader.readRow(rs, true));
+		assertEquals("[null, null, null, null]", reader.readRow(rs, false).toString());
+	}
+
+	@Test
+	public void testTranslateColumns() throws Exception {
+		final Object[][] rows = { { "S1", "F" }, { "S2", "M" }, { "S3", "F" }, { "S4", null }, { "S5", "X" } };
+		final int[] cursor = { -1 };
+		final ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+				ResultSetMetaData.class.getClassLoader(), new Class[] { ResultSetMetaData.class },
+				(proxy, method, args) -> null);
+		ResultSet rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+				new Class[] { ResultSet.class }, (proxy, method, args) -> {
+					if (method.getName().equals("getMetaData")) {
+						return metaData;
+					}
+					if (method.getName().equals("getObject")) {
+						return rows[cursor[0]][(Integer) args[0] - 1];
+					}
+					return null;
+				});
+		HashMap<String, Translate> translateMap = new HashMap<String, Translate>();
+		translateMap.put("sex_type", new Translate("sexTypeCache").setColumn("SEX_TYPE"));
+		HashMap<String, TranslateDictionary> translateCache = new HashMap<String, TranslateDictionary>();
+		HashMap<String, Object[]> sexCache = new HashMap<String, Object[]>();
+		sexCache.put("F", new Object[] { "F", "女" });
+		sexCache.put("M", new Object[] { "M", "男" });
+		translateCache.put("sex_type", TranslateDictionary.build(sexCache));
+		ResultRowReader reader = ResultRowReader.compile(rs, new String[] { "STAFF_ID", "SEX_TYPE" }, 0, null,
+				translateMap, translateCache);
+		assertTrue(reader.deferTranslate());
+		List<List> result = new ArrayList<List>();
+		for (int i = 0; i < rows.length; i++) {
+			cursor[0] = i;
+			result.add(reader.readRow(rs, true));
+		}
+		// 读取时不翻译
+		assertEquals("F", result.get(0).get(1));
+		List<List> parallelResult = new ArrayList<List>();
+		for (List row : result) {
+			parallelResult.add(new ArrayList(row));
+		}
+		reader.translateColumns(result, 0);
+		reader.translateColumns(parallelResult, 1);
+		// 与逐行翻译结果一致
+		ResultRowReader rowReader = ResultRowReader.compile(rs, new String[] { "STAFF_ID", "SEX_TYPE" }, 0, null,
+				translateMap, translateCache);
+		List<List> rowResult = new ArrayList<List>();
+		for (int i = 0; i < rows.length; i++) {
+			cursor[0] = i;
+			rowResult.add(rowReader.readRow(rs, true));
+		}
+		String expected = rowResult.toString();
+		assertEquals("[S1, 女]", rowResult.get(0).toString());
+		assertEquals(expected, result.toString());
+		assertEquals(expected, parallelResult.toString());
+	}
+}
@@ -1,12 +1,21 @@
 package org.sagacity.sqltoy.utils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.SqlToyConstants;
 import org.sagacity.sqltoy.config.model.EntityMeta;
 import org.sagacity.sqltoy.config.model.FieldMeta;
+import org.sagacity.sqltoy.utils.DataSourceUtils.DBType;
 
 public class SqlUtilTest {
 
@@ -63,4 +72,73 @@ public class SqlUtilTest {
 	}
 	
 	
+
+	@Test
+	public void testBatchInsertByMultiValues() throws Exception {
+		HashMap<String, String> props = new HashMap<String, String>();
+		props.put("sqltoy.save.multi.values.dialects", "mysql,postgresql");
+		// 2列,每条语句最多2行
+		props.put("sqltoy.save.multi.values.max.params.mysql", "4");
+		// 记录原值,测试结束后恢复,避免影响其他测试
+		HashMap<String, String> snapshot = new HashMap<String, String>();
+		for (String key : props.keySet()) {
+			snapshot.put(key, SqlToyConstants.getKeyValue(key));
+		}
+		try {
+			SqlToyConstants.loadProperties(props);
+			doBatchInsertByMultiValues();
+		} finally {
+			SqlToyConstants.loadProperties(snapshot);
+		}
+	}
+
+	private void doBatchInsertByMultiValues() throws Exception {
+		assertTrue(SqlUtilsExt.isMultiValuesInsert(DBType.MYSQL57));
+		assertTrue(SqlUtilsExt.isMultiValuesInsert(DBType.POSTGRESQL));
+		assertFalse(SqlUtilsExt.isMultiValuesInsert(DBType.ORACLE));
+		List<String> sqls = new ArrayList<String>();
+		List<String> executes = new ArrayList<String>();
+		int[] paramCount = { 0 };
+		Connection conn = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class[] { Connection.class }, (proxy, method, args) -> {
+					if (method.getName().equals("prepareStatement")) {
+						sqls.add((String) args[0]);
+						return Proxy.newProxyInstance(getClass().getClassLoader(),
+								new Class[] { PreparedStatement.class }, (pst, pstMethod, pstArgs) -> {
+									String name = pstMethod.getName();
+									if (name.startsWith("set")) {
+										paramCount[0]++;
+										return null;
+									}
+									if (name.equals("executeBatch")) {
+										executes.add(name);
+										return new int[] { 2, 2 };
+									}
+									if (name.equals("executeUpdate")) {
+										executes.add(name);
+										return 1;
+									}
+									return null;
+								});
+					}
+					if (method.getName().equals("getAutoCommit")) {
+						return true;
+					}
+					return null;
+				});
+		List<Object[]> rows = new ArrayList<Object[]>();
+		for (int i = 0; i < 5; i++) {
+			rows.add(new Object[] { "S" + i, null });
+		}
+		Long result = SqlUtilsExt.batchInsertByMultiValues(null,
+				"insert into staff_info (staff_id,staff_name)  values (?,ifnull(?,'a'))", rows, null,
+				new String[] { null, "a" }, new Boolean[] { false, false }, 100, null, conn, DBType.MYSQL);
+		assertEquals(5L, result);
+		assertEquals(2, sqls.size());
+		assertEquals("insert into staff_info (staff_id,staff_name)  values (?,ifnull(?,'a')),(?,ifnull(?,'a'))",
+				sqls.get(0));
+		assertEquals("insert into staff_info (staff_id,staff_name)  values (?,ifnull(?,'a'))", sqls.get(1));
+		assertEquals(10, paramCount[0]);
+		assertEquals("[executeBatch, executeUpdate]", executes.toString());
+	}
 }
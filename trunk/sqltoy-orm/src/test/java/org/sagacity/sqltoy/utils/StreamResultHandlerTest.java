@@ -0,0 +1,70 @@
+package org.sagacity.sqltoy.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.sagacity.sqltoy.SqlToyContext;
+import org.sagacity.sqltoy.config.model.SqlToyConfig;
+import org.sagacity.sqltoy.model.QueryExecutor;
+
+/**
+ * @TODO 流式查询行处理测试(模拟ResultSet)
+ * @author zhongxuchen
+ *
+ */
+public class StreamResultHandlerTest {
+	@Test
+	public void testStreamToMap() throws Exception {
+		final String[] labels = { "STAFF_ID", "STAFF_NAME" };
+		final int total = 1005;
+		final int[] cursor = { -1 };
+		final ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+				ResultSetMetaData.class.getClassLoader(), new Class[] { ResultSetMetaData.class },
+				(proxy, method, args) -> {
+					if (method.getName().equals("getColumnCount")) {
+						return labels.length;
+					}
+					if (method.getName().equals("getColumnLabel")) {
+						return labels[(Integer) args[0] - 1];
+					}
+					return null;
+				});
+		ResultSet rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+				new Class[] { ResultSet.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "next":
+						return ++cursor[0] < total;
+					case "getMetaData":
+						return metaData;
+					case "getObject":
+						// 按列下标取值
+						return args[0].equals(1) ? "S" + cursor[0] : "name" + cursor[0];
+					default:
+						return null;
+					}
+				});
+		SqlToyContext sqlToyContext = new SqlToyContext();
+		SqlToyConfig sqlToyConfig = new SqlToyConfig("mysql");
+		QueryExecutor queryExecutor = new QueryExecutor("select * from sys_staff").resultType(HashMap.class);
+		final List<Map> result = new ArrayList<Map>();
+		StreamResultHandler<Map> handler = new StreamResultHandler<Map>(sqlToyContext, sqlToyConfig,
+				queryExecutor.getInnerModel(), null, 100, (row) -> result.add(row));
+		int index = 0;
+		while (rs.next()) {
+			handler.processRow(rs, index++);
+			// 批次内的记录尚未推送
+			assertEquals(result.size(), (index / 100) * 100);
+		}
+		handler.flush();
+		assertEquals(total, handler.getCount());
+		assertEquals("name1004", result.get(1004).get("staffName"));
+	}
+}